@@ -0,0 +1,37 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.admission")
+public class AdmissionProperties {
+
+    // Reserve each envelope's estimated peak memory from a shared budget before its documents are encoded
+    private boolean enabled = false;
+
+    // Shared budget in bytes; 0 = maxHeapFraction of the maximum heap
+    private long budgetBytes = 0;
+    private double maxHeapFraction = 0.5;
+
+    // Copies of each document's raw bytes made while preparing it (trimmed or optimized PDF)
+    private double rawCopies = 1.0;
+
+    // Copies of each document's base64 text alive at the peak: encoded String, XmlBeans tree,
+    // signed XML String and the request body
+    private double encodedCopies = 4.0;
+
+    // Of those, the copies made again by each request over a shared payload (signed XML String and body)
+    private double requestCopies = 2.0;
+
+    // Added per envelope for receivers, XML nodes and the signature
+    private long envelopeOverheadBytes = 1024 * 1024;
+
+    // Longest an envelope may wait for budget before it is rejected (0 = reject unless it fits at once)
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    // Envelopes waiting for budget; further ones are rejected at once
+    private int maxQueued = 100;
+}
@@ -0,0 +1,27 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.artifact-cache")
+public class ArtifactCacheProperties {
+
+    // Keep getCertificate / getSignedBinary responses locally; they never change once issued
+    private boolean enabled = false;
+    private String directory = "data/logalty-artifacts";
+
+    // Least recently used entries are evicted once the store exceeds this size (bytes)
+    private long maxDiskBytes = 2L * 1024 * 1024 * 1024;
+
+    // In-memory tier for hot entries (0 = disabled); larger entries are only kept on disk
+    private long memoryMaxBytes = 64L * 1024 * 1024;
+    private long memoryMaxEntryBytes = 8L * 1024 * 1024;
+
+    // Only responses whose state element holds one of these values are stored; the others may still change
+    private String stateElement = "state";
+    private List<String> finalStates = new ArrayList<>(List.of("COMPLETED", "SIGNED", "CANCELLED", "VOIDED", "EXPIRED"));
+}
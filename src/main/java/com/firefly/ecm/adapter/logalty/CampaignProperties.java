@@ -0,0 +1,17 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.campaign")
+public class CampaignProperties {
+
+    // initSignature calls in flight per campaign; also bounds the request XML held in memory
+    private int concurrency = 8;
+
+    // Progress is reported at most this often, and once when the campaign ends
+    private Duration progressInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,33 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.expiry")
+public class ExpiryProperties {
+
+    // When enabled, envelopes past their business deadline are cancelled in Logalty on a schedule
+    private boolean enabled = false;
+    // Spring cron expression of the sweep, nightly by default
+    private String cron = "0 0 2 * * *";
+
+    // initCancel calls in flight; the CANCEL rate limit still applies on top
+    private int concurrency = 8;
+    // Stale envelopes fetched from the StaleEnvelopeSource per page
+    private int pageSize = 500;
+    // Cancellations per sweep, 0 for no limit; the rest is picked up by the next sweep
+    private long maxCancellationsPerSweep = 0;
+
+    // The checkpoint of a running sweep; a sweep interrupted by a crash resumes from it on startup
+    private String checkpointDirectory = "data/logalty-expiry";
+    private int checkpointEvery = 100;
+
+    // Reason recorded with Logalty for every cancellation
+    private String reason = "Expired";
+    // Cancel response codes meaning the process was already closed; treated as done, not failed
+    private List<String> alreadyCancelledCodes = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.flight-recorder")
+public class FlightRecorderProperties {
+
+    // Keep redacted snapshots of recent SOAP exchanges in memory for diagnostics
+    private boolean enabled = true;
+
+    // Ring buffer size per operation
+    private int exchangesPerOperation = 20;
+
+    // Request and response snapshots are cut to this many characters
+    private int snapshotChars = 2048;
+
+    // Calls slower than this are also kept in a separate ring buffer
+    private Duration slowThreshold = Duration.ofSeconds(5);
+    private int slowExchanges = 50;
+}
@@ -0,0 +1,39 @@
+package com.firefly.ecm.adapter.logalty;
+
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.hedge")
+public class HedgeProperties {
+
+    // Send a second request for a slow idempotent read; the first response wins, the other is cancelled
+    private boolean enabled = false;
+
+    // Reads that may be hedged; only add operations that are safe to send twice
+    private Set<LogaltyOperation> operations = EnumSet.of(
+            LogaltyOperation.GET_STATUS,
+            LogaltyOperation.GET_CERTIFICATE,
+            LogaltyOperation.GET_ENVELOPE,
+            LogaltyOperation.GET_SIGNING_URL);
+
+    // Wait before hedging; used until the operation has minSamples latencies when percentile is set
+    private Duration delay = Duration.ofSeconds(1);
+
+    // Hedge after this percentile of recent latencies of the operation (0 = always wait delay)
+    private double percentile = 0.95;
+    // Latencies kept per operation, and needed before the percentile is trusted
+    private int window = 500;
+    private int minSamples = 50;
+    // Lower bound of the percentile delay, so a fast spell does not hedge every request
+    private Duration minDelay = Duration.ofMillis(50);
+
+    // Every request earns budgetRatio hedges, up to budgetBurst saved; a hedge spends one
+    private double budgetRatio = 0.1;
+    private int budgetBurst = 10;
+}
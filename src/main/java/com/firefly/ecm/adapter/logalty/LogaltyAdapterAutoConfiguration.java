@@ -4,20 +4,32 @@
 package com.firefly.ecm.adapter.logalty;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firefly.ecm.adapter.logalty.aot.LogaltyRuntimeHints;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.exceptions.MemoryAdmissionException;
+import com.firefly.ecm.adapter.logalty.reload.ReloadableTrustManager;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
+import com.firefly.ecm.adapter.logalty.transport.SdkLogaltyTransport;
+import com.firefly.ecm.adapter.logalty.transport.SoapHttpTransport;
 import com.logalty.interfaces.XmlSignInterface;
 import com.logalty.sdk.sign.XmlSigner;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http11SslContextSpec;
 import reactor.netty.http.client.HttpClient;
 
 import java.time.Duration;
@@ -32,6 +44,9 @@ import java.time.Duration;
  *   <li>CircuitBreaker for fault tolerance</li>
  *   <li>Retry mechanism for transient failures</li>
  *   <li>ObjectMapper for JSON serialization</li>
+ *   <li>The SOAP transport (Logalty SDK, or plain SOAP over HTTP to a configured endpoint)</li>
+ *   <li>A fallback MeterRegistry when the application does not provide one</li>
+ *   <li>Native-image hints for XmlBeans, the Logalty SDK and BouncyCastle ({@link LogaltyRuntimeHints})</li>
  * </ul>
  *
  * <p>The adapter is only activated when {@code firefly.ecm.esignature.provider=logalty}
@@ -42,9 +57,31 @@ import java.time.Duration;
  * @since 1.0
  */
 @Slf4j
-@AutoConfiguration
-@EnableConfigurationProperties({LogaltyAdapterProperties.class, SignatureProperties.class})
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@EnableConfigurationProperties({
+    LogaltyAdapterProperties.class,
+    SignatureProperties.class,
+    OutboxProperties.class,
+    RateLimitProperties.class,
+    TenantProperties.class,
+    ReloadProperties.class,
+    TransportProperties.class,
+    FlightRecorderProperties.class,
+    PreparationProperties.class,
+    PreflightProperties.class,
+    CampaignProperties.class,
+    ArtifactCacheProperties.class,
+    StatusCacheProperties.class,
+    ExpiryProperties.class,
+    ReconciliationProperties.class,
+    WarmupProperties.class,
+    ValidationProperties.class,
+    AdmissionProperties.class,
+    StatusEventsProperties.class,
+    HedgeProperties.class
+})
 @ComponentScan(basePackages = "com.firefly.ecm.adapter.logalty")
+@ImportRuntimeHints(LogaltyRuntimeHints.class)
 @ConditionalOnProperty(name = "firefly.ecm.esignature.provider", havingValue = "logalty")
 public class LogaltyAdapterAutoConfiguration {
 
@@ -52,13 +89,14 @@ public class LogaltyAdapterAutoConfiguration {
      * Configures the WebClient for Logalty API communication.
      *
      * @param properties the Logalty adapter properties
+     * @param trustManager trust material of the HTTPS connections, replaced on trust store reload
      * @return configured WebClient instance
      */
     @Bean
-    public WebClient logaltyWebClient(LogaltyAdapterProperties properties) {
+    public WebClient logaltyWebClient(LogaltyAdapterProperties properties, ReloadableTrustManager trustManager) {
         log.info("Configuring Logalty WebClient with base URL: {}", properties.getBaseUrl());
 
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = secured(HttpClient.create(), trustManager)
             .responseTimeout(properties.getReadTimeout())
             .doOnConnected(conn -> {
                 log.debug("Logalty HTTP connection established");
@@ -70,6 +108,19 @@ public class LogaltyAdapterAutoConfiguration {
             .build();
     }
 
+    /**
+     * Provides the trust manager of the adapter's HTTPS clients. It starts with the JVM's
+     * default trust material; {@link com.firefly.ecm.adapter.logalty.reload.CertificateReloader}
+     * replaces it when the trust store changes.
+     *
+     * @return the ReloadableTrustManager instance
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReloadableTrustManager logaltyTrustManager() {
+        return new ReloadableTrustManager();
+    }
+
     /**
      * Configures the CircuitBreaker for Logalty API calls.
      *
@@ -86,6 +137,8 @@ public class LogaltyAdapterAutoConfiguration {
             .slidingWindowSize(10)
             .permittedNumberOfCallsInHalfOpenState(3)
             .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            // Rejected locally, Logalty was never called
+            .ignoreExceptions(LogaltyRateLimitException.class, MemoryAdmissionException.class)
             .build();
 
         CircuitBreaker circuitBreaker = CircuitBreaker.of("logalty", config);
@@ -143,6 +196,18 @@ public class LogaltyAdapterAutoConfiguration {
             .findAndRegisterModules();
     }
 
+    /**
+     * Provides the MeterRegistry used by the adapter's metrics when the application has none
+     * (e.g. Actuator is not on the classpath). Meters then go to Micrometer's global registry.
+     *
+     * @return the global MeterRegistry
+     */
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public MeterRegistry logaltyMeterRegistry() {
+        return Metrics.globalRegistry;
+    }
+
     /**
      * Provides a singleton XmlSignInterface (XmlSigner) bean to avoid creating
      * a new signer instance for every request.
@@ -157,4 +222,30 @@ public class LogaltyAdapterAutoConfiguration {
             signatureProperties.getCertPin().toCharArray()
         );
     }
+
+    /**
+     * Provides the transport for SOAP operations. Uses the Logalty SDK sender unless
+     * {@code transport.endpoint} is set, e.g. to point the adapter at a local stand-in.
+     *
+     * @param transportProperties transport configuration
+     * @param trustManager trust material of the HTTPS connections, replaced on trust store reload
+     * @return the LogaltyTransport implementation
+     */
+    @Bean
+    @ConditionalOnMissingBean(LogaltyTransport.class)
+    public LogaltyTransport logaltyTransport(TransportProperties transportProperties, ReloadableTrustManager trustManager) {
+        if (transportProperties.getEndpoint() != null && !transportProperties.getEndpoint().isBlank()) {
+            log.info("Configuring Logalty SOAP transport against endpoint: {}", transportProperties.getEndpoint());
+            return new SoapHttpTransport(transportProperties, secured(HttpClient.create(), trustManager));
+        }
+        return new SdkLogaltyTransport();
+    }
+
+    /**
+     * HTTPS connections of {@code httpClient} verify servers with {@code trustManager}.
+     */
+    private static HttpClient secured(HttpClient httpClient, ReloadableTrustManager trustManager) {
+        return httpClient.secure(spec -> spec.sslContext(
+            Http11SslContextSpec.forClient().configure(builder -> builder.trustManager(trustManager))));
+    }
 }
@@ -14,14 +14,29 @@ import com.firefly.core.ecm.domain.model.esignature.SignatureRequest;
 import com.firefly.core.ecm.port.document.DocumentContentPort;
 import com.firefly.core.ecm.port.document.DocumentPort;
 import com.firefly.core.ecm.port.esignature.SignatureEnvelopePort;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
 import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.expiry.StaleEnvelope;
+import com.firefly.ecm.adapter.logalty.expiry.StaleEnvelopeSource;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.jfr.LogaltyEvents;
 import com.firefly.ecm.adapter.logalty.mappers.SignatureMapper;
+import com.firefly.ecm.adapter.logalty.outbox.SignatureOutbox;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
 import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantTokenCache;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.reactor.retry.RetryOperator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpHeaders;
@@ -30,8 +45,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.nio.file.Files;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -79,6 +94,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 @ConditionalOnProperty(name = "firefly.ecm.esignature.provider", havingValue = "logalty")
 public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
 
+    // Envelopes read from the StaleEnvelopeSource per page by getExpiringEnvelopes
+    private static final int EXPIRING_PAGE_SIZE = 500;
+
     private final WebClient webClient;
     private final LogaltyAdapterProperties properties;
     private final ObjectMapper objectMapper;
@@ -87,14 +105,19 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
     private final CircuitBreaker circuitBreaker;
     private final Retry retry;
     private final SignatureService signatureService;
+    private final SignatureOutbox outbox;
+    private final LogaltyRateLimiter rateLimiter;
+    private final TenantTokenCache tokenCache;
+    private final MemoryAdmission admission;
+    private final EnvelopeStatusEvents statusEvents;
+    private final RequestHedger hedger;
+    private final StaleEnvelopeSource staleEnvelopes;
 
     // In-memory mappings (replace with persistent storage in production)
     private final Map<UUID, String> envelopeIdMapping = new ConcurrentHashMap<>();
     private final Map<String, UUID> externalIdMapping = new ConcurrentHashMap<>();
 
-    private volatile String accessToken;
-    private volatile Instant tokenExpiresAt;
-
+    @Autowired
     public LogaltySignatureEnvelopeAdapter(WebClient webClient,
                                          LogaltyAdapterProperties properties,
                                          ObjectMapper objectMapper,
@@ -102,7 +125,14 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                                          DocumentPort documentPort,
                                          @Qualifier("logaltyCircuitBreaker") CircuitBreaker circuitBreaker,
                                          @Qualifier("logaltyRetry") Retry retry,
-                                         SignatureService signatureService) {
+                                         SignatureService signatureService,
+                                         ObjectProvider<SignatureOutbox> outbox,
+                                         LogaltyRateLimiter rateLimiter,
+                                         TenantTokenCache tokenCache,
+                                         MemoryAdmission admission,
+                                         EnvelopeStatusEvents statusEvents,
+                                         RequestHedger hedger,
+                                         ObjectProvider<StaleEnvelopeSource> staleEnvelopes) {
         this.webClient = webClient;
         this.properties = properties;
         this.objectMapper = objectMapper;
@@ -111,18 +141,29 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
         this.circuitBreaker = circuitBreaker;
         this.retry = retry;
         this.signatureService = signatureService;
+        this.outbox = outbox.getIfAvailable();
+        this.rateLimiter = rateLimiter;
+        this.tokenCache = tokenCache;
+        this.admission = admission;
+        this.statusEvents = statusEvents;
+        this.hedger = hedger;
+        this.staleEnvelopes = staleEnvelopes.getIfAvailable();
         
         log.info("Logalty eSignature adapter initialized with base URL: {}", properties.getBaseUrl());
     }
 
+    /**
+     * Sends the envelope to Logalty for signature, signed with the certificate of the tenant
+     * found in the Reactor context (see {@link TenantContext}).
+     */
     public Mono<SignatureEnvelope> sendToSign(SignatureEnvelope envelope) {
 
         BinaryContentsDTO binary = new BinaryContentsDTO();
         binary.setBinaryContentId(1);
         binary.setGroupId(1);
         try {
-            byte[] bytes = Files.readAllBytes(java.nio.file.Paths.get("src/main/resources/pdf/original.pdf"));
-            binary.setContents(bytes);
+            // Mapped rather than read, so the PDF is not copied onto the heap before encoding
+            binary.setSource(ContentSources.mapped(java.nio.file.Paths.get("src/main/resources/pdf/original.pdf")));
         } catch (java.io.IOException e) {
             log.error("Unable to load binary contents from file", e);
             throw new RuntimeException("Unable to load binary contents from file: src/main/resources/pdf/original.pdf", e);
@@ -132,16 +173,40 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
         binary.setExtension("pdf");
         binary.setType("application/pdf");
 
-        return Mono.fromCallable(() ->
-                signatureService.initSignature(SignatureMapper.toReceiverDTOs(envelope.getSignatureRequests()), List.of(binary))
-            )
+        if (outbox != null) {
+            // Durable path: acknowledge once persisted locally, the outbox dispatcher calls Logalty.
+            // The envelope stays a draft until the dispatcher publishes it as sent.
+            return TenantContext.currentTenant()
+                .flatMap(tenant -> outbox.enqueue(
+                    tenant,
+                    envelope.getId(),
+                    SignatureMapper.toReceiverDTOs(envelope.getSignatureRequests()),
+                    List.of(binary)
+                ))
+                .map(outboxId -> envelope.toBuilder()
+                    .provider(SignatureProvider.LOGALTY)
+                    .status(EnvelopeStatus.DRAFT)
+                    .build()
+                )
+                .flatMap(queued -> observed(queued, EnvelopeStatusChanged.Source.OPERATION))
+                .doFinally(signal -> ContentSources.release(List.of(binary)))
+                .doOnError(e -> log.error("Failed to queue envelope for Logalty: {}", e.getMessage(), e));
+        }
+
+        // Admission and the permit are taken before the breaker, which only sees the Logalty call;
+        // the envelope stays admitted across retries and each attempt takes its own permit
+        return TenantContext.currentTenant()
+            .flatMap(tenant -> admission.admit(admission.estimate(List.of(binary)),
+                limited(LogaltyOperation.INIT_SIGNATURE, Mono.fromCallable(() -> LogaltyEvents.forEnvelope(envelope.getId(), () ->
+                    signatureService.initSignature(tenant, SignatureMapper.toReceiverDTOs(envelope.getSignatureRequests()), List.of(binary))
+                )).subscribeOn(Schedulers.boundedElastic()))
+                .transformDeferred(RetryOperator.of(retry))))
             .map(result -> envelope.toBuilder()
                 .provider(SignatureProvider.LOGALTY)
                 .status(EnvelopeStatus.SENT)
                 .build()
             )
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-            .transformDeferred(RetryOperator.of(retry))
+            .doFinally(signal -> ContentSources.release(List.of(binary)))
             .doOnError(e -> log.error("Failed to send envelope to sign via Logalty: {}", e.getMessage(), e));
     }
 
@@ -153,13 +218,13 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
         
         return ensureValidAccessToken()
             .flatMap(token -> buildSignatureRequest(envelope)
-                .flatMap(request -> webClient.post()
+                .flatMap(request -> limited(LogaltyOperation.CREATE_ENVELOPE, webClient.post()
                     .uri("/api/{apiVersion}/signature-requests", properties.getApiVersion())
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .contentType(MediaType.APPLICATION_JSON)
                     .bodyValue(request)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class))
                 )
                 .map(response -> {
                     String logaltyRequestId = response.get("id").asText();
@@ -179,7 +244,6 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                         .build();
                 })
             )
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry))
             .doOnError(error -> log.error("Failed to create Logalty envelope: {}", error.getMessage(), error));
     }
@@ -187,7 +251,15 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
     @Override
     public Mono<SignatureEnvelope> getEnvelope(UUID envelopeId) {
         log.debug("Retrieving Logalty signature envelope: {}", envelopeId);
-        
+
+        return readEnvelope(envelopeId)
+            .flatMap(envelope -> observed(envelope, EnvelopeStatusChanged.Source.SYNC));
+    }
+
+    /**
+     * Reads the envelope from Logalty without reporting its status.
+     */
+    private Mono<SignatureEnvelope> readEnvelope(UUID envelopeId) {
         return ensureValidAccessToken()
             .flatMap(token -> {
                 String logaltyRequestId = envelopeIdMapping.get(envelopeId);
@@ -195,15 +267,15 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                     return Mono.error(new RuntimeException("Envelope not found: " + envelopeId));
                 }
                 
-                return webClient.get()
+                // The hedger takes the permit of each attempt, outside the breaker
+                return hedger.hedge(LogaltyOperation.GET_ENVELOPE, guarded(webClient.get()
                     .uri("/api/{apiVersion}/signature-requests/{id}", 
                          properties.getApiVersion(), logaltyRequestId)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class)))
                     .map(node -> mapResponseToEnvelope(node, envelopeId, logaltyRequestId));
             })
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry))
             .doOnError(error -> log.error("Failed to retrieve Logalty envelope {}: {}", 
                                          envelopeId, error.getMessage(), error));
@@ -221,6 +293,7 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
         log.debug("Deleting Logalty signature envelope: {}", envelopeId);
         // Placeholder: implement delete logic
         envelopeIdMapping.remove(envelopeId);
+        statusEvents.forget(envelopeId);
         return Mono.empty();
     }
 
@@ -235,23 +308,34 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                     return Mono.error(new RuntimeException("Envelope not found: " + envelopeId));
                 }
                 
-                return webClient.post()
+                return limited(LogaltyOperation.SEND_ENVELOPE, webClient.post()
                     .uri("/api/{apiVersion}/signature-requests/{id}/send",
                          properties.getApiVersion(), logaltyRequestId)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class))
                     .flatMap(response -> getEnvelope(envelopeId));
             })
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry));
     }
 
     @Override
     public Mono<SignatureEnvelope> voidEnvelope(UUID envelopeId, String voidReason, UUID voidedBy) {
         log.debug("Voiding Logalty signature envelope: {} with reason: {}", envelopeId, voidReason);
-        // Placeholder: implement void logic
-        return getEnvelope(envelopeId);
+
+        // The envelope is read before the cancel, so a voided envelope is returned with all its fields
+        return readEnvelope(envelopeId)
+            .flatMap(envelope -> TenantContext.currentTenant()
+                .flatMap(tenant -> limited(LogaltyOperation.CANCEL,
+                    Mono.fromCallable(() -> signatureService.initCancel(tenant, envelope.getExternalEnvelopeId(), voidReason))
+                        .subscribeOn(Schedulers.boundedElastic())))
+                .transformDeferred(RetryOperator.of(retry))
+                .thenReturn(envelope.toBuilder()
+                    .status(EnvelopeStatus.VOIDED)
+                    .build()))
+            .flatMap(envelope -> observed(envelope, EnvelopeStatusChanged.Source.OPERATION))
+            .doOnError(error -> log.error("Failed to void Logalty envelope {}: {}",
+                                         envelopeId, error.getMessage(), error));
     }
 
     @Override
@@ -285,8 +369,27 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
     @Override
     public Flux<SignatureEnvelope> getExpiringEnvelopes(Instant fromTime, Instant toTime) {
         log.debug("Retrieving Logalty envelopes expiring between {} and {}", fromTime, toTime);
-        // Placeholder: implement query logic
-        return Flux.empty();
+        if (staleEnvelopes == null) {
+            log.debug("No StaleEnvelopeSource bean; no envelope deadlines are known");
+            return Flux.empty();
+        }
+        return TenantContext.currentTenant()
+            .flatMapMany(tenant -> expiringPage(fromTime, toTime, null)
+                .expand(page -> page.size() < EXPIRING_PAGE_SIZE
+                    ? Mono.empty()
+                    : expiringPage(fromTime, toTime, page.get(page.size() - 1).cursor()))
+                .flatMapIterable(page -> page)
+                .filter(envelope -> tenant.equals(envelope.tenantId() != null ? envelope.tenantId() : TenantContext.DEFAULT_TENANT)))
+            .map(envelope -> SignatureEnvelope.builder()
+                .id(envelope.envelopeId())
+                .provider(SignatureProvider.LOGALTY)
+                .status(EnvelopeStatus.SENT)
+                .externalEnvelopeId(envelope.externalId())
+                .build());
+    }
+
+    private Mono<List<StaleEnvelope>> expiringPage(Instant fromTime, Instant toTime, String afterCursor) {
+        return Mono.defer(() -> staleEnvelopes.findExpiring(fromTime, toTime, afterCursor, EXPIRING_PAGE_SIZE).collectList());
     }
 
     @Override
@@ -331,15 +434,14 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                 }
                 
                 // Placeholder: construct signing URL from Logalty API
-                return webClient.get()
+                return hedger.hedge(LogaltyOperation.GET_SIGNING_URL, guarded(webClient.get()
                     .uri("/api/{apiVersion}/signature-requests/{id}/signing-url?email={email}",
                          properties.getApiVersion(), logaltyRequestId, signerEmail)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class)))
                     .map(response -> response.path("signingUrl").asText());
             })
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry));
     }
 
@@ -354,14 +456,13 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                     return Mono.error(new RuntimeException("Envelope not found: " + envelopeId));
                 }
                 
-                return webClient.post()
+                return limited(LogaltyOperation.RESEND_ENVELOPE, webClient.post()
                     .uri("/api/{apiVersion}/signature-requests/{id}/resend",
                          properties.getApiVersion(), logaltyRequestId)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(Void.class);
+                    .bodyToMono(Void.class));
             })
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry));
     }
 
@@ -376,47 +477,79 @@ public class LogaltySignatureEnvelopeAdapter implements SignatureEnvelopePort {
                     return Mono.error(new RuntimeException("Envelope not found: " + envelopeId));
                 }
                 
-                return webClient.post()
+                return limited(LogaltyOperation.ARCHIVE_ENVELOPE, webClient.post()
                     .uri("/api/{apiVersion}/signature-requests/{id}/archive",
                          properties.getApiVersion(), logaltyRequestId)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class))
                     .flatMap(response -> getEnvelope(envelopeId));
             })
-            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
             .transformDeferred(RetryOperator.of(retry));
     }
 
     /**
-     * Ensures a valid OAuth access token is available.
+     * Ensures a valid OAuth access token is available for the tenant in the Reactor context.
      * Refreshes the token if expired or not present.
      */
     private Mono<String> ensureValidAccessToken() {
-        if (accessToken != null && tokenExpiresAt != null && 
-            Instant.now().isBefore(tokenExpiresAt.minusSeconds(60))) {
-            return Mono.just(accessToken);
-        }
-        
-        log.debug("Refreshing Logalty access token");
-        
-        return webClient.post()
-            .uri("/oauth/token")
-            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-            .bodyValue("grant_type=client_credentials" +
-                       "&client_id=" + properties.getClientId() +
-                       "&client_secret=" + properties.getClientSecret())
-            .retrieve()
-            .bodyToMono(JsonNode.class)
-            .map(response -> {
-                this.accessToken = response.get("access_token").asText();
-                long expiresIn = response.path("expires_in").asLong(properties.getTokenExpiration());
-                this.tokenExpiresAt = Instant.now().plusSeconds(expiresIn);
-                
-                log.debug("Logalty access token refreshed, expires at: {}", tokenExpiresAt);
-                
-                return this.accessToken;
-            });
+        return TenantContext.currentTenant().flatMap(tenant -> {
+            String cached = tokenCache.validToken(tenant);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            log.debug("Refreshing Logalty access token for tenant '{}'", tenant);
+            TenantTokenCache.Credentials credentials = tokenCache.credentialsFor(tenant);
+
+            return rateLimiter.acquire(LogaltyOperation.OAUTH_TOKEN, tenant).then(webClient.post()
+                .uri("/oauth/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .bodyValue("grant_type=client_credentials" +
+                           "&client_id=" + credentials.clientId() +
+                           "&client_secret=" + credentials.clientSecret())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker)))
+                .map(response -> {
+                    String accessToken = response.get("access_token").asText();
+                    long expiresIn = response.path("expires_in").asLong(properties.getTokenExpiration());
+                    Instant tokenExpiresAt = Instant.now().plusSeconds(expiresIn);
+                    tokenCache.store(tenant, accessToken, tokenExpiresAt);
+
+                    log.debug("Logalty access token for tenant '{}' refreshed, expires at: {}", tenant, tokenExpiresAt);
+
+                    return accessToken;
+                });
+        });
+    }
+
+    /**
+     * {@code call} under the circuit breaker, once a rate limit permit for {@code operation}
+     * is granted to the tenant in the Reactor context. The permit is taken outside the breaker:
+     * neither the wait for it nor a local rejection counts against Logalty. Retries resubscribe
+     * and take a new permit.
+     */
+    private <T> Mono<T> limited(LogaltyOperation operation, Mono<T> call) {
+        return rateLimiter.acquire(operation).then(guarded(call));
+    }
+
+    /**
+     * {@code call} under the circuit breaker, for callers that take its permit themselves.
+     */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Reports the status of {@code envelope} to the status event stream, for the tenant in the
+     * Reactor context.
+     */
+    private Mono<SignatureEnvelope> observed(SignatureEnvelope envelope, EnvelopeStatusChanged.Source source) {
+        return TenantContext.currentTenant()
+            .doOnNext(tenant -> statusEvents.observed(envelope.getId(), tenant, envelope.getExternalEnvelopeId(),
+                                                      envelope.getStatus(), source))
+            .thenReturn(envelope);
     }
 
     /**
@@ -0,0 +1,30 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.outbox")
+public class OutboxProperties {
+
+    // When enabled, sendToSign persists submissions locally and acknowledges before calling Logalty
+    private boolean enabled = false;
+    private String directory = "data/logalty-outbox";
+
+    // Journal segments roll over once they exceed this size (bytes)
+    private long segmentBytes = 64L * 1024 * 1024;
+    // fsync every append; disabling trades durability on power loss for throughput
+    private boolean syncOnAppend = true;
+
+    // Background dispatcher pacing
+    private double dispatchRatePerSecond = 5.0;
+    private int maxConcurrency = 4;
+    private int maxAttempts = 10;
+    private Duration retryBackoff = Duration.ofSeconds(30);
+
+    // Compaction: sealed segments whose live fraction drops below the ratio are rewritten
+    private Duration compactionInterval = Duration.ofMinutes(5);
+    private double compactionLiveRatio = 0.25;
+}
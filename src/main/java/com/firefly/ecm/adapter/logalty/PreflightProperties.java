@@ -0,0 +1,24 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.preflight")
+public class PreflightProperties {
+
+    // Check PDFs before they are encoded and sent, rejecting the ones Logalty would refuse
+    private boolean enabled = false;
+
+    // Largest document accepted, in bytes (0 = no limit); set to the limit of the Logalty contract
+    private long maxDocumentBytes = 0;
+
+    // Encrypted (password protected) PDFs cannot be signed by Logalty
+    private boolean rejectEncrypted = true;
+
+    // Drop bytes appended after the final %%EOF marker
+    private boolean trimTrailingData = true;
+
+    // Hand PDFs to the PdfOptimizer bean, if any (skipped for PDFs that already carry signatures)
+    private boolean optimize = true;
+}
@@ -0,0 +1,18 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.preparation")
+public class PreparationProperties {
+
+    // Documents of one envelope are validated, hashed and encoded on a pool of this many threads (1 = caller thread only)
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Envelopes with fewer documents are prepared on the caller thread
+    private int parallelThreshold = 2;
+
+    // Digest of each document, logged with its timings
+    private String hashAlgorithm = "SHA-256";
+}
@@ -0,0 +1,39 @@
+package com.firefly.ecm.adapter.logalty;
+
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = false;
+
+    // Longest a call may wait for a permit before it is rejected locally
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    // Per tenant and operation; operations without an entry use defaultOperation (null = unlimited)
+    private Map<LogaltyOperation, Bucket> operations = new EnumMap<>(LogaltyOperation.class);
+    private Bucket defaultOperation;
+
+    // Per tenant across all operations; tenants without an entry use defaultTenant (null = unlimited)
+    private Map<String, Bucket> tenants = new HashMap<>();
+    private Bucket defaultTenant;
+
+    // Tag meters with the tenant: tenants with an entry under tenants by name, all others as "other".
+    // Off by default, when every tenant is tagged "all"
+    private boolean tagTenants = false;
+
+    @Data
+    public static class Bucket {
+        private int capacity = 60;
+        private int refillTokens = 60;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.reconciliation")
+public class ReconciliationProperties {
+
+    // When enabled, local envelope states are checked against Logalty on a schedule
+    private boolean enabled = false;
+    // Spring cron expression of the run, nightly by default
+    private String cron = "0 0 3 * * *";
+
+    // Pods sharing the work, and this pod's name among them (HOSTNAME when blank); empty for a single pod
+    private List<String> members = new ArrayList<>();
+    private String memberId;
+    // Points per member on the hash ring; more points spread the ids more evenly
+    private int virtualNodes = 128;
+
+    // getStatus calls in flight and per second (0 for no pacing); the GET_STATUS rate limit still applies
+    private int concurrency = 4;
+    private int maxRequestsPerSecond = 20;
+    // Known envelopes fetched from the KnownEnvelopeSource per page
+    private int pageSize = 500;
+    // A run still going after this long stops and continues at the next run; zero for no limit
+    private Duration maxDuration = Duration.ZERO;
+
+    // The checkpoint of an unfinished run; the next run resumes from it
+    private String checkpointDirectory = "data/logalty-reconciliation";
+    private int checkpointEvery = 100;
+
+    // Element of the status response holding the process state
+    private String stateElement = "state";
+    // Logalty state -> expected local envelope status; envelopes in unmapped states are not compared
+    private Map<String, String> stateMapping = new HashMap<>();
+    // Mismatches kept in the run report; all of them are still passed to the source
+    private int maxReportedMismatches = 1000;
+}
@@ -0,0 +1,15 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.reload")
+public class ReloadProperties {
+
+    // Watch certificate and trust store files and swap them in without a restart
+    private boolean enabled = false;
+    private Duration checkInterval = Duration.ofSeconds(30);
+}
@@ -13,6 +13,12 @@ public class SignatureProperties {
     private String certPath = "src/main/resources/7694_SIGNATURE.pfx";
     private String certPin = "logalty";
 
+    // Write initSignature requests with IncomingRequestWriter and sign them with the same certificate, instead of the SDK's object model
+    private boolean streamRequests = false;
+
+    // Reason recorded with Logalty when a process is cancelled without one
+    private String cancelReason = "Cancelled by the sender";
+
     // TrustStore configuration (moved from hardcoded values)
     // Defaults keep backward compatibility with previous implementation
     private String trustStoreResource = "/mi-truststore.jks";
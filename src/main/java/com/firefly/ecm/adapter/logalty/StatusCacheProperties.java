@@ -0,0 +1,29 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.status-cache")
+public class StatusCacheProperties {
+
+    // Cache getStatus responses; concurrent lookups of the same id always share one call
+    private boolean enabled = false;
+
+    // How long a process that can still change state is served from the cache
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Processes in a terminal state do not change anymore and are kept much longer
+    private Duration terminalTtl = Duration.ofHours(24);
+
+    // Least recently used entries are evicted beyond this many
+    private int maxEntries = 10_000;
+
+    // Element of the status response holding the process state, and the values that are final
+    private String stateElement = "state";
+    private List<String> terminalStates = new ArrayList<>(List.of("COMPLETED", "SIGNED", "CANCELLED", "VOIDED", "EXPIRED"));
+}
@@ -0,0 +1,18 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.status-events")
+public class StatusEventsProperties {
+
+    // Publish envelope status changes seen by reads, operations, reconciliation, expiry sweeps and callbacks
+    private boolean enabled = false;
+
+    // Events held for each subscriber that falls behind; the oldest are dropped beyond this
+    private int bufferSize = 256;
+
+    // Last known status kept per envelope to detect changes, least recently seen first out
+    private int maxTrackedEnvelopes = 10_000;
+}
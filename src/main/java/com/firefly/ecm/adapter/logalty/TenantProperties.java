@@ -0,0 +1,26 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.multi-tenant")
+public class TenantProperties {
+
+    // Upper bound of initialized signers and OAuth tokens kept in memory (LRU)
+    private int maxCachedTenants = 32;
+
+    // Per-tenant material; the "default" tenant always uses SignatureProperties/LogaltyAdapterProperties
+    private Map<String, Tenant> tenants = new HashMap<>();
+
+    @Data
+    public static class Tenant {
+        private String certPath;
+        private String certPin;
+        private String clientId;
+        private String clientSecret;
+    }
+}
@@ -0,0 +1,29 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.transport")
+public class TransportProperties {
+
+    // When set, SOAP calls go over HTTP to this endpoint (e.g. a local stand-in) instead of the SDK HttpSender
+    private String endpoint;
+
+    // Service path per SDK Operation name, relative to the endpoint
+    private Map<String, String> servicePaths = new HashMap<>(Map.of(
+            "INCOMING_OPERATION", "/lgt/lgtbus/public/IncomingService",
+            "CANCEL_REQUEST_OPERATION", "/lgt/lgtbus/public/UpdateService",
+            "CERTIFICATE_REQUEST_OPERATION", "/lgt/lgtbus/public/DataService",
+            "SIGNED_BINARY_OPERATION", "/lgt/lgtbus/public/DataService",
+            "STATES_EXTERNAL_ID_OPERATION", "/lgt/lgtbus/public/DataService"
+    ));
+
+    // soapAction declared by logalty.wsdl
+    private String soapAction = "processDocument";
+    private Duration timeout = Duration.ofSeconds(60);
+}
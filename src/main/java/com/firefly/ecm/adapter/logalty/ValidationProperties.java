@@ -0,0 +1,22 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.validation")
+public class ValidationProperties {
+
+    // Validate initSignature requests against the Logalty schemas before they are signed and sent
+    private boolean enabled = false;
+
+    // WSDL whose embedded schemas are compiled at startup and checked too; blank for the SDK schemas only
+    private String wsdlResource = "classpath:logalty.wsdl";
+
+    // Also reject required elements and attributes left empty. Optional ones, such as the second name the
+    // receiver mapper leaves blank, are always accepted
+    private boolean rejectEmptyValues = true;
+
+    // Errors listed in a rejection
+    private int maxErrors = 20;
+}
@@ -0,0 +1,24 @@
+package com.firefly.ecm.adapter.logalty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "firefly.ecm.adapter.logalty.warmup")
+public class WarmupProperties {
+
+    // Warm up schemas, providers, signers and the JIT during startup, before readiness is reported
+    private boolean enabled = false;
+
+    // Synthetic build/sign/parse cycles over every SOAP operation; nothing is sent to Logalty
+    private int iterations = 50;
+    // Cycles stop after this long even if iterations remain, so startup time stays bounded
+    private Duration maxDuration = Duration.ofSeconds(20);
+    // Size of the synthetic PDF signed by the initSignature cycles
+    private int documentBytes = 64 * 1024;
+
+    // Also load the certificates of all configured tenants
+    private boolean tenantSigners = true;
+}
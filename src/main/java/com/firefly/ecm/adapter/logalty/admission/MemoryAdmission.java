@@ -0,0 +1,281 @@
+package com.firefly.ecm.adapter.logalty.admission;
+
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.MemoryAdmissionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control keeping concurrent large envelopes within a memory budget.
+ *
+ * <p>Before an envelope's documents are encoded, its peak footprint is estimated from the
+ * document sizes ({@link #estimate}) and reserved from a shared budget, released when the
+ * call completes, fails or is cancelled. Envelopes that do not fit wait, without blocking a
+ * thread, in FIFO order: a large envelope at the head is not overtaken by smaller ones, so it
+ * cannot starve. An envelope larger than the whole budget, one arriving at a full queue, or
+ * one waiting longer than {@code maxWait} fails with {@link MemoryAdmissionException}.</p>
+ *
+ * <p>Published as {@code logalty.admission.budget}, {@code logalty.admission.reserved} and
+ * {@code logalty.admission.queued} (bytes, bytes, envelopes), {@code logalty.admission.wait}
+ * and {@code logalty.admission.rejected} (tag {@code reason}).</p>
+ */
+@Slf4j
+@Component
+public class MemoryAdmission {
+
+    /**
+     * Rejection reason of an envelope larger than the whole budget, which no wait can admit.
+     */
+    public static final String TOO_LARGE = "too_large";
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long budget;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private long reserved;
+
+    @Autowired
+    public MemoryAdmission(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Runtime.getRuntime().maxMemory());
+    }
+
+    MemoryAdmission(AdmissionProperties properties, MeterRegistry meterRegistry, long maxHeap) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.budget = properties.getBudgetBytes() > 0
+                ? properties.getBudgetBytes()
+                : (long) (maxHeap * properties.getMaxHeapFraction());
+
+        if (properties.isEnabled()) {
+            Gauge.builder("logalty.admission.budget", this, MemoryAdmission::budget).register(meterRegistry);
+            Gauge.builder("logalty.admission.reserved", this, MemoryAdmission::reserved).register(meterRegistry);
+            Gauge.builder("logalty.admission.queued", this, MemoryAdmission::queued).register(meterRegistry);
+            log.info("Logalty memory admission enabled with a budget of {} MB", budget / (1024 * 1024));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Peak heap an envelope with these documents needs while it is prepared, signed and sent.
+     * The caller's own copy of each document is not counted: it exists before admission.
+     */
+    public long estimate(List<BinaryContentsDTO> documents) {
+        double total = properties.getEnvelopeOverheadBytes();
+        if (documents != null) {
+            for (BinaryContentsDTO document : documents) {
+                long size = sizeOf(document);
+                long encoded = 4 * ((size + 2) / 3);
+                total += size * properties.getRawCopies() + encoded * properties.getEncodedCopies();
+            }
+        }
+        return (long) Math.ceil(total);
+    }
+
+    /**
+     * Heap one more request needs over documents prepared once and shared, as in a campaign:
+     * only the copies made per request.
+     */
+    public long estimateRequest(List<BinaryContentsDTO> documents) {
+        double total = properties.getEnvelopeOverheadBytes();
+        if (documents != null) {
+            for (BinaryContentsDTO document : documents) {
+                total += 4 * ((sizeOf(document) + 2) / 3) * properties.getRequestCopies();
+            }
+        }
+        return (long) Math.ceil(total);
+    }
+
+    private static long sizeOf(BinaryContentsDTO document) {
+        if (document.getSource() != null) {
+            return document.getSource().size();
+        }
+        return document.getContents() != null ? document.getContents().length : 0;
+    }
+
+    /**
+     * Runs {@code work} once {@code bytes} are reserved, releasing them when it terminates or
+     * is cancelled. Returns {@code work} unchanged when admission is disabled.
+     */
+    public <T> Mono<T> admit(long bytes, Mono<T> work) {
+        if (!properties.isEnabled()) {
+            return work;
+        }
+        return Mono.usingWhen(
+                reserve(bytes),
+                reservation -> work,
+                reservation -> Mono.fromRunnable(reservation::release),
+                (reservation, error) -> Mono.fromRunnable(reservation::release),
+                reservation -> Mono.fromRunnable(reservation::release));
+    }
+
+    /**
+     * {@link #admit(long, Mono)} for work holding its memory until the last element, e.g. a
+     * payload shared by a whole campaign.
+     */
+    public <T> Flux<T> admit(long bytes, Flux<T> work) {
+        if (!properties.isEnabled()) {
+            return work;
+        }
+        return Flux.usingWhen(
+                reserve(bytes),
+                reservation -> work,
+                reservation -> Mono.fromRunnable(reservation::release),
+                (reservation, error) -> Mono.fromRunnable(reservation::release),
+                reservation -> Mono.fromRunnable(reservation::release));
+    }
+
+    public long budget() {
+        return budget;
+    }
+
+    public synchronized long reserved() {
+        return reserved;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    private Mono<Reservation> reserve(long bytes) {
+        return Mono.defer(() -> {
+            long amount = Math.max(bytes, 0);
+            if (amount > budget) {
+                return Mono.error(rejected(TOO_LARGE, amount));
+            }
+
+            long start = System.nanoTime();
+            Mono<Reservation> granted = Mono.create(sink -> {
+                Waiter waiter = new Waiter(new Reservation(amount), sink);
+                sink.onCancel(() -> cancel(waiter));
+
+                int state;
+                synchronized (this) {
+                    if (waiter.state == Waiter.CANCELLED) {
+                        return;
+                    }
+                    if (waiters.isEmpty() && reserved + amount <= budget) {
+                        reserved += amount;
+                        waiter.state = Waiter.GRANTED;
+                    } else if (waiters.size() < properties.getMaxQueued() && !properties.getMaxWait().isZero()) {
+                        waiters.addLast(waiter);
+                        waiter.state = Waiter.QUEUED;
+                    }
+                    state = waiter.state;
+                }
+
+                switch (state) {
+                    case Waiter.GRANTED -> sink.success(waiter.reservation);
+                    case Waiter.QUEUED -> log.debug("Envelope of ~{} bytes waiting for memory budget ({} of {} reserved)",
+                            amount, reserved(), budget);
+                    default -> sink.error(rejected("queue_full", amount));
+                }
+            });
+
+            if (!properties.getMaxWait().isZero()) {
+                granted = granted.timeout(properties.getMaxWait(), Mono.error(() -> rejected("timeout", amount)));
+            }
+            return granted
+                    .doOnNext(reservation -> Timer.builder("logalty.admission.wait")
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        int state;
+        synchronized (this) {
+            state = waiter.state;
+            if (state == Waiter.QUEUED) {
+                waiters.remove(waiter);
+            }
+            if (state != Waiter.GRANTED) {
+                waiter.state = Waiter.CANCELLED;
+            }
+        }
+        if (state == Waiter.QUEUED) {
+            // Waiters behind it may fit now
+            grant(0);
+        } else if (state == Waiter.GRANTED) {
+            // Possibly granted concurrently with the cancellation, so the caller never got it
+            waiter.reservation.release();
+        }
+    }
+
+    private void grant(long released) {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            reserved -= released;
+            while (!waiters.isEmpty() && reserved + waiters.peekFirst().reservation.bytes <= budget) {
+                Waiter next = waiters.pollFirst();
+                reserved += next.reservation.bytes;
+                next.state = Waiter.GRANTED;
+                ready.add(next);
+            }
+        }
+        ready.forEach(waiter -> waiter.sink.success(waiter.reservation));
+    }
+
+    private MemoryAdmissionException rejected(String reason, long bytes) {
+        log.warn("Memory admission rejected an envelope of ~{} bytes: {} ({} of {} reserved, {} queued)",
+                bytes, reason, reserved(), budget, queued());
+        Counter.builder("logalty.admission.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new MemoryAdmissionException(reason, bytes, budget);
+    }
+
+    private static final class Waiter {
+
+        private static final int NEW = 0;
+        private static final int QUEUED = 1;
+        private static final int GRANTED = 2;
+        private static final int CANCELLED = 3;
+
+        private final Reservation reservation;
+        private final MonoSink<Reservation> sink;
+        // Guarded by the enclosing MemoryAdmission
+        private int state = NEW;
+
+        private Waiter(Reservation reservation, MonoSink<Reservation> sink) {
+            this.reservation = reservation;
+            this.sink = sink;
+        }
+    }
+
+    private final class Reservation {
+
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                grant(bytes);
+            }
+        }
+    }
+}
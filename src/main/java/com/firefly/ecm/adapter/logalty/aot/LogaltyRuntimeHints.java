@@ -0,0 +1,105 @@
+package com.firefly.ecm.adapter.logalty.aot;
+
+import com.firefly.ecm.adapter.logalty.outbox.OutboxEntry;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.io.IOException;
+
+/**
+ * Native-image hints for what the adapter and the Logalty SDK reach reflectively or load as
+ * resources. Registered by {@link com.firefly.ecm.adapter.logalty.LogaltyAdapterAutoConfiguration},
+ * and in {@code META-INF/spring/aot.factories} so test AOT processing picks them up too.
+ *
+ * <p>XmlBeans finds the generated schema types through their {@code TypeSystemHolder} classes
+ * and the compiled {@code .xsb} schemas next to them, and instantiates the {@code *Impl}
+ * classes by constructor; BouncyCastle instantiates its algorithm classes by name. Only the
+ * BouncyCastle algorithms the signer needs are registered, not the whole provider. The classes
+ * are listed by scanning the classpath during AOT processing, so new SDK or schema versions
+ * need no change here.</p>
+ */
+public class LogaltyRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] BUNDLED_RESOURCES = {
+            "7694_SIGNATURE.pfx",
+            "mi-truststore.jks",
+            "logalty.wsdl",
+            "jfr/logalty.jfc"
+    };
+
+    /**
+     * Algorithm classes of what the signer does: RSA signatures over SHA-1 and SHA-256, X.509
+     * certificates, and PKCS#12 key stores whose keys are PBE-encrypted with 3DES, RC2 or AES.
+     */
+    private static final String[] BOUNCY_CASTLE_ALGORITHMS = {
+            "asymmetric/rsa/*",
+            "asymmetric/x509/*",
+            "digest/SHA1*",
+            "digest/SHA256*",
+            "keystore/pkcs12/*",
+            "symmetric/DESede*",
+            "symmetric/RC2*",
+            "symmetric/AES*",
+            "symmetric/util/*"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String resource : BUNDLED_RESOURCES) {
+            hints.resources().registerPattern(resource);
+        }
+        hints.resources().registerPattern("schemaorg_apache_xmlbeans/**");
+        hints.resources().registerPattern(hint -> hint
+                .includes("com/logalty/**/*.properties", "com/logalty/**/*.xml",
+                        "com/logalty/**/*.xsd", "com/logalty/**/*.wsdl"));
+
+        // XmlBeans schema types (ptrequest, ptdatarequest, updaterequest...) and their type systems
+        registerClasses(hints, classLoader, "schemaorg_apache_xmlbeans/**/*.class",
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+        registerClasses(hints, classLoader, "com/logalty/schema/**/*.class",
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+
+        // Logalty SDK: signer, request builders, constants
+        registerClasses(hints, classLoader, "com/logalty/sdk/**/*.class",
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+        registerClasses(hints, classLoader, "com/logalty/constant/**/*.class",
+                MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+
+        // BouncyCastle provider, the algorithm tables it loads at construction and the algorithms the signer uses
+        hints.reflection().registerType(TypeReference.of("org.bouncycastle.jce.provider.BouncyCastleProvider"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        registerClasses(hints, classLoader, "org/bouncycastle/jcajce/provider/**/*$Mappings.class",
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        for (String algorithms : BOUNCY_CASTLE_ALGORITHMS) {
+            registerClasses(hints, classLoader, "org/bouncycastle/jcajce/provider/" + algorithms + ".class",
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+
+        // Outbox entries are journaled as JSON
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), OutboxEntry.class);
+    }
+
+    private static void registerClasses(RuntimeHints hints, ClassLoader classLoader, String pattern,
+                                        MemberCategory... categories) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        MetadataReaderFactory readers = new CachingMetadataReaderFactory(resolver);
+        try {
+            for (Resource resource : resolver.getResources("classpath*:" + pattern)) {
+                String className = readers.getMetadataReader(resource).getClassMetadata().getClassName();
+                hints.reflection().registerType(TypeReference.of(className), categories);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to scan the classpath for " + pattern, e);
+        }
+    }
+}
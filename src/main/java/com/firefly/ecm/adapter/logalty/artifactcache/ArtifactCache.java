@@ -0,0 +1,255 @@
+package com.firefly.ecm.adapter.logalty.artifactcache;
+
+import com.firefly.ecm.adapter.logalty.ArtifactCacheProperties;
+import com.firefly.ecm.adapter.logalty.statuscache.TerminalStateClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.XmlObject;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Local cache for Logalty artifacts that never change once issued (certificates, signed
+ * binaries), keyed by kind, tenant and Logalty id.
+ *
+ * <p>Entries live in a size-bounded {@link DiskArtifactStore} and, when small enough, in an
+ * in-memory LRU tier in front of it. Only successful responses of finished processes are
+ * stored (see {@link #isFinal}); a response of a process still running is passed through, as
+ * its artifact can still change. The cache never
+ * fails a call: disk errors and corrupt entries are logged and the artifact is fetched from
+ * Logalty again. Lookups are counted as {@code logalty.cache.requests} (tags {@code kind},
+ * {@code result}: memory, disk or miss); corrupt entries as {@code logalty.cache.corrupt};
+ * disk usage and evictions are exposed as {@code logalty.cache.disk.bytes} and
+ * {@code logalty.cache.disk.evictions}.</p>
+ */
+@Slf4j
+@Component
+public class ArtifactCache {
+
+    public static final String CERTIFICATE = "certificate";
+    public static final String SIGNED_BINARY = "signed-binary";
+
+    private final ArtifactCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final MemoryTier memory;
+    private volatile DiskArtifactStore disk;
+
+    public ArtifactCache(ArtifactCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.memory = new MemoryTier(properties.getMemoryMaxBytes());
+    }
+
+    /**
+     * Returns the cached artifact, or loads, stores and returns it.
+     *
+     * @param kind       artifact kind, e.g. {@link #CERTIFICATE}
+     * @param tenantId   tenant the artifact belongs to
+     * @param id         Logalty id of the process
+     * @param parser     rebuilds the artifact from its stored text
+     * @param serializer turns the artifact into the text to store
+     * @param cacheable  whether a loaded artifact is final and may be stored
+     * @param loader     fetches the artifact from Logalty; only successful results are cached
+     */
+    public <T> T get(String kind,
+                     String tenantId,
+                     String id,
+                     Function<String, T> parser,
+                     Function<T, String> serializer,
+                     Predicate<T> cacheable,
+                     Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+
+        String key = kind + "/" + tenantId + "/" + id;
+        T cached = lookup(kind, key, parser);
+        if (cached != null) {
+            return cached;
+        }
+
+        count(kind, "miss");
+        T artifact = loader.get();
+        if (cacheable.test(artifact)) {
+            store(key, serializer.apply(artifact));
+        }
+        return artifact;
+    }
+
+    /**
+     * Reactive form of {@link #get(String, String, String, Function, Function, Predicate, Supplier)}: the
+     * disk tier is read and written on a worker thread and {@code loader} is only subscribed
+     * on a miss.
+     */
+    public <T> Mono<T> get(String kind,
+                           String tenantId,
+                           String id,
+                           Function<String, T> parser,
+                           Function<T, String> serializer,
+                           Predicate<T> cacheable,
+                           Mono<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader;
+        }
+
+        String key = kind + "/" + tenantId + "/" + id;
+        return Mono.fromCallable(() -> lookup(kind, key, parser))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> {
+                    count(kind, "miss");
+                    return loader.flatMap(artifact -> !cacheable.test(artifact)
+                            ? Mono.just(artifact)
+                            : Mono.fromCallable(() -> {
+                                        store(key, serializer.apply(artifact));
+                                        return artifact;
+                                    })
+                                    .subscribeOn(Schedulers.boundedElastic()));
+                }));
+    }
+
+    /**
+     * Whether a Logalty response describes a finished process: its first
+     * {@code stateElement} holds one of the {@code finalStates}. A response without a state is
+     * not final.
+     */
+    public boolean isFinal(XmlObject response) {
+        if (response == null) {
+            return false;
+        }
+        String state = TerminalStateClassifier.stateOf(response, properties.getStateElement());
+        return state != null && properties.getFinalStates().stream().anyMatch(state::equalsIgnoreCase);
+    }
+
+    private <T> T lookup(String kind, String key, Function<String, T> parser) {
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            count(kind, "memory");
+            return parser.apply(new String(cached, StandardCharsets.UTF_8));
+        }
+
+        cached = readDisk(key);
+        if (cached != null) {
+            count(kind, "disk");
+            remember(key, cached);
+            return parser.apply(new String(cached, StandardCharsets.UTF_8));
+        }
+        return null;
+    }
+
+    private void store(String key, String text) {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        remember(key, payload);
+        writeDisk(key, payload);
+    }
+
+    private byte[] readDisk(String key) {
+        try {
+            return disk().get(key);
+        } catch (DiskArtifactStore.Corrupt e) {
+            log.warn("{}; fetching it again", e.getMessage());
+            Counter.builder("logalty.cache.corrupt").register(meterRegistry).increment();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Artifact cache read failed for {}: {}", key, e.getMessage());
+        }
+        return null;
+    }
+
+    private void writeDisk(String key, byte[] payload) {
+        try {
+            disk().put(key, payload);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Artifact cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void remember(String key, byte[] payload) {
+        if (payload.length <= properties.getMemoryMaxEntryBytes()) {
+            memory.put(key, payload);
+        }
+    }
+
+    private DiskArtifactStore disk() throws IOException {
+        DiskArtifactStore current = disk;
+        if (current == null) {
+            synchronized (this) {
+                current = disk;
+                if (current == null) {
+                    current = new DiskArtifactStore(Paths.get(properties.getDirectory()), properties.getMaxDiskBytes());
+                    current.open();
+                    DiskArtifactStore store = current;
+                    Gauge.builder("logalty.cache.disk.bytes", store, DiskArtifactStore::totalBytes)
+                            .baseUnit("bytes")
+                            .register(meterRegistry);
+                    Gauge.builder("logalty.cache.disk.evictions", store, DiskArtifactStore::evictions)
+                            .register(meterRegistry);
+                    disk = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void count(String kind, String result) {
+        Counter.builder("logalty.cache.requests")
+                .tag("kind", kind)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Byte-bounded LRU map of payloads.
+     */
+    private static final class MemoryTier {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        MemoryTier(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, byte[] payload) {
+            if (maxBytes <= 0 || payload.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(key, payload);
+            bytes += payload.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.firefly.ecm.adapter.logalty.artifactcache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Size-bounded directory of checksummed entries with least-recently-used eviction.
+ *
+ * <p>Each entry is one file: a 17-byte header (magic, format version, CRC32C and length of
+ * the payload) followed by the payload. Files are written to a temporary name and moved into
+ * place, so readers never see a partial entry. The LRU order is kept in memory and persisted
+ * through file modification times, which are refreshed on every hit and used to rebuild the
+ * order on {@link #open()}. An entry failing its checksum is deleted and reported as
+ * {@link Corrupt}.</p>
+ */
+@Slf4j
+class DiskArtifactStore {
+
+    static final int HEADER_BYTES = 17;
+    private static final int MAGIC = 0x4C474143; // "LGAC"
+    private static final byte VERSION = 1;
+    private static final String SUFFIX = ".entry";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // file name -> entry size on disk, in access order
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long evictions;
+
+    DiskArtifactStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates the directory if needed, drops leftovers of interrupted writes and rebuilds the
+     * LRU order from the entries already on disk.
+     */
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        index.clear();
+        totalBytes = 0;
+
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    entries.add(file);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(DiskArtifactStore::lastModified));
+        for (Path file : entries) {
+            long size = Files.size(file);
+            index.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evictIfNeeded();
+        log.info("Artifact cache opened at {} with {} entries ({} bytes)", directory, index.size(), totalBytes);
+    }
+
+    /**
+     * @return the payload, {@code null} when absent
+     * @throws Corrupt if the entry exists but fails validation (it is removed)
+     */
+    byte[] get(String key) throws IOException {
+        String name = fileName(key);
+        synchronized (this) {
+            if (index.get(name) == null) {
+                return null;
+            }
+        }
+
+        Path file = directory.resolve(name);
+        byte[] payload;
+        try (InputStream in = Files.newInputStream(file)) {
+            payload = decode(in, name);
+        } catch (NoSuchFileException e) {
+            // Evicted between the index lookup and the read
+            return null;
+        } catch (Corrupt e) {
+            remove(name);
+            throw e;
+        }
+
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Unable to refresh access time of {}: {}", file, e.getMessage());
+        }
+        return payload;
+    }
+
+    void put(String key, byte[] payload) throws IOException {
+        String name = fileName(key);
+        Path target = directory.resolve(name);
+        Path tmp = directory.resolve(name + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .putInt((int) crc.getValue())
+                .putLong(payload.length);
+        byte[] entry = new byte[HEADER_BYTES + payload.length];
+        System.arraycopy(header.array(), 0, entry, 0, HEADER_BYTES);
+        System.arraycopy(payload, 0, entry, HEADER_BYTES, payload.length);
+        Files.write(tmp, entry);
+
+        synchronized (this) {
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Long previous = index.put(name, (long) entry.length);
+            totalBytes += entry.length - (previous != null ? previous : 0);
+            evictIfNeeded();
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    private synchronized void remove(String name) {
+        Long size = index.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        delete(directory.resolve(name));
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        // The most recent entry is kept even when it alone exceeds the limit
+        while (totalBytes > maxBytes && index.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions++;
+            delete(directory.resolve(entry.getKey()));
+            log.debug("Artifact cache evicted {}", entry.getKey());
+        }
+    }
+
+    static byte[] decode(InputStream in, String name) throws IOException {
+        byte[] headerBytes = in.readNBytes(HEADER_BYTES);
+        if (headerBytes.length < HEADER_BYTES) {
+            throw new Corrupt(name, "truncated header");
+        }
+        ByteBuffer header = ByteBuffer.wrap(headerBytes);
+        if (header.getInt() != MAGIC || header.get() != VERSION) {
+            throw new Corrupt(name, "unknown format");
+        }
+        int expectedCrc = header.getInt();
+        long length = header.getLong();
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new Corrupt(name, "invalid length " + length);
+        }
+
+        byte[] payload = in.readNBytes((int) length);
+        if (payload.length != length || in.read() != -1) {
+            throw new Corrupt(name, "length mismatch");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new Corrupt(name, "checksum mismatch");
+        }
+        return payload;
+    }
+
+    /**
+     * File names are derived from the key, so any key is safe to use on any file system.
+     */
+    static String fileName(String key) {
+        return ArtifactCache.sha256Hex(key) + SUFFIX;
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete cache entry {}: {}", file, e.getMessage());
+        }
+    }
+
+    static final class Corrupt extends IOException {
+        Corrupt(String name, String reason) {
+            super("Corrupt cache entry " + name + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.firefly.ecm.adapter.logalty.campaign;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time view of a running campaign. {@code completed} is {@code true} only in the
+ * final report.
+ */
+public record CampaignProgress(
+        long submitted,
+        long accepted,
+        long failed,
+        long inFlight,
+        Duration elapsed,
+        boolean completed
+) {
+
+    public double ratePerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? (accepted + failed) / seconds : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.firefly.ecm.adapter.logalty.campaign;
+
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.logalty.schema.ptrequest.ResultDocument;
+
+/**
+ * Outcome of the request sent to one campaign receiver: the Logalty result when it was
+ * accepted, the error otherwise.
+ */
+public record CampaignResult(
+        ReceiverDTO receiver,
+        ResultDocument.Result result,
+        Throwable error
+) {
+
+    public boolean accepted() {
+        return error == null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.firefly.ecm.adapter.logalty.campaign;
+
+import com.firefly.core.ecm.domain.model.esignature.SignatureRequest;
+import com.firefly.ecm.adapter.logalty.CampaignProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.mappers.SignatureMapper;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sends the same documents to many receivers, one {@code initSignature} request per receiver.
+ *
+ * <p>The documents are validated and encoded once; the resulting {@code Binarycontents} is
+ * shared read-only by every request of the campaign, so encoding work and the encoded payload
+ * do not grow with the number of receivers. Receivers are pulled from the stream as requests
+ * complete, with at most {@code concurrency} requests in flight, each going through the rate
+ * limiter and the circuit breaker like any other call. With memory admission enabled, the
+ * campaign holds the payload's reservation until it ends and each request reserves its own
+ * copies. A failed receiver does not stop the
+ * campaign: every receiver yields a {@link CampaignResult}, and progress is reported at most
+ * every {@code progressInterval} and once at the end.</p>
+ *
+ * <p>Document sources stay owned by the caller and can be released once the returned
+ * {@code Flux} terminates.</p>
+ */
+@Slf4j
+@Service
+public class SignatureCampaignService {
+
+    private final CampaignProperties properties;
+    private final SignatureService signatureService;
+    private final LogaltyCommonService common;
+    private final CircuitBreaker circuitBreaker;
+    private final LogaltyRateLimiter rateLimiter;
+    private final MemoryAdmission admission;
+
+    @Autowired
+    public SignatureCampaignService(CampaignProperties properties,
+                                    SignatureService signatureService,
+                                    LogaltyCommonService common,
+                                    @Qualifier("logaltyCircuitBreaker") CircuitBreaker circuitBreaker,
+                                    LogaltyRateLimiter rateLimiter,
+                                    MemoryAdmission admission) {
+        this.properties = properties;
+        this.signatureService = signatureService;
+        this.common = common;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.admission = admission;
+    }
+
+    /**
+     * Runs a campaign, logging progress.
+     */
+    public Flux<CampaignResult> run(String tenantId, List<BinaryContentsDTO> documents, Flux<ReceiverDTO> receivers) {
+        return run(tenantId, documents, receivers, progress -> log.info(
+                "Campaign progress: submitted={}, accepted={}, failed={}, inFlight={}, rate={}/s{}",
+                progress.submitted(), progress.accepted(), progress.failed(), progress.inFlight(),
+                String.format("%.1f", progress.ratePerSecond()), progress.completed() ? " (completed)" : ""));
+    }
+
+    /**
+     * Runs a campaign for signature requests, each becoming the single receiver of its request.
+     */
+    public Flux<CampaignResult> runForRequests(String tenantId,
+                                               List<BinaryContentsDTO> documents,
+                                               Flux<SignatureRequest> requests,
+                                               Consumer<CampaignProgress> onProgress) {
+        return run(tenantId, documents, requests.map(request -> SignatureMapper.toReceiverDTO(request, 1)), onProgress);
+    }
+
+    /**
+     * Runs a campaign. Nothing is encoded or sent until the returned {@code Flux} is
+     * subscribed to.
+     *
+     * @param tenantId   the tenant whose certificate signs the requests, {@code null} for the default
+     * @param documents  the documents every receiver is asked to sign
+     * @param receivers  the receivers, one request each
+     * @param onProgress called with progress snapshots, from the threads completing requests
+     * @return one result per receiver, in completion order
+     */
+    public Flux<CampaignResult> run(String tenantId,
+                                    List<BinaryContentsDTO> documents,
+                                    Flux<ReceiverDTO> receivers,
+                                    Consumer<CampaignProgress> onProgress) {
+        String tenant = tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT;
+        long requestBytes = admission.estimateRequest(documents);
+        return admission.admit(admission.estimate(documents), Mono.fromCallable(() -> {
+                    if (documents == null || documents.isEmpty()) {
+                        throw new IllegalArgumentException("Binary contents list cannot be null or empty");
+                    }
+                    return common.createBinaryContents(documents);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(payload -> {
+                    Tracker tracker = new Tracker(onProgress, properties.getProgressInterval());
+                    log.info("Campaign started for tenant '{}' with {} document(s), concurrency={}",
+                            tenant, documents.size(), properties.getConcurrency());
+                    return receivers
+                            .flatMap(receiver -> send(tenant, receiver, payload, requestBytes, tracker), properties.getConcurrency())
+                            // Before the terminal signal, so subscribers see the final report first
+                            .doOnTerminate(() -> tracker.report(true))
+                            .doOnCancel(() -> tracker.report(true));
+                }));
+    }
+
+    private Mono<CampaignResult> send(String tenant, ReceiverDTO receiver, Binarycontents payload,
+                                      long requestBytes, Tracker tracker) {
+        return Mono.defer(() -> {
+                    tracker.submitted();
+                    return rateLimiter.acquire(LogaltyOperation.INIT_SIGNATURE, tenant);
+                })
+                .then(admission.admit(requestBytes, Mono.fromCallable(() -> signatureService.initSignature(tenant, List.of(receiver), payload))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))))
+                .map(result -> new CampaignResult(receiver, result, null))
+                .onErrorResume(e -> {
+                    log.warn("Campaign request for receiver {} failed: {}", receiver.getReceiverId(), e.getMessage());
+                    return Mono.just(new CampaignResult(receiver, null, e));
+                })
+                .doOnNext(tracker::completed);
+    }
+
+    private static final class Tracker {
+
+        private final Consumer<CampaignProgress> listener;
+        private final long intervalNanos;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong lastReport = new AtomicLong(startNanos);
+
+        Tracker(Consumer<CampaignProgress> listener, Duration interval) {
+            this.listener = listener;
+            this.intervalNanos = interval.toNanos();
+        }
+
+        void submitted() {
+            submitted.incrementAndGet();
+        }
+
+        void completed(CampaignResult result) {
+            (result.accepted() ? accepted : failed).incrementAndGet();
+            report(false);
+        }
+
+        void report(boolean completed) {
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            if (!completed && (now - last < intervalNanos || !lastReport.compareAndSet(last, now))) {
+                return;
+            }
+            long done = accepted.get() + failed.get();
+            CampaignProgress progress = new CampaignProgress(submitted.get(), accepted.get(), failed.get(),
+                    Math.max(0, submitted.get() - done), Duration.ofNanos(now - startNanos), completed);
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                log.warn("Campaign progress listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.firefly.ecm.adapter.logalty.checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Progress of a long-running pass over a cursor-ordered source, kept in a small file that is
+ * replaced atomically: when the pass started and the cursor up to which every item is
+ * processed. The file exists only while a pass is running or was interrupted.
+ */
+public class CursorCheckpoint {
+
+    private final Path directory;
+    private final Path file;
+    private final Path tmp;
+
+    public CursorCheckpoint(Path directory, String name) {
+        this.directory = directory;
+        this.file = directory.resolve(name + ".checkpoint");
+        this.tmp = directory.resolve(name + ".checkpoint.tmp");
+    }
+
+    public record State(Instant startedAt, String cursor) {
+    }
+
+    public Optional<State> load() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        Properties values = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            values.load(in);
+        }
+        String startedAt = values.getProperty("startedAt");
+        if (startedAt == null) {
+            throw new IOException("Checkpoint " + file + " has no start time");
+        }
+        return Optional.of(new State(Instant.parse(startedAt), values.getProperty("cursor")));
+    }
+
+    public void save(State state) throws IOException {
+        Files.createDirectories(directory);
+        Properties values = new Properties();
+        values.setProperty("startedAt", state.startedAt().toString());
+        if (state.cursor() != null) {
+            values.setProperty("cursor", state.cursor());
+        }
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            values.store(out, null);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void clear() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,278 @@
+package com.firefly.ecm.adapter.logalty.checkpoint;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.support.CronExpression;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Scheduled pass over a cursor-ordered source that keeps its position in a {@link CursorCheckpoint}.
+ *
+ * <p>Runs fire on a cron schedule, one at a time. Items are read page by page, processed at
+ * most {@code concurrency} at a time and recorded in source order, so every
+ * {@code checkpointEvery} items the cursor of the last one is a safe resume point. A run that
+ * reaches {@code maxDuration} saves its position and the next run continues from it, a
+ * completed run clears it, and a failed run keeps its last checkpoint. A checkpoint that
+ * cannot be read is ignored and the pass starts over. Runs are timed as {@code timerName}
+ * (tag {@code result}: completed, paused, interrupted).</p>
+ *
+ * @param <I> item read from the source
+ * @param <O> outcome of processing one item
+ */
+@Slf4j
+public class CursorJob<I, O> {
+
+    private final String name;
+    private final CursorCheckpoint checkpoint;
+    private final PageSource<I> source;
+    private final Function<I, String> cursorOf;
+    private final String timerName;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private Disposable schedule;
+
+    public CursorJob(String name,
+                     CursorCheckpoint checkpoint,
+                     PageSource<I> source,
+                     Function<I, String> cursorOf,
+                     String timerName,
+                     MeterRegistry meterRegistry) {
+        this.name = name;
+        this.checkpoint = checkpoint;
+        this.source = source;
+        this.cursorOf = cursorOf;
+        this.timerName = timerName;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Reads the items after {@code afterCursor}, in cursor order.
+     */
+    @FunctionalInterface
+    public interface PageSource<I> {
+
+        Flux<I> page(Instant startedAt, String afterCursor, int limit);
+    }
+
+    /**
+     * Work and tally of one run. Outcomes are recorded one at a time, in source order.
+     */
+    public interface Pass<I, O, R> {
+
+        Mono<O> process(I item);
+
+        void record(O outcome);
+
+        R report(Duration elapsed, boolean resumed, boolean complete);
+    }
+
+    /**
+     * Limits of one run; {@code maxItems} 0 and {@code maxDuration} zero mean unlimited.
+     */
+    public record Settings(int pageSize, int concurrency, int checkpointEvery, long maxItems, Duration maxDuration) {
+    }
+
+    /**
+     * Calls {@code run} on every {@code cron} tick, skipping ticks while a run is going.
+     *
+     * @param resumeAtStartup whether an interrupted pass is resumed now instead of at the first tick
+     */
+    public void schedule(String cron, boolean resumeAtStartup, Supplier<? extends Mono<?>> run) {
+        CronExpression expression = CronExpression.parse(cron);
+        Flux<Long> ticks = Mono.defer(() -> Mono.delay(untilNext(expression))).repeat();
+        if (resumeAtStartup && load().isPresent()) {
+            log.info("Found an interrupted {}, resuming it now", name);
+            ticks = ticks.startWith(0L);
+        }
+
+        schedule = ticks
+                .onBackpressureDrop()
+                .concatMap(tick -> run.get().then().onErrorResume(e -> {
+                    log.error("The {} failed: {}", name, e.getMessage(), e);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Runs {@code pass} now, continuing the unfinished pass if there is a checkpoint.
+     *
+     * @return the report of the run; an error if another run is going, or if this one was
+     *         interrupted (its checkpoint is kept for the next run)
+     */
+    public <R> Mono<R> run(Settings settings, Pass<I, O, R> pass) {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("The " + name + " is already running"));
+            }
+            return Mono.fromCallable(this::load)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(saved -> run(saved.orElseGet(() -> new CursorCheckpoint.State(Instant.now(), null)),
+                            saved.isPresent(), settings, pass))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private <R> Mono<R> run(CursorCheckpoint.State start, boolean resumed, Settings settings, Pass<I, O, R> pass) {
+        if (resumed) {
+            log.info("Resuming the {} started at {} after cursor {}", name, start.startedAt(), start.cursor());
+        } else {
+            log.info("Starting the {} at {}", name, start.startedAt());
+        }
+
+        Progress progress = new Progress(start, settings.checkpointEvery());
+        Flux<I> items = pages(start.startedAt(), start.cursor(), settings.pageSize());
+        if (settings.maxItems() > 0) {
+            items = items.take(settings.maxItems());
+        }
+        if (!settings.maxDuration().isZero()) {
+            items = items.takeUntilOther(Mono.delay(settings.maxDuration()).doOnNext(t -> progress.paused = true));
+        }
+
+        return save(start)
+                .thenMany(items.flatMapSequential(item -> pass.process(item).map(outcome -> new Done<>(item, outcome)),
+                        settings.concurrency()))
+                // In source order: once an outcome is seen, every item before it is processed too
+                .concatMap(done -> {
+                    pass.record(done.outcome());
+                    return progress.advance(cursorOf.apply(done.item())) ? save(progress.state()) : Mono.<Void>empty();
+                })
+                .then(Mono.defer(() -> progress.paused ? save(progress.state()) : clear()))
+                .then(Mono.fromCallable(() -> pass.report(progress.elapsed(), resumed, !progress.paused)))
+                .doOnSuccess(report -> progress.timed(progress.paused ? "paused" : "completed"))
+                .doOnError(e -> {
+                    progress.timed("interrupted");
+                    log.warn("The {} was interrupted after {} item(s), it resumes from its checkpoint: {}",
+                            name, progress.processed, e.getMessage());
+                });
+    }
+
+    private Flux<I> pages(Instant startedAt, String afterCursor, int pageSize) {
+        return page(startedAt, afterCursor, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : page(startedAt, cursorOf.apply(page.get(page.size() - 1)), pageSize))
+                .flatMapIterable(page -> page);
+    }
+
+    private Mono<List<I>> page(Instant startedAt, String afterCursor, int pageSize) {
+        return Mono.defer(() -> source.page(startedAt, afterCursor, pageSize).collectList());
+    }
+
+    private Optional<CursorCheckpoint.State> load() {
+        try {
+            return checkpoint.load();
+        } catch (IOException | DateTimeParseException e) {
+            // Starting over only repeats work already done, a checkpoint that cannot be read must not block every run
+            log.warn("Ignoring the unreadable {} checkpoint, starting over: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Mono<Void> save(CursorCheckpoint.State state) {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        checkpoint.save(state);
+                    } catch (IOException e) {
+                        // A stale checkpoint only means some items are processed twice after a crash
+                        log.warn("Unable to save the {} checkpoint: {}", name, e.getMessage());
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> clear() {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        checkpoint.clear();
+                    } catch (IOException e) {
+                        log.warn("Unable to clear the {} checkpoint: {}", name, e.getMessage());
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Duration untilNext(CronExpression cron) {
+        ZonedDateTime now = ZonedDateTime.now();
+        // From a second ahead, so a timer firing marginally early does not trigger the same run twice
+        ZonedDateTime next = cron.next(now.plusSeconds(1));
+        if (next == null) {
+            throw new IllegalStateException("Cron expression '" + cron + "' has no next run");
+        }
+        return Duration.between(now, next);
+    }
+
+    private record Done<I, O>(I item, O outcome) {
+    }
+
+    /**
+     * Checkpoint position and timing of one run. Items arrive one at a time, in source order.
+     */
+    private final class Progress {
+
+        private final Instant startedAt;
+        private final int checkpointEvery;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean paused;
+        private String cursor;
+        private long processed;
+        private long sinceCheckpoint;
+
+        Progress(CursorCheckpoint.State start, int checkpointEvery) {
+            this.startedAt = start.startedAt();
+            this.cursor = start.cursor();
+            this.checkpointEvery = checkpointEvery;
+        }
+
+        /**
+         * @return whether a checkpoint is due
+         */
+        boolean advance(String cursor) {
+            this.cursor = cursor;
+            processed++;
+            if (++sinceCheckpoint < checkpointEvery) {
+                return false;
+            }
+            sinceCheckpoint = 0;
+            return true;
+        }
+
+        CursorCheckpoint.State state() {
+            return new CursorCheckpoint.State(startedAt, cursor);
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - startNanos);
+        }
+
+        void timed(String result) {
+            Timer.builder(timerName)
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
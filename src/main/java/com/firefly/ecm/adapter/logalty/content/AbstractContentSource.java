@@ -0,0 +1,58 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counting shared by all {@link ContentSource} implementations.
+ */
+abstract class AbstractContentSource implements ContentSource {
+
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    @Override
+    public final InputStream openStream() {
+        ensureAccessible();
+        return newStream();
+    }
+
+    @Override
+    public final ContentSource retain() {
+        refCnt.updateAndGet(count -> {
+            if (count <= 0) {
+                throw new IllegalStateException("Content source already released: " + this);
+            }
+            return count + 1;
+        });
+        return this;
+    }
+
+    @Override
+    public final boolean release() {
+        int count = refCnt.decrementAndGet();
+        if (count == 0) {
+            deallocate();
+            return true;
+        }
+        if (count < 0) {
+            refCnt.incrementAndGet();
+            throw new IllegalStateException("Content source released more often than retained: " + this);
+        }
+        return false;
+    }
+
+    @Override
+    public final int refCnt() {
+        return refCnt.get();
+    }
+
+    protected final void ensureAccessible() {
+        if (refCnt.get() <= 0) {
+            throw new IllegalStateException("Content source already released: " + this);
+        }
+    }
+
+    protected abstract InputStream newStream();
+
+    protected abstract void deallocate();
+}
@@ -0,0 +1,84 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Content held in a {@link ByteBuffer}: a heap array, a pooled direct buffer or a mapped file
+ * region. {@code onRelease} returns the buffer to its owner.
+ */
+class ByteBufferContentSource extends AbstractContentSource {
+
+    private final String description;
+    private ByteBuffer buffer;
+    private final Runnable onRelease;
+
+    ByteBufferContentSource(String description, ByteBuffer buffer, Runnable onRelease) {
+        this.description = description;
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.onRelease = onRelease;
+    }
+
+    @Override
+    public long size() {
+        ensureAccessible();
+        return buffer.remaining();
+    }
+
+    @Override
+    protected InputStream newStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    protected void deallocate() {
+        buffer = null;
+        if (onRelease != null) {
+            onRelease.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
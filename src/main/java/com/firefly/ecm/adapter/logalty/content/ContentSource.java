@@ -0,0 +1,37 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import java.io.InputStream;
+
+/**
+ * Document content that does not have to live on the heap as a {@code byte[]}: a
+ * memory-mapped file, a (pooled) {@link java.nio.ByteBuffer} or a Spring
+ * {@link org.springframework.core.io.buffer.DataBuffer}. Create instances through
+ * {@link ContentSources}.
+ *
+ * <p>Sources are reference-counted like Netty buffers: a new source has a count of one, every
+ * {@link #retain()} must be matched by a {@link #release()}, and the underlying resource is
+ * freed (pooled buffer returned, file mapping dropped) when the count reaches zero. Reading a
+ * released source throws {@link IllegalStateException}.</p>
+ */
+public interface ContentSource {
+
+    /**
+     * Content length in bytes.
+     */
+    long size();
+
+    /**
+     * Opens a new stream over the whole content. Reading does not consume the source, so it
+     * can be read again, e.g. when a call is retried.
+     */
+    InputStream openStream();
+
+    ContentSource retain();
+
+    /**
+     * @return {@code true} if this call released the underlying resource
+     */
+    boolean release();
+
+    int refCnt();
+}
@@ -0,0 +1,216 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Factories and helpers for {@link ContentSource}.
+ */
+public final class ContentSources {
+
+    // Multiple of 3, so every full chunk encodes to base64 without padding
+    private static final int CHUNK = 48 * 1024;
+
+    private ContentSources() {
+        // utility class
+    }
+
+    /**
+     * Wraps an existing array. Nothing to free, releasing only ends the source's lifetime.
+     */
+    public static ContentSource bytes(byte[] contents) {
+        return new ByteBufferContentSource("byte[" + contents.length + "]", ByteBuffer.wrap(contents), null);
+    }
+
+    /**
+     * UTF-8 bytes of a document only available as a String, e.g. a request signed by the SDK.
+     */
+    public static ContentSource utf8(String text) {
+        return bytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Maps a file read-only. The content is paged in by the OS as it is read and never copied
+     * to the heap as a whole; the mapping is dropped once the source is released and collected.
+     */
+    public static ContentSource mapped(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to send: " + file + " (" + size + " bytes)");
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new ByteBufferContentSource(file.toString(), mapped, null);
+        }
+    }
+
+    /**
+     * Wraps a buffer owned by a pool; {@code onRelease} hands it back.
+     */
+    public static ContentSource byteBuffer(ByteBuffer buffer, Runnable onRelease) {
+        return new ByteBufferContentSource("ByteBuffer[" + buffer.remaining() + " bytes]", buffer, onRelease);
+    }
+
+    /**
+     * Takes ownership of a {@link DataBuffer}; releasing the source releases the buffer.
+     */
+    public static ContentSource dataBuffer(DataBuffer buffer) {
+        return new DataBufferContentSource(buffer);
+    }
+
+    /**
+     * Joins a stream of buffers (e.g. a DMS download) into a single source. On Netty the
+     * buffers are composed, not copied. Fails if the content exceeds {@code maxBytes}.
+     */
+    public static Mono<ContentSource> join(Publisher<? extends DataBuffer> buffers, int maxBytes) {
+        return DataBufferUtils.join(buffers, maxBytes).map(ContentSources::dataBuffer);
+    }
+
+    /**
+     * A window of {@code length} bytes starting at {@code offset}, sharing the parent's memory.
+     * The slice retains the parent and must be released on its own.
+     */
+    public static ContentSource slice(ContentSource source, long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > source.size()) {
+            throw new IndexOutOfBoundsException("Slice [" + offset + ", +" + length + "] outside " + source);
+        }
+        return new SlicedContentSource(source, offset, length);
+    }
+
+    /**
+     * Reads up to {@code length} bytes starting at {@code offset}, e.g. a file header or trailer.
+     */
+    public static byte[] read(ContentSource source, long offset, int length) {
+        try (InputStream in = source.openStream()) {
+            in.skipNBytes(offset);
+            return in.readNBytes(length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read content from " + source, e);
+        }
+    }
+
+    /**
+     * The source of a DTO: its {@link BinaryContentsDTO#getSource() source} if set, otherwise
+     * its {@code contents} array, or {@code null} when it has neither.
+     */
+    public static ContentSource of(BinaryContentsDTO dto) {
+        if (dto.getSource() != null) {
+            return dto.getSource();
+        }
+        return dto.getContents() != null ? bytes(dto.getContents()) : null;
+    }
+
+    /**
+     * Releases the sources attached to the given DTOs, ignoring DTOs that carry plain arrays.
+     */
+    public static void release(List<BinaryContentsDTO> dtos) {
+        if (dtos == null) {
+            return;
+        }
+        for (BinaryContentsDTO dto : dtos) {
+            ContentSource source = dto.getSource();
+            if (source != null && source.refCnt() > 0) {
+                source.release();
+            }
+        }
+    }
+
+    /**
+     * Base64 of the whole content, encoded chunk by chunk into an exactly sized array, so the
+     * only full-size allocations are the encoded bytes and the resulting String.
+     */
+    public static String base64(ContentSource source) {
+        return base64(source, null);
+    }
+
+    /**
+     * Same as {@link #base64(ContentSource)}, feeding the content to {@code digest} in the same
+     * pass so the document is read only once.
+     */
+    public static String base64(ContentSource source, MessageDigest digest) {
+        long size = source.size();
+        long encodedSize = 4 * ((size + 2) / 3);
+        if (encodedSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Content too large to encode: " + size + " bytes");
+        }
+        byte[] encoded = new byte[(int) encodedSize];
+        try (InputStream in = digest != null ? new DigestInputStream(source.openStream(), digest) : source.openStream();
+             OutputStream out = Base64.getEncoder().wrap(new ArrayOutputStream(encoded))) {
+            transfer(in, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read content from " + source, e);
+        }
+        return new String(encoded, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Copies the content to a heap array, for consumers that must persist it (e.g. the outbox).
+     */
+    public static byte[] toByteArray(ContentSource source) {
+        byte[] bytes = new byte[Math.toIntExact(source.size())];
+        try (InputStream in = source.openStream()) {
+            int read = in.readNBytes(bytes, 0, bytes.length);
+            return read == bytes.length ? bytes : Arrays.copyOf(bytes, read);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read content from " + source, e);
+        }
+    }
+
+    /**
+     * Decodes a UTF-8 document, for APIs that only accept Strings such as the SDK's sender.
+     */
+    public static String toUtf8String(ContentSource source) {
+        return new String(toByteArray(source), StandardCharsets.UTF_8);
+    }
+
+    private static void transfer(InputStream in, OutputStream out) throws IOException {
+        byte[] chunk = new byte[CHUNK];
+        int filled;
+        while ((filled = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+            out.write(chunk, 0, filled);
+        }
+    }
+
+    /**
+     * Writes into a pre-sized array without the growth and final copy of a ByteArrayOutputStream.
+     */
+    private static final class ArrayOutputStream extends OutputStream {
+
+        private final byte[] target;
+        private int position;
+
+        ArrayOutputStream(byte[] target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            target[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            System.arraycopy(b, off, target, position, len);
+            position += len;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Content held in a Spring {@link DataBuffer}, typically a pooled Netty buffer received from
+ * the DMS. Releasing the source releases the buffer back to its pool.
+ */
+class DataBufferContentSource extends AbstractContentSource {
+
+    private final DataBuffer buffer;
+
+    DataBufferContentSource(DataBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public long size() {
+        ensureAccessible();
+        return buffer.readableByteCount();
+    }
+
+    @Override
+    protected InputStream newStream() {
+        return new DataBufferInputStream(buffer.readableByteBuffers());
+    }
+
+    @Override
+    protected void deallocate() {
+        DataBufferUtils.release(buffer);
+    }
+
+    @Override
+    public String toString() {
+        return "DataBuffer[" + buffer.readableByteCount() + " bytes]";
+    }
+
+    /**
+     * Reads the buffer's own memory through its {@link ByteBuffer} views, without moving the
+     * buffer's read position, so the source can be read again.
+     */
+    private static final class DataBufferInputStream extends InputStream {
+
+        private final DataBuffer.ByteBufferIterator views;
+        private ByteBuffer current;
+
+        DataBufferInputStream(DataBuffer.ByteBufferIterator views) {
+            this.views = views;
+        }
+
+        @Override
+        public int read() {
+            return advance() ? current.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && advance()) {
+                int step = (int) Math.min(n - skipped, current.remaining());
+                current.position(current.position() + step);
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+            views.close();
+        }
+
+        private boolean advance() {
+            while (current == null || !current.hasRemaining()) {
+                if (!views.hasNext()) {
+                    return false;
+                }
+                current = views.next();
+            }
+            return true;
+        }
+    }
+}
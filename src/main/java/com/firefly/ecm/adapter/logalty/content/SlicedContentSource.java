@@ -0,0 +1,104 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A window over another source. The slice holds a reference on its parent for as long as it
+ * lives, so it can be released independently of the parent.
+ */
+class SlicedContentSource extends AbstractContentSource {
+
+    private final ContentSource parent;
+    private final long offset;
+    private final long length;
+
+    SlicedContentSource(ContentSource parent, long offset, long length) {
+        this.parent = parent.retain();
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public long size() {
+        ensureAccessible();
+        return length;
+    }
+
+    @Override
+    protected InputStream newStream() {
+        InputStream in = parent.openStream();
+        try {
+            in.skipNBytes(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to position slice of " + parent, e);
+        }
+        return new BoundedInputStream(in, length);
+    }
+
+    @Override
+    protected void deallocate() {
+        parent.release();
+    }
+
+    @Override
+    public String toString() {
+        return parent + "[" + offset + ".." + (offset + length) + "]";
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A request or response document in the form it was produced in: the String the SDK signs
+ * into or receives, or the UTF-8 bytes of the streaming request writer and of byte transports.
+ * The other form is only computed when a consumer asks for it, so a document that stays in one
+ * form from builder through transport to parser is never converted.
+ *
+ * <p>A byte payload owns its {@link ContentSource}: {@link #release()} releases it. Releasing a
+ * text payload does nothing.</p>
+ */
+public final class XmlPayload {
+
+    private final String text;
+    private final ContentSource utf8;
+
+    private XmlPayload(String text, ContentSource utf8) {
+        this.text = text;
+        this.utf8 = utf8;
+    }
+
+    public static XmlPayload text(String text) {
+        return new XmlPayload(Objects.requireNonNull(text, "text"), null);
+    }
+
+    /**
+     * Takes ownership of {@code utf8}.
+     */
+    public static XmlPayload utf8(ContentSource utf8) {
+        return new XmlPayload(null, Objects.requireNonNull(utf8, "utf8"));
+    }
+
+    public boolean isText() {
+        return utf8 == null;
+    }
+
+    /**
+     * The document as a String, decoded from the bytes if it is a byte payload.
+     */
+    public String text() {
+        return isText() ? text : ContentSources.toUtf8String(utf8);
+    }
+
+    /**
+     * The document as UTF-8 bytes. For a text payload these are encoded on every call into a
+     * heap array with nothing to free; for a byte payload this is the owned source, which the
+     * caller must not release.
+     */
+    public ContentSource utf8() {
+        return isText() ? ContentSources.utf8(text) : utf8;
+    }
+
+    /**
+     * Opens a reader over the whole document, without converting it to the other form.
+     */
+    public Reader openReader() {
+        return isText() ? new StringReader(text) : new InputStreamReader(utf8.openStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Length in chars for a text payload, in bytes for a byte payload.
+     */
+    public long size() {
+        return isText() ? text.length() : utf8.size();
+    }
+
+    public void release() {
+        if (!isText()) {
+            utf8.release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isText() ? "text[" + text.length() + " chars]" : "utf8[" + utf8.size() + " bytes]";
+    }
+}
@@ -1,5 +1,7 @@
 package com.firefly.ecm.adapter.logalty.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,6 +12,9 @@ public class BinaryContentsDTO {
     private int binaryContentId;
     private int groupId;
     private byte[] contents;
+    // Alternative to contents that avoids a heap copy (mapped file, pooled buffer); takes precedence
+    @JsonIgnore
+    private ContentSource source;
     private String encoding;
     private String filename;
     private String extension;
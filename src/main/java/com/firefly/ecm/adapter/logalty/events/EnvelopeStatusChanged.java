@@ -0,0 +1,47 @@
+package com.firefly.ecm.adapter.logalty.events;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An envelope seen in a status other than the last one known for it.
+ *
+ * @param tenantId       the tenant of the envelope, {@code default} when none is set
+ * @param externalId     the Logalty id of the process, {@code null} when unknown
+ * @param previousStatus the last status known for the envelope, {@code null} when it had not
+ *                       been seen before
+ * @param source         what detected the change
+ */
+public record EnvelopeStatusChanged(UUID envelopeId,
+                                    String tenantId,
+                                    String externalId,
+                                    EnvelopeStatus previousStatus,
+                                    EnvelopeStatus status,
+                                    Source source,
+                                    Instant changedAt) {
+
+    public enum Source {
+        // getEnvelope and syncEnvelopeStatus
+        SYNC("sync"),
+        // An operation of the adapter that sets the status, e.g. voidEnvelope
+        OPERATION("operation"),
+        // A mismatch found by the scheduled reconciliation
+        RECONCILIATION("reconciliation"),
+        // An envelope cancelled by the expiry sweep
+        EXPIRY("expiry"),
+        // A status notification received from Logalty
+        CALLBACK("callback");
+
+        private final String tag;
+
+        Source(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.firefly.ecm.adapter.logalty.events;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot stream of envelope status changes for in-process subscribers, so workflow services can
+ * react to a signed or voided envelope without polling {@code getEnvelope} themselves.
+ *
+ * <p>Whatever learns the status of an envelope reports it with {@link #observed}: the adapter
+ * on {@code getEnvelope}, {@code syncEnvelopeStatus} and {@code voidEnvelope}, the
+ * reconciliation on a mismatch and the expiry sweep on a cancellation. An application
+ * receiving Logalty notifications reports them with {@link EnvelopeStatusChanged.Source#CALLBACK}.
+ * The last status of up to {@code maxTrackedEnvelopes} envelopes is kept; an event is published
+ * only when a status differs from it, so repeated reads of an unchanged envelope stay silent.</p>
+ *
+ * <p>Subscribers only receive changes published after they subscribe, in the order they were
+ * published, on a worker thread: a detector only queues the event and never runs subscriber
+ * code. Each subscriber has its own buffer of {@code bufferSize} events, plus the one being
+ * handed to it: a subscriber that falls behind loses its oldest events and never slows down
+ * the detectors or the other subscribers. Filtering happens before the buffer, so events a
+ * subscriber does not want take no room in it. Events are counted as
+ * {@code logalty.status.events.published} (tag {@code source}) and
+ * {@code logalty.status.events.dropped}; subscribers are exposed as
+ * {@code logalty.status.events.subscribers}. When disabled nothing is tracked or published.</p>
+ */
+@Slf4j
+@Component
+public class EnvelopeStatusEvents {
+
+    private final StatusEventsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final Sinks.Many<EnvelopeStatusChanged> sink = Sinks.many().multicast().directBestEffort();
+    private final LinkedHashMap<UUID, EnvelopeStatus> lastKnown;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+
+    @Autowired
+    public EnvelopeStatusEvents(StatusEventsProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    EnvelopeStatusEvents(StatusEventsProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.lastKnown = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, EnvelopeStatus> eldest) {
+                return size() > properties.getMaxTrackedEnvelopes();
+            }
+        };
+        this.dropped = Counter.builder("logalty.status.events.dropped").register(meterRegistry);
+        Gauge.builder("logalty.status.events.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * All status changes published from now on.
+     */
+    public Flux<EnvelopeStatusChanged> stream() {
+        return stream(EnvelopeStatusFilter.any());
+    }
+
+    /**
+     * The status changes matching {@code filter} published from now on. The stream never
+     * completes while the application runs; cancel it to unsubscribe.
+     */
+    public Flux<EnvelopeStatusChanged> stream(EnvelopeStatusFilter filter) {
+        return sink.asFlux()
+                .filter(filter)
+                .onBackpressureBuffer(properties.getBufferSize(), event -> {
+                    dropped.increment();
+                    log.debug("Slow subscriber lost status event of envelope {}", event.envelopeId());
+                }, BufferOverflowStrategy.DROP_OLDEST)
+                // Delivered off the detector's thread, which emits while holding the tracking lock
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Reports the status an envelope was seen in.
+     *
+     * @return the published event, {@code null} if the status is unchanged or events are disabled
+     */
+    public EnvelopeStatusChanged observed(UUID envelopeId, String tenantId, String externalId,
+                                          EnvelopeStatus status, EnvelopeStatusChanged.Source source) {
+        return observed(envelopeId, tenantId, externalId, null, status, source);
+    }
+
+    /**
+     * Reports the status an envelope was seen in by a detector that also knows its previous
+     * status, e.g. the local status compared by the reconciliation. The status tracked here,
+     * when there is one, takes precedence over {@code knownPrevious}.
+     *
+     * @return the published event, {@code null} if the status is unchanged or events are disabled
+     */
+    public EnvelopeStatusChanged observed(UUID envelopeId, String tenantId, String externalId,
+                                          EnvelopeStatus knownPrevious, EnvelopeStatus status,
+                                          EnvelopeStatusChanged.Source source) {
+        if (!properties.isEnabled() || envelopeId == null || status == null) {
+            return null;
+        }
+        EnvelopeStatusChanged event;
+        // Tracking and emission under one lock: events leave in the order the statuses were recorded
+        synchronized (lastKnown) {
+            EnvelopeStatus previous = lastKnown.put(envelopeId, status);
+            if (previous == null) {
+                previous = knownPrevious;
+            }
+            if (previous == status) {
+                return null;
+            }
+            event = new EnvelopeStatusChanged(envelopeId,
+                    tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT,
+                    externalId, previous, status, source, clock.instant());
+            // Without subscribers the event is simply not delivered
+            sink.tryEmitNext(event);
+        }
+        Counter.builder("logalty.status.events.published")
+                .tag("source", source.tag())
+                .register(meterRegistry)
+                .increment();
+        log.debug("Envelope {} changed from {} to {} ({})", envelopeId, event.previousStatus(), status, source.tag());
+        return event;
+    }
+
+    /**
+     * Forgets the status of an envelope, e.g. once it is deleted.
+     */
+    public void forget(UUID envelopeId) {
+        synchronized (lastKnown) {
+            lastKnown.remove(envelopeId);
+        }
+    }
+
+    int subscribers() {
+        return subscribers.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (lastKnown) {
+            sink.tryEmitComplete();
+        }
+    }
+}
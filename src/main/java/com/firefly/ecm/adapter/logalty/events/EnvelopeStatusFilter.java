@@ -0,0 +1,53 @@
+package com.firefly.ecm.adapter.logalty.events;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Selects the status changes a subscriber receives. Each non-empty set must contain the
+ * envelope, tenant or new status of an event; an empty set matches any.
+ *
+ * <pre>{@code
+ * events.stream(EnvelopeStatusFilter.any()
+ *         .tenants("acme")
+ *         .statuses(EnvelopeStatus.COMPLETED, EnvelopeStatus.VOIDED))
+ * }</pre>
+ */
+public record EnvelopeStatusFilter(Set<UUID> envelopeIds,
+                                   Set<String> tenantIds,
+                                   Set<EnvelopeStatus> statuses) implements Predicate<EnvelopeStatusChanged> {
+
+    private static final EnvelopeStatusFilter ANY = new EnvelopeStatusFilter(Set.of(), Set.of(), Set.of());
+
+    public EnvelopeStatusFilter {
+        envelopeIds = Set.copyOf(envelopeIds);
+        tenantIds = Set.copyOf(tenantIds);
+        statuses = Set.copyOf(statuses);
+    }
+
+    public static EnvelopeStatusFilter any() {
+        return ANY;
+    }
+
+    public EnvelopeStatusFilter envelopes(UUID... envelopeIds) {
+        return new EnvelopeStatusFilter(Set.of(envelopeIds), tenantIds, statuses);
+    }
+
+    public EnvelopeStatusFilter tenants(String... tenantIds) {
+        return new EnvelopeStatusFilter(envelopeIds, Set.of(tenantIds), statuses);
+    }
+
+    public EnvelopeStatusFilter statuses(EnvelopeStatus... statuses) {
+        return new EnvelopeStatusFilter(envelopeIds, tenantIds, Set.of(statuses));
+    }
+
+    @Override
+    public boolean test(EnvelopeStatusChanged event) {
+        return (envelopeIds.isEmpty() || envelopeIds.contains(event.envelopeId()))
+                && (tenantIds.isEmpty() || tenantIds.contains(event.tenantId()))
+                && (statuses.isEmpty() || statuses.contains(event.status()));
+    }
+}
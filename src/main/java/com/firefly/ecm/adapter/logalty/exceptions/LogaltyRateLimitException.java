@@ -0,0 +1,13 @@
+package com.firefly.ecm.adapter.logalty.exceptions;
+
+/**
+ * Raised when a Logalty call cannot obtain a rate-limit permit before its deadline.
+ * The call is rejected locally, Logalty is never contacted.
+ */
+public class LogaltyRateLimitException extends LogaltyCallException {
+
+    public LogaltyRateLimitException(String operation, String tenant) {
+        super("Rate limit exceeded for operation " + operation + " (tenant=" + tenant + ")",
+                "RATE_LIMITED", operation, tenant);
+    }
+}
@@ -0,0 +1,12 @@
+package com.firefly.ecm.adapter.logalty.exceptions;
+
+/**
+ * Raised when Logalty answers a request but does not accept it. Sending the same request
+ * again gets the same answer.
+ */
+public class LogaltyRejectedException extends LogaltyCallException {
+
+    public LogaltyRejectedException(String id, String message) {
+        super("Operation error (" + id + "): " + message, id, message, null);
+    }
+}
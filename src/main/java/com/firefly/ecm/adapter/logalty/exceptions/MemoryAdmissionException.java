@@ -0,0 +1,13 @@
+package com.firefly.ecm.adapter.logalty.exceptions;
+
+/**
+ * Raised when an envelope cannot reserve its estimated memory from the admission budget.
+ * The envelope is rejected before it is encoded, Logalty is never contacted.
+ */
+public class MemoryAdmissionException extends LogaltyCallException {
+
+    public MemoryAdmissionException(String reason, long bytes, long budget) {
+        super("Memory admission rejected an envelope of ~" + bytes + " bytes (" + reason + ", budget=" + budget + ")",
+                "ADMISSION_REJECTED", reason, String.valueOf(bytes));
+    }
+}
@@ -0,0 +1,13 @@
+package com.firefly.ecm.adapter.logalty.exceptions;
+
+/**
+ * Raised when a document fails the PDF pre-flight check. The document is rejected locally,
+ * Logalty is never contacted.
+ */
+public class PdfPreflightException extends LogaltyCallException {
+
+    public PdfPreflightException(int binaryContentId, String reason, String detail) {
+        super("PDF pre-flight rejected document id=" + binaryContentId + " (" + reason + "): " + detail,
+                "PREFLIGHT_REJECTED", reason, String.valueOf(binaryContentId));
+    }
+}
@@ -0,0 +1,25 @@
+package com.firefly.ecm.adapter.logalty.exceptions;
+
+import java.util.List;
+
+/**
+ * Raised when a request fails schema validation. The request is rejected before it is signed,
+ * Logalty is never contacted.
+ */
+public class RequestValidationException extends LogaltyCallException {
+
+    private final List<String> errors;
+
+    public RequestValidationException(String part, List<String> errors) {
+        super("Request " + part + " failed validation: " + String.join("; ", errors),
+                "INVALID_REQUEST", errors.get(0), part);
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * @return the validation errors, each prefixed with the path of the offending element
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
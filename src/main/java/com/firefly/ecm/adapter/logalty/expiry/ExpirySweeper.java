@@ -0,0 +1,178 @@
+package com.firefly.ecm.adapter.logalty.expiry;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.ExpiryProperties;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorCheckpoint;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorJob;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Cancels envelopes that are past their business deadline, on the {@code cron} schedule.
+ *
+ * <p>Stale envelopes are read page by page from the {@link StaleEnvelopeSource} and cancelled
+ * with {@code initCancel}, at most {@code concurrency} at a time and paced by the CANCEL rate
+ * limit that {@code initCancel} applies. Results are taken in source order, so every
+ * {@code checkpointEvery} envelopes the cursor of the last one is a safe resume point. A sweep
+ * interrupted by a crash, an open circuit or an exhausted quota resumes from its checkpoint,
+ * with its original deadline, at startup or at the next scheduled run. Envelopes cancelled
+ * after the checkpoint are then cancelled again, which is harmless: responses listed in
+ * {@code alreadyCancelledCodes} count as done.</p>
+ *
+ * <p>Cancelled envelopes are reported back through {@link StaleEnvelopeSource#markVoided} and
+ * published as VOIDED to {@link EnvelopeStatusEvents};
+ * envelopes that could not be cancelled stay stale and are tried again by the next sweep.
+ * Envelopes are counted as {@code logalty.expiry.envelopes} (tag {@code outcome}: cancelled,
+ * already_cancelled, failed) and sweeps are timed as {@code logalty.expiry.sweep} (tag
+ * {@code result}: completed, interrupted). Paging, checkpoints and scheduling are those of
+ * {@link CursorJob}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "firefly.ecm.adapter.logalty.expiry.enabled", havingValue = "true")
+public class ExpirySweeper {
+
+    private final ExpiryProperties properties;
+    private final StaleEnvelopeSource source;
+    private final ReactiveSignatureService signatureService;
+    private final MeterRegistry meterRegistry;
+    private final EnvelopeStatusEvents statusEvents;
+    private final CursorJob<StaleEnvelope, Result> job;
+
+    @Autowired
+    public ExpirySweeper(ExpiryProperties properties,
+                         StaleEnvelopeSource source,
+                         ReactiveSignatureService signatureService,
+                         MeterRegistry meterRegistry,
+                         EnvelopeStatusEvents statusEvents) {
+        this.properties = properties;
+        this.source = source;
+        this.signatureService = signatureService;
+        this.meterRegistry = meterRegistry;
+        this.statusEvents = statusEvents;
+        this.job = new CursorJob<>("expiry sweep",
+                new CursorCheckpoint(Paths.get(properties.getCheckpointDirectory()), "sweep"),
+                source::findStale, StaleEnvelope::cursor, "logalty.expiry.sweep", meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        job.schedule(properties.getCron(), true, this::sweep);
+        log.info("Expiry sweeps scheduled with cron '{}' (concurrency={})", properties.getCron(), properties.getConcurrency());
+    }
+
+    @PreDestroy
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * Runs a sweep now, continuing the interrupted one if there is a checkpoint.
+     *
+     * @return the report of the sweep; an error if another sweep is running, or if this one
+     *         was interrupted (its checkpoint is kept for the next run)
+     */
+    public Mono<SweepReport> sweep() {
+        CursorJob.Settings settings = new CursorJob.Settings(properties.getPageSize(), properties.getConcurrency(),
+                properties.getCheckpointEvery(), properties.getMaxCancellationsPerSweep(), Duration.ZERO);
+        return job.run(settings, new Sweep())
+                .doOnSuccess(report -> log.info("Expiry sweep completed: cancelled={}, alreadyCancelled={}, failed={} in {} ({}/s)",
+                        report.cancelled(), report.alreadyCancelled(), report.failed(), report.elapsed(),
+                        String.format("%.1f", report.ratePerSecond())));
+    }
+
+    private Mono<Result> cancel(StaleEnvelope envelope) {
+        String tenant = envelope.tenantId() != null ? envelope.tenantId() : TenantContext.DEFAULT_TENANT;
+        return signatureService.initCancel(tenant, envelope.externalId(), properties.getReason())
+                .thenReturn(Result.CANCELLED)
+                // An open circuit or exhausted quota would fail every remaining envelope: stop instead
+                .onErrorResume(e -> !(e instanceof CallNotPermittedException || e instanceof LogaltyRateLimitException),
+                        e -> Mono.just(classify(envelope, e)))
+                .doOnNext(result -> {
+                    if (result != Result.FAILED) {
+                        statusEvents.observed(envelope.envelopeId(), tenant, envelope.externalId(),
+                                EnvelopeStatus.VOIDED, EnvelopeStatusChanged.Source.EXPIRY);
+                    }
+                })
+                .flatMap(result -> result == Result.FAILED
+                        ? Mono.just(result)
+                        : source.markVoided(envelope)
+                                .thenReturn(result)
+                                .onErrorResume(e -> {
+                                    log.warn("Envelope {} cancelled but not marked voided: {}", envelope.envelopeId(), e.getMessage());
+                                    return Mono.just(result);
+                                }));
+    }
+
+    private Result classify(StaleEnvelope envelope, Throwable error) {
+        if (error instanceof LogaltyCallException e && e.getReason() != null
+                && properties.getAlreadyCancelledCodes().stream().anyMatch(code -> e.getReason().equals("code=" + code))) {
+            log.debug("Envelope {} was already closed in Logalty ({})", envelope.envelopeId(), e.getReason());
+            return Result.ALREADY_CANCELLED;
+        }
+        log.warn("Unable to cancel expired envelope {} ({}): {}", envelope.envelopeId(), envelope.externalId(), error.getMessage());
+        return Result.FAILED;
+    }
+
+    private enum Result {
+        CANCELLED("cancelled"),
+        ALREADY_CANCELLED("already_cancelled"),
+        FAILED("failed");
+
+        private final String tag;
+
+        Result(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Counts of one sweep. Outcomes arrive one at a time, in source order.
+     */
+    private final class Sweep implements CursorJob.Pass<StaleEnvelope, Result, SweepReport> {
+
+        private long cancelled;
+        private long alreadyCancelled;
+        private long failed;
+
+        @Override
+        public Mono<Result> process(StaleEnvelope envelope) {
+            return cancel(envelope);
+        }
+
+        @Override
+        public void record(Result result) {
+            switch (result) {
+                case CANCELLED -> cancelled++;
+                case ALREADY_CANCELLED -> alreadyCancelled++;
+                case FAILED -> failed++;
+            }
+            Counter.builder("logalty.expiry.envelopes")
+                    .tag("outcome", result.tag)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        @Override
+        public SweepReport report(Duration elapsed, boolean resumed, boolean complete) {
+            return new SweepReport(cancelled, alreadyCancelled, failed, elapsed, resumed);
+        }
+    }
+}
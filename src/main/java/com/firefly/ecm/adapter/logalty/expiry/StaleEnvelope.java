@@ -0,0 +1,14 @@
+package com.firefly.ecm.adapter.logalty.expiry;
+
+import java.util.UUID;
+
+/**
+ * An envelope past its business deadline that is still open in Logalty.
+ *
+ * @param envelopeId the ECM envelope
+ * @param tenantId   the tenant whose certificate signs the cancellation, {@code null} for the default
+ * @param externalId the Logalty id of the process to cancel
+ * @param cursor     stable sort key of the envelope in the source, used to resume a sweep
+ */
+public record StaleEnvelope(UUID envelopeId, String tenantId, String externalId, String cursor) {
+}
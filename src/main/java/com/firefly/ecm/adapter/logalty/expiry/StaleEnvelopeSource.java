@@ -0,0 +1,40 @@
+package com.firefly.ecm.adapter.logalty.expiry;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Where the {@link ExpirySweeper} finds stale envelopes. The adapter does not store envelopes
+ * or their deadlines, so the application provides this bean, typically backed by its envelope
+ * repository.
+ */
+public interface StaleEnvelopeSource {
+
+    /**
+     * Returns envelopes whose deadline is before {@code deadline} and that are not voided yet,
+     * ordered by {@link StaleEnvelope#cursor()}.
+     *
+     * @param afterCursor only envelopes with a greater cursor, {@code null} for the first page
+     * @param limit       maximum number of envelopes to return
+     */
+    Flux<StaleEnvelope> findStale(Instant deadline, String afterCursor, int limit);
+
+    /**
+     * Returns envelopes whose deadline falls between {@code from} and {@code to} and that are
+     * not voided yet, ordered by {@link StaleEnvelope#cursor()}. Backs
+     * {@code getExpiringEnvelopes} of the adapter.
+     *
+     * <p>The default only applies {@code to}, through {@link #findStale}, so envelopes already
+     * past their deadline are included; override it to apply {@code from} as well.</p>
+     */
+    default Flux<StaleEnvelope> findExpiring(Instant from, Instant to, String afterCursor, int limit) {
+        return findStale(to, afterCursor, limit);
+    }
+
+    /**
+     * Records that the envelope is cancelled in Logalty, so it is not returned again.
+     */
+    Mono<Void> markVoided(StaleEnvelope envelope);
+}
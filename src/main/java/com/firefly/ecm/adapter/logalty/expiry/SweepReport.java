@@ -0,0 +1,29 @@
+package com.firefly.ecm.adapter.logalty.expiry;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one expiry sweep run; a resumed run only counts the envelopes it processed itself.
+ *
+ * @param cancelled        envelopes cancelled by this sweep
+ * @param alreadyCancelled envelopes Logalty reported as already closed
+ * @param failed           envelopes left open; the next sweep tries them again
+ * @param resumed          whether the sweep continued from a checkpoint
+ */
+public record SweepReport(
+        long cancelled,
+        long alreadyCancelled,
+        long failed,
+        Duration elapsed,
+        boolean resumed
+) {
+
+    public long processed() {
+        return cancelled + alreadyCancelled + failed;
+    }
+
+    public double ratePerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? processed() / seconds : 0;
+    }
+}
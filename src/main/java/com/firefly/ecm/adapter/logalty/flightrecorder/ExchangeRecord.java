@@ -0,0 +1,31 @@
+package com.firefly.ecm.adapter.logalty.flightrecorder;
+
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of one SOAP exchange with Logalty. Payloads are truncated and redacted
+ * (see {@link SnapshotRedactor}); phase timings are in milliseconds, {@code -1} when the call
+ * failed before reaching the phase. Payload sizes are in characters, or in bytes for exchanges
+ * run on UTF-8 payloads.
+ */
+public record ExchangeRecord(
+        String id,
+        String operation,
+        Instant startedAt,
+        String outcome,
+        String error,
+        double buildMillis,
+        double postMillis,
+        double parseMillis,
+        double validateMillis,
+        double totalMillis,
+        int requestChars,
+        int responseChars,
+        String request,
+        String response
+) {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String REJECTED = "REJECTED";
+    public static final String ERROR = "ERROR";
+}
@@ -0,0 +1,43 @@
+package com.firefly.ecm.adapter.logalty.flightrecorder;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the {@link LogaltyFlightRecorder}:
+ * {@code /actuator/logaltyexchanges} lists recent and slow exchanges,
+ * {@code /actuator/logaltyexchanges/{operation}} the recent ones of a single operation
+ * ({@code slow} for the slow ones). Only active when Spring Boot Actuator is on the classpath
+ * and the endpoint is exposed.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+@Endpoint(id = "logaltyexchanges")
+public class LogaltyExchangesEndpoint {
+
+    private final LogaltyFlightRecorder recorder;
+
+    public LogaltyExchangesEndpoint(LogaltyFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> exchanges() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recent", recorder.recent());
+        result.put("slow", recorder.slow());
+        return result;
+    }
+
+    @ReadOperation
+    public List<ExchangeRecord> exchanges(@Selector String operation) {
+        return "slow".equals(operation) ? recorder.slow() : recorder.recent(operation);
+    }
+}
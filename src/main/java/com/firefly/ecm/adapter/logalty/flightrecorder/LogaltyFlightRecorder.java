@@ -0,0 +1,260 @@
+package com.firefly.ecm.adapter.logalty.flightrecorder;
+
+import com.firefly.ecm.adapter.logalty.FlightRecorderProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-memory record of recent SOAP exchanges with Logalty.
+ *
+ * <p>Each operation keeps the last {@code exchangesPerOperation} exchanges in a ring buffer;
+ * calls slower than {@code slowThreshold} are additionally kept in a shared ring buffer so a
+ * burst of fast calls cannot evict them. Payloads are stored as truncated, redacted snapshots,
+ * which bounds memory to roughly {@code operations x exchangesPerOperation x 2 x snapshotChars}
+ * characters whatever the size of the documents exchanged.</p>
+ *
+ * <p>An exchange is built and posted on the calling thread, so the exchange in progress is kept
+ * in a thread-local and the transport layer can tag it with the operation. Reactive operations
+ * {@link #detach} it once the request is on its way and complete it from another thread.</p>
+ */
+@Slf4j
+@Component
+public class LogaltyFlightRecorder {
+
+    static final String UNKNOWN_OPERATION = "UNKNOWN";
+
+    private final FlightRecorderProperties properties;
+    private final Map<String, Ring> byOperation = new ConcurrentHashMap<>();
+    private final Ring slow;
+    private final ThreadLocal<Exchange> current = new ThreadLocal<>();
+
+    public LogaltyFlightRecorder(FlightRecorderProperties properties) {
+        this.properties = properties;
+        this.slow = new Ring(Math.max(1, properties.getSlowExchanges()));
+    }
+
+    /**
+     * Starts recording an exchange on the calling thread.
+     */
+    public Exchange begin(String id) {
+        Exchange exchange = new Exchange(id);
+        if (properties.isEnabled()) {
+            current.set(exchange);
+        }
+        return exchange;
+    }
+
+    /**
+     * Tags the exchange in progress on this thread with the SOAP operation being posted.
+     */
+    public void tagOperation(String operation) {
+        Exchange exchange = current.get();
+        if (exchange != null) {
+            exchange.operation = operation;
+        }
+    }
+
+    /**
+     * Releases the calling thread from {@code exchange}, e.g. before a reactive operation
+     * continues on another thread. The exchange itself can still be completed from anywhere.
+     */
+    public void detach(Exchange exchange) {
+        if (current.get() == exchange) {
+            current.remove();
+        }
+    }
+
+    public Map<String, List<ExchangeRecord>> recent() {
+        Map<String, List<ExchangeRecord>> result = new TreeMap<>();
+        byOperation.forEach((operation, ring) -> result.put(operation, ring.snapshot()));
+        return result;
+    }
+
+    public List<ExchangeRecord> recent(String operation) {
+        Ring ring = byOperation.get(operation);
+        return ring != null ? ring.snapshot() : List.of();
+    }
+
+    public List<ExchangeRecord> slow() {
+        return slow.snapshot();
+    }
+
+    private void complete(Exchange exchange, String outcome, String error) {
+        detach(exchange);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ExchangeRecord record = exchange.toRecord(outcome, error, properties.getSnapshotChars());
+        byOperation.computeIfAbsent(record.operation(), k -> new Ring(Math.max(1, properties.getExchangesPerOperation())))
+                .add(record);
+        if (record.totalMillis() >= properties.getSlowThreshold().toMillis()) {
+            slow.add(record);
+            log.warn("Slow Logalty exchange [{}] {}: {} ms (build={} post={} parse={})",
+                    record.id(), record.operation(), record.totalMillis(),
+                    record.buildMillis(), record.postMillis(), record.parseMillis());
+        }
+    }
+
+    /**
+     * One exchange in progress. Phase methods are called in order; the first of
+     * {@link #succeeded}, {@link #rejected} or {@link #failed} completes the exchange and later
+     * calls are ignored.
+     */
+    public final class Exchange {
+
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final long start = System.nanoTime();
+        private volatile String operation = UNKNOWN_OPERATION;
+        private long built = -1;
+        private long posted = -1;
+        private long parsed = -1;
+        private long finished = -1;
+        private String request;
+        private String response;
+        // UTF-8 payloads, retained until the snapshots are taken
+        private ContentSource requestSource;
+        private ContentSource responseSource;
+        private boolean completed;
+
+        private Exchange(String id) {
+            this.id = id;
+        }
+
+        public void built(String xmlRequest) {
+            built = System.nanoTime();
+            request = xmlRequest;
+        }
+
+        public void posted(String xmlResponse) {
+            posted = System.nanoTime();
+            response = xmlResponse;
+        }
+
+        public void built(ContentSource xmlRequest) {
+            built = System.nanoTime();
+            requestSource = retain(xmlRequest);
+        }
+
+        public void posted(ContentSource xmlResponse) {
+            posted = System.nanoTime();
+            responseSource = retain(xmlResponse);
+        }
+
+        public void parsed() {
+            parsed = System.nanoTime();
+        }
+
+        public void succeeded() {
+            finish(ExchangeRecord.SUCCESS, null);
+        }
+
+        public void rejected(String message) {
+            finish(ExchangeRecord.REJECTED, message);
+        }
+
+        public void failed(Throwable error) {
+            finish(ExchangeRecord.ERROR, error.getClass().getSimpleName() + ": " + error.getMessage());
+        }
+
+        private synchronized void finish(String outcome, String error) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            finished = System.nanoTime();
+            complete(this, outcome, error);
+            // Drop the references to the full payloads as soon as the snapshots are taken
+            request = null;
+            response = null;
+            requestSource = release(requestSource);
+            responseSource = release(responseSource);
+        }
+
+        private ContentSource retain(ContentSource source) {
+            return source != null && properties.isEnabled() ? source.retain() : null;
+        }
+
+        private ContentSource release(ContentSource source) {
+            if (source != null) {
+                source.release();
+            }
+            return null;
+        }
+
+        private ExchangeRecord toRecord(String outcome, String error, int snapshotChars) {
+            return new ExchangeRecord(
+                    id,
+                    operation,
+                    startedAt,
+                    outcome,
+                    error,
+                    phase(start, built),
+                    phase(built, posted),
+                    phase(posted, parsed),
+                    phase(parsed, finished),
+                    millis(finished - start),
+                    size(request, requestSource),
+                    size(response, responseSource),
+                    request != null ? SnapshotRedactor.snapshot(request, snapshotChars) : SnapshotRedactor.snapshot(requestSource, snapshotChars),
+                    response != null ? SnapshotRedactor.snapshot(response, snapshotChars) : SnapshotRedactor.snapshot(responseSource, snapshotChars)
+            );
+        }
+
+        // Characters of a String payload, bytes of a UTF-8 one
+        private int size(String text, ContentSource source) {
+            if (text != null) {
+                return text.length();
+            }
+            return source != null ? (int) Math.min(source.size(), Integer.MAX_VALUE) : 0;
+        }
+
+        private double phase(long from, long to) {
+            return from < 0 || to < 0 ? -1 : millis(to - from);
+        }
+
+        private double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer, oldest entries overwritten first.
+     */
+    private static final class Ring {
+
+        private final ExchangeRecord[] entries;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            this.entries = new ExchangeRecord[capacity];
+        }
+
+        synchronized void add(ExchangeRecord record) {
+            entries[next] = record;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+
+        /**
+         * Newest first.
+         */
+        synchronized List<ExchangeRecord> snapshot() {
+            List<ExchangeRecord> result = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                result.add(entries[(next - i + entries.length) % entries.length]);
+            }
+            return Collections.unmodifiableList(result);
+        }
+    }
+}
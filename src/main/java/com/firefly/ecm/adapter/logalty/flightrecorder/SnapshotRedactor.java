@@ -0,0 +1,175 @@
+package com.firefly.ecm.adapter.logalty.flightrecorder;
+
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Produces short, log-safe snapshots of Logalty XML documents.
+ *
+ * <p>A single forward pass copies at most {@code maxChars} characters into a pre-sized
+ * builder, so a multi-megabyte response never gets copied in full. Along the way it replaces
+ * base64 runs (document contents, signatures, certificates) with their length and masks the
+ * text of elements carrying personal data.</p>
+ */
+public final class SnapshotRedactor {
+
+    private static final int MIN_BASE64_RUN = 64;
+
+    // Input scanned per snapshot is bounded too, so skipping a huge base64 run stays cheap
+    private static final int SCAN_FACTOR = 64;
+
+    private static final Set<String> PERSONAL_DATA = Set.of(
+            "name", "last1", "last2", "email", "telephone", "phone", "mobile",
+            "documentnumber", "nif", "address", "birthdate"
+    );
+
+    private SnapshotRedactor() {
+        // utility class
+    }
+
+    public static String snapshot(CharSequence text, int maxChars) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        StringBuilder out = new StringBuilder(Math.min(maxChars, length) + 32);
+        int i = redact(text, maxChars, true, out);
+        if (i < length) {
+            out.append("...[+").append(length - i).append(" chars]");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Snapshot of a UTF-8 document. Only the part a snapshot can scan is read and decoded, and
+     * the rest is reported in bytes.
+     */
+    public static String snapshot(ContentSource document, int maxChars) {
+        if (document == null) {
+            return null;
+        }
+        long size = document.size();
+        byte[] head = ContentSources.read(document, 0, (int) Math.min(size, (long) SCAN_FACTOR * maxChars));
+        String text = new String(head, StandardCharsets.UTF_8);
+        StringBuilder out = new StringBuilder(Math.min(maxChars, text.length()) + 32);
+        int i = redact(text, maxChars, head.length == size, out);
+        long consumed = i == text.length() ? head.length : utf8Length(text, i);
+        if (consumed < size) {
+            out.append("...[+").append(size - consumed).append(" bytes]");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Copies the redacted start of {@code text} to {@code out}.
+     *
+     * @param whole whether {@code text} is the whole document rather than its start
+     * @return the number of characters of {@code text} consumed
+     */
+    private static int redact(CharSequence text, int maxChars, boolean whole, StringBuilder out) {
+        int length = text.length();
+        int scanLimit = (int) Math.min(length, (long) SCAN_FACTOR * maxChars);
+        int i = 0;
+        while (i < scanLimit && out.length() < maxChars) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                int end = indexOf(text, '>', i);
+                if (end < 0) {
+                    out.append(text, i, Math.min(length, i + maxChars - out.length()));
+                    i = length;
+                    break;
+                }
+                out.append(text, i, end + 1);
+                boolean personalData = isPersonalDataStart(text, i, end);
+                i = end + 1;
+                if (personalData) {
+                    int next = indexOf(text, '<', i);
+                    next = next < 0 ? length : next;
+                    if (next > i) {
+                        out.append("***");
+                    }
+                    i = next;
+                }
+            } else if (isBase64(c)) {
+                int run = i;
+                int significant = 0;
+                while (run < scanLimit && (isBase64(text.charAt(run)) || isLineBreak(text.charAt(run)))) {
+                    if (!isLineBreak(text.charAt(run))) {
+                        significant++;
+                    }
+                    run++;
+                }
+                if (significant >= MIN_BASE64_RUN) {
+                    out.append("[base64 ").append(significant).append(run < scanLimit || (whole && run == length) ? "" : "+").append(" chars]");
+                } else {
+                    out.append(text, i, run);
+                }
+                i = run;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static long utf8Length(CharSequence text, int end) {
+        long bytes = 0;
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Whether the tag spanning {@code [start, end]} opens an element holding personal data.
+     */
+    private static boolean isPersonalDataStart(CharSequence text, int start, int end) {
+        int nameStart = start + 1;
+        if (nameStart >= end || text.charAt(nameStart) == '/' || text.charAt(nameStart) == '?'
+                || text.charAt(nameStart) == '!' || text.charAt(end - 1) == '/') {
+            return false;
+        }
+        int nameEnd = nameStart;
+        while (nameEnd < end && !Character.isWhitespace(text.charAt(nameEnd)) && text.charAt(nameEnd) != '/') {
+            if (text.charAt(nameEnd) == ':') {
+                nameStart = nameEnd + 1;
+            }
+            nameEnd++;
+        }
+        return PERSONAL_DATA.contains(text.subSequence(nameStart, nameEnd).toString().toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isBase64(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '+' || c == '/' || c == '=';
+    }
+
+    // Base64 in XML is often wrapped at 76 columns
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private static int indexOf(CharSequence text, char target, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.firefly.ecm.adapter.logalty.hedge;
+
+import java.util.Arrays;
+
+/**
+ * The last {@code capacity} latencies of an operation, with a percentile that is recomputed
+ * every {@code capacity / 10} samples rather than on every read.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final int recomputeEvery;
+    private final double quantile;
+
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int capacity, double quantile) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Latency window capacity must be positive");
+        }
+        this.samples = new long[capacity];
+        this.recomputeEvery = Math.max(1, capacity / 10);
+        this.quantile = quantile;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.max(0, Math.min(count - 1, (int) Math.ceil(quantile * count) - 1))];
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @return the percentile as of the last recomputation, {@code -1} before the first one
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,222 @@
+package com.firefly.ecm.adapter.logalty.hedge;
+
+import com.firefly.ecm.adapter.logalty.HedgeProperties;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Hedges idempotent reads: when a request has not answered after a delay, the same request
+ * is sent again and whichever answers first wins; the other one is cancelled.
+ *
+ * <p>Only the {@code operations} listed are hedged, so a request that changes state is never
+ * sent twice. The delay is {@code delay}, or once an operation has {@code minSamples}
+ * latencies, the {@code percentile} of its last {@code window} first attempts (at least
+ * {@code minDelay}): only the slowest requests are hedged, and the delay follows Logalty's
+ * latency as it changes. A request that fails before the delay fails at once; a failure of one
+ * attempt while the other is in flight waits for the other.</p>
+ *
+ * <p>Each attempt takes a {@link LogaltyRateLimiter} permit. The first attempt waits for its
+ * permit before the delay starts, so time spent queued in the limiter neither triggers a hedge
+ * nor counts as latency. The hedge is only sent if a permit is available at once: under quota
+ * pressure slow reads are not hedged.</p>
+ *
+ * <p>Hedges are paid from a budget shared by all operations: every hedgeable request earns
+ * {@code budgetRatio} of a hedge, up to {@code budgetBurst} saved, so hedges add at most that
+ * fraction of extra load even when Logalty is slow across the board. Requests are counted as
+ * {@code logalty.hedge.requests}, hedges sent as {@code logalty.hedge.sent}, hedges that
+ * answered first as {@code logalty.hedge.wins} and hedges denied by the budget or the rate
+ * limit as {@code logalty.hedge.skipped}, all tagged with the {@code operation}. The gauges
+ * {@code logalty.hedge.rate} (sent per request) and {@code logalty.hedge.win.rate} (wins per
+ * hedge sent) expose the ratios, and {@code logalty.hedge.delay} the current delay in
+ * milliseconds.</p>
+ */
+@Slf4j
+@Component
+public class RequestHedger {
+
+    private final HedgeProperties properties;
+    private final LogaltyRateLimiter rateLimiter;
+    private final LongSupplier nanoClock;
+    private final Map<LogaltyOperation, Stats> stats = new EnumMap<>(LogaltyOperation.class);
+
+    private double budget;
+
+    @Autowired
+    public RequestHedger(HedgeProperties properties, LogaltyRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this(properties, rateLimiter, meterRegistry, System::nanoTime);
+    }
+
+    RequestHedger(HedgeProperties properties, LogaltyRateLimiter rateLimiter, MeterRegistry meterRegistry,
+                  LongSupplier nanoClock) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.nanoClock = nanoClock;
+        this.budget = properties.getBudgetBurst();
+        for (LogaltyOperation operation : properties.getOperations()) {
+            stats.put(operation, new Stats(operation, meterRegistry));
+        }
+    }
+
+    /**
+     * Hedges {@code request} for the tenant found in the Reactor context.
+     */
+    public <T> Mono<T> hedge(LogaltyOperation operation, Mono<T> request) {
+        return TenantContext.currentTenant().flatMap(tenant -> hedge(operation, tenant, request));
+    }
+
+    /**
+     * Sends {@code request} once a rate limit permit of the tenant is granted, and hedges it.
+     * The request is subscribed to once more for the hedge and must therefore be cold; it must
+     * not take a permit itself. Operations that are not hedged are sent once.
+     */
+    public <T> Mono<T> hedge(LogaltyOperation operation, String tenant, Mono<T> request) {
+        Mono<Void> permit = rateLimiter.acquire(operation, tenant);
+        Stats operationStats = properties.isEnabled() ? stats.get(operation) : null;
+        if (operationStats == null) {
+            return permit.then(request);
+        }
+        return permit.then(Mono.defer(() -> {
+            operationStats.requests.increment();
+            earn();
+
+            long start = nanoClock.getAsLong();
+            Sinks.One<Boolean> settled = Sinks.one();
+            Mono<Attempt<T>> first = request
+                    .map(value -> new Attempt<>(value, false))
+                    .doOnTerminate(() -> settled.tryEmitValue(Boolean.TRUE))
+                    .doFinally(signal -> {
+                        // A first attempt cancelled by the winning hedge took at least this long
+                        if (signal != SignalType.ON_ERROR) {
+                            operationStats.latencies.record(nanoClock.getAsLong() - start);
+                        }
+                    });
+            Mono<Attempt<T>> hedge = Mono.delay(delay(operationStats))
+                    .takeUntilOther(settled.asMono())
+                    .filter(tick -> spend(operationStats, tenant))
+                    .flatMap(tick -> {
+                        operationStats.sent.increment();
+                        log.debug("No answer to {} after {}, sending a hedged request", operation, delay(operationStats));
+                        return request.map(value -> new Attempt<>(value, true));
+                    });
+
+            return Flux.mergeDelayError(1, first, hedge)
+                    .next()
+                    .map(attempt -> {
+                        if (attempt.hedged()) {
+                            operationStats.wins.increment();
+                        }
+                        return attempt.value();
+                    })
+                    // Both attempts failed: report the first attempt's failure
+                    .onErrorMap(Exceptions::isMultiple, e -> Exceptions.unwrapMultiple(e).get(0));
+        }));
+    }
+
+    /**
+     * @return the wait before {@code operation} is hedged, {@code null} if it is not hedged
+     */
+    public Duration delay(LogaltyOperation operation) {
+        Stats operationStats = stats.get(operation);
+        return operationStats != null ? delay(operationStats) : null;
+    }
+
+    private Duration delay(Stats operationStats) {
+        if (properties.getPercentile() <= 0 || operationStats.latencies.count() < properties.getMinSamples()) {
+            return properties.getDelay();
+        }
+        long percentile = operationStats.latencies.percentileNanos();
+        if (percentile < 0) {
+            return properties.getDelay();
+        }
+        Duration observed = Duration.ofNanos(percentile);
+        return observed.compareTo(properties.getMinDelay()) < 0 ? properties.getMinDelay() : observed;
+    }
+
+    private synchronized void earn() {
+        budget = Math.min(properties.getBudgetBurst(), budget + properties.getBudgetRatio());
+    }
+
+    /**
+     * Pays for a hedge from the budget and takes its permit without waiting.
+     */
+    private boolean spend(Stats operationStats, String tenant) {
+        if (!spendBudget()) {
+            operationStats.skipped.increment();
+            return false;
+        }
+        if (!rateLimiter.tryAcquire(operationStats.operation, tenant)) {
+            refundBudget();
+            operationStats.skipped.increment();
+            log.debug("No rate limit permit for a hedged {} (tenant={}), waiting for the first attempt",
+                    operationStats.operation, tenant);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized boolean spendBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private synchronized void refundBudget() {
+        budget = Math.min(properties.getBudgetBurst(), budget + 1);
+    }
+
+    private record Attempt<T>(T value, boolean hedged) {
+    }
+
+    private final class Stats {
+
+        private final LogaltyOperation operation;
+        private final LatencyWindow latencies;
+        private final Counter requests;
+        private final Counter sent;
+        private final Counter wins;
+        private final Counter skipped;
+
+        Stats(LogaltyOperation operation, MeterRegistry meterRegistry) {
+            this.operation = operation;
+            String tag = operation.name();
+            this.latencies = new LatencyWindow(properties.getWindow(), properties.getPercentile());
+            this.requests = Counter.builder("logalty.hedge.requests").tag("operation", tag).register(meterRegistry);
+            this.sent = Counter.builder("logalty.hedge.sent").tag("operation", tag).register(meterRegistry);
+            this.wins = Counter.builder("logalty.hedge.wins").tag("operation", tag).register(meterRegistry);
+            this.skipped = Counter.builder("logalty.hedge.skipped").tag("operation", tag).register(meterRegistry);
+            Gauge.builder("logalty.hedge.rate", this, s -> ratio(s.sent.count(), s.requests.count()))
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+            Gauge.builder("logalty.hedge.win.rate", this, s -> ratio(s.wins.count(), s.sent.count()))
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+            Gauge.builder("logalty.hedge.delay", this, s -> delay(s).toMillis())
+                    .tag("operation", tag)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        private static double ratio(double part, double whole) {
+            return whole == 0 ? 0 : part / whole;
+        }
+    }
+}
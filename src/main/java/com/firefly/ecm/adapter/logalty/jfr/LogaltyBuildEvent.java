@@ -0,0 +1,11 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.firefly.ecm.logalty.Build")
+@Label("Logalty Build Request")
+@Description("Builds the XML request document, including signing")
+class LogaltyBuildEvent extends LogaltyPhaseEvent {
+}
@@ -0,0 +1,220 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Emits the Logalty JFR events of one {@code executeOperation} call.
+ *
+ * <p>Phase events are begun and ended as the phases run, but committed together when the
+ * operation finishes, so every event carries the operation name (known only once the request
+ * is posted), the envelope ID and the final outcome. When no Logalty event is enabled,
+ * {@link #begin} returns a shared no-op instance and nothing is allocated or recorded per
+ * call.</p>
+ *
+ * <p>The build and post phases start on the calling thread, so the scope in progress is kept in
+ * a thread-local; that is how {@link #signed} and {@link #tagOperation} find it from deeper in
+ * the call. Reactive operations {@link #detach} it before their later phases move to other
+ * threads.</p>
+ */
+public class LogaltyEvents {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String REJECTED = "REJECTED";
+    public static final String ERROR = "ERROR";
+
+    private static final LogaltyEvents DISABLED = new LogaltyEvents(null);
+    private static final ThreadLocal<LogaltyEvents> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<String> ENVELOPE = new ThreadLocal<>();
+
+    private final String id;
+    private final List<LogaltyPhaseEvent> events;
+    private LogaltyOperationEvent operationEvent;
+    private LogaltyPhaseEvent phase;
+    private String operation;
+    private long requestSize;
+    private long responseSize;
+
+    private LogaltyEvents(String id) {
+        this.id = id;
+        this.events = id != null ? new ArrayList<>(5) : null;
+    }
+
+    @FunctionalInterface
+    public interface SignCall<E extends Exception> {
+        String sign() throws E;
+    }
+
+    /**
+     * Starts the events of an operation on the calling thread.
+     *
+     * @param id the operation id handed to {@code executeOperation}; used as envelope ID unless
+     *           the caller runs inside {@link #forEnvelope}
+     */
+    public static LogaltyEvents begin(String id) {
+        LogaltyOperationEvent event = new LogaltyOperationEvent();
+        if (!anyEnabled(event)) {
+            return DISABLED;
+        }
+        LogaltyEvents scope = new LogaltyEvents(id);
+        scope.operationEvent = event;
+        event.begin();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs {@code call} with {@code envelopeId} attached to the events it produces, e.g. the ECM
+     * envelope behind an {@code initSignature} call.
+     */
+    public static <T> T forEnvelope(Object envelopeId, Supplier<T> call) {
+        if (envelopeId == null || !anyEnabled(new LogaltyOperationEvent())) {
+            return call.get();
+        }
+        String previous = ENVELOPE.get();
+        ENVELOPE.set(envelopeId.toString());
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                ENVELOPE.set(previous);
+            } else {
+                ENVELOPE.remove();
+            }
+        }
+    }
+
+    /**
+     * Records {@code call} as the sign phase of the operation in progress on this thread.
+     */
+    public static <E extends Exception> String signed(SignCall<E> call) throws E {
+        LogaltyEvents scope = CURRENT.get();
+        if (scope == null) {
+            return call.sign();
+        }
+        LogaltySignEvent event = new LogaltySignEvent();
+        event.begin();
+        String signed = call.sign();
+        event.end();
+        scope.keep(event);
+        return signed;
+    }
+
+    /**
+     * Tags the operation in progress on this thread with the SOAP operation being posted.
+     */
+    public static void tagOperation(String operation) {
+        LogaltyEvents scope = CURRENT.get();
+        if (scope != null) {
+            scope.operation = operation;
+        }
+    }
+
+    /**
+     * Releases the calling thread from this scope; the phase methods and {@link #finish} keep
+     * working from any thread.
+     */
+    public void detach() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    public void buildStarted() {
+        start(new LogaltyBuildEvent());
+    }
+
+    public void buildFinished(String xmlRequest) {
+        requestSize = xmlRequest != null ? xmlRequest.length() : 0;
+        end();
+    }
+
+    public void buildFinished(ContentSource xmlRequest) {
+        requestSize = xmlRequest != null ? xmlRequest.size() : 0;
+        end();
+    }
+
+    public void postStarted() {
+        start(new LogaltyPostEvent());
+    }
+
+    public void postFinished(String xmlResponse) {
+        responseSize = xmlResponse != null ? xmlResponse.length() : 0;
+        end();
+    }
+
+    public void postFinished(ContentSource xmlResponse) {
+        responseSize = xmlResponse != null ? xmlResponse.size() : 0;
+        end();
+    }
+
+    public void parseStarted() {
+        start(new LogaltyParseEvent());
+    }
+
+    public void parseFinished() {
+        end();
+    }
+
+    /**
+     * Commits all events of the operation. Only the first call has an effect.
+     */
+    public synchronized void finish(String outcome) {
+        if (this == DISABLED || operationEvent == null) {
+            return;
+        }
+        detach();
+        operationEvent.end();
+        if (phase != null) {
+            // Failed mid-phase: the phase gets the failure outcome too
+            phase.end();
+            keep(phase);
+            phase = null;
+        }
+        events.add(operationEvent);
+
+        String envelopeId = ENVELOPE.get() != null ? ENVELOPE.get() : id;
+        for (LogaltyPhaseEvent event : events) {
+            event.operation = operation;
+            event.envelopeId = envelopeId;
+            event.requestSize = requestSize;
+            event.responseSize = responseSize;
+            event.outcome = outcome;
+            event.commit();
+        }
+        operationEvent = null;
+    }
+
+    private void start(LogaltyPhaseEvent event) {
+        if (this == DISABLED) {
+            return;
+        }
+        event.begin();
+        phase = event;
+    }
+
+    private void end() {
+        if (phase != null) {
+            phase.end();
+            keep(phase);
+            phase = null;
+        }
+    }
+
+    private void keep(LogaltyPhaseEvent event) {
+        if (event.shouldCommit()) {
+            events.add(event);
+        }
+    }
+
+    private static boolean anyEnabled(LogaltyOperationEvent probe) {
+        return probe.isEnabled()
+                || new LogaltyBuildEvent().isEnabled()
+                || new LogaltySignEvent().isEnabled()
+                || new LogaltyPostEvent().isEnabled()
+                || new LogaltyParseEvent().isEnabled();
+    }
+}
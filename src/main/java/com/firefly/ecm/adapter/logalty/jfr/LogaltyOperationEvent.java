@@ -0,0 +1,11 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.firefly.ecm.logalty.Operation")
+@Label("Logalty Operation")
+@Description("One complete Logalty operation, from building the request to validating the response")
+class LogaltyOperationEvent extends LogaltyPhaseEvent {
+}
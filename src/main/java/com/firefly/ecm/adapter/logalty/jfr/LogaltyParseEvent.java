@@ -0,0 +1,11 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.firefly.ecm.logalty.Parse")
+@Label("Logalty Parse Response")
+@Description("Parses the Logalty response document")
+class LogaltyParseEvent extends LogaltyPhaseEvent {
+}
@@ -0,0 +1,34 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by all Logalty JFR events. Events are disabled by default; see
+ * {@code jfr/logalty.jfc} for a settings file that enables them.
+ */
+@Category({"Firefly", "Logalty"})
+@Enabled(false)
+@StackTrace(false)
+abstract class LogaltyPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Envelope ID")
+    String envelopeId;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestSize;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseSize;
+
+    @Label("Outcome")
+    String outcome;
+}
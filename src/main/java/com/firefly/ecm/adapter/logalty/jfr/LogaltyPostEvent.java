@@ -0,0 +1,11 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.firefly.ecm.logalty.Post")
+@Label("Logalty Post Request")
+@Description("Sends the signed request to Logalty and waits for the response")
+class LogaltyPostEvent extends LogaltyPhaseEvent {
+}
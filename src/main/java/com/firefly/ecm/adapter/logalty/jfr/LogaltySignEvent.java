@@ -0,0 +1,11 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.firefly.ecm.logalty.Sign")
+@Label("Logalty Sign Request")
+@Description("Signs the XML request document with the tenant certificate")
+class LogaltySignEvent extends LogaltyPhaseEvent {
+}
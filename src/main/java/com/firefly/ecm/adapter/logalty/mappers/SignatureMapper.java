@@ -19,27 +19,32 @@ public final class SignatureMapper {
         AtomicInteger counter = new AtomicInteger(1);
 
         return signatureRequests.stream()
-                .map(req -> {
-                    ReceiverDTO dto = new ReceiverDTO();
+                .map(req -> toReceiverDTO(req, counter.getAndIncrement()))
+                .toList();
+    }
 
-                    dto.setName(req.getSignerName());
-                    dto.setLast1("");
-                    dto.setLast2("");
-                    dto.setTelephone("");
-                    dto.setEmail(req.getSignerEmail());
+    /**
+     * Maps a single signer, e.g. the only receiver of one campaign request.
+     */
+    public static ReceiverDTO toReceiverDTO(SignatureRequest req, int receiverId) {
+        ReceiverDTO dto = new ReceiverDTO();
 
-                    dto.setDocumentType("");
-                    dto.setDocumentCountry("");
-                    dto.setDocumentNumber("");
+        dto.setName(req.getSignerName());
+        dto.setLast1("");
+        dto.setLast2("");
+        dto.setTelephone("");
+        dto.setEmail(req.getSignerEmail());
 
-                    dto.setUuid(req.getSignerId() != null ? req.getSignerId().toString() : null);
+        dto.setDocumentType("");
+        dto.setDocumentCountry("");
+        dto.setDocumentNumber("");
 
-                    dto.setReceiverId(counter.getAndIncrement());
-                    dto.setGroupId(1);
-                    dto.setRuleId(1);
+        dto.setUuid(req.getSignerId() != null ? req.getSignerId().toString() : null);
 
-                    return dto;
-                })
-                .toList();
+        dto.setReceiverId(receiverId);
+        dto.setGroupId(1);
+        dto.setRuleId(1);
+
+        return dto;
     }
 }
@@ -0,0 +1,26 @@
+package com.firefly.ecm.adapter.logalty.outbox;
+
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persisted form of a pending {@code initSignature} submission.
+ */
+@Getter
+@Setter
+public class OutboxEntry {
+
+    private UUID id;
+    private String tenantId;
+    private UUID envelopeId;
+    private Instant createdAt;
+    private List<ReceiverDTO> receivers;
+    private List<BinaryContentsDTO> binaryContents;
+
+}
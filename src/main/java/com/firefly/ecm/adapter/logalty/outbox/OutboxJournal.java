@@ -0,0 +1,365 @@
+package com.firefly.ecm.adapter.logalty.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented journal backing the signature outbox.
+ *
+ * <p>Records are framed as {@code [int bodyLength][int crc32][body]} with a body of
+ * {@code [byte type][long msb][long lsb][payload]}. A SUBMIT record carries the serialized
+ * entry, an ATTEMPT record the number of failed attempts of a pending entry so far, ACK and
+ * DEAD records only carry the entry id and retire it. Segments roll over once
+ * they exceed the configured size; {@link #compact(double)} deletes sealed segments with no
+ * pending entries and rewrites sparse ones into the active segment, always oldest first.</p>
+ *
+ * <p>{@link #open()} replays every segment in order to rebuild the pending index and truncates
+ * a torn record at the tail of the last segment left behind by a crash.</p>
+ */
+@Slf4j
+public class OutboxJournal implements Closeable {
+
+    static final byte SUBMIT = 1;
+    static final byte ACK = 2;
+    static final byte DEAD = 3;
+    static final byte ATTEMPT = 4;
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int BODY_PREFIX_BYTES = 1 + Long.BYTES * 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean syncOnAppend;
+
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<UUID, Location> pending = new LinkedHashMap<>();
+    private final Map<UUID, Integer> attempts = new HashMap<>();
+    private Segment active;
+
+    public OutboxJournal(Path directory, long segmentBytes, boolean syncOnAppend) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    /**
+     * Opens the journal, replaying existing segments.
+     *
+     * @return ids of the entries still pending, in submission order
+     */
+    public synchronized List<UUID> open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = openSegment(files.get(i));
+            segments.put(segment.id, segment);
+            replay(segment, i == files.size() - 1);
+        }
+
+        active = segments.isEmpty() ? createSegment(0L) : segments.lastEntry().getValue();
+        log.info("Outbox journal opened at {}: segments={}, pending={}", directory, segments.size(), pending.size());
+        return new ArrayList<>(pending.keySet());
+    }
+
+    public synchronized void append(UUID id, byte[] payload) throws IOException {
+        Location location = write(SUBMIT, id, payload);
+        track(id, location);
+    }
+
+    public synchronized void ack(UUID id) throws IOException {
+        retire(ACK, id);
+    }
+
+    public synchronized void dead(UUID id) throws IOException {
+        retire(DEAD, id);
+    }
+
+    /**
+     * Records a failed attempt of a pending entry.
+     *
+     * @return the number of failed attempts so far, {@code 0} when the entry is no longer pending
+     */
+    public synchronized int attempt(UUID id) throws IOException {
+        if (!pending.containsKey(id)) {
+            return 0;
+        }
+        int attempt = attempts.getOrDefault(id, 0) + 1;
+        write(ATTEMPT, id, ByteBuffer.allocate(Integer.BYTES).putInt(attempt).array());
+        attempts.put(id, attempt);
+        return attempt;
+    }
+
+    /**
+     * @return the failed attempts recorded for a pending entry, surviving restarts
+     */
+    public synchronized int attempts(UUID id) {
+        return attempts.getOrDefault(id, 0);
+    }
+
+    /**
+     * Reads the payload of a pending entry.
+     *
+     * @return the payload, or {@code null} when the entry is no longer pending
+     */
+    public synchronized byte[] read(UUID id) throws IOException {
+        Location location = pending.get(id);
+        if (location == null) {
+            return null;
+        }
+        Segment segment = segments.get(location.segmentId);
+        ByteBuffer body = ByteBuffer.allocate(location.bodyLength);
+        readFully(segment.channel, body, location.position + HEADER_BYTES);
+        body.position(BODY_PREFIX_BYTES);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        return payload;
+    }
+
+    public synchronized boolean isPending(UUID id) {
+        return pending.containsKey(id);
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Removes the oldest sealed segments that no longer hold pending entries, rewriting the pending
+     * entries of those whose live fraction is below {@code liveRatio}. Stops at the first sealed
+     * segment that is still dense enough to keep.
+     *
+     * @return the number of segments deleted
+     */
+    public synchronized int compact(double liveRatio) throws IOException {
+        List<Segment> sealed = new ArrayList<>(segments.headMap(active.id, false).values());
+        int deleted = 0;
+        for (Segment segment : sealed) {
+            // Only a prefix of the journal may go: a later segment can hold the ACK that retires
+            // an entry submitted in an earlier one, so deleting out of order would resurrect it.
+            if (segment.live > 0 && (double) segment.live / segment.submits >= liveRatio) {
+                break;
+            }
+            if (segment.live > 0) {
+                List<UUID> survivors = pending.entrySet().stream()
+                        .filter(e -> e.getValue().segmentId == segment.id)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                for (UUID id : survivors) {
+                    track(id, write(SUBMIT, id, read(id)));
+                    Integer attempt = attempts.get(id);
+                    if (attempt != null) {
+                        write(ATTEMPT, id, ByteBuffer.allocate(Integer.BYTES).putInt(attempt).array());
+                    }
+                }
+                log.debug("Outbox compaction moved {} pending entrie(s) out of segment {}", survivors.size(), segment.id);
+            }
+            segments.remove(segment.id);
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+            deleted++;
+        }
+        if (deleted > 0) {
+            log.info("Outbox compaction removed {} segment(s), pending={}", deleted, pending.size());
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+        pending.clear();
+        attempts.clear();
+    }
+
+    private void retire(byte type, UUID id) throws IOException {
+        Location location = pending.get(id);
+        if (location == null) {
+            return;
+        }
+        write(type, id, new byte[0]);
+        pending.remove(id);
+        attempts.remove(id);
+        Segment owner = segments.get(location.segmentId);
+        if (owner != null) {
+            owner.live--;
+        }
+    }
+
+    private void track(UUID id, Location location) {
+        Location previous = pending.put(id, location);
+        if (previous != null && segments.containsKey(previous.segmentId)) {
+            segments.get(previous.segmentId).live--;
+        }
+        Segment owner = segments.get(location.segmentId);
+        owner.live++;
+        owner.submits++;
+    }
+
+    private Location write(byte type, UUID id, byte[] payload) throws IOException {
+        if (active.size >= segmentBytes) {
+            if (syncOnAppend) {
+                active.channel.force(false);
+            }
+            active = createSegment(active.id + 1);
+        }
+
+        int bodyLength = BODY_PREFIX_BYTES + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength);
+        record.putInt(0);
+        record.put(type);
+        record.putLong(id.getMostSignificantBits());
+        record.putLong(id.getLeastSignificantBits());
+        record.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+
+        long position = active.size;
+        while (record.hasRemaining()) {
+            active.channel.write(record, position + record.position());
+        }
+        if (syncOnAppend) {
+            active.channel.force(false);
+        }
+        active.size += HEADER_BYTES + bodyLength;
+        return new Location(active.id, position, bodyLength);
+    }
+
+    private void replay(Segment segment, boolean last) throws IOException {
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long fileSize = segment.channel.size();
+
+        while (position < fileSize) {
+            header.clear();
+            if (fileSize - position < HEADER_BYTES) {
+                break;
+            }
+            readFully(segment.channel, header, position);
+            int bodyLength = header.getInt(0);
+            int expectedCrc = header.getInt(Integer.BYTES);
+            if (bodyLength < BODY_PREFIX_BYTES || position + HEADER_BYTES + bodyLength > fileSize) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(segment.channel, body, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, bodyLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            byte type = body.get(0);
+            UUID id = new UUID(body.getLong(1), body.getLong(1 + Long.BYTES));
+            if (type == SUBMIT) {
+                track(id, new Location(segment.id, position, bodyLength));
+            } else if (type == ATTEMPT) {
+                if (pending.containsKey(id)) {
+                    attempts.put(id, body.getInt(BODY_PREFIX_BYTES));
+                }
+            } else {
+                attempts.remove(id);
+                Location location = pending.remove(id);
+                if (location != null && segments.containsKey(location.segmentId)) {
+                    segments.get(location.segmentId).live--;
+                }
+            }
+            position += HEADER_BYTES + bodyLength;
+        }
+
+        if (position < fileSize) {
+            if (last) {
+                log.warn("Outbox segment {} has a torn tail at offset {}, truncating {} byte(s)",
+                        segment.path, position, fileSize - position);
+                segment.channel.truncate(position);
+            } else {
+                log.error("Outbox segment {} is corrupt at offset {}, ignoring the remainder", segment.path, position);
+            }
+        }
+        segment.size = position;
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Segment segment = openSegment(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segments.put(segment.id, segment);
+        log.debug("Outbox journal rolled to segment {}", segment.path);
+        return segment;
+    }
+
+    private static Segment openSegment(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel);
+        segment.size = channel.size();
+        return segment;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of outbox segment at offset " + position);
+            }
+        }
+        buffer.flip();
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+        private int submits;
+        private int live;
+
+        private Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private record Location(long segmentId, long position, int bodyLength) {
+    }
+}
@@ -0,0 +1,330 @@
+package com.firefly.ecm.adapter.logalty.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.OutboxProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRejectedException;
+import com.firefly.ecm.adapter.logalty.exceptions.MemoryAdmissionException;
+import com.firefly.ecm.adapter.logalty.exceptions.PdfPreflightException;
+import com.firefly.ecm.adapter.logalty.exceptions.RequestValidationException;
+import com.firefly.ecm.adapter.logalty.jfr.LogaltyEvents;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Durable outbox for {@code initSignature} submissions.
+ *
+ * <p>{@link #enqueue} writes the submission to the local {@link OutboxJournal} and completes
+ * as soon as it is on disk. A background dispatcher drains the journal at
+ * {@code dispatchRatePerSecond} with at most {@code maxConcurrency} calls in flight, acking
+ * entries Logalty accepted and retrying transient failures with a fixed backoff until
+ * {@code maxAttempts} is reached. Submissions that cannot succeed as they are (rejected by
+ * Logalty, invalid, larger than the memory budget) are dead-lettered at once. Entries still
+ * pending after a restart are replayed from the journal on startup, with the attempts they
+ * already used.</p>
+ *
+ * <p>A delivered submission is published to {@link EnvelopeStatusEvents} as
+ * {@link EnvelopeStatus#SENT}, a dead-lettered one as {@link EnvelopeStatus#VOIDED}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "firefly.ecm.adapter.logalty.outbox.enabled", havingValue = "true")
+public class SignatureOutbox {
+
+    private final OutboxProperties properties;
+    private final SignatureService signatureService;
+    private final LogaltyCommonService common;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final LogaltyRateLimiter rateLimiter;
+    private final MemoryAdmission admission;
+    private final EnvelopeStatusEvents statusEvents;
+
+    private final Queue<UUID> ready = new ConcurrentLinkedQueue<>();
+    private final Scheduler journalScheduler = Schedulers.newBoundedElastic(1, Integer.MAX_VALUE, "logalty-outbox-journal");
+
+    private OutboxJournal journal;
+    private Disposable dispatcher;
+    private Disposable compactor;
+
+    public SignatureOutbox(OutboxProperties properties,
+                           SignatureService signatureService,
+                           LogaltyCommonService common,
+                           ObjectMapper objectMapper,
+                           @Qualifier("logaltyCircuitBreaker") CircuitBreaker circuitBreaker,
+                           LogaltyRateLimiter rateLimiter,
+                           MemoryAdmission admission,
+                           EnvelopeStatusEvents statusEvents) {
+        this.properties = properties;
+        this.signatureService = signatureService;
+        this.common = common;
+        this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.admission = admission;
+        this.statusEvents = statusEvents;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new OutboxJournal(
+                Paths.get(properties.getDirectory()),
+                properties.getSegmentBytes(),
+                properties.isSyncOnAppend()
+        );
+        List<UUID> recovered = journal.open();
+        ready.addAll(recovered);
+        if (!recovered.isEmpty()) {
+            log.info("Outbox recovered {} pending submission(s)", recovered.size());
+        }
+
+        Duration period = Duration.ofNanos((long) (1_000_000_000L / properties.getDispatchRatePerSecond()));
+        dispatcher = Flux.interval(period)
+                .onBackpressureDrop()
+                .flatMap(tick -> dispatchNext(), properties.getMaxConcurrency())
+                .subscribe();
+
+        compactor = Flux.interval(properties.getCompactionInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(() -> journal.compact(properties.getCompactionLiveRatio()))
+                        .subscribeOn(journalScheduler)
+                        .onErrorResume(e -> {
+                            log.error("Outbox compaction failed: {}", e.getMessage(), e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+
+        log.info("Logalty outbox started at {} (rate={}/s, concurrency={})",
+                properties.getDirectory(), properties.getDispatchRatePerSecond(), properties.getMaxConcurrency());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (dispatcher != null) {
+            dispatcher.dispose();
+        }
+        if (compactor != null) {
+            compactor.dispose();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        journalScheduler.dispose();
+    }
+
+    /**
+     * Persists a submission and completes once it is durable. Logalty is called later by the
+     * background dispatcher.
+     *
+     * @param tenantId           the tenant whose certificate signs the submission
+     * @param envelopeId         the ECM envelope the submission belongs to, may be {@code null}
+     * @param receivers          the receivers of the signature process
+     * @param binaryContentsList the documents to sign
+     * @return the outbox id of the persisted entry
+     */
+    public Mono<UUID> enqueue(String tenantId,
+                              UUID envelopeId,
+                              List<ReceiverDTO> receivers,
+                              List<BinaryContentsDTO> binaryContentsList) {
+        return Mono.fromCallable(() -> {
+                    common.validateInput(receivers, binaryContentsList);
+
+                    OutboxEntry entry = new OutboxEntry();
+                    entry.setId(UUID.randomUUID());
+                    entry.setTenantId(tenantId);
+                    entry.setEnvelopeId(envelopeId);
+                    entry.setCreatedAt(Instant.now());
+                    entry.setReceivers(receivers);
+                    entry.setBinaryContents(durable(binaryContentsList));
+
+                    journal.append(entry.getId(), objectMapper.writeValueAsBytes(entry));
+                    ready.offer(entry.getId());
+                    log.debug("Outbox accepted submission {} for envelope {}", entry.getId(), envelopeId);
+                    return entry.getId();
+                })
+                .subscribeOn(journalScheduler);
+    }
+
+    /**
+     * Content sources (mapped files, pooled buffers) do not outlive the caller, so their bytes
+     * are copied into the journaled entry. The caller keeps ownership of the sources.
+     */
+    private static List<BinaryContentsDTO> durable(List<BinaryContentsDTO> binaryContentsList) {
+        return binaryContentsList.stream()
+                .map(dto -> {
+                    if (dto.getSource() == null) {
+                        return dto;
+                    }
+                    BinaryContentsDTO copy = new BinaryContentsDTO();
+                    copy.setBinaryContentId(dto.getBinaryContentId());
+                    copy.setGroupId(dto.getGroupId());
+                    copy.setContents(ContentSources.toByteArray(dto.getSource()));
+                    copy.setEncoding(dto.getEncoding());
+                    copy.setFilename(dto.getFilename());
+                    copy.setExtension(dto.getExtension());
+                    copy.setType(dto.getType());
+                    return copy;
+                })
+                .toList();
+    }
+
+    public int pendingCount() {
+        return journal.pendingCount();
+    }
+
+    private Mono<Void> dispatchNext() {
+        UUID id = ready.poll();
+        if (id == null) {
+            return Mono.empty();
+        }
+
+        return Mono.fromCallable(() -> journal.read(id))
+                .subscribeOn(journalScheduler)
+                .map(payload -> readEntry(id, payload))
+                .flatMap(entry -> dispatch(id, entry)
+                        .onErrorResume(e -> handleFailure(id, entry, e)))
+                .onErrorResume(e -> {
+                    log.error("Outbox submission {} is unreadable, dead-lettering it: {}", id, e.getMessage(), e);
+                    return retire(id, null);
+                });
+    }
+
+    private Mono<Void> dispatch(UUID id, OutboxEntry entry) {
+        return rateLimiter.acquire(LogaltyOperation.INIT_SIGNATURE, tenantOf(entry))
+                .then(admission.admit(admission.estimate(entry.getBinaryContents()),
+                        Mono.fromCallable(() -> LogaltyEvents.forEnvelope(entry.getEnvelopeId(), () ->
+                                signatureService.initSignature(tenantOf(entry), entry.getReceivers(), entry.getBinaryContents())))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))))
+                .flatMap(result -> Mono.fromCallable(() -> {
+                    journal.ack(id);
+                    log.info("Outbox submission {} delivered to Logalty", id);
+                    return id;
+                }).subscribeOn(journalScheduler))
+                .doOnNext(delivered -> published(entry, EnvelopeStatus.SENT))
+                .then();
+    }
+
+    private static String tenantOf(OutboxEntry entry) {
+        return entry.getTenantId() != null ? entry.getTenantId() : TenantContext.DEFAULT_TENANT;
+    }
+
+    private OutboxEntry readEntry(UUID id, byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, OutboxEntry.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable outbox entry " + id, e);
+        }
+    }
+
+    private Mono<Void> handleFailure(UUID id, OutboxEntry entry, Throwable error) {
+        if (isDeferral(error)) {
+            // Circuit open, quota or memory budget exhausted: Logalty was never called, so this is not an attempt
+            log.debug("Outbox submission {} deferred: {}", id, error.getMessage());
+            requeueLater(id);
+            return Mono.empty();
+        }
+        if (!isRetryable(error)) {
+            log.error("Outbox submission {} cannot succeed, dead-lettering it: {}", id, error.getMessage(), error);
+            return retire(id, entry);
+        }
+
+        return Mono.fromCallable(() -> journal.attempt(id))
+                .subscribeOn(journalScheduler)
+                .flatMap(attempt -> {
+                    if (attempt >= properties.getMaxAttempts()) {
+                        log.error("Outbox submission {} abandoned after {} attempt(s): {}", id, attempt, error.getMessage(), error);
+                        return retire(id, entry);
+                    }
+                    log.warn("Outbox submission {} failed (attempt {}/{}), retrying in {}: {}",
+                            id, attempt, properties.getMaxAttempts(), properties.getRetryBackoff(), error.getMessage());
+                    requeueLater(id);
+                    return Mono.<Void>empty();
+                })
+                .onErrorResume(e -> {
+                    log.error("Unable to record the attempt of outbox submission {}", id, e);
+                    requeueLater(id);
+                    return Mono.empty();
+                });
+    }
+
+    private static boolean isDeferral(Throwable error) {
+        return error instanceof CallNotPermittedException
+                || error instanceof LogaltyRateLimitException
+                || error instanceof MemoryAdmissionException e && !MemoryAdmission.TOO_LARGE.equals(e.getReason());
+    }
+
+    /**
+     * Whether sending the same submission again may succeed: not when Logalty rejected it, when
+     * it is invalid, or when it can never fit the memory budget.
+     */
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof LogaltyRejectedException
+                || error instanceof RequestValidationException
+                || error instanceof PdfPreflightException
+                || error instanceof MemoryAdmissionException
+                || error instanceof IllegalArgumentException);
+    }
+
+    private Mono<Void> retire(UUID id, OutboxEntry entry) {
+        return Mono.fromCallable(() -> {
+                    journal.dead(id);
+                    return id;
+                })
+                .subscribeOn(journalScheduler)
+                .doOnNext(dead -> {
+                    if (entry != null) {
+                        published(entry, EnvelopeStatus.VOIDED);
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Unable to retire outbox submission {}", id, e);
+                    return Mono.empty();
+                });
+    }
+
+    private void published(OutboxEntry entry, EnvelopeStatus status) {
+        if (entry.getEnvelopeId() != null) {
+            statusEvents.observed(entry.getEnvelopeId(), tenantOf(entry), null, status, EnvelopeStatusChanged.Source.OPERATION);
+        }
+    }
+
+    private void requeueLater(UUID id) {
+        Mono.delay(properties.getRetryBackoff())
+                .subscribe(tick -> ready.offer(id));
+    }
+}
@@ -0,0 +1,199 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.firefly.ecm.adapter.logalty.PreparationProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.logalty.schema.ptrequest.Binarycontent;
+import com.logalty.sdk.xml.incoming.binarycontent.BinarycontentBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns the documents of an envelope into {@code Binarycontent} items.
+ *
+ * <p>Each document is validated, hashed and base64-encoded independently, so envelopes with
+ * several documents are prepared on a bounded {@link ForkJoinPool} of {@code parallelism}
+ * threads, created on first use. Results are collected in input order, keeping the request
+ * deterministic. The first failing document fails the whole preparation with its own
+ * exception. PDFs go through {@link PdfPreflight} first; its time counts as validation.
+ * Per-document timings are logged and published as {@code logalty.preparation.document}
+ * (tagged by phase) and the envelope total as {@code logalty.preparation.envelope}.</p>
+ */
+@Slf4j
+@Component
+public class DocumentPreparer {
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final PreparationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PdfPreflight preflight;
+    private volatile ForkJoinPool pool;
+
+    @Autowired
+    public DocumentPreparer(PreparationProperties properties, MeterRegistry meterRegistry, PdfPreflight preflight) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.preflight = preflight;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            current.shutdown();
+            current.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Prepares the given documents, returning one result per document in the same order.
+     */
+    public List<PreparedDocument> prepare(List<BinaryContentsDTO> documents) {
+        long start = System.nanoTime();
+        List<PreparedDocument> prepared = parallel(documents.size())
+                ? prepareInParallel(documents)
+                : documents.stream().map(this::prepareOne).toList();
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("logalty.preparation.envelope")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        if (log.isDebugEnabled()) {
+            long work = prepared.stream().mapToLong(PreparedDocument::totalNanos).sum();
+            log.debug("Prepared {} document(s) in {} ms ({} ms of work)",
+                    prepared.size(), elapsed / 1_000_000, work / 1_000_000);
+        }
+        return prepared;
+    }
+
+    private boolean parallel(int documents) {
+        return properties.getParallelism() > 1 && documents >= Math.max(2, properties.getParallelThreshold());
+    }
+
+    private List<PreparedDocument> prepareInParallel(List<BinaryContentsDTO> documents) {
+        ForkJoinPool executor = pool();
+        List<CompletableFuture<PreparedDocument>> futures = new ArrayList<>(documents.size());
+        for (BinaryContentsDTO dto : documents) {
+            futures.add(CompletableFuture.supplyAsync(() -> prepareOne(dto), executor));
+        }
+
+        List<PreparedDocument> prepared = new ArrayList<>(documents.size());
+        try {
+            for (CompletableFuture<PreparedDocument> future : futures) {
+                prepared.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return prepared;
+    }
+
+    private PreparedDocument prepareOne(BinaryContentsDTO dto) {
+        long t0 = System.nanoTime();
+        ContentSource source = ContentSources.of(dto);
+        if (source == null || source.size() == 0) {
+            throw new LogaltyCallException("Binary contents cannot be null or empty for id=" + dto.getBinaryContentId());
+        }
+        ContentSource contents = preflight.appliesTo(dto) ? preflight.check(dto, source) : source;
+
+        try {
+            long t1 = System.nanoTime();
+            MessageDigest digest = newDigest();
+            String base64 = ContentSources.base64(contents, digest);
+
+            long t2 = System.nanoTime();
+            Binarycontent binaryContent = new BinarycontentBuilder(
+                    dto.getBinaryContentId(),
+                    dto.getEncoding(),
+                    dto.getFilename() + "." + dto.getExtension(),
+                    dto.getType(),
+                    base64
+            ).build();
+            long t3 = System.nanoTime();
+
+            PreparedDocument prepared = new PreparedDocument(
+                    dto.getBinaryContentId(),
+                    binaryContent,
+                    contents.size(),
+                    digest != null ? HexFormat.of().formatHex(digest.digest()) : null,
+                    t1 - t0,
+                    t2 - t1,
+                    t3 - t2
+            );
+            record("validate", prepared.validateNanos());
+            record("encode", prepared.encodeNanos());
+            record("build", prepared.buildNanos());
+
+            log.debug("Added binary content item: id={}, filename={}.{}, sizeBytes={}, digest={}, encodeMs={}, totalMs={}",
+                    dto.getBinaryContentId(), dto.getFilename(), dto.getExtension(), prepared.sizeBytes(),
+                    prepared.digest(), prepared.encodeNanos() / 1_000_000, prepared.totalNanos() / 1_000_000);
+            return prepared;
+        } finally {
+            // Trimmed or optimized copies belong to this stage
+            if (contents != source) {
+                contents.release();
+            }
+        }
+    }
+
+    private MessageDigest newDigest() {
+        String algorithm = properties.getHashAlgorithm();
+        if (algorithm == null || algorithm.isBlank()) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unknown preparation hash algorithm: " + algorithm, e);
+        }
+    }
+
+    private void record(String phase, long nanos) {
+        Timer.builder("logalty.preparation.document")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    int id = POOL_SEQUENCE.incrementAndGet();
+                    current = new ForkJoinPool(properties.getParallelism(), p -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        thread.setName("logalty-prepare-" + id + "-" + thread.getPoolIndex());
+                        return thread;
+                    }, null, false);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+}
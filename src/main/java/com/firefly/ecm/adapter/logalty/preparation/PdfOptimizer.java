@@ -0,0 +1,17 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+
+/**
+ * Rewrites a PDF into a smaller equivalent (superseded incremental updates removed, streams
+ * recompressed, linearized). The adapter ships no implementation: optimization is left to the
+ * application, which enables it by declaring a bean built on the PDF library of its choice.
+ *
+ * <p>The input is owned by the caller. Return it unchanged when there is nothing to gain,
+ * otherwise return a new source, which the caller releases once the document is encoded.</p>
+ */
+@FunctionalInterface
+public interface PdfOptimizer {
+
+    ContentSource optimize(ContentSource pdf);
+}
@@ -0,0 +1,244 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.firefly.ecm.adapter.logalty.PreflightProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.PdfPreflightException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-flight check of PDF documents, run by {@link DocumentPreparer} before a document is
+ * encoded.
+ *
+ * <p>Only the head and tail of the file are read: the {@code %PDF-} header, the final
+ * {@code %%EOF} marker and the {@code startxref} offset must be present and consistent, and
+ * encrypted documents (an {@code /Encrypt} entry in the trailer or cross-reference stream)
+ * are refused, as Logalty would refuse them after the upload. Bytes appended after the final
+ * {@code %%EOF} are trimmed without copying. When a {@link PdfOptimizer} bean is present,
+ * unsigned PDFs are then handed to it; signed ones are left untouched since any rewrite would
+ * break their signatures.</p>
+ *
+ * <p>Sizes before and after are published as {@code logalty.preflight.bytes} (tag
+ * {@code stage}), rejections as {@code logalty.preflight.rejected} (tag {@code reason}).</p>
+ */
+@Slf4j
+@Component
+public class PdfPreflight {
+
+    static final int HEADER_WINDOW = 1024;
+    static final int TAIL_WINDOW = 64 * 1024;
+    private static final int XREF_WINDOW = 4096;
+
+    private static final byte[] HEADER = ascii("%PDF-");
+    private static final byte[] EOF = ascii("%%EOF");
+    private static final byte[] STARTXREF = ascii("startxref");
+    private static final byte[] ENCRYPT = ascii("/Encrypt");
+    private static final byte[] BYTE_RANGE = ascii("/ByteRange");
+
+    private final PreflightProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PdfOptimizer optimizer;
+
+    @Autowired
+    public PdfPreflight(PreflightProperties properties, MeterRegistry meterRegistry, ObjectProvider<PdfOptimizer> optimizer) {
+        this(properties, meterRegistry, optimizer.getIfAvailable());
+    }
+
+    PdfPreflight(PreflightProperties properties, MeterRegistry meterRegistry, PdfOptimizer optimizer) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.optimizer = optimizer;
+    }
+
+    public boolean appliesTo(BinaryContentsDTO dto) {
+        return properties.isEnabled()
+                && ("pdf".equalsIgnoreCase(dto.getExtension()) || "application/pdf".equalsIgnoreCase(dto.getType()));
+    }
+
+    /**
+     * Checks a PDF and returns the content to send: {@code contents} itself, or a new source
+     * (trimmed or optimized) that the caller releases after use.
+     *
+     * @throws PdfPreflightException if the document must not be sent
+     */
+    public ContentSource check(BinaryContentsDTO dto, ContentSource contents) {
+        long size = contents.size();
+        record("before", size);
+
+        if (properties.getMaxDocumentBytes() > 0 && size > properties.getMaxDocumentBytes()) {
+            throw reject(dto, "TOO_LARGE", size + " bytes exceeds the limit of " + properties.getMaxDocumentBytes());
+        }
+
+        byte[] head = ContentSources.read(contents, 0, (int) Math.min(size, HEADER_WINDOW));
+        if (indexOf(head, HEADER, 0) < 0) {
+            throw reject(dto, "NOT_PDF", "no %PDF- header");
+        }
+
+        int tailLength = (int) Math.min(size, TAIL_WINDOW);
+        long tailStart = size - tailLength;
+        byte[] tail = ContentSources.read(contents, tailStart, tailLength);
+        int eof = lastIndexOf(tail, EOF, tail.length);
+        if (eof < 0) {
+            throw reject(dto, "TRUNCATED", "no %%EOF marker in the last " + tailLength + " bytes");
+        }
+        int startxref = lastIndexOf(tail, STARTXREF, eof);
+        long xref = startxref < 0 ? -1 : parseOffset(tail, startxref + STARTXREF.length, eof);
+        if (xref < 0 || xref >= tailStart + startxref) {
+            throw reject(dto, "MALFORMED", "missing or invalid startxref");
+        }
+
+        if (properties.isRejectEncrypted() && (indexOf(tail, ENCRYPT, 0) >= 0
+                || indexOf(ContentSources.read(contents, xref, XREF_WINDOW), ENCRYPT, 0) >= 0)) {
+            throw reject(dto, "ENCRYPTED", "encrypted PDFs cannot be signed");
+        }
+
+        ContentSource checked = contents;
+        long end = tailStart + endOfLine(tail, eof + EOF.length);
+        if (properties.isTrimTrailingData() && end < size) {
+            log.debug("Pre-flight: trimming {} byte(s) after %%EOF of document id={}", size - end, dto.getBinaryContentId());
+            checked = ContentSources.slice(contents, 0, end);
+        }
+
+        if (properties.isOptimize() && optimizer != null && !contains(checked, BYTE_RANGE)) {
+            ContentSource optimized;
+            try {
+                optimized = optimizer.optimize(checked);
+            } catch (RuntimeException e) {
+                if (checked != contents) {
+                    checked.release();
+                }
+                throw e;
+            }
+            if (optimized != checked && checked != contents) {
+                checked.release();
+            }
+            checked = optimized;
+        }
+
+        record("after", checked.size());
+        log.debug("Pre-flight passed for document id={}: {} -> {} bytes", dto.getBinaryContentId(), size, checked.size());
+        return checked;
+    }
+
+    private PdfPreflightException reject(BinaryContentsDTO dto, String reason, String detail) {
+        log.warn("Pre-flight rejected document id={} ({}): {}", dto.getBinaryContentId(), reason, detail);
+        Counter.builder("logalty.preflight.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new PdfPreflightException(dto.getBinaryContentId(), reason, detail);
+    }
+
+    private void record(String stage, long bytes) {
+        DistributionSummary.builder("logalty.preflight.bytes")
+                .baseUnit("bytes")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Parses the decimal offset following {@code startxref}, or -1.
+     */
+    private static long parseOffset(byte[] data, int from, int to) {
+        long value = -1;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (b - '0');
+                if (value > Long.MAX_VALUE / 10) {
+                    return -1;
+                }
+            } else if (value >= 0 || !isWhitespace(b)) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static int endOfLine(byte[] data, int from) {
+        int i = from;
+        if (i < data.length && data[i] == '\r') {
+            i++;
+        }
+        if (i < data.length && data[i] == '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\r' || b == '\n' || b == '\t' || b == '\f' || b == 0;
+    }
+
+    /**
+     * Streams the whole content looking for {@code pattern}, keeping an overlap between chunks.
+     */
+    private static boolean contains(ContentSource source, byte[] pattern) {
+        byte[] chunk = new byte[64 * 1024];
+        int carry = 0;
+        try (InputStream in = source.openStream()) {
+            int read;
+            while ((read = in.readNBytes(chunk, carry, chunk.length - carry)) > 0) {
+                int filled = carry + read;
+                if (indexOf(chunk, pattern, 0, filled) >= 0) {
+                    return true;
+                }
+                carry = Math.min(pattern.length - 1, filled);
+                System.arraycopy(chunk, filled - carry, chunk, 0, carry);
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read content from " + source, e);
+        }
+    }
+
+    static int indexOf(byte[] data, byte[] pattern, int from) {
+        return indexOf(data, pattern, from, data.length);
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from, int to) {
+        outer:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Last occurrence of {@code pattern} starting before {@code before}, or -1.
+     */
+    static int lastIndexOf(byte[] data, byte[] pattern, int before) {
+        outer:
+        for (int i = Math.min(before, data.length) - pattern.length; i >= 0; i--) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,23 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.logalty.schema.ptrequest.Binarycontent;
+
+/**
+ * A document ready to be placed in a request: the built {@code Binarycontent} item with its
+ * size, content digest (hex, {@code null} when hashing is disabled) and preparation timings
+ * in nanoseconds. Encoding and hashing share one pass over the content and one timing.
+ */
+public record PreparedDocument(
+        int binaryContentId,
+        Binarycontent content,
+        long sizeBytes,
+        String digest,
+        long validateNanos,
+        long encodeNanos,
+        long buildNanos
+) {
+
+    public long totalNanos() {
+        return validateNanos + encodeNanos + buildNanos;
+    }
+}
@@ -0,0 +1,170 @@
+package com.firefly.ecm.adapter.logalty.ratelimit;
+
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side rate limiter keeping Logalty calls within the contracted quotas.
+ *
+ * <p>Each call takes one permit from its tenant's bucket for the operation and one from the
+ * tenant-wide bucket, when configured. Waiting is non-blocking ({@link Mono#delay}); a call
+ * whose wait would exceed {@code maxWait} fails with {@link LogaltyRateLimitException}
+ * without reaching Logalty. A caller that cancels while it waits gives its permit back, so
+ * a losing hedge, a timeout or a disconnected client does not drain the quota of the others.
+ * Wait time and rejections are published as
+ * {@code logalty.ratelimit.wait} and {@code logalty.ratelimit.rejected}, tagged with the
+ * {@code operation} and, with {@code tagTenants}, the {@code tenant}: only tenants configured
+ * under {@code tenants} are tagged by name, so the tag stays bounded however many tenants
+ * call.</p>
+ */
+@Slf4j
+@Component
+public class LogaltyRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Optional<TokenBucket>> operationBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Optional<TokenBucket>> tenantBuckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LogaltyRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    LogaltyRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Waits for a permit for the tenant found in the Reactor context.
+     */
+    public Mono<Void> acquire(LogaltyOperation operation) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return TenantContext.currentTenant().flatMap(tenant -> acquire(operation, tenant));
+    }
+
+    public Mono<Void> acquire(LogaltyOperation operation, String tenant) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            Reservation reservation = reserve(operation, tenant, properties.getMaxWait().toNanos());
+            long waitNanos = reservation.waitNanos();
+            if (waitNanos < 0) {
+                log.warn("Rate limit permit for {} (tenant={}) not available within {}", operation, tenant, properties.getMaxWait());
+                Counter.builder("logalty.ratelimit.rejected")
+                        .tag("operation", operation.name())
+                        .tag("tenant", tenantTag(tenant))
+                        .register(meterRegistry)
+                        .increment();
+                return Mono.error(new LogaltyRateLimitException(operation.name(), tenant));
+            }
+
+            Timer.builder("logalty.ratelimit.wait")
+                    .tag("operation", operation.name())
+                    .tag("tenant", tenantTag(tenant))
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(waitNanos));
+            if (waitNanos == 0) {
+                return Mono.empty();
+            }
+            log.debug("Rate limit: delaying {} (tenant={}) by {} ms", operation, tenant, waitNanos / 1_000_000);
+            return Mono.delay(Duration.ofNanos(waitNanos))
+                    .doOnCancel(() -> reservation.cancel(nanoClock.getAsLong()))
+                    .then();
+        });
+    }
+
+    /**
+     * Takes a permit only if one is available right now, for calls that are better skipped
+     * than delayed. Nothing is waited for and nothing is counted as rejected.
+     *
+     * @return whether the permit was taken
+     */
+    public boolean tryAcquire(LogaltyOperation operation, String tenant) {
+        return !properties.isEnabled() || reserve(operation, tenant, 0).waitNanos() == 0;
+    }
+
+    private String tenantTag(String tenant) {
+        if (!properties.isTagTenants()) {
+            return "all";
+        }
+        return properties.getTenants().containsKey(tenant) ? tenant : "other";
+    }
+
+    private Reservation reserve(LogaltyOperation operation, String tenant, long maxWait) {
+        long now = nanoClock.getAsLong();
+
+        Optional<TokenBucket> operationBucket = operationBuckets.computeIfAbsent(
+                tenant + "|" + operation.name(),
+                key -> newBucket(properties.getOperations().getOrDefault(operation, properties.getDefaultOperation()), now));
+        Optional<TokenBucket> tenantBucket = tenantBuckets.computeIfAbsent(
+                tenant,
+                key -> newBucket(properties.getTenants().getOrDefault(tenant, properties.getDefaultTenant()), now));
+
+        long operationWait = operationBucket.map(b -> b.reserve(now, maxWait)).orElse(0L);
+        if (operationWait < 0) {
+            return Reservation.REJECTED;
+        }
+        long tenantWait = tenantBucket.map(b -> b.reserve(now, maxWait)).orElse(0L);
+        if (tenantWait < 0) {
+            operationBucket.ifPresent(b -> b.release(now));
+            return Reservation.REJECTED;
+        }
+        return new Reservation(Math.max(operationWait, tenantWait),
+                operationBucket.orElse(null), now + operationWait,
+                tenantBucket.orElse(null), now + tenantWait);
+    }
+
+    private static Optional<TokenBucket> newBucket(RateLimitProperties.Bucket config, long now) {
+        if (config == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TokenBucket(
+                config.getCapacity(),
+                config.getRefillTokens(),
+                config.getRefillPeriod().toNanos(),
+                now
+        ));
+    }
+
+    /**
+     * Permits taken from the operation and tenant buckets, each valid from its own slot.
+     */
+    private record Reservation(long waitNanos,
+                               TokenBucket operationBucket, long operationSlot,
+                               TokenBucket tenantBucket, long tenantSlot) {
+
+        static final Reservation REJECTED = new Reservation(-1, null, 0, null, 0);
+
+        void cancel(long now) {
+            if (operationBucket != null) {
+                operationBucket.cancel(operationSlot, now);
+            }
+            if (tenantBucket != null) {
+                tenantBucket.cancel(tenantSlot, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.firefly.ecm.adapter.logalty.ratelimit;
+
+/**
+ * Token bucket that hands out reservations instead of blocking.
+ *
+ * <p>A reservation that cannot be served from the current tokens borrows against future
+ * refills, so the token count goes negative and later callers queue behind it. The caller
+ * gets back how long to wait before its permit becomes valid and is expected to delay
+ * asynchronously for that long.</p>
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, long refillTokens, long refillPeriodNanos, long nowNanos) {
+        if (capacity <= 0 || refillTokens <= 0 || refillPeriodNanos <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity, refill tokens and refill period must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = (double) refillTokens / refillPeriodNanos;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Reserves one permit.
+     *
+     * @param nowNanos     current time of the caller's clock
+     * @param maxWaitNanos longest acceptable wait
+     * @return nanoseconds to wait before the permit is valid, or {@code -1} when the wait
+     *         would exceed {@code maxWaitNanos}; nothing is reserved in that case
+     */
+    public synchronized long reserve(long nowNanos, long maxWaitNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    /**
+     * Returns a permit obtained from {@link #reserve} that will not be used.
+     */
+    public synchronized void release(long nowNanos) {
+        refill(nowNanos);
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Gives back a reservation whose caller stopped waiting for it. A reservation whose slot
+     * has already passed was used and is kept.
+     *
+     * @param slotNanos time the permit became valid: the time of the reservation plus its wait
+     */
+    public synchronized void cancel(long slotNanos, long nowNanos) {
+        if (nowNanos >= slotNanos) {
+            return;
+        }
+        refill(nowNanos);
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    public synchronized double availableTokens(long nowNanos) {
+        refill(nowNanos);
+        return tokens;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
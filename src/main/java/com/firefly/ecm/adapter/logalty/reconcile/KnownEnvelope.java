@@ -0,0 +1,15 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import java.util.UUID;
+
+/**
+ * An envelope known locally to be in Logalty, with the status the application has for it.
+ *
+ * @param envelopeId the ECM envelope
+ * @param tenantId   the tenant whose certificate signs the status request, {@code null} for the default
+ * @param externalId the Logalty id of the process
+ * @param localState the local envelope status, e.g. {@code SENT}
+ * @param cursor     stable sort key of the envelope in the source, used to resume a run
+ */
+public record KnownEnvelope(UUID envelopeId, String tenantId, String externalId, String localState, String cursor) {
+}
@@ -0,0 +1,29 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Where the {@link Reconciler} finds the envelopes to check. The adapter does not store
+ * envelope states, so the application provides this bean, typically backed by its envelope
+ * repository.
+ */
+public interface KnownEnvelopeSource {
+
+    /**
+     * Returns envelopes that have a Logalty process, ordered by {@link KnownEnvelope#cursor()}.
+     * Every pod pages through all of them and only checks the ones it owns.
+     *
+     * @param afterCursor only envelopes with a greater cursor, {@code null} for the first page
+     * @param limit       maximum number of envelopes to return
+     */
+    Flux<KnownEnvelope> findKnown(String afterCursor, int limit);
+
+    /**
+     * Called for every envelope whose local status differs from the one its Logalty state
+     * maps to, e.g. to repair it or raise an alert.
+     */
+    default Mono<Void> onMismatch(Mismatch mismatch) {
+        return Mono.empty();
+    }
+}
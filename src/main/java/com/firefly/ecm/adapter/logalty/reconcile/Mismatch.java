@@ -0,0 +1,16 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import java.util.UUID;
+
+/**
+ * An envelope whose local status does not match its state in Logalty.
+ *
+ * @param expectedState the local status {@code logaltyState} maps to
+ */
+public record Mismatch(UUID envelopeId,
+                       String tenantId,
+                       String externalId,
+                       String localState,
+                       String logaltyState,
+                       String expectedState) {
+}
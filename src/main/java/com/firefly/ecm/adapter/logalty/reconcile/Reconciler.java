@@ -0,0 +1,273 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.ReconciliationProperties;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorCheckpoint;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorJob;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.firefly.ecm.adapter.logalty.statuscache.TerminalStateClassifier;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.XmlObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks on the {@code cron} schedule that local envelope statuses match their Logalty state,
+ * so an envelope left behind by a missed update is found instead of staying SENT forever.
+ *
+ * <p>Known envelopes are read page by page from the {@link KnownEnvelopeSource}. Pods listed
+ * in {@code members} split them with a {@link ShardRing}: every pod pages through all of them
+ * but only checks the ones it owns, so the work is shared without overlap or coordination.
+ * Each owned envelope is checked with {@code getStatus}, at most {@code concurrency} at a time,
+ * {@code maxRequestsPerSecond} per second and within the GET_STATUS rate limit and circuit
+ * breaker that {@code getStatus} applies to each attempt it sends. The state read from the response is
+ * mapped through {@code stateMapping} and compared with the local status; mismatches are
+ * passed to {@link KnownEnvelopeSource#onMismatch}, listed in the run report and published to
+ * {@link EnvelopeStatusEvents} when the expected status is an {@link EnvelopeStatus}.</p>
+ *
+ * <p>Every {@code checkpointEvery} envelopes the run saves its position. A run that reaches
+ * {@code maxDuration}, or is interrupted by a crash, an open circuit or an exhausted quota,
+ * continues from there at the next run, so a large backlog is covered over several
+ * maintenance windows. Envelopes are counted as {@code logalty.reconciliation.envelopes}
+ * (tag {@code outcome}) and runs are timed as {@code logalty.reconciliation.run} (tag
+ * {@code result}: completed, paused, interrupted). Paging, checkpoints and scheduling are those
+ * of {@link CursorJob}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "firefly.ecm.adapter.logalty.reconciliation.enabled", havingValue = "true")
+public class Reconciler {
+
+    private final ReconciliationProperties properties;
+    private final KnownEnvelopeSource source;
+    private final ReactiveSignatureService signatureService;
+    private final MeterRegistry meterRegistry;
+    private final ShardRing ring;
+    private final String memberId;
+    private final EnvelopeStatusEvents statusEvents;
+    private final CursorJob<KnownEnvelope, Outcome> job;
+
+    private final AtomicLong nextSlot = new AtomicLong(Long.MIN_VALUE);
+
+    @Autowired
+    public Reconciler(ReconciliationProperties properties,
+                      KnownEnvelopeSource source,
+                      ReactiveSignatureService signatureService,
+                      MeterRegistry meterRegistry,
+                      EnvelopeStatusEvents statusEvents) {
+        this.properties = properties;
+        this.source = source;
+        this.signatureService = signatureService;
+        this.meterRegistry = meterRegistry;
+        this.statusEvents = statusEvents;
+        this.job = new CursorJob<>("reconciliation",
+                new CursorCheckpoint(Paths.get(properties.getCheckpointDirectory()), "reconciliation"),
+                (startedAt, afterCursor, limit) -> source.findKnown(afterCursor, limit),
+                KnownEnvelope::cursor, "logalty.reconciliation.run", meterRegistry);
+        this.ring = new ShardRing(properties.getMembers(), properties.getVirtualNodes());
+        this.memberId = properties.getMemberId() != null && !properties.getMemberId().isBlank()
+                ? properties.getMemberId()
+                : System.getenv("HOSTNAME");
+        if (!properties.getMembers().isEmpty() && !properties.getMembers().contains(memberId)) {
+            throw new IllegalStateException("Reconciliation member '" + memberId + "' is not one of " + properties.getMembers());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        job.schedule(properties.getCron(), false, this::reconcile);
+        log.info("Reconciliation scheduled with cron '{}' as member {} of {}",
+                properties.getCron(), memberId, properties.getMembers().isEmpty() ? "[single pod]" : properties.getMembers());
+    }
+
+    @PreDestroy
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * Runs a reconciliation now, continuing the unfinished one if there is a checkpoint.
+     *
+     * @return the report of the run; an error if another run is going, or if this one was
+     *         interrupted (its checkpoint is kept for the next run)
+     */
+    public Mono<ReconciliationReport> reconcile() {
+        CursorJob.Settings settings = new CursorJob.Settings(properties.getPageSize(), properties.getConcurrency(),
+                properties.getCheckpointEvery(), 0, properties.getMaxDuration());
+        return job.run(settings, new Run())
+                .doOnSuccess(report -> log.info("Reconciliation {}: matched={}, mismatched={}, unmapped={}, failed={}, skipped={} in {} ({}/s)",
+                        report.complete() ? "completed" : "paused until the next run",
+                        report.matched(), report.mismatched(), report.unmapped(), report.failed(), report.skipped(),
+                        report.elapsed(), String.format("%.1f", report.ratePerSecond())));
+    }
+
+    /**
+     * @return whether this pod checks the envelope
+     */
+    boolean owns(KnownEnvelope envelope) {
+        return properties.getMembers().isEmpty() || memberId.equals(ring.ownerOf(envelope.externalId()));
+    }
+
+    private Mono<Outcome> check(KnownEnvelope envelope) {
+        if (!owns(envelope)) {
+            return Mono.just(new Outcome(Result.SKIPPED, null));
+        }
+        String tenant = envelope.tenantId() != null ? envelope.tenantId() : TenantContext.DEFAULT_TENANT;
+        return pace()
+                .then(signatureService.getStatus(tenant, envelope.externalId()))
+                .flatMap(response -> compare(envelope, response))
+                // An open circuit or exhausted quota would fail every remaining envelope: stop instead
+                .onErrorResume(e -> !(e instanceof CallNotPermittedException || e instanceof LogaltyRateLimitException), e -> {
+                    log.warn("Unable to read the Logalty state of envelope {} ({}): {}",
+                            envelope.envelopeId(), envelope.externalId(), e.getMessage());
+                    return Mono.just(new Outcome(Result.FAILED, null));
+                });
+    }
+
+    private Mono<Outcome> compare(KnownEnvelope envelope, XmlObject response) {
+        String state = TerminalStateClassifier.stateOf(response, properties.getStateElement());
+        String expected = state != null ? expectedState(state) : null;
+        if (expected == null) {
+            log.debug("Envelope {} is in unmapped Logalty state {}", envelope.envelopeId(), state);
+            return Mono.just(new Outcome(Result.UNMAPPED, null));
+        }
+        if (expected.equalsIgnoreCase(envelope.localState())) {
+            return Mono.just(new Outcome(Result.MATCHED, null));
+        }
+
+        Mismatch mismatch = new Mismatch(envelope.envelopeId(), envelope.tenantId(), envelope.externalId(),
+                envelope.localState(), state, expected);
+        log.warn("Envelope {} is {} locally but {} in Logalty (expected {})",
+                envelope.envelopeId(), envelope.localState(), state, expected);
+        EnvelopeStatus status = envelopeStatus(expected);
+        if (status != null) {
+            statusEvents.observed(envelope.envelopeId(), envelope.tenantId(), envelope.externalId(),
+                    envelopeStatus(envelope.localState()), status, EnvelopeStatusChanged.Source.RECONCILIATION);
+        }
+        return source.onMismatch(mismatch)
+                .onErrorResume(e -> {
+                    log.warn("Mismatch handler failed for envelope {}: {}", envelope.envelopeId(), e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(new Outcome(Result.MISMATCHED, mismatch));
+    }
+
+    private String expectedState(String logaltyState) {
+        for (Map.Entry<String, String> entry : properties.getStateMapping().entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(logaltyState)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the envelope status named {@code state}, {@code null} for custom local states
+     */
+    private static EnvelopeStatus envelopeStatus(String state) {
+        if (state == null) {
+            return null;
+        }
+        try {
+            return EnvelopeStatus.valueOf(state.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Spaces owned checks {@code 1 / maxRequestsPerSecond} apart, reserving the next free slot.
+     */
+    private Mono<Void> pace() {
+        if (properties.getMaxRequestsPerSecond() <= 0) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long interval = TimeUnit.SECONDS.toNanos(1) / properties.getMaxRequestsPerSecond();
+            long now = System.nanoTime();
+            long slot = nextSlot.accumulateAndGet(now, (next, n) -> Math.max(next, n) + interval) - interval;
+            return slot > now ? Mono.delay(Duration.ofNanos(slot - now)).then() : Mono.empty();
+        });
+    }
+
+    private enum Result {
+        MATCHED("matched"),
+        MISMATCHED("mismatched"),
+        UNMAPPED("unmapped"),
+        FAILED("failed"),
+        SKIPPED("skipped");
+
+        private final String tag;
+
+        Result(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Outcome(Result result, Mismatch mismatch) {
+    }
+
+    /**
+     * Counts of one run. Outcomes arrive one at a time, in source order.
+     */
+    private final class Run implements CursorJob.Pass<KnownEnvelope, Outcome, ReconciliationReport> {
+
+        private final List<Mismatch> mismatches = new ArrayList<>();
+        private long matched;
+        private long mismatched;
+        private long unmapped;
+        private long failed;
+        private long skipped;
+
+        @Override
+        public Mono<Outcome> process(KnownEnvelope envelope) {
+            return check(envelope);
+        }
+
+        @Override
+        public void record(Outcome outcome) {
+            switch (outcome.result()) {
+                case MATCHED -> matched++;
+                case MISMATCHED -> {
+                    mismatched++;
+                    if (mismatches.size() < properties.getMaxReportedMismatches()) {
+                        mismatches.add(outcome.mismatch());
+                    }
+                }
+                case UNMAPPED -> unmapped++;
+                case FAILED -> failed++;
+                case SKIPPED -> skipped++;
+            }
+            Counter.builder("logalty.reconciliation.envelopes")
+                    .tag("outcome", outcome.result().tag)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        @Override
+        public ReconciliationReport report(Duration elapsed, boolean resumed, boolean complete) {
+            return new ReconciliationReport(matched, mismatched, unmapped, failed, skipped, List.copyOf(mismatches),
+                    elapsed, resumed, complete);
+        }
+    }
+}
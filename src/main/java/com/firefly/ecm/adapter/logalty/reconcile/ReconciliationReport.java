@@ -0,0 +1,37 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of one reconciliation run on this pod; a resumed run only counts the envelopes it
+ * processed itself.
+ *
+ * @param matched    envelopes whose local status matches Logalty
+ * @param mismatched envelopes whose local status differs; the first ones are listed in {@code mismatches}
+ * @param unmapped   envelopes in a Logalty state without a mapping, not compared
+ * @param failed     envelopes whose status could not be read
+ * @param skipped    envelopes owned by other pods
+ * @param complete   whether the run reached the end of the source; if not it continues at the next run
+ */
+public record ReconciliationReport(
+        long matched,
+        long mismatched,
+        long unmapped,
+        long failed,
+        long skipped,
+        List<Mismatch> mismatches,
+        Duration elapsed,
+        boolean resumed,
+        boolean complete
+) {
+
+    public long checked() {
+        return matched + mismatched + unmapped + failed;
+    }
+
+    public double ratePerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? checked() / seconds : 0;
+    }
+}
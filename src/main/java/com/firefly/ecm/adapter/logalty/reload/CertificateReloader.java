@@ -0,0 +1,198 @@
+package com.firefly.ecm.adapter.logalty.reload;
+
+import com.firefly.ecm.adapter.logalty.ReloadProperties;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.logalty.interfaces.XmlSignInterface;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches the signing certificates and the trust store and swaps them in without a restart.
+ *
+ * <p>Files are polled by content digest rather than through a {@code WatchService}, which
+ * also catches the symlink flips used by mounted Kubernetes secrets. Changed material is
+ * rebuilt on a background thread and validated (the PFX must decode and yield a certificate
+ * id, the trust store must hold at least one certificate) before it is published. Invalid
+ * material is logged and ignored, so the previous instances stay in service and the change
+ * is retried on the next check.</p>
+ *
+ * <p>A new trust store replaces the JVM default {@code SSLContext}, used by the SDK sender, and
+ * the trust material of the adapter's Netty clients ({@link ReloadableTrustManager}).</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "firefly.ecm.adapter.logalty.reload.enabled", havingValue = "true")
+public class CertificateReloader {
+
+    private final ReloadProperties reloadProperties;
+    private final SignatureProperties signatureProperties;
+    private final TenantProperties tenantProperties;
+    private final TenantSignerRegistry signers;
+    private final ReloadableTrustManager trustManager;
+
+    private final Map<Path, byte[]> fingerprints = new ConcurrentHashMap<>();
+    private Disposable watcher;
+
+    public CertificateReloader(ReloadProperties reloadProperties,
+                               SignatureProperties signatureProperties,
+                               TenantProperties tenantProperties,
+                               TenantSignerRegistry signers,
+                               ReloadableTrustManager trustManager) {
+        this.reloadProperties = reloadProperties;
+        this.signatureProperties = signatureProperties;
+        this.tenantProperties = tenantProperties;
+        this.signers = signers;
+        this.trustManager = trustManager;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Baseline: material loaded at startup is what is on disk right now
+        fingerprint(signatureProperties.getCertPath());
+        fingerprint(signatureProperties.getTrustStoreResource());
+        tenantProperties.getTenants().values().forEach(t -> fingerprint(t.getCertPath()));
+
+        watcher = Flux.interval(reloadProperties.getCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::checkForChanges)
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(e -> {
+                            log.error("Certificate reload check failed: {}", e.getMessage(), e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+        log.info("Watching Logalty certificates for changes every {}", reloadProperties.getCheckInterval());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watcher != null) {
+            watcher.dispose();
+        }
+    }
+
+    /**
+     * Runs one check over all watched files, reloading whatever changed.
+     */
+    public void checkForChanges() {
+        if (changed(signatureProperties.getCertPath())) {
+            reloadSigner(TenantContext.DEFAULT_TENANT, signatureProperties.getCertPath(), signatureProperties.getCertPin());
+        }
+        tenantProperties.getTenants().forEach((tenantId, tenant) -> {
+            if (changed(tenant.getCertPath())) {
+                reloadSigner(tenantId, tenant.getCertPath(), tenant.getCertPin());
+            }
+        });
+        if (changed(signatureProperties.getTrustStoreResource())) {
+            reloadTrustStore();
+        }
+    }
+
+    private void reloadSigner(String tenantId, String certPath, String certPin) {
+        long start = System.nanoTime();
+        try {
+            XmlSignInterface signer = signers.createSigner(certPath, certPin);
+            Object certificateId = signer.retrieveCertificateId();
+            if (certificateId == null) {
+                throw new IllegalStateException("certificate id is null");
+            }
+            signers.replaceSigner(tenantId, signer);
+            commit(certPath);
+            log.info("Reloaded signing certificate of tenant '{}' from {} in {} ms",
+                    tenantId, certPath, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Rejected new signing certificate of tenant '{}' at {}, keeping the current one: {}",
+                    tenantId, certPath, e.getMessage(), e);
+        }
+    }
+
+    private void reloadTrustStore() {
+        Path path = watchedPath(signatureProperties.getTrustStoreResource());
+        String type = signatureProperties.getTrustStoreType() != null ? signatureProperties.getTrustStoreType() : "JKS";
+        try (InputStream in = Files.newInputStream(path)) {
+            KeyStore trustStore = KeyStore.getInstance(type);
+            trustStore.load(in, signatureProperties.getTrustStorePassword().toCharArray());
+            if (trustStore.size() == 0) {
+                throw new IllegalStateException("trust store is empty");
+            }
+
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(trustStore);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, tmf.getTrustManagers(), null);
+
+            // New connections pick up the new context; open ones keep the old sockets
+            SSLContext.setDefault(context);
+            HttpsURLConnection.setDefaultSSLSocketFactory(context.getSocketFactory());
+            trustManager.replace(trustStore);
+            commit(signatureProperties.getTrustStoreResource());
+            log.info("Reloaded trust store from {} ({} entries)", path, trustStore.size());
+        } catch (Exception e) {
+            log.error("Rejected new trust store at {}, keeping the current one: {}", path, e.getMessage(), e);
+        }
+    }
+
+    private void fingerprint(String location) {
+        Path path = watchedPath(location);
+        if (path != null) {
+            fingerprints.put(path, digest(path));
+        }
+    }
+
+    private boolean changed(String location) {
+        Path path = watchedPath(location);
+        return path != null && !Arrays.equals(fingerprints.get(path), digest(path));
+    }
+
+    private void commit(String location) {
+        fingerprint(location);
+    }
+
+    /**
+     * Only plain files can change at runtime; classpath resources are ignored.
+     */
+    private static Path watchedPath(String location) {
+        if (location == null || location.isBlank() || location.startsWith("classpath:")) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(location.trim());
+            return Files.isRegularFile(path) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static byte[] digest(Path path) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path));
+        } catch (Exception e) {
+            log.warn("Unable to read {} for change detection: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
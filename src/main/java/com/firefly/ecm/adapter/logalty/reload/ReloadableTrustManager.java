@@ -0,0 +1,86 @@
+package com.firefly.ecm.adapter.logalty.reload;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Trust manager of the adapter's HTTP clients whose trust material can be replaced at runtime.
+ *
+ * <p>Netty builds its SSL context once, when the client is created, so a new JVM default
+ * {@code SSLContext} never reaches it. The clients are built with this trust manager instead,
+ * which delegates to the current trust material: after {@link #replace}, new handshakes use
+ * the new trust store, connections already open keep theirs. It starts with the JVM's default
+ * trust material.</p>
+ */
+public class ReloadableTrustManager extends X509ExtendedTrustManager {
+
+    private volatile X509ExtendedTrustManager delegate;
+
+    public ReloadableTrustManager() {
+        try {
+            this.delegate = trustManager(null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load the default trust material", e);
+        }
+    }
+
+    /**
+     * Trusts the certificates of {@code trustStore} from the next handshake on.
+     */
+    public void replace(KeyStore trustStore) throws GeneralSecurityException {
+        this.delegate = trustManager(trustStore);
+    }
+
+    private static X509ExtendedTrustManager trustManager(KeyStore trustStore) throws GeneralSecurityException {
+        TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init(trustStore);
+        for (TrustManager trustManager : factory.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager x509) {
+                return x509;
+            }
+        }
+        throw new GeneralSecurityException("No X.509 trust manager for " + factory.getAlgorithm());
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+}
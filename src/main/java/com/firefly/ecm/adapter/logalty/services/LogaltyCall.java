@@ -0,0 +1,143 @@
+package com.firefly.ecm.adapter.logalty.services;
+
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.jfr.LogaltyEvents;
+import com.firefly.ecm.adapter.logalty.xml.IncomingRequestWriter;
+import com.logalty.constant.DataServiceResponseCode;
+import com.logalty.constant.IncomingServiceResponseCode;
+import com.logalty.constant.UpdateServiceResponse;
+import com.logalty.exception.LogaltyException;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
+import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import com.logalty.sdk.webservice.Operation;
+import com.logalty.sdk.xml.data.DataCertificateRequestDocumentBuilder;
+import com.logalty.sdk.xml.data.DataStateExternalIdRequestDocumentBuilder;
+import com.logalty.sdk.xml.data.SignedBinaryRequestDocumentBuilder;
+import com.logalty.sdk.xml.update.cancel.CancelRequestDocumentBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One Logalty operation as run by {@link LogaltyCommonService#executeOperation}: the SOAP
+ * operation, how its signed request is built and how the response is parsed and checked.
+ * {@link SignatureService} and {@link ReactiveSignatureService} run the same calls.
+ *
+ * <p>Requests are built in the form they are produced in: the String the SDK signs into, or
+ * the UTF-8 bytes of the {@link IncomingRequestWriter}. Responses are parsed in the form the
+ * transport returns them in.</p>
+ */
+record LogaltyCall<T>(Operation operation,
+                      String id,
+                      Function<XmlSignInterface, XmlPayload> requestBuilder,
+                      Function<XmlPayload, T> responseParser,
+                      Function<T, Boolean> successValidator,
+                      Function<T, String> errorMessageExtractor) {
+
+    static LogaltyCall<ResponseDocument> incoming(LogaltyCommonService common,
+                                                  List<ReceiverDTO> receivers,
+                                                  List<BinaryContentsDTO> binaryContentsList) {
+        return incoming(signer -> XmlPayload.text(common.buildIncomingRequest(receivers, binaryContentsList, signer)), common);
+    }
+
+    static LogaltyCall<ResponseDocument> incoming(LogaltyCommonService common,
+                                                  List<ReceiverDTO> receivers,
+                                                  Binarycontents preparedContents) {
+        return incoming(signer -> XmlPayload.text(common.buildIncomingRequest(receivers, preparedContents, signer)), common);
+    }
+
+    /**
+     * INCOMING call whose request is written and signed by the {@link IncomingRequestWriter}
+     * instead of the SDK; the SDK signer is not used.
+     */
+    static LogaltyCall<ResponseDocument> streamed(LogaltyCommonService common,
+                                                  IncomingRequestWriter writer,
+                                                  String tenantId,
+                                                  List<ReceiverDTO> receivers,
+                                                  List<BinaryContentsDTO> binaryContentsList) {
+        return incoming(signer -> XmlPayload.utf8(writer.writeSigned(tenantId, receivers, binaryContentsList)), common);
+    }
+
+    private static LogaltyCall<ResponseDocument> incoming(Function<XmlSignInterface, XmlPayload> requestBuilder,
+                                                          LogaltyCommonService common) {
+        return new LogaltyCall<>(
+                Operation.INCOMING_OPERATION,
+                "INIT_SIGNATURE",
+                requestBuilder,
+                common::parseIncomingResponse,
+                response -> IncomingServiceResponseCode.getByCode(
+                        response.getResponse().getResult().getMain()
+                ) == IncomingServiceResponseCode.DOCUMENT_ACCEPTED,
+                response -> response.getResponse().getResult().getReason()
+        );
+    }
+
+    static LogaltyCall<CancelResponseDocument> cancel(LogaltyCommonService common, String id, String reason) {
+        return new LogaltyCall<>(
+                Operation.CANCEL_REQUEST_OPERATION,
+                id,
+                signer -> signed(() -> new CancelRequestDocumentBuilder(id, reason).buildSigned(signer)),
+                common::parseCancelResponse,
+                response -> UpdateServiceResponse.getFromCode(response.getCancelResponse().getMain())
+                        == UpdateServiceResponse.DOCUMENT_ACCEPTED,
+                response -> "code=" + response.getCancelResponse().getMain()
+        );
+    }
+
+    static LogaltyCall<DataCertificateResponseDocument> certificate(LogaltyCommonService common, String id) {
+        return new LogaltyCall<>(
+                Operation.CERTIFICATE_REQUEST_OPERATION,
+                id,
+                signer -> signed(() -> new DataCertificateRequestDocumentBuilder(id).buildSigned(signer)),
+                common::parseCertificateResponse,
+                response -> {
+                    var r = response.getDataCertificateResponse();
+                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
+                },
+                response -> "code=" + response.getDataCertificateResponse().getMain()
+        );
+    }
+
+    static LogaltyCall<SignedBinaryResponseDocument> signedBinary(LogaltyCommonService common, String id) {
+        return new LogaltyCall<>(
+                Operation.SIGNED_BINARY_OPERATION,
+                id,
+                signer -> signed(() -> new SignedBinaryRequestDocumentBuilder(id).buildSigned(signer)),
+                common::parseSignedBinaryResponse,
+                response -> {
+                    var r = response.getSignedBinaryResponse();
+                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
+                },
+                response -> "code=" + response.getSignedBinaryResponse().getMain()
+        );
+    }
+
+    static LogaltyCall<DataStateExternalIdResponseDocument> status(LogaltyCommonService common, String externalId) {
+        return new LogaltyCall<>(
+                Operation.STATES_EXTERNAL_ID_OPERATION,
+                externalId,
+                signer -> signed(() -> new DataStateExternalIdRequestDocumentBuilder(externalId).buildSigned(signer)),
+                common::parseDataStateExternalIdResponse,
+                response -> {
+                    var r = response.getDataStateExternalIdResponse();
+                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
+                },
+                response -> "code=" + response.getDataStateExternalIdResponse().getMain()
+        );
+    }
+
+    private static XmlPayload signed(LogaltyEvents.SignCall<LogaltyException> call) {
+        try {
+            return XmlPayload.text(LogaltyEvents.signed(call));
+        } catch (LogaltyException e) {
+            throw new RuntimeException("Error calling buildSigned", e);
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.firefly.ecm.adapter.logalty.services;
 
 import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
 import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
 import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
 import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRejectedException;
+import com.firefly.ecm.adapter.logalty.flightrecorder.LogaltyFlightRecorder;
+import com.firefly.ecm.adapter.logalty.flightrecorder.SnapshotRedactor;
+import com.firefly.ecm.adapter.logalty.jfr.LogaltyEvents;
+import com.firefly.ecm.adapter.logalty.preparation.DocumentPreparer;
+import com.firefly.ecm.adapter.logalty.preparation.PreparedDocument;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
+import com.firefly.ecm.adapter.logalty.validation.RequestValidator;
 import com.logalty.constant.NodeProcess;
 import com.logalty.exception.LogaltyException;
 import com.logalty.schema.ptrequest.*;
@@ -22,10 +33,7 @@ import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
 import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
 import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
 import com.logalty.interfaces.XmlSignInterface;
-import com.logalty.sdk.webservice.HttpSender;
 import com.logalty.sdk.webservice.Operation;
-import com.logalty.sdk.webservice.Proxy;
-import com.logalty.sdk.webservice.ServerInfo;
 import com.logalty.sdk.xml.incoming.ContactBuilder;
 import com.logalty.sdk.xml.incoming.LegalIdentityBuilder;
 import com.logalty.sdk.xml.incoming.PersonalDataBuilder;
@@ -39,23 +47,26 @@ import com.logalty.sdk.xml.incoming.requestmeta.MetaUserdefinedDocumentBuilder;
 import com.logalty.sdk.xml.incoming.requestmeta.RequestMetaBuilder;
 import com.logalty.sdk.xml.incoming.requestmeta.Time2CloseBuilder;
 import com.logalty.sdk.xml.incoming.requestmeta.Time2SaveBuilder;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.xmlbeans.XmlException;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.security.Security;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -63,56 +74,233 @@ import java.util.stream.Collectors;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class LogaltyCommonService {
 
     private final SignatureProperties signatureProperties;
-    private final XmlSignInterface xmlSigner;
+    private final TenantSignerRegistry signers;
+    private final LogaltyTransport transport;
+    private final LogaltyFlightRecorder flightRecorder;
+    private final DocumentPreparer documentPreparer;
+    private final RequestValidator requestValidator;
+
+    /**
+     * @param signers source of the default signer, so a rotated certificate is picked up by the
+     *                operations that do not take an explicit signer
+     */
+    @Autowired
+    public LogaltyCommonService(SignatureProperties signatureProperties,
+                                TenantSignerRegistry signers,
+                                LogaltyTransport transport,
+                                LogaltyFlightRecorder flightRecorder,
+                                DocumentPreparer documentPreparer,
+                                RequestValidator requestValidator) {
+        this.signatureProperties = signatureProperties;
+        this.signers = signers;
+        this.transport = transport;
+        this.flightRecorder = flightRecorder;
+        this.documentPreparer = documentPreparer;
+        this.requestValidator = requestValidator;
+    }
 
+    /**
+     * Runs an operation with an explicit signer, e.g. the one of the calling tenant. The same
+     * signer instance is handed to the post stage that the request was signed with.
+     *
+     * <p>Documents travel in the form they were produced in, see {@link XmlPayload}: the SDK's
+     * String through a String transport, UTF-8 bytes through a byte transport. The operation
+     * owns both documents: the request is released once posted, the response once parsed.</p>
+     */
     public <T> T executeOperation(
-            Supplier<String> xmlBuilder,
-            BiFunction<String, XmlSignInterface, String> postFunction,
-            Function<String, T> responseParser,
+            XmlSignInterface signer,
+            Supplier<XmlPayload> xmlBuilder,
+            BiFunction<XmlPayload, XmlSignInterface, XmlPayload> postFunction,
+            Function<XmlPayload, T> responseParser,
             Function<T, Boolean> successValidator,
             Function<T, String> errorMessageExtractor,
             String id
     ) {
         log.info("Operation [{}]: start", id);
+        LogaltyFlightRecorder.Exchange exchange = flightRecorder.begin(id);
+        LogaltyEvents events = LogaltyEvents.begin(id);
+        try {
+            XmlPayload xmlRequest = build(exchange, events, xmlBuilder, id);
+            XmlPayload xmlResponse;
+            try {
+                // POST
+                log.info("Operation [{}]: sending request to Logalty...", id);
+                events.postStarted();
+                xmlResponse = postFunction.apply(xmlRequest, signer);
+            } finally {
+                xmlRequest.release();
+            }
+            if (xmlResponse == null) {
+                throw new LogaltyCallException("Empty response (" + id + ")");
+            }
+
+            try {
+                return complete(exchange, events, xmlResponse, responseParser, successValidator, errorMessageExtractor, id);
+            } finally {
+                xmlResponse.release();
+            }
+        } catch (RuntimeException e) {
+            exchange.failed(e);
+            events.finish(LogaltyEvents.ERROR);
+            throw e;
+        }
+    }
+
+    /**
+     * Reactive form of {@link #executeOperation}. The request is built and signed on a worker
+     * thread, {@code postFunction} posts it without blocking, and the response is parsed on the
+     * parallel scheduler. Cancelling the returned {@code Mono} cancels the post in flight and
+     * records the exchange as failed; a response discarded by cancellation is released too.
+     */
+    public <T> Mono<T> executeOperationReactive(
+            XmlSignInterface signer,
+            Supplier<XmlPayload> xmlBuilder,
+            BiFunction<XmlPayload, XmlSignInterface, Mono<XmlPayload>> postFunction,
+            Function<XmlPayload, T> responseParser,
+            Function<T, Boolean> successValidator,
+            Function<T, String> errorMessageExtractor,
+            String id
+    ) {
+        return Mono.fromCallable(() -> {
+                    log.info("Operation [{}]: start", id);
+                    LogaltyFlightRecorder.Exchange exchange = flightRecorder.begin(id);
+                    LogaltyEvents events = LogaltyEvents.begin(id);
+                    try {
+                        XmlPayload xmlRequest = build(exchange, events, xmlBuilder, id);
+                        try {
+                            log.info("Operation [{}]: sending request to Logalty...", id);
+                            events.postStarted();
+                            // Assembled here so the transport can still tag the exchange of this thread
+                            Mono<XmlPayload> response = postFunction.apply(xmlRequest, signer)
+                                    .doFinally(signal -> xmlRequest.release());
+                            return new PendingOperation(exchange, events, response);
+                        } catch (RuntimeException e) {
+                            xmlRequest.release();
+                            throw e;
+                        }
+                    } catch (RuntimeException e) {
+                        exchange.failed(e);
+                        events.finish(LogaltyEvents.ERROR);
+                        throw e;
+                    } finally {
+                        // The rest of the operation runs on other threads
+                        flightRecorder.detach(exchange);
+                        events.detach();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(pending -> pending.response()
+                        .switchIfEmpty(Mono.error(() -> new LogaltyCallException("Empty response (" + id + ")")))
+                        .publishOn(Schedulers.parallel())
+                        .map(xmlResponse -> {
+                            try {
+                                return complete(pending.exchange(), pending.events(), xmlResponse,
+                                        responseParser, successValidator, errorMessageExtractor, id);
+                            } finally {
+                                xmlResponse.release();
+                            }
+                        })
+                        .doOnDiscard(XmlPayload.class, XmlPayload::release)
+                        .doOnError(pending::failed)
+                        .doOnCancel(() -> pending.failed(new CancellationException("Operation (" + id + ") cancelled"))));
+    }
+
+    private XmlPayload build(LogaltyFlightRecorder.Exchange exchange,
+                             LogaltyEvents events,
+                             Supplier<XmlPayload> xmlBuilder,
+                             String id) {
         initTrustStoreFromClasspath();
 
         // Build XML
         log.debug("Operation [{}]: building XML request...", id);
-        String xmlRequest = xmlBuilder.get();
-        log.debug("Operation [{}]: XML built (length={})", id, xmlRequest != null ? xmlRequest.length() : 0);
+        events.buildStarted();
+        XmlPayload xmlRequest = Objects.requireNonNull(xmlBuilder.get(), "xmlRequest");
+        if (xmlRequest.isText()) {
+            events.buildFinished(xmlRequest.text());
+            exchange.built(xmlRequest.text());
+        } else {
+            events.buildFinished(xmlRequest.utf8());
+            exchange.built(xmlRequest.utf8());
+        }
+        log.debug("Operation [{}]: XML built ({})", id, xmlRequest);
+        return xmlRequest;
+    }
 
-        // POST
-        log.info("Operation [{}]: sending request to Logalty...", id);
-        String responseString = postFunction.apply(xmlRequest, xmlSigner);
-        log.debug("Operation [{}]: response received (length={})", id, responseString != null ? responseString.length() : 0);
+    private <T> T complete(LogaltyFlightRecorder.Exchange exchange,
+                           LogaltyEvents events,
+                           XmlPayload xmlResponse,
+                           Function<XmlPayload, T> responseParser,
+                           Function<T, Boolean> successValidator,
+                           Function<T, String> errorMessageExtractor,
+                           String id) {
+        if (xmlResponse.isText()) {
+            events.postFinished(xmlResponse.text());
+            exchange.posted(xmlResponse.text());
+        } else {
+            events.postFinished(xmlResponse.utf8());
+            exchange.posted(xmlResponse.utf8());
+        }
+        log.debug("Operation [{}]: response received ({})", id, xmlResponse);
 
         // Parse
         log.debug("Operation [{}]: parsing response...", id);
-        T response = responseParser.apply(responseString);
+        events.parseStarted();
+        T response = responseParser.apply(xmlResponse);
+        events.parseFinished();
+        exchange.parsed();
 
         // Validate
         log.debug("Operation [{}]: validating response...", id);
         if (!successValidator.apply(response)) {
             String message = errorMessageExtractor.apply(response);
             log.warn("Operation [{}] failed validation: {}", id, message);
-            throw new LogaltyCallException(
-                    "Operation error (" + id + "): " + message,
-                    id,
-                    message,
-                    null
-            );
+            exchange.rejected(message);
+            events.finish(LogaltyEvents.REJECTED);
+            throw new LogaltyRejectedException(id, message);
         }
 
+        exchange.succeeded();
+        events.finish(LogaltyEvents.SUCCESS);
         log.info("Operation [{}]: success", id);
         return response;
     }
 
+    /**
+     * A reactive operation whose request is built and whose post is assembled but not yet
+     * subscribed.
+     */
+    private record PendingOperation(LogaltyFlightRecorder.Exchange exchange,
+                                    LogaltyEvents events,
+                                    Mono<XmlPayload> response) {
+
+        void failed(Throwable error) {
+            exchange.failed(error);
+            events.finish(LogaltyEvents.ERROR);
+        }
+    }
+
     public String buildIncomingRequest(List<ReceiverDTO> receivers,
                                         List<BinaryContentsDTO> binaryContentsList) {
+        return buildIncomingRequest(receivers, binaryContentsList, signers.defaultSigner());
+    }
+
+    public String buildIncomingRequest(List<ReceiverDTO> receivers,
+                                        List<BinaryContentsDTO> binaryContentsList,
+                                        XmlSignInterface signer) {
+        return buildIncomingRequest(receivers, createBinaryContents(binaryContentsList), signer);
+    }
+
+    /**
+     * Builds a request around documents already prepared with {@link #createBinaryContents},
+     * so the same payload can be reused for many requests (e.g. a campaign). The payload is
+     * only read.
+     */
+    public String buildIncomingRequest(List<ReceiverDTO> receivers,
+                                        Binarycontents binarycontents,
+                                        XmlSignInterface signer) {
 
         RequestMetaDocument.RequestMeta requestMeta =
                 generateRequestMeta(
@@ -121,11 +309,14 @@ public class LogaltyCommonService {
                 );
 
         ProcessMetaDocument.ProcessMeta processMeta = generateProcessMeta(receivers);
-        Binarycontents binarycontents = createBinaryContents(binaryContentsList);
+
+        // Rejected before signing; the payload was validated when it was created
+        requestValidator.validate("request_meta", requestMeta);
+        requestValidator.validate("process_meta", processMeta);
 
         try {
-            return new RequestDocumentBuilder(requestMeta, processMeta, binarycontents)
-                    .buildSigned(xmlSigner);
+            RequestDocumentBuilder builder = new RequestDocumentBuilder(requestMeta, processMeta, binarycontents);
+            return LogaltyEvents.signed(() -> builder.buildSigned(signer));
         } catch (LogaltyException e) {
             log.error("Error building and signing request document", e);
             LogaltyCallException ex = new LogaltyCallException("Error calling buildSigned");
@@ -213,78 +404,72 @@ public class LogaltyCommonService {
 
 
 
-    public String post(Operation operation, String xmlRequest, XmlSignInterface signer) {
-        ServerInfo serverInfo = ServerInfo.LOGALTY_DEMO_SERVER;
-        Proxy proxy = Proxy.DISABLED_PROXY;
+    /**
+     * Posts a request in the form the transport {@link LogaltyTransport#prefersUtf8() prefers},
+     * converting it only if it was produced in the other one.
+     */
+    public XmlPayload post(Operation operation, XmlPayload xmlRequest, XmlSignInterface signer) {
+        tag(operation);
+        if (transport.prefersUtf8()) {
+            ContentSource response = transport.postUtf8(operation, xmlRequest.utf8(), signer);
+            return response != null ? XmlPayload.utf8(response) : null;
+        }
+        String response = transport.post(operation, xmlRequest.text(), signer);
+        return response != null ? XmlPayload.text(response) : null;
+    }
+
+    /**
+     * Non-blocking form of {@link #post}, for {@link #executeOperationReactive}.
+     */
+    public Mono<XmlPayload> exchange(Operation operation, XmlPayload xmlRequest, XmlSignInterface signer) {
+        tag(operation);
+        if (transport.prefersUtf8()) {
+            return transport.exchangeUtf8(operation, xmlRequest.utf8(), signer).map(XmlPayload::utf8);
+        }
+        return transport.exchange(operation, xmlRequest.text(), signer).map(XmlPayload::text);
+    }
 
+    private void tag(Operation operation) {
         setupSecurityProviders();
+        flightRecorder.tagOperation(operation.name());
+        LogaltyEvents.tagOperation(operation.name());
         log.info("Sending {} to Logalty...", operation.name());
-        try {
-            return HttpSender.postRequest(
-                operation,
-                xmlRequest,
-                signer.retrieveCertificateId(),
-                serverInfo,
-                proxy
-            );
-        } catch (LogaltyException e) {
-            log.error("Error calling post for operation {}", operation.name(), e);
-            LogaltyCallException ex = new LogaltyCallException("Error calling post");
-            ex.initCause(e);
-            throw ex;
-        }
     }
 
-    public ResponseDocument parseIncomingResponse(String responseString) {
-        try {
-            return ResponseDocument.Factory.parse(responseString);
-        } catch (Exception e) {
-            log.error("Invalid Incoming response from Logalty: {}", responseString);
-            LogaltyCallException ex = new LogaltyCallException("Error calling parseIncomingResponse");
-            ex.initCause(e);
-            throw ex;
-        }
+    public ResponseDocument parseIncomingResponse(XmlPayload response) {
+        return parse(response, ResponseDocument.Factory::parse, "IncomingResponse");
     }
 
-    public CancelResponseDocument parseCancelResponse(String responseString) {
-        try {
-            return CancelResponseDocument.Factory.parse(responseString);
-        } catch (XmlException e) {
-            log.error("Error parsing CancelResponse", e);
-            LogaltyCallException ex = new LogaltyCallException("Error calling parseCancelResponse");
-            ex.initCause(e);
-            throw ex;
-        }
+    public CancelResponseDocument parseCancelResponse(XmlPayload response) {
+        return parse(response, CancelResponseDocument.Factory::parse, "CancelResponse");
     }
 
-    public DataCertificateResponseDocument parseCertificateResponse(String responseString) {
-        try {
-            return DataCertificateResponseDocument.Factory.parse(responseString);
-        } catch (XmlException e) {
-            log.error("Error parsing DataCertificateResponse", e);
-            LogaltyCallException ex = new LogaltyCallException("Error calling parseCertificateResponse");
-            ex.initCause(e);
-            throw ex;
-        }
+    public DataCertificateResponseDocument parseCertificateResponse(XmlPayload response) {
+        return parse(response, DataCertificateResponseDocument.Factory::parse, "CertificateResponse");
     }
 
-    public SignedBinaryResponseDocument parseSignedBinaryResponse(String responseString) {
-        try {
-            return SignedBinaryResponseDocument.Factory.parse(responseString);
-        } catch (XmlException e) {
-            log.error("Error parsing SignedBinaryResponse", e);
-            LogaltyCallException ex = new LogaltyCallException("Error calling parseSignedBinaryResponse");
-            ex.initCause(e);
-            throw ex;
-        }
+    public SignedBinaryResponseDocument parseSignedBinaryResponse(XmlPayload response) {
+        return parse(response, SignedBinaryResponseDocument.Factory::parse, "SignedBinaryResponse");
     }
 
-    public DataStateExternalIdResponseDocument parseDataStateExternalIdResponse(String responseString) {
-        try {
-            return DataStateExternalIdResponseDocument.Factory.parse(responseString);
-        } catch (XmlException e) {
-            log.error("Error parsing DataStateExternalIdResponse", e);
-            LogaltyCallException ex = new LogaltyCallException("Error calling parseDataStateExternalIdResponse");
+    public DataStateExternalIdResponseDocument parseDataStateExternalIdResponse(XmlPayload response) {
+        return parse(response, DataStateExternalIdResponseDocument.Factory::parse, "DataStateExternalIdResponse");
+    }
+
+    @FunctionalInterface
+    private interface DocumentParser<T> {
+        T parse(Reader in) throws XmlException, IOException;
+    }
+
+    // Read in the payload's own form, so neither form is converted to the other for parsing
+    private <T> T parse(XmlPayload response, DocumentParser<T> parser, String type) {
+        try (Reader in = response.openReader()) {
+            return parser.parse(in);
+        } catch (XmlException | IOException e) {
+            log.error("Invalid {} from Logalty ({}): {}", type, response, response.isText()
+                    ? SnapshotRedactor.snapshot(response.text(), 512)
+                    : SnapshotRedactor.snapshot(response.utf8(), 512));
+            LogaltyCallException ex = new LogaltyCallException("Error calling parse" + type);
             ex.initCause(e);
             throw ex;
         }
@@ -392,25 +577,9 @@ public class LogaltyCommonService {
             .map(BinaryContentsDTO::getBinaryContentId)
             .collect(Collectors.toList());
 
-        List<Binarycontent> items = binaryContentsDTOS.stream()
-            .map(dto -> {
-                byte[] contents = dto.getContents();
-                if (contents == null || contents.length == 0) {
-                    throw new LogaltyCallException("Binary contents cannot be null or empty for id=" + dto.getBinaryContentId());
-                }
-
-                Binarycontent binaryContent = new BinarycontentBuilder(
-                    dto.getBinaryContentId(),
-                    dto.getEncoding(),
-                    dto.getFilename() + "." + dto.getExtension(),
-                    dto.getType(),
-                    Base64.getEncoder().encodeToString(contents)
-                ).build();
-
-                log.debug("Added binary content item: id={}, filename={}.{}, sizeBytes={}",
-                    dto.getBinaryContentId(), dto.getFilename(), dto.getExtension(), contents.length);
-                return binaryContent;
-            })
+        // Validation, hashing and encoding run per document, in parallel for multi-document envelopes
+        List<Binarycontent> items = documentPreparer.prepare(binaryContentsDTOS).stream()
+            .map(PreparedDocument::content)
             .collect(Collectors.toList());
 
         Binarycontentgroup group = new BinarycontentgroupBuilder(1, memberIds).build();
@@ -418,6 +587,7 @@ public class LogaltyCommonService {
         Binarycontentitems binarycontentitems = new BinarycontentitemsBuilder(items).build();
 
         Binarycontents result = new BinarycontentsBuilder(binarycontentgroups, binarycontentitems).build();
+        requestValidator.validate("binarycontents", result);
         log.info("BinaryContents created successfully with {} item(s)", items.size());
         return result;
     }
@@ -0,0 +1,24 @@
+package com.firefly.ecm.adapter.logalty.services;
+
+/**
+ * Remote operations the adapter performs against Logalty, used to key per-operation
+ * limits and telemetry.
+ */
+public enum LogaltyOperation {
+
+    // SOAP operations (SignatureService)
+    INIT_SIGNATURE,
+    CANCEL,
+    GET_CERTIFICATE,
+    GET_SIGNED_BINARY,
+    GET_STATUS,
+
+    // REST operations (LogaltySignatureEnvelopeAdapter)
+    OAUTH_TOKEN,
+    CREATE_ENVELOPE,
+    GET_ENVELOPE,
+    SEND_ENVELOPE,
+    GET_SIGNING_URL,
+    RESEND_ENVELOPE,
+    ARCHIVE_ENVELOPE
+}
@@ -0,0 +1,215 @@
+package com.firefly.ecm.adapter.logalty.services;
+
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.artifactcache.ArtifactCache;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.statuscache.StatusCache;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.xml.IncomingRequestWriter;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
+import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.ptrequest.ResultDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link SignatureService}: the same operations, returning a
+ * {@code Mono} that does nothing until subscribed.
+ *
+ * <p>Each call builds and signs its request on a worker thread, posts it through
+ * {@link com.firefly.ecm.adapter.logalty.transport.LogaltyTransport#exchange} and parses the
+ * response on the parallel scheduler, so no caller thread waits on Logalty. Cancelling a
+ * {@code Mono} cancels its request in flight. Input errors, rejections and transport failures
+ * are signalled as errors of the {@code Mono}, with the same exceptions the blocking service
+ * throws.</p>
+ *
+ * <p>Every request sent takes a {@link LogaltyRateLimiter} permit of its operation for the
+ * tenant, then runs under the Logalty circuit breaker: the permit is taken outside the breaker,
+ * so neither the wait for it nor a local rejection counts against Logalty, and callers take no
+ * permit of their own. A cache hit takes none. {@code getStatus} and {@code getCertificate} are
+ * hedged by the {@link RequestHedger} when it is enabled, beneath the caches so a shared or
+ * cached lookup is not hedged again; the hedger takes the permit of each attempt.</p>
+ */
+@Service
+public class ReactiveSignatureService {
+
+    private final SignatureProperties signatureProperties;
+    private final LogaltyCommonService common;
+    private final TenantSignerRegistry signers;
+    private final ArtifactCache artifactCache;
+    private final StatusCache statusCache;
+    private final IncomingRequestWriter requestWriter;
+    private final MemoryAdmission admission;
+    private final RequestHedger hedger;
+    private final LogaltyRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public ReactiveSignatureService(SignatureProperties signatureProperties,
+                                    LogaltyCommonService common,
+                                    TenantSignerRegistry signers,
+                                    ArtifactCache artifactCache,
+                                    StatusCache statusCache,
+                                    IncomingRequestWriter requestWriter,
+                                    MemoryAdmission admission,
+                                    RequestHedger hedger,
+                                    LogaltyRateLimiter rateLimiter,
+                                    @Qualifier("logaltyCircuitBreaker") CircuitBreaker circuitBreaker) {
+        this.signatureProperties = signatureProperties;
+        this.common = common;
+        this.signers = signers;
+        this.artifactCache = artifactCache;
+        this.statusCache = statusCache;
+        this.requestWriter = requestWriter;
+        this.admission = admission;
+        this.hedger = hedger;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Mono<ResultDocument.Result> initSignature(List<ReceiverDTO> receivers,
+                                                     List<BinaryContentsDTO> binaryContentsList) {
+        return initSignature(TenantContext.DEFAULT_TENANT, receivers, binaryContentsList);
+    }
+
+    /**
+     * @see SignatureService#initSignature(String, List, List)
+     */
+    public Mono<ResultDocument.Result> initSignature(String tenantId,
+                                                     List<ReceiverDTO> receivers,
+                                                     List<BinaryContentsDTO> binaryContentsList) {
+        return Mono.defer(() -> {
+            common.validateInput(receivers, binaryContentsList);
+            return admission.admit(admission.estimate(binaryContentsList),
+                    execute(LogaltyOperation.INIT_SIGNATURE, tenantId, incoming(tenantId, receivers, binaryContentsList)));
+        }).map(response -> response.getResponse().getResult());
+    }
+
+    /**
+     * @see SignatureService#initSignature(String, List, Binarycontents)
+     */
+    public Mono<ResultDocument.Result> initSignature(String tenantId,
+                                                     List<ReceiverDTO> receivers,
+                                                     Binarycontents preparedContents) {
+        return Mono.defer(() -> {
+            if (receivers == null || receivers.isEmpty()) {
+                return Mono.error(new IllegalArgumentException("Receiver list cannot be null or empty"));
+            }
+            return execute(LogaltyOperation.INIT_SIGNATURE, tenantId, LogaltyCall.incoming(common, receivers, preparedContents));
+        }).map(response -> response.getResponse().getResult());
+    }
+
+    public Mono<CancelResponseDocument.CancelResponse> initCancel(String id) {
+        return initCancel(TenantContext.DEFAULT_TENANT, id);
+    }
+
+    public Mono<CancelResponseDocument.CancelResponse> initCancel(String tenantId, String id) {
+        return initCancel(tenantId, id, signatureProperties.getCancelReason());
+    }
+
+    /**
+     * @see SignatureService#initCancel(String, String, String)
+     */
+    public Mono<CancelResponseDocument.CancelResponse> initCancel(String tenantId, String id, String reason) {
+        return execute(LogaltyOperation.CANCEL, tenantId, LogaltyCall.cancel(common, id, reason))
+                .map(CancelResponseDocument::getCancelResponse)
+                .doOnSuccess(response -> statusCache.invalidate(tenantId, id))
+                .doOnError(e -> statusCache.invalidate(tenantId, id));
+    }
+
+    public Mono<DataCertificateResponseDocument.DataCertificateResponse> getCertificate(String id) {
+        return getCertificate(TenantContext.DEFAULT_TENANT, id);
+    }
+
+    public Mono<DataCertificateResponseDocument.DataCertificateResponse> getCertificate(String tenantId, String id) {
+        return artifactCache.get(
+                ArtifactCache.CERTIFICATE, tenantId, id,
+                xml -> common.parseCertificateResponse(XmlPayload.text(xml)),
+                DataCertificateResponseDocument::xmlText,
+                artifactCache::isFinal,
+                hedged(LogaltyOperation.GET_CERTIFICATE, tenantId, LogaltyCall.certificate(common, id))
+        ).map(DataCertificateResponseDocument::getDataCertificateResponse);
+    }
+
+    public Mono<SignedBinaryResponseDocument.SignedBinaryResponse> getSignedBinary(String id) {
+        return getSignedBinary(TenantContext.DEFAULT_TENANT, id);
+    }
+
+    public Mono<SignedBinaryResponseDocument.SignedBinaryResponse> getSignedBinary(String tenantId, String id) {
+        return artifactCache.get(
+                ArtifactCache.SIGNED_BINARY, tenantId, id,
+                xml -> common.parseSignedBinaryResponse(XmlPayload.text(xml)),
+                SignedBinaryResponseDocument::xmlText,
+                artifactCache::isFinal,
+                execute(LogaltyOperation.GET_SIGNED_BINARY, tenantId, LogaltyCall.signedBinary(common, id))
+        ).map(SignedBinaryResponseDocument::getSignedBinaryResponse);
+    }
+
+    public Mono<DataStateExternalIdResponseDocument.DataStateExternalIdResponse> getStatus(String externalId) {
+        return getStatus(TenantContext.DEFAULT_TENANT, externalId);
+    }
+
+    public Mono<DataStateExternalIdResponseDocument.DataStateExternalIdResponse> getStatus(String tenantId, String externalId) {
+        return statusCache.get(tenantId, externalId,
+                hedged(LogaltyOperation.GET_STATUS, tenantId, LogaltyCall.status(common, externalId))
+                        .map(DataStateExternalIdResponseDocument::getDataStateExternalIdResponse));
+    }
+
+    /**
+     * {@code call} hedged as {@code operation}; the hedger takes the permit of each attempt.
+     */
+    private <T> Mono<T> hedged(LogaltyOperation operation, String tenantId, LogaltyCall<T> call) {
+        return hedger.hedge(operation, tenantId, send(tenantId, call));
+    }
+
+    private LogaltyCall<ResponseDocument> incoming(String tenantId,
+                                                   List<ReceiverDTO> receivers,
+                                                   List<BinaryContentsDTO> binaryContentsList) {
+        return signatureProperties.isStreamRequests()
+                ? LogaltyCall.streamed(common, requestWriter, tenantId, receivers, binaryContentsList)
+                : LogaltyCall.incoming(common, receivers, binaryContentsList);
+    }
+
+    /**
+     * {@code call} once a rate limit permit for {@code operation} is granted to the tenant.
+     */
+    private <T> Mono<T> execute(LogaltyOperation operation, String tenantId, LogaltyCall<T> call) {
+        return rateLimiter.acquire(operation, tenantId).then(send(tenantId, call));
+    }
+
+    /**
+     * One attempt of {@code call} under the circuit breaker, without a permit.
+     */
+    private <T> Mono<T> send(String tenantId, LogaltyCall<T> call) {
+        return Mono.defer(() -> {
+            XmlSignInterface xmlSigner = signers.signerFor(tenantId);
+
+            return common.executeOperationReactive(
+                    xmlSigner,
+                    () -> call.requestBuilder().apply(xmlSigner),
+                    (xml, signer) -> common.exchange(call.operation(), xml, signer),
+                    call.responseParser(),
+                    call.successValidator(),
+                    call.errorMessageExtractor(),
+                    call.id()
+            );
+        }).transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+}
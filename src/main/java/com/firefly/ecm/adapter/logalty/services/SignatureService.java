@@ -1,13 +1,14 @@
 package com.firefly.ecm.adapter.logalty.services;
 
 import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.artifactcache.ArtifactCache;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
 import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
 import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
-import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
-import com.logalty.constant.IncomingServiceResponseCode;
-import com.logalty.constant.DataServiceResponseCode;
-import com.logalty.constant.UpdateServiceResponse;
-import com.logalty.exception.LogaltyException;
+import com.firefly.ecm.adapter.logalty.statuscache.StatusCache;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.xml.IncomingRequestWriter;
 import com.logalty.interfaces.XmlSignInterface;
 import com.logalty.schema.ptrequest.*;
 import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
@@ -15,25 +16,37 @@ import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
 import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
 import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
 import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
-import com.logalty.sdk.webservice.Operation;
-import com.logalty.sdk.xml.incoming.RequestDocumentBuilder;
-import com.logalty.sdk.xml.update.cancel.CancelRequestDocumentBuilder;
-import com.logalty.sdk.xml.data.DataCertificateRequestDocumentBuilder;
-import com.logalty.sdk.xml.data.SignedBinaryRequestDocumentBuilder;
-import com.logalty.sdk.xml.data.DataStateExternalIdRequestDocumentBuilder;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class SignatureService {
 
+    private final SignatureProperties signatureProperties;
     private final LogaltyCommonService common;
-    private final XmlSignInterface xmlSigner;
+    private final TenantSignerRegistry signers;
+    private final ArtifactCache artifactCache;
+    private final StatusCache statusCache;
+    private final IncomingRequestWriter requestWriter;
+
+    @Autowired
+    public SignatureService(SignatureProperties signatureProperties,
+                            LogaltyCommonService common,
+                            TenantSignerRegistry signers,
+                            ArtifactCache artifactCache,
+                            StatusCache statusCache,
+                            IncomingRequestWriter requestWriter) {
+        this.signatureProperties = signatureProperties;
+        this.common = common;
+        this.signers = signers;
+        this.artifactCache = artifactCache;
+        this.statusCache = statusCache;
+        this.requestWriter = requestWriter;
+    }
 
     /**
      * Initializes the signature process by validating the provided input and sending
@@ -46,19 +59,37 @@ public class SignatureService {
      */
     public ResultDocument.Result initSignature(List<ReceiverDTO> receivers,
                                                List<BinaryContentsDTO> binaryContentsList) {
+        return initSignature(TenantContext.DEFAULT_TENANT, receivers, binaryContentsList);
+    }
+
+    /**
+     * Tenant-aware variant of {@link #initSignature(List, List)}: the request is signed with
+     * the tenant's certificate.
+     */
+    public ResultDocument.Result initSignature(String tenantId,
+                                               List<ReceiverDTO> receivers,
+                                               List<BinaryContentsDTO> binaryContentsList) {
 
         common.validateInput(receivers, binaryContentsList);
+        return execute(tenantId, incoming(tenantId, receivers, binaryContentsList))
+                .getResponse().getResult();
+    }
 
-        return common.executeOperation(
-                () -> common.buildIncomingRequest(receivers, binaryContentsList),
-                (xml, signer) -> common.post(Operation.INCOMING_OPERATION, xml, signer),
-                common::parseIncomingResponse,
-                response -> IncomingServiceResponseCode.getByCode(
-                        response.getResponse().getResult().getMain()
-                ) == IncomingServiceResponseCode.DOCUMENT_ACCEPTED,
-                response -> response.getResponse().getResult().getReason(),
-                "INIT_SIGNATURE"
-        ).getResponse().getResult();
+    /**
+     * Variant of {@link #initSignature(String, List, List)} for documents already prepared with
+     * {@link LogaltyCommonService#createBinaryContents}, e.g. one document shared by every
+     * receiver of a campaign. The prepared contents are only read and can be shared between
+     * concurrent calls.
+     */
+    public ResultDocument.Result initSignature(String tenantId,
+                                               List<ReceiverDTO> receivers,
+                                               Binarycontents preparedContents) {
+
+        if (receivers == null || receivers.isEmpty()) {
+            throw new IllegalArgumentException("Receiver list cannot be null or empty");
+        }
+        return execute(tenantId, LogaltyCall.incoming(common, receivers, preparedContents))
+                .getResponse().getResult();
     }
 
     /**
@@ -70,23 +101,23 @@ public class SignatureService {
      * @throws RuntimeException If there is an error building the signed request or executing the operation.
      */
     public CancelResponseDocument.CancelResponse initCancel(String id) {
+        return initCancel(TenantContext.DEFAULT_TENANT, id);
+    }
 
-        return common.executeOperation(
-                () -> {
-                    try {
-                        return new CancelRequestDocumentBuilder(id, "Example of cancel reason")
-                                .buildSigned(xmlSigner);
-                    } catch (LogaltyException e) {
-                        throw new RuntimeException("Error calling buildSigned", e);
-                    }
-                },
-                (xml, signer) -> common.post(Operation.CANCEL_REQUEST_OPERATION, xml, signer),
-                common::parseCancelResponse,
-                response -> UpdateServiceResponse.getFromCode(response.getCancelResponse().getMain())
-                        == UpdateServiceResponse.DOCUMENT_ACCEPTED,
-                response -> "code=" + response.getCancelResponse().getMain(),
-                id
-        ).getCancelResponse();
+    public CancelResponseDocument.CancelResponse initCancel(String tenantId, String id) {
+        return initCancel(tenantId, id, signatureProperties.getCancelReason());
+    }
+
+    /**
+     * Cancels a process, recording {@code reason} with Logalty. Its cached status is dropped
+     * whatever the outcome, since a failed call may still have reached Logalty.
+     */
+    public CancelResponseDocument.CancelResponse initCancel(String tenantId, String id, String reason) {
+        try {
+            return execute(tenantId, LogaltyCall.cancel(common, id, reason)).getCancelResponse();
+        } finally {
+            statusCache.invalidate(tenantId, id);
+        }
     }
 
     /**
@@ -97,24 +128,16 @@ public class SignatureService {
      * @throws RuntimeException if an error occurs during the process of building or posting the request
      */
     public DataCertificateResponseDocument.DataCertificateResponse getCertificate(String id) {
+        return getCertificate(TenantContext.DEFAULT_TENANT, id);
+    }
 
-        return common.executeOperation(
-                () -> {
-                    try {
-                        return new DataCertificateRequestDocumentBuilder(id)
-                                .buildSigned(xmlSigner);
-                    } catch (LogaltyException e) {
-                        throw new RuntimeException("Error calling buildSigned", e);
-                    }
-                },
-                (xml, signer) -> common.post(Operation.CERTIFICATE_REQUEST_OPERATION, xml, signer),
-                common::parseCertificateResponse,
-                response -> {
-                    var r = response.getDataCertificateResponse();
-                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
-                },
-                response -> "code=" + response.getDataCertificateResponse().getMain(),
-                id
+    public DataCertificateResponseDocument.DataCertificateResponse getCertificate(String tenantId, String id) {
+        return artifactCache.get(
+                ArtifactCache.CERTIFICATE, tenantId, id,
+                xml -> common.parseCertificateResponse(XmlPayload.text(xml)),
+                DataCertificateResponseDocument::xmlText,
+                artifactCache::isFinal,
+                () -> execute(tenantId, LogaltyCall.certificate(common, id))
         ).getDataCertificateResponse();
     }
 
@@ -125,24 +148,16 @@ public class SignatureService {
      * @return the signed binary response associated with the provided identifier
      */
     public SignedBinaryResponseDocument.SignedBinaryResponse getSignedBinary(String id) {
+        return getSignedBinary(TenantContext.DEFAULT_TENANT, id);
+    }
 
-        return common.executeOperation(
-                () -> {
-                    try {
-                        return new SignedBinaryRequestDocumentBuilder(id)
-                                .buildSigned(xmlSigner);
-                    } catch (LogaltyException e) {
-                        throw new RuntimeException("Error calling buildSigned", e);
-                    }
-                },
-                (xml, signer) -> common.post(Operation.SIGNED_BINARY_OPERATION, xml, signer),
-                common::parseSignedBinaryResponse,
-                response -> {
-                    var r = response.getSignedBinaryResponse();
-                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
-                },
-                response -> "code=" + response.getSignedBinaryResponse().getMain(),
-                id
+    public SignedBinaryResponseDocument.SignedBinaryResponse getSignedBinary(String tenantId, String id) {
+        return artifactCache.get(
+                ArtifactCache.SIGNED_BINARY, tenantId, id,
+                xml -> common.parseSignedBinaryResponse(XmlPayload.text(xml)),
+                SignedBinaryResponseDocument::xmlText,
+                artifactCache::isFinal,
+                () -> execute(tenantId, LogaltyCall.signedBinary(common, id))
         ).getSignedBinaryResponse();
     }
 
@@ -153,25 +168,34 @@ public class SignatureService {
      * @return the response object containing the status information of the document
      */
     public DataStateExternalIdResponseDocument.DataStateExternalIdResponse getStatus(String externalId) {
+        return getStatus(TenantContext.DEFAULT_TENANT, externalId);
+    }
+
+    public DataStateExternalIdResponseDocument.DataStateExternalIdResponse getStatus(String tenantId, String externalId) {
+        return statusCache.get(tenantId, externalId,
+                () -> execute(tenantId, LogaltyCall.status(common, externalId)).getDataStateExternalIdResponse());
+    }
+
+    private LogaltyCall<ResponseDocument> incoming(String tenantId,
+                                                   List<ReceiverDTO> receivers,
+                                                   List<BinaryContentsDTO> binaryContentsList) {
+        return signatureProperties.isStreamRequests()
+                ? LogaltyCall.streamed(common, requestWriter, tenantId, receivers, binaryContentsList)
+                : LogaltyCall.incoming(common, receivers, binaryContentsList);
+    }
+
+    private <T> T execute(String tenantId, LogaltyCall<T> call) {
+        XmlSignInterface xmlSigner = signers.signerFor(tenantId);
 
         return common.executeOperation(
-                () -> {
-                    try {
-                        return new DataStateExternalIdRequestDocumentBuilder(externalId)
-                                .buildSigned(xmlSigner);
-                    } catch (LogaltyException e) {
-                        throw new RuntimeException("Error calling buildSigned", e);
-                    }
-                },
-                (xml, signer) -> common.post(Operation.STATES_EXTERNAL_ID_OPERATION, xml, signer),
-                common::parseDataStateExternalIdResponse,
-                response -> {
-                    var r = response.getDataStateExternalIdResponse();
-                    return DataServiceResponseCode.getByCode(r.getMain()) == DataServiceResponseCode.DOCUMENT_ACCEPTED;
-                },
-                response -> "code=" + response.getDataStateExternalIdResponse().getMain(),
-                externalId
-        ).getDataStateExternalIdResponse();
+                xmlSigner,
+                () -> call.requestBuilder().apply(xmlSigner),
+                (xml, signer) -> common.post(call.operation(), xml, signer),
+                call.responseParser(),
+                call.successValidator(),
+                call.errorMessageExtractor(),
+                call.id()
+        );
     }
 
 }
@@ -0,0 +1,221 @@
+package com.firefly.ecm.adapter.logalty.statuscache;
+
+import com.firefly.ecm.adapter.logalty.StatusCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.XmlObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache for process status lookups.
+ *
+ * <p>Concurrent lookups of the same id share a single call, whether or not caching is
+ * enabled (blocking lookups with blocking ones, reactive lookups with reactive ones). When
+ * enabled, responses are kept for {@code ttl}, or for {@code terminalTtl} when the process has
+ * reached a terminal state and its status can no longer change. At most {@code maxEntries}
+ * statuses are kept, least recently used first out. Failed lookups are not cached. Lookups are
+ * counted as {@code logalty.status.cache.requests} (tag {@code result}: hit, miss or shared)
+ * and the size is exposed as {@code logalty.status.cache.size}.</p>
+ */
+@Slf4j
+@Component
+public class StatusCache {
+
+    private final StatusCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final TerminalStateClassifier classifier;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Mono<Object>> inFlightReactive = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> entries;
+
+    @Autowired
+    public StatusCache(StatusCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    StatusCache(StatusCacheProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.classifier = new TerminalStateClassifier(properties);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+        Gauge.builder("logalty.status.cache.size", this, StatusCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Status lookup for Logalty responses; terminal states are recognised by
+     * {@link TerminalStateClassifier}.
+     */
+    public <T extends XmlObject> T get(String tenantId, String externalId, Supplier<T> loader) {
+        return get(tenantId, externalId, loader, classifier::isTerminal);
+    }
+
+    /**
+     * Returns the cached status of {@code externalId}, or loads it, sharing the call with any
+     * concurrent lookup of the same id.
+     *
+     * @param terminal tells whether a loaded status is final, selecting its time to live
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String tenantId, String externalId, Supplier<T> loader, Predicate<T> terminal) {
+        String key = tenantId + "/" + externalId;
+        if (properties.isEnabled()) {
+            T cached = (T) cached(key);
+            if (cached != null) {
+                count("hit");
+                return cached;
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> shared = inFlight.putIfAbsent(key, mine);
+        if (shared != null) {
+            count("shared");
+            return (T) join(shared);
+        }
+
+        count("miss");
+        try {
+            T status = loader.get();
+            remember(key, status, terminal);
+            mine.complete(status);
+            return status;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Reactive status lookup for Logalty responses; terminal states are recognised by
+     * {@link TerminalStateClassifier}.
+     */
+    public <T extends XmlObject> Mono<T> get(String tenantId, String externalId, Mono<T> loader) {
+        return get(tenantId, externalId, loader, classifier::isTerminal);
+    }
+
+    /**
+     * Reactive form of {@link #get(String, String, Supplier, Predicate)}. Concurrent reactive
+     * lookups of the same id share one subscription to {@code loader}, which is cancelled only
+     * once every one of them is.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String tenantId, String externalId, Mono<T> loader, Predicate<T> terminal) {
+        return Mono.defer(() -> {
+            String key = tenantId + "/" + externalId;
+            if (properties.isEnabled()) {
+                T cached = (T) cached(key);
+                if (cached != null) {
+                    count("hit");
+                    return Mono.just(cached);
+                }
+            }
+
+            AtomicReference<Mono<Object>> mine = new AtomicReference<>();
+            Mono<Object> shared = inFlightReactive.computeIfAbsent(key, k -> {
+                Mono<Object> load = loader
+                        .doOnNext(status -> remember(key, status, terminal))
+                        .map(status -> (Object) status)
+                        .doFinally(signal -> inFlightReactive.remove(key, mine.get()))
+                        .flux()
+                        .publish()
+                        .refCount(1)
+                        .singleOrEmpty();
+                mine.set(load);
+                return load;
+            });
+            count(shared == mine.get() ? "miss" : "shared");
+            return (Mono<T>) shared;
+        });
+    }
+
+    private <T> void remember(String key, T status, Predicate<T> terminal) {
+        if (!properties.isEnabled() || status == null) {
+            return;
+        }
+        boolean pinned = terminal.test(status);
+        long ttl = (pinned ? properties.getTerminalTtl() : properties.getTtl()).toNanos();
+        synchronized (entries) {
+            entries.put(key, new Entry(status, nanoClock.getAsLong() + ttl));
+        }
+        if (pinned) {
+            log.debug("Status of {} is terminal, cached for {}", key, properties.getTerminalTtl());
+        }
+    }
+
+    /**
+     * Drops the cached status of a process, e.g. after an operation that changes it.
+     */
+    public void invalidate(String tenantId, String externalId) {
+        synchronized (entries) {
+            entries.remove(tenantId + "/" + externalId);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Object cached(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.status();
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> shared) {
+        try {
+            return shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder("logalty.status.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record Entry(Object status, long expiresAt) {
+    }
+}
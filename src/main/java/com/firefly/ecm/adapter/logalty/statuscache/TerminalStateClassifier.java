@@ -0,0 +1,40 @@
+package com.firefly.ecm.adapter.logalty.statuscache;
+
+import com.firefly.ecm.adapter.logalty.StatusCacheProperties;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+
+/**
+ * Decides whether a status response describes a finished process, by reading the first
+ * {@code stateElement} of the response and looking it up in {@code terminalStates}.
+ */
+public class TerminalStateClassifier {
+
+    private final StatusCacheProperties properties;
+
+    public TerminalStateClassifier(StatusCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isTerminal(XmlObject response) {
+        if (response == null || properties.getTerminalStates().isEmpty()) {
+            return false;
+        }
+        String state = stateOf(response, properties.getStateElement());
+        return state != null && properties.getTerminalStates().stream().anyMatch(state::equalsIgnoreCase);
+    }
+
+    public static String stateOf(XmlObject response, String elementName) {
+        XmlCursor cursor = response.newCursor();
+        try {
+            while (!cursor.toNextToken().isNone()) {
+                if (cursor.isStart() && elementName.equals(cursor.getName().getLocalPart())) {
+                    return cursor.getTextValue().trim();
+                }
+            }
+            return null;
+        } finally {
+            cursor.dispose();
+        }
+    }
+}
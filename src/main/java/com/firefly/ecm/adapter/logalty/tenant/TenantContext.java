@@ -0,0 +1,28 @@
+package com.firefly.ecm.adapter.logalty.tenant;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Resolves the tenant a Logalty call is made for from the Reactor context.
+ *
+ * <p>Callers tag a pipeline with {@code .contextWrite(TenantContext.withTenant("acme"))};
+ * pipelines without a tenant run as {@link #DEFAULT_TENANT}.</p>
+ */
+public final class TenantContext {
+
+    public static final String TENANT_KEY = "firefly.ecm.logalty.tenant";
+    public static final String DEFAULT_TENANT = "default";
+
+    private TenantContext() {
+        // utility class
+    }
+
+    public static Mono<String> currentTenant() {
+        return Mono.deferContextual(ctx -> Mono.just(ctx.getOrDefault(TENANT_KEY, DEFAULT_TENANT)));
+    }
+
+    public static Context withTenant(String tenantId) {
+        return Context.of(TENANT_KEY, tenantId);
+    }
+}
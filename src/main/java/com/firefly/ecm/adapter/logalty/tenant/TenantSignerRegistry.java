@@ -0,0 +1,160 @@
+package com.firefly.ecm.adapter.logalty.tenant;
+
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.sign.XmlSigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Hands out the {@link XmlSignInterface} to sign with for a tenant.
+ *
+ * <p>The default tenant uses the application-wide signer bean. Other tenants get a signer
+ * built from their own certificate on first use; initialized signers are kept in a bounded
+ * LRU so the PFX is decoded once per tenant rather than once per call. Loading happens
+ * outside the cache lock, so a slow PFX only delays callers of the same tenant.</p>
+ *
+ * <p>Signers can be swapped at runtime (certificate rotation). Callers resolve a signer once
+ * per operation, so an operation in flight keeps the instance it started with.</p>
+ */
+@Slf4j
+@Component
+public class TenantSignerRegistry {
+
+    private final TenantProperties tenantProperties;
+    private final Function<TenantProperties.Tenant, XmlSignInterface> signerFactory;
+    private final Map<String, LazySigner> signers;
+
+    private volatile XmlSignInterface defaultSigner;
+
+    @Autowired
+    public TenantSignerRegistry(TenantProperties tenantProperties, XmlSignInterface defaultSigner) {
+        this(tenantProperties, defaultSigner,
+                tenant -> new XmlSigner(tenant.getCertPath(), tenant.getCertPin().toCharArray()));
+    }
+
+    public TenantSignerRegistry(TenantProperties tenantProperties,
+                                XmlSignInterface defaultSigner,
+                                Function<TenantProperties.Tenant, XmlSignInterface> signerFactory) {
+        this.tenantProperties = tenantProperties;
+        this.defaultSigner = defaultSigner;
+        this.signerFactory = signerFactory;
+        int maxEntries = Math.max(1, tenantProperties.getMaxCachedTenants());
+        this.signers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LazySigner> eldest) {
+                boolean evict = size() > maxEntries;
+                if (evict) {
+                    log.debug("Evicting cached signer of tenant '{}'", eldest.getKey());
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the signer for the given tenant, loading its certificate on first use.
+     *
+     * @throws LogaltyCallException if the tenant has no certificate configured
+     */
+    public XmlSignInterface signerFor(String tenantId) {
+        if (tenantId == null || TenantContext.DEFAULT_TENANT.equals(tenantId)) {
+            return defaultSigner;
+        }
+
+        TenantProperties.Tenant tenant = tenantProperties.getTenants().get(tenantId);
+        if (tenant == null || tenant.getCertPath() == null) {
+            throw new LogaltyCallException("No Logalty certificate configured for tenant '" + tenantId + "'");
+        }
+
+        LazySigner holder;
+        synchronized (signers) {
+            holder = signers.computeIfAbsent(tenantId, id -> new LazySigner(id, tenant));
+        }
+        return holder.get();
+    }
+
+    public XmlSignInterface defaultSigner() {
+        return defaultSigner;
+    }
+
+    /**
+     * Builds a signer from a certificate without caching it.
+     */
+    public XmlSignInterface createSigner(String certPath, String certPin) {
+        TenantProperties.Tenant material = new TenantProperties.Tenant();
+        material.setCertPath(certPath);
+        material.setCertPin(certPin);
+        return signerFactory.apply(material);
+    }
+
+    /**
+     * Atomically replaces the signer of the default tenant.
+     */
+    public void replaceDefaultSigner(XmlSignInterface signer) {
+        this.defaultSigner = signer;
+    }
+
+    /**
+     * Atomically replaces the cached signer of a tenant with an already initialized one.
+     */
+    public void replaceSigner(String tenantId, XmlSignInterface signer) {
+        if (tenantId == null || TenantContext.DEFAULT_TENANT.equals(tenantId)) {
+            replaceDefaultSigner(signer);
+            return;
+        }
+        LazySigner holder = new LazySigner(tenantId, tenantProperties.getTenants().get(tenantId));
+        holder.signer = signer;
+        synchronized (signers) {
+            signers.put(tenantId, holder);
+        }
+    }
+
+    /**
+     * Drops the cached signer of a tenant so the next call reloads its certificate.
+     */
+    public void invalidate(String tenantId) {
+        synchronized (signers) {
+            signers.remove(tenantId);
+        }
+    }
+
+    public int cachedSigners() {
+        synchronized (signers) {
+            return signers.size();
+        }
+    }
+
+    private final class LazySigner {
+        private final String tenantId;
+        private final TenantProperties.Tenant tenant;
+        private XmlSignInterface signer;
+
+        private LazySigner(String tenantId, TenantProperties.Tenant tenant) {
+            this.tenantId = tenantId;
+            this.tenant = tenant;
+        }
+
+        private synchronized XmlSignInterface get() {
+            if (signer == null) {
+                long start = System.nanoTime();
+                try {
+                    signer = signerFactory.apply(tenant);
+                } catch (RuntimeException e) {
+                    invalidate(tenantId);
+                    LogaltyCallException ex = new LogaltyCallException("Unable to load certificate for tenant '" + tenantId + "'");
+                    ex.initCause(e);
+                    throw ex;
+                }
+                log.info("Loaded signer for tenant '{}' in {} ms", tenantId, (System.nanoTime() - start) / 1_000_000);
+            }
+            return signer;
+        }
+    }
+}
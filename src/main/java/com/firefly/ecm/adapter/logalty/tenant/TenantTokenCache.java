@@ -0,0 +1,77 @@
+package com.firefly.ecm.adapter.logalty.tenant;
+
+import com.firefly.ecm.adapter.logalty.LogaltyAdapterProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-tenant OAuth client credentials and a bounded LRU of the access tokens obtained with them.
+ */
+@Component
+public class TenantTokenCache {
+
+    private static final long EXPIRY_SKEW_SECONDS = 60;
+
+    private final LogaltyAdapterProperties adapterProperties;
+    private final TenantProperties tenantProperties;
+    private final Map<String, AccessToken> tokens;
+
+    public TenantTokenCache(LogaltyAdapterProperties adapterProperties, TenantProperties tenantProperties) {
+        this.adapterProperties = adapterProperties;
+        this.tenantProperties = tenantProperties;
+        int maxEntries = Math.max(1, tenantProperties.getMaxCachedTenants());
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccessToken> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached token of the tenant if it is still valid for at least a minute.
+     */
+    public String validToken(String tenantId) {
+        AccessToken token;
+        synchronized (tokens) {
+            token = tokens.get(tenantId);
+        }
+        if (token != null && Instant.now().isBefore(token.expiresAt().minusSeconds(EXPIRY_SKEW_SECONDS))) {
+            return token.value();
+        }
+        return null;
+    }
+
+    public void store(String tenantId, String token, Instant expiresAt) {
+        synchronized (tokens) {
+            tokens.put(tenantId, new AccessToken(token, expiresAt));
+        }
+    }
+
+    /**
+     * Resolves the OAuth client credentials of a tenant.
+     *
+     * @throws LogaltyCallException if the tenant has no credentials configured
+     */
+    public Credentials credentialsFor(String tenantId) {
+        if (tenantId == null || TenantContext.DEFAULT_TENANT.equals(tenantId)) {
+            return new Credentials(adapterProperties.getClientId(), adapterProperties.getClientSecret());
+        }
+        TenantProperties.Tenant tenant = tenantProperties.getTenants().get(tenantId);
+        if (tenant == null || tenant.getClientId() == null) {
+            throw new LogaltyCallException("No Logalty credentials configured for tenant '" + tenantId + "'");
+        }
+        return new Credentials(tenant.getClientId(), tenant.getClientSecret());
+    }
+
+    public record Credentials(String clientId, String clientSecret) {
+    }
+
+    private record AccessToken(String value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.firefly.ecm.adapter.logalty.transport;
+
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.webservice.Operation;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends a signed request document to Logalty and returns the raw response document.
+ */
+public interface LogaltyTransport {
+
+    /**
+     * @param operation  the Logalty operation being invoked
+     * @param xmlRequest the signed request document
+     * @param signer     the signer the request was signed with
+     * @return the response document as returned by Logalty
+     * @throws com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException on transport errors
+     */
+    String post(Operation operation, String xmlRequest, XmlSignInterface signer);
+
+    /**
+     * Non-blocking form of {@link #post}. Cancelling the returned {@code Mono} abandons the
+     * call; transports that own their HTTP client abort the request in flight, the default
+     * runs the blocking {@link #post} on a worker and can only ignore its result.
+     */
+    default Mono<String> exchange(Operation operation, String xmlRequest, XmlSignInterface signer) {
+        return Mono.fromCallable(() -> post(operation, xmlRequest, signer))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Whether this transport sends and receives UTF-8 bytes natively. Requests are handed to
+     * {@link #postUtf8} and {@link #exchangeUtf8} when it does and to the String methods
+     * otherwise, so documents are only converted between the two forms when the request was
+     * produced in the form the transport does not use.
+     */
+    default boolean prefersUtf8() {
+        return false;
+    }
+
+    /**
+     * {@link #post} with both documents as UTF-8 bytes. The caller keeps ownership of
+     * {@code xmlRequest} and must release the returned source. The default converts to and
+     * from Strings, as String-based senders such as the SDK's need; transports that own their
+     * HTTP client pass the bytes through.
+     */
+    default ContentSource postUtf8(Operation operation, ContentSource xmlRequest, XmlSignInterface signer) {
+        return ContentSources.utf8(post(operation, ContentSources.toUtf8String(xmlRequest), signer));
+    }
+
+    /**
+     * Non-blocking form of {@link #postUtf8}, with the cancellation semantics of
+     * {@link #exchange}.
+     */
+    default Mono<ContentSource> exchangeUtf8(Operation operation, ContentSource xmlRequest, XmlSignInterface signer) {
+        return Mono.fromCallable(() -> ContentSources.toUtf8String(xmlRequest))
+                .flatMap(request -> exchange(operation, request, signer))
+                .map(ContentSources::utf8);
+    }
+}
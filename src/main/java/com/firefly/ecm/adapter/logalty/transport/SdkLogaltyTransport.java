@@ -0,0 +1,38 @@
+package com.firefly.ecm.adapter.logalty.transport;
+
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.logalty.exception.LogaltyException;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.webservice.HttpSender;
+import com.logalty.sdk.webservice.Operation;
+import com.logalty.sdk.webservice.Proxy;
+import com.logalty.sdk.webservice.ServerInfo;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default transport: the Logalty SDK {@link HttpSender} against the demo server.
+ */
+@Slf4j
+public class SdkLogaltyTransport implements LogaltyTransport {
+
+    @Override
+    public String post(Operation operation, String xmlRequest, XmlSignInterface signer) {
+        ServerInfo serverInfo = ServerInfo.LOGALTY_DEMO_SERVER;
+        Proxy proxy = Proxy.DISABLED_PROXY;
+
+        try {
+            return HttpSender.postRequest(
+                operation,
+                xmlRequest,
+                signer.retrieveCertificateId(),
+                serverInfo,
+                proxy
+            );
+        } catch (LogaltyException e) {
+            log.error("Error calling post for operation {}", operation.name(), e);
+            LogaltyCallException ex = new LogaltyCallException("Error calling post");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+}
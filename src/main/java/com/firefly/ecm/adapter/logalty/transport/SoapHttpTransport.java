@@ -0,0 +1,286 @@
+package com.firefly.ecm.adapter.logalty.transport;
+
+import com.firefly.ecm.adapter.logalty.TransportProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.webservice.Operation;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * SOAP 1.1 over HTTP transport following the document/literal binding of {@code logalty.wsdl}.
+ *
+ * <p>The signed request document becomes the body of a SOAP envelope posted to
+ * {@code endpoint + servicePath(operation)}; the first element of the response body is
+ * returned as the response document. SOAP faults, HTTP 429 quota responses and other HTTP
+ * errors surface as {@link LogaltyCallException}.</p>
+ */
+@Slf4j
+public class SoapHttpTransport implements LogaltyTransport {
+
+    static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private static final String ENVELOPE_START = "<soapenv:Envelope xmlns:soapenv=\"" + SOAP_NS + "\"><soapenv:Body>";
+    private static final String ENVELOPE_END = "</soapenv:Body></soapenv:Envelope>";
+    private static final byte[] ENVELOPE_START_BYTES = ENVELOPE_START.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_END_BYTES = ENVELOPE_END.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_NAME = "Envelope".getBytes(StandardCharsets.UTF_8);
+
+    private final TransportProperties properties;
+    private final HttpClient httpClient;
+
+    public SoapHttpTransport(TransportProperties properties) {
+        this(properties, HttpClient.create());
+    }
+
+    public SoapHttpTransport(TransportProperties properties, HttpClient httpClient) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String post(Operation operation, String xmlRequest, XmlSignInterface signer) {
+        return exchange(operation, xmlRequest).block();
+    }
+
+    /**
+     * Posts without blocking; cancelling the returned {@code Mono} closes the connection of the
+     * request in flight.
+     */
+    @Override
+    public Mono<String> exchange(Operation operation, String xmlRequest, XmlSignInterface signer) {
+        return exchange(operation, xmlRequest);
+    }
+
+    /**
+     * Non-blocking form of {@link #post}.
+     */
+    public Mono<String> exchange(Operation operation, String xmlRequest) {
+        String path = properties.getServicePaths().getOrDefault(operation.name(), "");
+        return httpClient
+                .headers(h -> h
+                        .set("Content-Type", "text/xml; charset=utf-8")
+                        .set("SOAPAction", "\"" + properties.getSoapAction() + "\""))
+                .post()
+                .uri(properties.getEndpoint() + path)
+                .send(ByteBufFlux.fromString(Mono.just(envelope(xmlRequest)), StandardCharsets.UTF_8, ByteBufAllocator.DEFAULT))
+                .responseSingle((response, body) -> body.asString(StandardCharsets.UTF_8)
+                        .defaultIfEmpty("")
+                        .map(content -> handle(operation, response.status().code(), content)))
+                .timeout(properties.getTimeout());
+    }
+
+    @Override
+    public boolean prefersUtf8() {
+        return true;
+    }
+
+    @Override
+    public ContentSource postUtf8(Operation operation, ContentSource xmlRequest, XmlSignInterface signer) {
+        return exchangeUtf8(operation, xmlRequest, signer).block();
+    }
+
+    /**
+     * Byte form of {@link #exchange(Operation, String)}. The request is copied once, into the
+     * pooled buffer sent between the envelope's start and end, and the response is parsed
+     * straight from the received buffer; the response document is written to a pooled buffer,
+     * released with the returned source.
+     */
+    @Override
+    public Mono<ContentSource> exchangeUtf8(Operation operation, ContentSource xmlRequest, XmlSignInterface signer) {
+        String path = properties.getServicePaths().getOrDefault(operation.name(), "");
+        return httpClient
+                .headers(h -> h
+                        .set("Content-Type", "text/xml; charset=utf-8")
+                        .set("SOAPAction", "\"" + properties.getSoapAction() + "\""))
+                .post()
+                .uri(properties.getEndpoint() + path)
+                .send(Mono.fromCallable(() -> envelope(xmlRequest, ByteBufAllocator.DEFAULT)))
+                .responseSingle((response, body) -> body.retain()
+                        .defaultIfEmpty(Unpooled.EMPTY_BUFFER)
+                        .map(content -> {
+                            try {
+                                return handle(operation, response.status().code(), content);
+                            } finally {
+                                content.release();
+                            }
+                        }))
+                .timeout(properties.getTimeout());
+    }
+
+    static String envelope(String document) {
+        String body = document.startsWith("<?xml") ? document.substring(document.indexOf("?>") + 2) : document;
+        return ENVELOPE_START + body + ENVELOPE_END;
+    }
+
+    /**
+     * The envelope around a UTF-8 document, as a composite of the document's buffer between
+     * the constant start and end.
+     */
+    static ByteBuf envelope(ContentSource document, ByteBufAllocator allocator) {
+        int size = Math.toIntExact(document.size());
+        ByteBuf body = allocator.buffer(size);
+        try (InputStream in = document.openStream()) {
+            int remaining = size;
+            int read;
+            while (remaining > 0 && (read = body.writeBytes(in, remaining)) > 0) {
+                remaining -= read;
+            }
+        } catch (IOException e) {
+            body.release();
+            throw new UncheckedIOException("Unable to read request from " + document, e);
+        }
+        body.readerIndex(bodyStart(body));
+        return Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(ENVELOPE_START_BYTES), body, Unpooled.wrappedBuffer(ENVELOPE_END_BYTES));
+    }
+
+    // Index after the XML declaration, which cannot appear inside the envelope
+    private static int bodyStart(ByteBuf document) {
+        int start = document.readerIndex();
+        if (document.readableBytes() < 5 || !"<?xml".equals(document.toString(start, 5, StandardCharsets.US_ASCII))) {
+            return start;
+        }
+        for (int i = start + 5; i < document.writerIndex() - 1; i++) {
+            if (document.getByte(i) == '?' && document.getByte(i + 1) == '>') {
+                return i + 2;
+            }
+        }
+        return start;
+    }
+
+    private String handle(Operation operation, int status, String content) {
+        return serialize(payload(operation, status, content.contains("Envelope"),
+                () -> bodyPayload(new InputSource(new StringReader(content)))));
+    }
+
+    private ContentSource handle(Operation operation, int status, ByteBuf content) {
+        boolean envelope = ByteBufUtil.indexOf(Unpooled.wrappedBuffer(ENVELOPE_NAME), content) >= 0;
+        return serialize(payload(operation, status, envelope,
+                () -> bodyPayload(new InputSource(new ByteBufInputStream(content.duplicate())))),
+                ByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * The response document of a SOAP response, or the error it carries.
+     *
+     * @param envelope whether the response looks like a SOAP envelope at all
+     */
+    private Element payload(Operation operation, int status, boolean envelope, Supplier<Element> bodyPayload) {
+        if (status == 429) {
+            log.warn("Logalty quota exceeded for {}", operation.name());
+            throw new LogaltyCallException("Logalty quota exceeded (" + operation.name() + ")",
+                    String.valueOf(status), "QUOTA_EXCEEDED", null);
+        }
+
+        boolean success = status >= 200 && status < 300;
+        if (!success && !envelope) {
+            throw new LogaltyCallException("Unexpected HTTP " + status + " for " + operation.name(),
+                    String.valueOf(status), null, null);
+        }
+
+        Element payload = bodyPayload.get();
+        if (payload != null && SOAP_NS.equals(payload.getNamespaceURI()) && "Fault".equals(payload.getLocalName())) {
+            String reason = childText(payload, "faultstring");
+            log.warn("SOAP fault for {}: {}", operation.name(), reason);
+            throw new LogaltyCallException("SOAP fault (" + operation.name() + "): " + reason,
+                    String.valueOf(status), reason, null);
+        }
+        if (!success || payload == null) {
+            throw new LogaltyCallException("Unexpected HTTP " + status + " for " + operation.name(),
+                    String.valueOf(status), null, null);
+        }
+        return payload;
+    }
+
+    static Element bodyPayload(InputSource soapEnvelope) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Document document = factory.newDocumentBuilder().parse(soapEnvelope);
+
+            Node body = document.getDocumentElement().getFirstChild();
+            while (body != null && !(body instanceof Element && "Body".equals(body.getLocalName()))) {
+                body = body.getNextSibling();
+            }
+            Node child = body != null ? body.getFirstChild() : null;
+            while (child != null && !(child instanceof Element)) {
+                child = child.getNextSibling();
+            }
+            return (Element) child;
+        } catch (Exception e) {
+            LogaltyCallException ex = new LogaltyCallException("Invalid SOAP response");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    private static String childText(Element element, String localName) {
+        for (Node n = element.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element && localName.equals(n.getLocalName())) {
+                return n.getTextContent();
+            }
+        }
+        return null;
+    }
+
+    private static String serialize(Element element) {
+        StringWriter out = new StringWriter();
+        transform(element, new StreamResult(out));
+        return out.toString();
+    }
+
+    private static ContentSource serialize(Element element, ByteBufAllocator allocator) {
+        ByteBuf out = allocator.buffer();
+        try {
+            transform(element, new StreamResult(new ByteBufOutputStream(out)));
+        } catch (RuntimeException e) {
+            out.release();
+            throw e;
+        }
+        return ContentSources.byteBuffer(out.nioBuffer(), out::release);
+    }
+
+    private static void transform(Element element, StreamResult result) {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(element), result);
+        } catch (Exception e) {
+            LogaltyCallException ex = new LogaltyCallException("Unable to extract SOAP body");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+}
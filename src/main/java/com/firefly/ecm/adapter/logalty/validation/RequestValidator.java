@@ -0,0 +1,249 @@
+package com.firefly.ecm.adapter.logalty.validation;
+
+import com.firefly.ecm.adapter.logalty.ValidationProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.RequestValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.SchemaField;
+import org.apache.xmlbeans.SchemaProperty;
+import org.apache.xmlbeans.SchemaType;
+import org.apache.xmlbeans.SchemaTypeLoader;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlError;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.xb.xsdschema.SchemaDocument;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates the parts of an {@code initSignature} request before the request is signed.
+ *
+ * <p>Each part (request meta, process meta, binary contents) is checked against the schema
+ * compiled into the SDK's XmlBeans types and, when {@code wsdlResource} is set, against the
+ * schemas embedded in {@code logalty.wsdl}, compiled once when this bean is created. Required
+ * elements and attributes left empty are reported too, unless their type has no content;
+ * optional ones, which the SDK builders fill with empty strings, are not. All errors of
+ * a part are reported together, each with the path of the offending element, in a
+ * {@link RequestValidationException}; rejections are counted as
+ * {@code logalty.validation.rejected} (tag {@code part}).</p>
+ */
+@Slf4j
+@Component
+public class RequestValidator {
+
+    private static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema";
+
+    private final ValidationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final SchemaTypeLoader wsdlTypes;
+
+    public RequestValidator(ValidationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.wsdlTypes = properties.isEnabled() && properties.getWsdlResource() != null && !properties.getWsdlResource().isBlank()
+                ? compileWsdl(properties.getWsdlResource())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param part    name of the part, used in errors
+     * @param request the part to validate; ignored when {@code null} or validation is disabled
+     * @throws RequestValidationException if the part is invalid
+     */
+    public void validate(String part, XmlObject request) {
+        if (!properties.isEnabled() || request == null) {
+            return;
+        }
+
+        Set<String> errors = new LinkedHashSet<>();
+        collectSchemaErrors(request, errors);
+        if (wsdlTypes != null) {
+            collectWsdlErrors(request, errors);
+        }
+        if (properties.isRejectEmptyValues()) {
+            collectEmptyValues(request, errors);
+        }
+
+        if (!errors.isEmpty()) {
+            List<String> listed = new ArrayList<>(errors);
+            if (listed.size() > properties.getMaxErrors()) {
+                int more = listed.size() - properties.getMaxErrors();
+                listed = new ArrayList<>(listed.subList(0, Math.max(1, properties.getMaxErrors())));
+                listed.add("... and " + more + " more");
+            }
+            Counter.builder("logalty.validation.rejected")
+                    .tag("part", part)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Request {} failed validation with {} error(s): {}", part, errors.size(), listed);
+            throw new RequestValidationException(part, listed);
+        }
+    }
+
+    private static void collectSchemaErrors(XmlObject request, Set<String> errors) {
+        List<XmlError> xmlErrors = new ArrayList<>();
+        if (!request.validate(new XmlOptions().setErrorListener(xmlErrors))) {
+            xmlErrors.forEach(error -> errors.add(describe(error)));
+        }
+    }
+
+    /**
+     * Re-reads the part as the WSDL's global element of the same name and validates it there.
+     * Parts whose element the WSDL does not declare are skipped.
+     */
+    private void collectWsdlErrors(XmlObject request, Set<String> errors) {
+        SchemaField container = request.schemaType().getContainerField();
+        QName element = container != null ? container.getName() : null;
+        SchemaType documentType = element != null ? wsdlTypes.findDocumentType(element) : null;
+        if (documentType == null) {
+            return;
+        }
+        try {
+            String xml = request.xmlText(new XmlOptions().setSaveSyntheticDocumentElement(element));
+            XmlObject document = wsdlTypes.parse(xml, documentType, new XmlOptions().setDocumentType(documentType));
+            collectSchemaErrors(document, errors);
+        } catch (XmlException e) {
+            errors.add(element.getLocalPart() + ": " + e.getMessage());
+        }
+    }
+
+    private static void collectEmptyValues(XmlObject request, Set<String> errors) {
+        XmlCursor cursor = request.newCursor();
+        XmlCursor end = request.newCursor();
+        try {
+            end.toEndToken();
+            while (cursor.toNextToken() != XmlCursor.TokenType.NONE && cursor.isLeftOf(end)) {
+                if (cursor.isAttr()) {
+                    if (cursor.getTextValue().isBlank() && !isOptional(cursor)) {
+                        errors.add(path(cursor) + "/@" + cursor.getName().getLocalPart() + ": empty value");
+                    }
+                } else if (cursor.isStart() && isLeaf(cursor) && cursor.getTextValue().isBlank()
+                        && hasContent(cursor.getObject()) && !isOptional(cursor)) {
+                    errors.add(path(cursor) + ": empty value");
+                }
+            }
+        } finally {
+            cursor.dispose();
+            end.dispose();
+        }
+    }
+
+    private static boolean isLeaf(XmlCursor cursor) {
+        XmlCursor child = cursor.newCursor();
+        try {
+            return !child.toFirstChild();
+        } finally {
+            child.dispose();
+        }
+    }
+
+    /**
+     * Whether the schema of the enclosing element lets the element or attribute at the cursor
+     * be left out. Untyped content has no schema to tell, so it counts as required.
+     */
+    private static boolean isOptional(XmlCursor cursor) {
+        QName name = cursor.getName();
+        boolean attribute = cursor.isAttr();
+        XmlCursor parent = cursor.newCursor();
+        try {
+            XmlObject owner = parent.toParent() ? parent.getObject() : null;
+            if (owner == null) {
+                return false;
+            }
+            SchemaProperty property = attribute
+                    ? owner.schemaType().getAttributeProperty(name)
+                    : owner.schemaType().getElementProperty(name);
+            return property != null && property.getMinOccurs().signum() == 0;
+        } finally {
+            parent.dispose();
+        }
+    }
+
+    private static boolean hasContent(XmlObject element) {
+        return element == null || element.schemaType().getContentType() != SchemaType.EMPTY_CONTENT;
+    }
+
+    private static String describe(XmlError error) {
+        XmlCursor location = error.getCursorLocation();
+        if (location == null) {
+            return error.getMessage();
+        }
+        try {
+            return path(location) + ": " + error.getMessage();
+        } finally {
+            location.dispose();
+        }
+    }
+
+    /**
+     * Slash-separated local names from the part root down to the cursor's element.
+     */
+    private static String path(XmlCursor cursor) {
+        XmlCursor walker = cursor.newCursor();
+        try {
+            if (!walker.isStart()) {
+                walker.toParent();
+            }
+            Deque<String> names = new ArrayDeque<>();
+            do {
+                if (walker.isStart()) {
+                    names.addFirst(walker.getName().getLocalPart());
+                }
+            } while (walker.toParent());
+            return names.isEmpty() ? "/" : String.join("/", names);
+        } finally {
+            walker.dispose();
+        }
+    }
+
+    /**
+     * Compiles the schemas in the WSDL's {@code types} section. A WSDL that cannot be read or
+     * compiled only disables this check: the SDK schemas are still validated.
+     */
+    private static SchemaTypeLoader compileWsdl(String location) {
+        long start = System.nanoTime();
+        List<XmlError> compileErrors = new ArrayList<>();
+        try (InputStream in = new DefaultResourceLoader().getResource(location).getInputStream()) {
+            XmlObject wsdl = XmlObject.Factory.parse(in);
+            XmlObject[] schemas = wsdl.selectPath("declare namespace xsd='" + XSD_NAMESPACE + "' .//xsd:schema");
+            XmlObject[] documents = new XmlObject[schemas.length];
+            for (int i = 0; i < schemas.length; i++) {
+                // Each embedded schema declares all the namespaces it uses, so it parses on its own
+                documents[i] = SchemaDocument.Factory.parse(schemas[i].xmlText(new XmlOptions().setSaveOuter()));
+            }
+
+            SchemaTypeLoader types = XmlBeans.typeLoaderUnion(new SchemaTypeLoader[]{
+                    XmlBeans.compileXsd(documents, XmlBeans.getBuiltinTypeSystem(), new XmlOptions()
+                            .setCompileNoUpaRule()
+                            .setCompileNoPvrRule()
+                            .setErrorListener(compileErrors)),
+                    XmlBeans.getBuiltinTypeSystem()
+            });
+            log.info("Compiled {} schema(s) of {} for request validation in {} ms",
+                    documents.length, location, (System.nanoTime() - start) / 1_000_000);
+            return types;
+        } catch (IOException | XmlException e) {
+            log.warn("Unable to compile the schemas of {}, validating against the SDK schemas only: {} {}",
+                    location, e.getMessage(), compileErrors);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.firefly.ecm.adapter.logalty.warmup;
+
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.WarmupProperties;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import com.logalty.sdk.xml.data.DataCertificateRequestDocumentBuilder;
+import com.logalty.sdk.xml.data.DataStateExternalIdRequestDocumentBuilder;
+import com.logalty.sdk.xml.data.SignedBinaryRequestDocumentBuilder;
+import com.logalty.sdk.xml.update.cancel.CancelRequestDocumentBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.SchemaType;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the adapter up during startup so the first real requests do not pay for cold paths.
+ *
+ * <p>Runs as an {@link ApplicationRunner}, which Spring Boot completes before it reports the
+ * application ready to accept traffic. The phases are: register the security providers, load
+ * the request and response schema type systems, load the certificates of configured tenants,
+ * then run synthetic build/sign/parse cycles of every SOAP operation so the JIT compiles
+ * them. The cycles sign real requests with the configured certificate but send nothing:
+ * responses are synthetic documents parsed locally.</p>
+ *
+ * <p>A failing phase or cycle is logged and counted; warm-up never fails startup. Phase
+ * durations are logged and recorded as {@code logalty.warmup} (tag {@code phase}).</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "firefly.ecm.adapter.logalty.warmup.enabled", havingValue = "true")
+public class LogaltyWarmup implements ApplicationRunner {
+
+    private static final String WARMUP_ID = "WARMUP-0";
+
+    private final WarmupProperties properties;
+    private final LogaltyCommonService common;
+    private final TenantSignerRegistry signers;
+    private final TenantProperties tenantProperties;
+    private final MeterRegistry meterRegistry;
+
+    private volatile WarmupReport lastReport;
+
+    public LogaltyWarmup(WarmupProperties properties,
+                         LogaltyCommonService common,
+                         TenantSignerRegistry signers,
+                         TenantProperties tenantProperties,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.common = common;
+        this.signers = signers;
+        this.tenantProperties = tenantProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * Runs all warm-up phases on the calling thread.
+     */
+    public WarmupReport warmUp() {
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        int[] failures = {0};
+
+        phase("providers", phases, failures, common::setupSecurityProviders);
+        Responses[] responses = {null};
+        phase("schemas", phases, failures, () -> responses[0] = loadSchemas());
+        if (properties.isTenantSigners()) {
+            phase("signers", phases, failures, this::loadTenantSigners);
+        }
+
+        Cycles cycles = new Cycles();
+        if (responses[0] != null) {
+            phase("cycles", phases, failures, () -> runCycles(responses[0], cycles));
+        }
+
+        WarmupReport report = new WarmupReport(phases, cycles.completed, cycles.first, cycles.last,
+                failures[0] + cycles.failed);
+        lastReport = report;
+        log.info("Logalty warm-up finished in {}: phases={}, cycles={}, first cycle {}, last cycle {}, failures={}",
+                report.total(), report.phases(), report.cycles(), report.firstCycle(), report.lastCycle(),
+                report.failures());
+        return report;
+    }
+
+    public WarmupReport lastReport() {
+        return lastReport;
+    }
+
+    private void phase(String name, Map<String, Duration> phases, int[] failures, Runnable body) {
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } catch (RuntimeException e) {
+            failures[0]++;
+            log.warn("Logalty warm-up phase '{}' failed: {}", name, e.getMessage(), e);
+        }
+        long elapsed = System.nanoTime() - start;
+        phases.put(name, Duration.ofNanos(elapsed));
+        Timer.builder("logalty.warmup")
+                .tag("phase", name)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Resolves every type of the ptrequest, ptdatarequest and updaterequest type systems,
+     * requests included, then builds the synthetic responses the cycles parse.
+     */
+    private Responses loadSchemas() {
+        for (SchemaType type : Arrays.asList(ResponseDocument.type, CancelResponseDocument.type,
+                DataCertificateResponseDocument.type, SignedBinaryResponseDocument.type,
+                DataStateExternalIdResponseDocument.type)) {
+            type.getTypeSystem().resolve();
+        }
+
+        ResponseDocument incoming = ResponseDocument.Factory.newInstance();
+        incoming.addNewResponse().addNewResult();
+        CancelResponseDocument cancel = CancelResponseDocument.Factory.newInstance();
+        cancel.addNewCancelResponse();
+        DataCertificateResponseDocument certificate = DataCertificateResponseDocument.Factory.newInstance();
+        certificate.addNewDataCertificateResponse();
+        SignedBinaryResponseDocument signedBinary = SignedBinaryResponseDocument.Factory.newInstance();
+        signedBinary.addNewSignedBinaryResponse();
+        DataStateExternalIdResponseDocument status = DataStateExternalIdResponseDocument.Factory.newInstance();
+        status.addNewDataStateExternalIdResponse();
+
+        return new Responses(incoming.xmlText(), cancel.xmlText(), certificate.xmlText(),
+                signedBinary.xmlText(), status.xmlText());
+    }
+
+    private void loadTenantSigners() {
+        for (String tenantId : tenantProperties.getTenants().keySet()) {
+            try {
+                signers.signerFor(tenantId);
+            } catch (RuntimeException e) {
+                // Reported again, with the request, when the tenant is first used
+                log.warn("Unable to load the certificate of tenant '{}' during warm-up: {}", tenantId, e.getMessage());
+            }
+        }
+    }
+
+    private void runCycles(Responses responses, Cycles cycles) {
+        XmlSignInterface signer = signers.defaultSigner();
+        List<ReceiverDTO> receivers = List.of(receiver());
+        List<BinaryContentsDTO> documents = List.of(document(properties.getDocumentBytes()));
+        long deadline = System.nanoTime() + properties.getMaxDuration().toNanos();
+
+        for (int i = 0; i < properties.getIterations() && System.nanoTime() < deadline; i++) {
+            long start = System.nanoTime();
+            try {
+                common.buildIncomingRequest(receivers, documents, signer);
+                common.parseIncomingResponse(XmlPayload.text(responses.incoming()));
+                new CancelRequestDocumentBuilder(WARMUP_ID, "Warm-up").buildSigned(signer);
+                common.parseCancelResponse(XmlPayload.text(responses.cancel()));
+                new DataCertificateRequestDocumentBuilder(WARMUP_ID).buildSigned(signer);
+                common.parseCertificateResponse(XmlPayload.text(responses.certificate()));
+                new SignedBinaryRequestDocumentBuilder(WARMUP_ID).buildSigned(signer);
+                common.parseSignedBinaryResponse(XmlPayload.text(responses.signedBinary()));
+                new DataStateExternalIdRequestDocumentBuilder(WARMUP_ID).buildSigned(signer);
+                common.parseDataStateExternalIdResponse(XmlPayload.text(responses.status()));
+            } catch (Exception e) {
+                cycles.failed++;
+                log.warn("Logalty warm-up cycle failed: {}", e.getMessage());
+                if (cycles.completed == 0) {
+                    // The same cycle would fail every time; stop rather than flood the log
+                    return;
+                }
+                continue;
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            if (cycles.completed++ == 0) {
+                cycles.first = elapsed;
+            }
+            cycles.last = elapsed;
+        }
+    }
+
+    private static ReceiverDTO receiver() {
+        ReceiverDTO receiver = new ReceiverDTO();
+        receiver.setReceiverId(1);
+        receiver.setGroupId(1);
+        receiver.setName("Warm");
+        receiver.setLast1("Up");
+        receiver.setEmail("warmup@example.com");
+        return receiver;
+    }
+
+    /**
+     * A syntactically minimal PDF padded to {@code size} bytes.
+     */
+    private static BinaryContentsDTO document(int size) {
+        byte[] header = "%PDF-1.4\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] trailer = "\n%%EOF\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] contents = new byte[Math.max(size, header.length + trailer.length)];
+        Arrays.fill(contents, (byte) ' ');
+        System.arraycopy(header, 0, contents, 0, header.length);
+        System.arraycopy(trailer, 0, contents, contents.length - trailer.length, trailer.length);
+
+        BinaryContentsDTO binary = new BinaryContentsDTO();
+        binary.setBinaryContentId(1);
+        binary.setGroupId(1);
+        binary.setContents(contents);
+        binary.setEncoding("BASE64");
+        binary.setFilename("warmup");
+        binary.setExtension("pdf");
+        binary.setType("application/pdf");
+        return binary;
+    }
+
+    private record Responses(String incoming, String cancel, String certificate, String signedBinary, String status) {
+    }
+
+    private static final class Cycles {
+        private int completed;
+        private int failed;
+        private Duration first = Duration.ZERO;
+        private Duration last = Duration.ZERO;
+    }
+}
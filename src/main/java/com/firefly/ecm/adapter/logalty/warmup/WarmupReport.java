@@ -0,0 +1,26 @@
+package com.firefly.ecm.adapter.logalty.warmup;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Timings of a warm-up run.
+ *
+ * @param phases     time spent per phase, in run order
+ * @param cycles     synthetic build/sign/parse cycles completed
+ * @param firstCycle duration of the first cycle, the cold path
+ * @param lastCycle  duration of the last cycle, close to steady state
+ * @param failures   cycles or phases that failed; warm-up continues past them
+ */
+public record WarmupReport(
+        Map<String, Duration> phases,
+        int cycles,
+        Duration firstCycle,
+        Duration lastCycle,
+        int failures
+) {
+
+    public Duration total() {
+        return phases.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+}
@@ -0,0 +1,249 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Writes elements in the form Exclusive XML Canonicalization 1.0 gives them, so a digest of
+ * the output is the digest a verifier computes: no XML declaration, a namespace declared on
+ * each element that visibly uses it and whose output ancestors have not declared it, namespace
+ * declarations sorted by prefix, attributes sorted by namespace and local name, empty elements
+ * written as start and end tag, and text escaped as C14N escapes it.
+ *
+ * <p>Namespaces always get a prefix, the one in {@code prefixes} or a generated one, so no
+ * default namespace is ever declared. The writer is not thread-safe.</p>
+ */
+final class CanonicalXmlWriter {
+
+    private final Writer out;
+    private final DigestOutputStream digested;
+    private final Map<String, String> prefixes;
+    private final Deque<Element> open = new ArrayDeque<>();
+    private Element pending;
+
+    /**
+     * @param prefixes prefix of each namespace URI; other namespaces get a generated prefix
+     */
+    CanonicalXmlWriter(OutputStream out, Map<String, String> prefixes) {
+        this.digested = new DigestOutputStream(out, null);
+        this.digested.on(false);
+        this.out = new OutputStreamWriter(digested, StandardCharsets.UTF_8);
+        this.prefixes = new HashMap<>(prefixes);
+    }
+
+    /**
+     * Feeds everything written from now on to {@code digest} as well.
+     */
+    void digestInto(MessageDigest digest) {
+        flush();
+        digested.setMessageDigest(digest);
+        digested.on(true);
+    }
+
+    void startElement(String namespace, String localName) {
+        closeStartTag();
+        pending = new Element(namespace.isEmpty() ? "" : prefix(namespace), namespace, localName, open.peek());
+    }
+
+    void attribute(String namespace, String localName, String value) {
+        if (pending == null) {
+            throw new IllegalStateException("Attribute " + localName + " outside a start tag");
+        }
+        String prefix = namespace.isEmpty() ? "" : prefix(namespace);
+        pending.attributes.add(new Attribute(namespace, prefix, localName, value));
+    }
+
+    void characters(String text) {
+        characters(text.toCharArray(), 0, text.length());
+    }
+
+    void characters(char[] text, int offset, int length) {
+        closeStartTag();
+        try {
+            int from = offset;
+            for (int i = offset; i < offset + length; i++) {
+                String escaped = switch (text[i]) {
+                    case '&' -> "&amp;";
+                    case '<' -> "&lt;";
+                    case '>' -> "&gt;";
+                    case '\r' -> "&#xD;";
+                    default -> null;
+                };
+                if (escaped != null) {
+                    out.write(text, from, i - from);
+                    out.write(escaped);
+                    from = i + 1;
+                }
+            }
+            out.write(text, from, offset + length - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void endElement() {
+        closeStartTag();
+        write(endTag(open.pop()));
+    }
+
+    /**
+     * Closes the last open element. The digest, which then covers the whole canonical
+     * document, is handed to {@code beforeEndTag}; its result is written undigested right
+     * before the end tag, as an enveloped signature is.
+     */
+    void endDocument(Function<byte[], byte[]> beforeEndTag) {
+        closeStartTag();
+        if (open.size() != 1) {
+            throw new IllegalStateException(open.size() + " element(s) open at the end of the document");
+        }
+        String endTag = endTag(open.pop());
+        flush();
+        MessageDigest digest = digested.getMessageDigest();
+        if (digest == null) {
+            throw new IllegalStateException("Nothing digested, call digestInto first");
+        }
+        digest.update(endTag.getBytes(StandardCharsets.UTF_8));
+        digested.on(false);
+        try {
+            digested.write(beforeEndTag.apply(digest.digest()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(endTag);
+        flush();
+    }
+
+    void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeStartTag() {
+        if (pending == null) {
+            return;
+        }
+        Element element = pending;
+        pending = null;
+
+        // Namespaces visibly used by the element and its attributes, unless an output ancestor declared them
+        Map<String, String> declarations = new TreeMap<>();
+        if (!element.namespace.isEmpty()) {
+            declareIfNeeded(element, element.prefix, element.namespace, declarations);
+        }
+        for (Attribute attribute : element.attributes) {
+            if (!attribute.namespace.isEmpty()) {
+                declareIfNeeded(element, attribute.prefix, attribute.namespace, declarations);
+            }
+        }
+        element.attributes.sort(Comparator.comparing(Attribute::namespace).thenComparing(Attribute::localName));
+
+        StringBuilder tag = new StringBuilder("<").append(element.qualifiedName());
+        declarations.forEach((prefix, namespace) -> {
+            tag.append(" xmlns:").append(prefix).append("=\"");
+            escapeAttribute(namespace, tag);
+            tag.append('"');
+        });
+        for (Attribute attribute : element.attributes) {
+            tag.append(' ');
+            if (!attribute.prefix.isEmpty()) {
+                tag.append(attribute.prefix).append(':');
+            }
+            tag.append(attribute.localName).append("=\"");
+            escapeAttribute(attribute.value, tag);
+            tag.append('"');
+        }
+        write(tag.append('>').toString());
+        open.push(element);
+    }
+
+    private static void declareIfNeeded(Element element, String prefix, String namespace, Map<String, String> declarations) {
+        if (!namespace.equals(element.parent == null ? null : element.parent.inScope(prefix))) {
+            declarations.put(prefix, namespace);
+        }
+        element.declared.put(prefix, namespace);
+    }
+
+    private String prefix(String namespace) {
+        return prefixes.computeIfAbsent(namespace, ns -> "ns" + (prefixes.size() + 1));
+    }
+
+    private static String endTag(Element element) {
+        return "</" + element.qualifiedName() + ">";
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escapeAttribute(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '"' -> out.append("&quot;");
+                case '\t' -> out.append("&#x9;");
+                case '\n' -> out.append("&#xA;");
+                case '\r' -> out.append("&#xD;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private record Attribute(String namespace, String prefix, String localName, String value) {
+    }
+
+    private static final class Element {
+
+        private final String prefix;
+        private final String namespace;
+        private final String localName;
+        private final Element parent;
+        private final List<Attribute> attributes = new ArrayList<>();
+        // Prefixes rendered on this element or an output ancestor
+        private final Map<String, String> declared = new HashMap<>();
+
+        private Element(String prefix, String namespace, String localName, Element parent) {
+            this.prefix = prefix;
+            this.namespace = namespace;
+            this.localName = localName;
+            this.parent = parent;
+        }
+
+        private String inScope(String prefix) {
+            for (Element element = this; element != null; element = element.parent) {
+                String namespace = element.declared.get(prefix);
+                if (namespace != null) {
+                    return namespace;
+                }
+            }
+            return null;
+        }
+
+        private String qualifiedName() {
+            return prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+    }
+}
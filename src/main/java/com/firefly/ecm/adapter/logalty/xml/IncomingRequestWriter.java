@@ -0,0 +1,338 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.preparation.PdfPreflight;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.validation.RequestValidator;
+import com.logalty.schema.ptrequest.BinarycontentsDocument;
+import com.logalty.schema.ptrequest.ProcessMetaDocument;
+import com.logalty.schema.ptrequest.RequestMetaDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.springframework.stereotype.Component;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the INCOMING request straight to a byte sink, as an alternative to the XmlBeans
+ * object model of {@code RequestDocumentBuilder}.
+ *
+ * <p>The binary contents, which make up nearly all of a request, are written directly from
+ * the {@link BinaryContentsDTO}s: each document is read from its {@link ContentSource} and
+ * base64-encoded chunk by chunk into the sink, so neither the encoded String nor the XmlBeans
+ * tree holding it is ever built. The request and process meta are small; they are generated
+ * by {@link LogaltyCommonService} as usual and copied into the stream. All parts are checked
+ * by the {@link RequestValidator} before anything is written; the binary contents are
+ * validated as a skeleton holding the first chunk of each document.</p>
+ *
+ * <p>The output is already in Exclusive C14N form and equals the canonical request the SDK
+ * builds, without its {@code ds:Signature}. {@link #writeSigned} digests it while writing and
+ * appends an enveloped signature by the {@link RequestSigner}; {@code initSignature} sends
+ * such requests when {@code signature.stream-requests} is on.</p>
+ */
+@Slf4j
+@Component
+public class IncomingRequestWriter {
+
+    public static final String CORE_NS = "urn:logalty:schemas:core:1.0";
+
+    // Prefixes of the schemas in logalty.wsdl
+    private static final Map<String, String> PREFIXES = Map.of(
+            CORE_NS, "pt",
+            "urn:logalty:schemas:request:meta:1.0", "request_meta",
+            "urn:logalty:schemas:process:meta:1.0", "process_meta",
+            "urn:logalty:schemas:core:identity:1.0", "identity",
+            "urn:logalty:schemas:metaProperty:1.0", "mp");
+
+    // Whole base64 quanta, so encoded chunks concatenate to the encoding of the whole document
+    private static final int CHUNK = 48 * 1024;
+
+    private final SignatureProperties signatureProperties;
+    private final LogaltyCommonService common;
+    private final PdfPreflight preflight;
+    private final RequestValidator requestValidator;
+    private final RequestSigner requestSigner;
+
+    public IncomingRequestWriter(SignatureProperties signatureProperties,
+                                 LogaltyCommonService common,
+                                 PdfPreflight preflight,
+                                 RequestValidator requestValidator,
+                                 RequestSigner requestSigner) {
+        this.signatureProperties = signatureProperties;
+        this.common = common;
+        this.preflight = preflight;
+        this.requestValidator = requestValidator;
+        this.requestSigner = requestSigner;
+    }
+
+    /**
+     * Writes the unsigned request {@code buildIncomingRequest} would build for these receivers
+     * and documents. {@code out} is flushed but not closed.
+     */
+    public void write(List<ReceiverDTO> receivers, List<BinaryContentsDTO> documents, OutputStream out) {
+        common.validateInput(receivers, documents);
+        write(requestMeta(), common.generateProcessMeta(receivers), documents, out);
+    }
+
+    public void write(RequestMetaDocument.RequestMeta requestMeta,
+                      ProcessMetaDocument.ProcessMeta processMeta,
+                      List<BinaryContentsDTO> documents,
+                      OutputStream out) {
+        write(null, requestMeta, processMeta, documents, out);
+    }
+
+    /**
+     * Writes the request signed with the tenant's certificate, ready to be sent. The request
+     * is held in one array, filled without a final copy.
+     */
+    public ContentSource writeSigned(String tenantId, List<ReceiverDTO> receivers, List<BinaryContentsDTO> documents) {
+        common.validateInput(receivers, documents);
+        RequestBuffer buffer = new RequestBuffer(estimateSize(documents));
+        writeSigned(tenantId, requestMeta(), common.generateProcessMeta(receivers), documents, buffer);
+        return buffer.toContentSource();
+    }
+
+    /**
+     * Writes the request with an enveloped signature by the tenant's certificate.
+     * {@code out} is flushed but not closed.
+     */
+    public void writeSigned(String tenantId,
+                            RequestMetaDocument.RequestMeta requestMeta,
+                            ProcessMetaDocument.ProcessMeta processMeta,
+                            List<BinaryContentsDTO> documents,
+                            OutputStream out) {
+        write(tenantId == null ? TenantContext.DEFAULT_TENANT : tenantId, requestMeta, processMeta, documents, out);
+    }
+
+    /**
+     * @param tenantId tenant whose certificate signs the request; {@code null} for an unsigned request
+     */
+    private void write(String tenantId,
+                       RequestMetaDocument.RequestMeta requestMeta,
+                       ProcessMetaDocument.ProcessMeta processMeta,
+                       List<BinaryContentsDTO> documents,
+                       OutputStream out) {
+        // Rejected before anything is written, as buildIncomingRequest rejects them before signing
+        requestValidator.validate("request_meta", requestMeta);
+        requestValidator.validate("process_meta", processMeta);
+        validateBinaryContents(documents);
+
+        long start = System.nanoTime();
+        CanonicalXmlWriter xml = new CanonicalXmlWriter(out, PREFIXES);
+        if (tenantId != null) {
+            xml.digestInto(sha256());
+        }
+        xml.startElement(CORE_NS, "request");
+        copy(xml, new QName(CORE_NS, "request_meta"), requestMeta);
+        copy(xml, new QName(CORE_NS, "process_meta"), processMeta);
+        writeBinaryContents(xml, documents, false);
+        if (tenantId != null) {
+            xml.endDocument(digest -> requestSigner.signature(tenantId, digest));
+        } else {
+            xml.endElement();
+            xml.flush();
+        }
+        log.debug("Request with {} document(s) written in {} ms", documents.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private RequestMetaDocument.RequestMeta requestMeta() {
+        return common.generateRequestMeta(signatureProperties.getRetryProtocol(), signatureProperties.isSynchronous());
+    }
+
+    /**
+     * Validates the binary contents as {@code createBinaryContents} does, on a copy holding only
+     * the first chunk of each document: the schema constrains the structure, not the payload.
+     */
+    private void validateBinaryContents(List<BinaryContentsDTO> documents) {
+        if (!requestValidator.isEnabled()) {
+            return;
+        }
+        ByteArrayOutputStream skeleton = new ByteArrayOutputStream();
+        CanonicalXmlWriter xml = new CanonicalXmlWriter(skeleton, PREFIXES);
+        writeBinaryContents(xml, documents, true);
+        xml.flush();
+        try {
+            requestValidator.validate("binarycontents",
+                    BinarycontentsDocument.Factory.parse(new ByteArrayInputStream(skeleton.toByteArray())).getBinarycontents());
+        } catch (XmlException | IOException e) {
+            LogaltyCallException ex = new LogaltyCallException("Error writing request document");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    /**
+     * @param sample whether only the first chunk of each document is written
+     */
+    private void writeBinaryContents(CanonicalXmlWriter xml, List<BinaryContentsDTO> documents, boolean sample) {
+        xml.startElement(CORE_NS, "binarycontents");
+
+        // Same single group as LogaltyCommonService#createBinaryContents
+        xml.startElement(CORE_NS, "binarycontentgroups");
+        xml.startElement(CORE_NS, "binarycontentgroup");
+        xml.attribute("", "binary-content-group-id", "1");
+        for (BinaryContentsDTO document : documents) {
+            xml.startElement(CORE_NS, "binarycontentgroupmember");
+            xml.attribute("", "binary-content-id", String.valueOf(document.getBinaryContentId()));
+            xml.endElement();
+        }
+        xml.endElement();
+        xml.endElement();
+
+        xml.startElement(CORE_NS, "binarycontentitems");
+        for (BinaryContentsDTO document : documents) {
+            xml.startElement(CORE_NS, "binarycontentitem");
+            xml.attribute("", "binary-content-id", String.valueOf(document.getBinaryContentId()));
+            xml.attribute("", "content-transfer-encoding", document.getEncoding());
+            xml.attribute("", "file-name", document.getFilename() + "." + document.getExtension());
+            xml.attribute("", "type", document.getType());
+            writeContent(xml, document, sample);
+            xml.endElement();
+        }
+        xml.endElement();
+
+        xml.endElement();
+    }
+
+    private void writeContent(CanonicalXmlWriter xml, BinaryContentsDTO document, boolean sample) {
+        ContentSource source = ContentSources.of(document);
+        if (source == null || source.size() == 0) {
+            throw new LogaltyCallException("Binary contents cannot be null or empty for id=" + document.getBinaryContentId());
+        }
+        ContentSource contents = !sample && preflight != null && preflight.appliesTo(document)
+                ? preflight.check(document, source)
+                : source;
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        byte[] chunk = new byte[CHUNK];
+        byte[] encoded = new byte[CHUNK / 3 * 4];
+        char[] chars = new char[encoded.length];
+        try (InputStream in = contents.openStream()) {
+            int read;
+            while ((read = in.readNBytes(chunk, 0, CHUNK)) > 0) {
+                int length = encoder.encode(read == CHUNK ? chunk : Arrays.copyOf(chunk, read), encoded);
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (char) encoded[i];
+                }
+                xml.characters(chars, 0, length);
+                if (sample) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read content from " + contents, e);
+        } finally {
+            // Trimmed or optimized copies belong to this stage
+            if (contents != source) {
+                contents.release();
+            }
+        }
+    }
+
+    /**
+     * Writes {@code fragment} as element {@code name}: its attributes, then its content.
+     */
+    private static void copy(CanonicalXmlWriter xml, QName name, XmlObject fragment) {
+        XmlCursor cursor = fragment.newCursor();
+        try {
+            xml.startElement(name.getNamespaceURI(), name.getLocalPart());
+            writeAttributes(xml, cursor);
+
+            int depth = 0;
+            XmlCursor.TokenType token = cursor.toFirstContentToken();
+            while (true) {
+                if (token.isStart()) {
+                    QName child = cursor.getName();
+                    xml.startElement(child.getNamespaceURI(), child.getLocalPart());
+                    writeAttributes(xml, cursor);
+                    depth++;
+                    token = cursor.toFirstContentToken();
+                    continue;
+                }
+                if (token.isText()) {
+                    xml.characters(cursor.getChars());
+                } else if (token.isEnd() || token.isEnddoc()) {
+                    if (depth == 0) {
+                        break;
+                    }
+                    xml.endElement();
+                    depth--;
+                }
+                // Comments and processing instructions are not part of the request
+                token = cursor.toNextToken();
+            }
+
+            xml.endElement();
+        } finally {
+            cursor.dispose();
+        }
+    }
+
+    private static void writeAttributes(CanonicalXmlWriter xml, XmlCursor element) {
+        XmlCursor attribute = element.newCursor();
+        try {
+            if (!attribute.toFirstAttribute()) {
+                return;
+            }
+            do {
+                QName name = attribute.getName();
+                xml.attribute(name.getNamespaceURI(), name.getLocalPart(), attribute.getTextValue());
+            } while (attribute.toNextAttribute());
+        } finally {
+            attribute.dispose();
+        }
+    }
+
+    private static long estimateSize(List<BinaryContentsDTO> documents) {
+        long size = 16 * 1024;
+        for (BinaryContentsDTO document : documents) {
+            ContentSource source = ContentSources.of(document);
+            size += (source.size() + 2) / 3 * 4 + 512;
+        }
+        return size;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Sized up front from the documents; its array becomes the request without a final copy.
+     */
+    private static final class RequestBuffer extends ByteArrayOutputStream {
+
+        RequestBuffer(long expectedSize) {
+            super((int) Math.min(expectedSize, Integer.MAX_VALUE - 8));
+        }
+
+        ContentSource toContentSource() {
+            return ContentSources.byteBuffer(ByteBuffer.wrap(buf, 0, count), () -> {
+            });
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signs requests written by {@link IncomingRequestWriter} with a standard enveloped XML
+ * signature: a SHA-256 digest of the whole request and an RSA-SHA256 signature of its
+ * {@code SignedInfo}, both canonicalized with Exclusive C14N, and the signing certificate in
+ * {@code KeyInfo}.
+ *
+ * <p>The key is read from the same PKCS#12 file and PIN as the tenant's SDK signer. Keys are
+ * cached per file and reloaded when the file changes, so a rotated certificate is picked up
+ * by the next request. As with {@code CertificateReloader}, a changed file that does not
+ * yield a usable RSA key is logged and ignored: the previous key stays in service until the
+ * file changes again.</p>
+ */
+@Slf4j
+@Component
+public class RequestSigner {
+
+    static final String DSIG_NS = "http://www.w3.org/2000/09/xmldsig#";
+    static final String EXCLUSIVE_C14N = "http://www.w3.org/2001/10/xml-exc-c14n#";
+    static final String RSA_SHA256 = "http://www.w3.org/2001/04/xmldsig-more#rsa-sha256";
+    static final String SHA256 = "http://www.w3.org/2001/04/xmlenc#sha256";
+    static final String ENVELOPED = "http://www.w3.org/2000/09/xmldsig#enveloped-signature";
+
+    private final SignatureProperties signatureProperties;
+    private final TenantProperties tenantProperties;
+    private final Map<Path, SigningKey> keys = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RequestSigner(SignatureProperties signatureProperties, TenantProperties tenantProperties) {
+        this.signatureProperties = signatureProperties;
+        this.tenantProperties = tenantProperties;
+    }
+
+    /**
+     * Builds the {@code ds:Signature} element of a request.
+     *
+     * @param digest SHA-256 digest of the canonical request without its signature
+     * @throws LogaltyCallException if the tenant has no usable certificate
+     */
+    public byte[] signature(String tenantId, byte[] digest) {
+        SigningKey key = keyFor(tenantId);
+
+        byte[] signedInfo = signedInfo(digest);
+        byte[] signatureValue;
+        try {
+            Signature rsa = Signature.getInstance("SHA256withRSA");
+            rsa.initSign(key.privateKey());
+            rsa.update(signedInfo);
+            signatureValue = rsa.sign();
+        } catch (GeneralSecurityException e) {
+            LogaltyCallException ex = new LogaltyCallException("Error signing request document");
+            ex.initCause(e);
+            throw ex;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(signedInfo.length + 4096);
+        // SignedInfo keeps its own ds declaration: redundant here, and dropped again when a verifier canonicalizes it
+        out.writeBytes(("<ds:Signature xmlns:ds=\"" + DSIG_NS + "\">").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(signedInfo);
+        try {
+            out.writeBytes(("<ds:SignatureValue>" + Base64.getEncoder().encodeToString(signatureValue) + "</ds:SignatureValue>"
+                    + "<ds:KeyInfo><ds:X509Data><ds:X509Certificate>"
+                    + Base64.getEncoder().encodeToString(key.certificate().getEncoded())
+                    + "</ds:X509Certificate></ds:X509Data></ds:KeyInfo></ds:Signature>").getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            LogaltyCallException ex = new LogaltyCallException("Unable to encode the signing certificate");
+            ex.initCause(e);
+            throw ex;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Canonical {@code ds:SignedInfo} with a single reference to the whole document.
+     */
+    static byte[] signedInfo(byte[] digest) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        CanonicalXmlWriter xml = new CanonicalXmlWriter(out, Map.of(DSIG_NS, "ds"));
+        xml.startElement(DSIG_NS, "SignedInfo");
+        algorithm(xml, "CanonicalizationMethod", EXCLUSIVE_C14N);
+        algorithm(xml, "SignatureMethod", RSA_SHA256);
+        xml.startElement(DSIG_NS, "Reference");
+        xml.attribute("", "URI", "");
+        xml.startElement(DSIG_NS, "Transforms");
+        algorithm(xml, "Transform", ENVELOPED);
+        algorithm(xml, "Transform", EXCLUSIVE_C14N);
+        xml.endElement();
+        algorithm(xml, "DigestMethod", SHA256);
+        xml.startElement(DSIG_NS, "DigestValue");
+        xml.characters(Base64.getEncoder().encodeToString(digest));
+        xml.endElement();
+        xml.endElement();
+        xml.endElement();
+        xml.flush();
+        return out.toByteArray();
+    }
+
+    private static void algorithm(CanonicalXmlWriter xml, String element, String algorithm) {
+        xml.startElement(DSIG_NS, element);
+        xml.attribute("", "Algorithm", algorithm);
+        xml.endElement();
+    }
+
+    private SigningKey keyFor(String tenantId) {
+        String certPath;
+        String certPin;
+        if (tenantId == null || TenantContext.DEFAULT_TENANT.equals(tenantId)) {
+            certPath = signatureProperties.getCertPath();
+            certPin = signatureProperties.getCertPin();
+        } else {
+            TenantProperties.Tenant tenant = tenantProperties.getTenants().get(tenantId);
+            if (tenant == null || tenant.getCertPath() == null) {
+                throw new LogaltyCallException("No Logalty certificate configured for tenant '" + tenantId + "'");
+            }
+            certPath = tenant.getCertPath();
+            certPin = tenant.getCertPin();
+        }
+
+        Path path = Paths.get(certPath).toAbsolutePath();
+        SigningKey cached = keys.get(path);
+        long lastModified = cached != null ? cached.lastModified() : 0L;
+        try {
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            if (cached != null && cached.lastModified() == lastModified) {
+                return cached;
+            }
+            SigningKey loaded = load(path, certPin, lastModified);
+            keys.put(path, loaded);
+            log.info("Loaded request signing key of tenant '{}' from {}", tenantId, path);
+            return loaded;
+        } catch (IOException | GeneralSecurityException e) {
+            if (cached == null) {
+                LogaltyCallException ex = new LogaltyCallException("Unable to load certificate for tenant '" + tenantId + "'");
+                ex.initCause(e);
+                throw ex;
+            }
+            // Remember the rejected version so it is not reread on every request, only after the next change
+            keys.put(path, cached.withLastModified(lastModified));
+            log.error("Rejected new request signing key of tenant '{}' at {}, keeping the current one: {}",
+                    tenantId, path, e.getMessage(), e);
+            return cached;
+        }
+    }
+
+    private static SigningKey load(Path path, String pin, long lastModified) throws IOException, GeneralSecurityException {
+        char[] password = pin != null ? pin.toCharArray() : new char[0];
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            store.load(in, password);
+        }
+        for (String alias : Collections.list(store.aliases())) {
+            if (store.isKeyEntry(alias) && store.getKey(alias, password) instanceof PrivateKey key
+                    && store.getCertificate(alias) instanceof X509Certificate certificate) {
+                if (!"RSA".equals(key.getAlgorithm())) {
+                    throw new GeneralSecurityException("Requests are signed with RSA keys, " + path + " holds a "
+                            + key.getAlgorithm() + " key");
+                }
+                return new SigningKey(key, certificate, lastModified);
+            }
+        }
+        throw new GeneralSecurityException("No private key in " + path);
+    }
+
+    private record SigningKey(PrivateKey privateKey, X509Certificate certificate, long lastModified) {
+
+        SigningKey withLastModified(long lastModified) {
+            return new SigningKey(privateKey, certificate, lastModified);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.firefly.ecm.adapter.logalty;
+
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.artifactcache.ArtifactCache;
+import com.firefly.ecm.adapter.logalty.flightrecorder.LogaltyFlightRecorder;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.preparation.DocumentPreparer;
+import com.firefly.ecm.adapter.logalty.preparation.PdfOptimizer;
+import com.firefly.ecm.adapter.logalty.preparation.PdfPreflight;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.statuscache.StatusCache;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
+import com.firefly.ecm.adapter.logalty.transport.SdkLogaltyTransport;
+import com.firefly.ecm.adapter.logalty.validation.RequestValidator;
+import com.firefly.ecm.adapter.logalty.xml.IncomingRequestWriter;
+import com.firefly.ecm.adapter.logalty.xml.RequestSigner;
+import com.logalty.interfaces.XmlSignInterface;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Services wired with default properties, for tests that only care about a few collaborators.
+ */
+public final class LogaltyFixtures {
+
+    private LogaltyFixtures() {
+    }
+
+    public static LogaltyCommonService commonService(SignatureProperties properties, XmlSignInterface signer) {
+        return commonService(properties, signer, new SdkLogaltyTransport());
+    }
+
+    public static LogaltyCommonService commonService(SignatureProperties properties,
+                                                     XmlSignInterface signer,
+                                                     LogaltyTransport transport) {
+        return new LogaltyCommonService(properties, new TenantSignerRegistry(new TenantProperties(), signer), transport,
+                new LogaltyFlightRecorder(new FlightRecorderProperties()),
+                documentPreparer(new SimpleMeterRegistry()),
+                new RequestValidator(new ValidationProperties(), new SimpleMeterRegistry()));
+    }
+
+    public static DocumentPreparer documentPreparer(MeterRegistry registry) {
+        return new DocumentPreparer(new PreparationProperties(), registry, preflight(registry));
+    }
+
+    public static PdfPreflight preflight(MeterRegistry registry) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<PdfOptimizer> noOptimizer = mock(ObjectProvider.class);
+        return new PdfPreflight(new PreflightProperties(), registry, noOptimizer);
+    }
+
+    public static IncomingRequestWriter requestWriter(SignatureProperties properties, LogaltyCommonService common) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new IncomingRequestWriter(properties, common,
+                preflight(registry),
+                new RequestValidator(new ValidationProperties(), registry),
+                new RequestSigner(properties, new TenantProperties()));
+    }
+
+    public static SignatureService signatureService(LogaltyCommonService common, TenantSignerRegistry signers) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new SignatureService(new SignatureProperties(), common, signers,
+                new ArtifactCache(new ArtifactCacheProperties(), registry),
+                new StatusCache(new StatusCacheProperties(), registry),
+                requestWriter(new SignatureProperties(), common));
+    }
+
+    public static ReactiveSignatureService reactiveSignatureService(LogaltyCommonService common,
+                                                                    TenantSignerRegistry signers) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LogaltyRateLimiter rateLimiter = new LogaltyRateLimiter(new RateLimitProperties(), registry);
+        return new ReactiveSignatureService(new SignatureProperties(), common, signers,
+                new ArtifactCache(new ArtifactCacheProperties(), registry),
+                new StatusCache(new StatusCacheProperties(), registry),
+                requestWriter(new SignatureProperties(), common),
+                new MemoryAdmission(new AdmissionProperties(), registry),
+                new RequestHedger(new HedgeProperties(), rateLimiter, registry),
+                rateLimiter,
+                CircuitBreaker.ofDefaults("fixtures"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.firefly.ecm.adapter.logalty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.core.ecm.domain.model.esignature.SignatureEnvelope;
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.port.document.DocumentPort;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.expiry.StaleEnvelope;
+import com.firefly.ecm.adapter.logalty.expiry.StaleEnvelopeSource;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.outbox.SignatureOutbox;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.standin.LogaltyStandInServer;
+import com.firefly.ecm.adapter.logalty.standin.StandInBehavior;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantTokenCache;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The adapter against {@link LogaltyStandInServer}, checking what it reports to
+ * {@link EnvelopeStatusEvents}.
+ */
+class LogaltySignatureEnvelopeAdapterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private LogaltyStandInServer server;
+    private SignatureService signatureService;
+    private StaleEnvelopeSource staleEnvelopes;
+    private EnvelopeStatusEvents statusEvents;
+    private LogaltySignatureEnvelopeAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        server = LogaltyStandInServer.start(new StandInBehavior());
+
+        LogaltyAdapterProperties properties = new LogaltyAdapterProperties();
+        properties.setBaseUrl(server.baseUrl());
+        TenantProperties tenantProperties = new TenantProperties();
+        TenantProperties.Tenant acme = new TenantProperties.Tenant();
+        acme.setClientId("acme-client");
+        acme.setClientSecret("acme-secret");
+        tenantProperties.getTenants().put("acme", acme);
+
+        StatusEventsProperties eventsProperties = new StatusEventsProperties();
+        eventsProperties.setEnabled(true);
+        statusEvents = new EnvelopeStatusEvents(eventsProperties, registry);
+
+        signatureService = mock(SignatureService.class);
+        staleEnvelopes = mock(StaleEnvelopeSource.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<SignatureOutbox> noOutbox = mock(ObjectProvider.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<StaleEnvelopeSource> staleEnvelopeSource = mock(ObjectProvider.class);
+        when(staleEnvelopeSource.getIfAvailable()).thenReturn(staleEnvelopes);
+
+        LogaltyRateLimiter rateLimiter = new LogaltyRateLimiter(new RateLimitProperties(), registry);
+        adapter = new LogaltySignatureEnvelopeAdapter(
+                WebClient.builder().baseUrl(server.baseUrl()).build(),
+                properties,
+                new ObjectMapper(),
+                mock(DocumentContentPort.class),
+                mock(DocumentPort.class),
+                CircuitBreaker.ofDefaults("adapter-test"),
+                Retry.ofDefaults("adapter-test"),
+                signatureService,
+                noOutbox,
+                rateLimiter,
+                new TenantTokenCache(properties, tenantProperties),
+                new MemoryAdmission(new AdmissionProperties(), registry),
+                statusEvents,
+                new RequestHedger(new HedgeProperties(), rateLimiter, registry),
+                staleEnvelopeSource
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void getEnvelope_publishesTheStatusReadFromLogaltyOnce() {
+        SignatureEnvelope envelope = create();
+
+        StepVerifier.create(statusEvents.stream())
+                .then(() -> {
+                    adapter.getEnvelope(envelope.getId()).contextWrite(TenantContext.withTenant("acme")).block(TIMEOUT);
+                    adapter.getEnvelope(envelope.getId()).contextWrite(TenantContext.withTenant("acme")).block(TIMEOUT);
+                })
+                .assertNext(event -> {
+                    assertEquals(envelope.getId(), event.envelopeId());
+                    assertEquals("acme", event.tenantId());
+                    assertEquals(envelope.getExternalEnvelopeId(), event.externalId());
+                    assertNull(event.previousStatus());
+                    assertEquals(EnvelopeStatus.SENT, event.status());
+                    assertEquals(EnvelopeStatusChanged.Source.SYNC, event.source());
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        // The second read saw the same status
+        assertEquals(1.0, registry.get("logalty.status.events.published").tag("source", "sync").counter().count());
+    }
+
+    @Test
+    void voidEnvelope_publishesVoidedAfterTheLastStatusRead() {
+        SignatureEnvelope envelope = create();
+        adapter.getEnvelope(envelope.getId()).contextWrite(TenantContext.withTenant("acme")).block(TIMEOUT);
+        when(signatureService.initCancel("acme", envelope.getExternalEnvelopeId(), "Withdrawn"))
+                .thenReturn(mock(CancelResponseDocument.CancelResponse.class));
+
+        AtomicReference<SignatureEnvelope> voided = new AtomicReference<>();
+
+        StepVerifier.create(statusEvents.stream())
+                .then(() -> voided.set(adapter.voidEnvelope(envelope.getId(), "Withdrawn", UUID.randomUUID())
+                        .contextWrite(TenantContext.withTenant("acme"))
+                        .block(TIMEOUT)))
+                .assertNext(event -> {
+                    assertEquals(envelope.getId(), event.envelopeId());
+                    assertEquals(EnvelopeStatus.SENT, event.previousStatus());
+                    assertEquals(EnvelopeStatus.VOIDED, event.status());
+                    assertEquals(EnvelopeStatusChanged.Source.OPERATION, event.source());
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        // The envelope as read from Logalty, voided
+        assertEquals(EnvelopeStatus.VOIDED, voided.get().getStatus());
+        assertEquals("Stand-in envelope", voided.get().getTitle());
+        assertEquals(envelope.getExternalEnvelopeId(), voided.get().getExternalEnvelopeId());
+        assertNotNull(voided.get().getCreatedAt());
+    }
+
+    @Test
+    void voidEnvelope_cancelsOffTheSubscribingThread() {
+        SignatureEnvelope envelope = create();
+        AtomicReference<String> cancelThread = new AtomicReference<>();
+        when(signatureService.initCancel("acme", envelope.getExternalEnvelopeId(), "Withdrawn")).thenAnswer(invocation -> {
+            cancelThread.set(Thread.currentThread().getName());
+            return mock(CancelResponseDocument.CancelResponse.class);
+        });
+
+        adapter.voidEnvelope(envelope.getId(), "Withdrawn", UUID.randomUUID())
+                .contextWrite(TenantContext.withTenant("acme"))
+                .block(TIMEOUT);
+
+        assertTrue(cancelThread.get().startsWith("boundedElastic"), cancelThread.get());
+    }
+
+    @Test
+    void getExpiringEnvelopes_returnsOnlyTheEnvelopesOfTheCallingTenant() {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = from.plus(Duration.ofDays(1));
+        UUID mine = UUID.randomUUID();
+        when(staleEnvelopes.findExpiring(from, to, null, 500)).thenReturn(Flux.just(
+                new StaleEnvelope(mine, "acme", "EXT-1", "1"),
+                new StaleEnvelope(UUID.randomUUID(), "globex", "EXT-2", "2"),
+                new StaleEnvelope(UUID.randomUUID(), null, "EXT-3", "3")));
+
+        StepVerifier.create(adapter.getExpiringEnvelopes(from, to).contextWrite(TenantContext.withTenant("acme")))
+                .assertNext(envelope -> {
+                    assertEquals(mine, envelope.getId());
+                    assertEquals("EXT-1", envelope.getExternalEnvelopeId());
+                    assertEquals(EnvelopeStatus.SENT, envelope.getStatus());
+                })
+                .verifyComplete();
+    }
+
+    private SignatureEnvelope create() {
+        SignatureEnvelope envelope = SignatureEnvelope.builder()
+                .id(UUID.randomUUID())
+                .title("Adapter test envelope")
+                .build();
+        return adapter.createEnvelope(envelope).contextWrite(TenantContext.withTenant("acme")).block(TIMEOUT);
+    }
+}
@@ -0,0 +1,135 @@
+package com.firefly.ecm.adapter.logalty.admission;
+
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.MemoryAdmissionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryAdmissionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AdmissionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setBudgetBytes(100);
+        properties.setEnvelopeOverheadBytes(0);
+    }
+
+    @Test
+    void admit_disabled_returnsWorkUnchanged() {
+        properties.setEnabled(false);
+        Mono<String> work = Mono.just("sent");
+
+        assertSame(work, new MemoryAdmission(properties, registry).admit(1_000, work));
+    }
+
+    @Test
+    void estimate_countsRawAndEncodedCopiesOfEveryDocument() {
+        properties.setEnvelopeOverheadBytes(1_000);
+        MemoryAdmission admission = new MemoryAdmission(properties, registry);
+
+        List<BinaryContentsDTO> documents = List.of(document(3_000), document(300));
+
+        // raw once, base64 (4/3 of the size) four times
+        assertEquals(1_000 + 3_000 + 16_000 + 300 + 1_600, admission.estimate(documents));
+        assertEquals(1_000 + 8_000 + 800, admission.estimateRequest(documents));
+    }
+
+    @Test
+    void admit_queuesWorkThatDoesNotFitUntilBudgetIsReleased() {
+        MemoryAdmission admission = new MemoryAdmission(properties, registry);
+        Sinks.One<String> first = Sinks.one();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        admission.admit(60, first.asMono()).subscribe(order::add);
+        admission.admit(60, Mono.fromCallable(() -> "second")).subscribe(order::add);
+
+        assertEquals(60, admission.reserved());
+        assertEquals(1, admission.queued());
+        assertTrue(order.isEmpty());
+        assertEquals(100.0, registry.get("logalty.admission.budget").gauge().value());
+
+        first.tryEmitValue("first");
+
+        assertEquals(List.of("first", "second"), order);
+        assertEquals(0, admission.reserved());
+        assertEquals(0, admission.queued());
+        assertEquals(2, registry.get("logalty.admission.wait").timer().count());
+    }
+
+    @Test
+    void admit_keepsFifoOrderSoLargeEnvelopesAreNotStarved() {
+        MemoryAdmission admission = new MemoryAdmission(properties, registry);
+        Sinks.One<String> first = Sinks.one();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        admission.admit(50, first.asMono()).subscribe(order::add);
+        admission.admit(90, Mono.just("large")).subscribe(order::add);
+        admission.admit(10, Mono.just("small")).subscribe(order::add);
+
+        assertTrue(order.isEmpty(), "small envelope overtook the queued large one");
+        first.tryEmitValue("first");
+
+        assertEquals(List.of("first", "large", "small"), order);
+    }
+
+    @Test
+    void admit_rejectsEnvelopesLargerThanTheBudgetOrBeyondTheQueue() {
+        properties.setMaxQueued(0);
+        MemoryAdmission admission = new MemoryAdmission(properties, registry);
+
+        StepVerifier.create(admission.admit(101, Mono.just("too large")))
+                .expectErrorSatisfies(e -> assertEquals("too_large", ((MemoryAdmissionException) e).getReason()))
+                .verify();
+
+        Disposable held = admission.admit(80, Mono.never()).subscribe();
+        StepVerifier.create(admission.admit(30, Mono.just("queued")))
+                .expectErrorSatisfies(e -> assertEquals("queue_full", ((MemoryAdmissionException) e).getReason()))
+                .verify();
+        held.dispose();
+
+        assertEquals(0, admission.reserved());
+        assertEquals(1.0, registry.get("logalty.admission.rejected").tag("reason", "too_large").counter().count());
+    }
+
+    @Test
+    void admit_rejectsAfterMaxWait_andCancelledWaitersLeaveNoReservation() {
+        properties.setMaxWait(Duration.ofMillis(100));
+        MemoryAdmission admission = new MemoryAdmission(properties, registry);
+        Sinks.One<String> first = Sinks.one();
+        admission.admit(70, first.asMono()).subscribe();
+
+        StepVerifier.create(admission.admit(70, Mono.just("late")))
+                .expectErrorSatisfies(e -> assertEquals("timeout", ((MemoryAdmissionException) e).getReason()))
+                .verify(Duration.ofSeconds(5));
+
+        Disposable cancelled = admission.admit(70, Mono.just("cancelled")).subscribe();
+        assertEquals(1, admission.queued());
+        cancelled.dispose();
+        assertEquals(0, admission.queued());
+
+        first.tryEmitValue("first");
+        assertEquals(0, admission.reserved());
+    }
+
+    private static BinaryContentsDTO document(int size) {
+        BinaryContentsDTO document = new BinaryContentsDTO();
+        document.setContents(new byte[size]);
+        return document;
+    }
+}
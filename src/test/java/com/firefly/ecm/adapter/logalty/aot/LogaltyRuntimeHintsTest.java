@@ -0,0 +1,65 @@
+package com.firefly.ecm.adapter.logalty.aot;
+
+import com.firefly.ecm.adapter.logalty.outbox.OutboxEntry;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import com.logalty.sdk.sign.XmlSigner;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogaltyRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    LogaltyRuntimeHintsTest() {
+        new LogaltyRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersBundledResources() {
+        for (String resource : new String[]{"7694_SIGNATURE.pfx", "mi-truststore.jks", "logalty.wsdl", "jfr/logalty.jfc"}) {
+            assertTrue(RuntimeHintsPredicates.resource().forResource(resource).test(hints), resource);
+        }
+    }
+
+    @Test
+    void registersXmlBeansSchemaTypesOfEveryRequestSchema() {
+        for (Class<?> type : new Class<?>[]{ResponseDocument.class, DataStateExternalIdResponseDocument.class,
+                CancelResponseDocument.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints), type.getName());
+        }
+        assertTrue(hints.reflection().typeHints()
+                .anyMatch(hint -> hint.getType().getName().startsWith("schemaorg_apache_xmlbeans.system.")),
+                "no XmlBeans type system holder registered");
+    }
+
+    @Test
+    void registersSdkBouncyCastleAndOutboxTypes() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(XmlSigner.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(BouncyCastleProvider.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OutboxEntry.class).test(hints));
+    }
+
+    @Test
+    void registersOnlyTheBouncyCastleAlgorithmsTheSignerUses() {
+        for (String used : new String[]{"org.bouncycastle.jcajce.provider.digest.SHA256$Digest",
+                "org.bouncycastle.jcajce.provider.asymmetric.rsa.DigestSignatureSpi$SHA256",
+                "org.bouncycastle.jcajce.provider.symmetric.AES$Mappings"}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(used)).test(hints), used);
+        }
+        for (String unused : new String[]{"org.bouncycastle.jcajce.provider.digest.Whirlpool$Digest",
+                "org.bouncycastle.jcajce.provider.asymmetric.ec.SignatureSpi$ecDSA"}) {
+            assertFalse(RuntimeHintsPredicates.reflection().onType(TypeReference.of(unused)).test(hints), unused);
+        }
+    }
+}
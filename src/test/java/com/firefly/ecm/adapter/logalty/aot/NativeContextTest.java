@@ -0,0 +1,133 @@
+package com.firefly.ecm.adapter.logalty.aot;
+
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.port.document.DocumentPort;
+import com.firefly.ecm.adapter.logalty.HedgeProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyAdapterAutoConfiguration;
+import com.firefly.ecm.adapter.logalty.LogaltySignatureEnvelopeAdapter;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
+import com.firefly.ecm.adapter.logalty.transport.SoapHttpTransport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the auto-configuration the way an application does: properties bound through
+ * {@code @ConfigurationProperties} and services found by component scanning. On the JVM it is
+ * a regular test; under {@code mvn -P native test} the context is AOT-processed and started
+ * inside the native image, so a binding or bean the generated code misses fails here.
+ */
+@Tag("native")
+@SpringBootTest(classes = {LogaltyAdapterAutoConfiguration.class, NativeContextTest.Ports.class}, properties = {
+        "firefly.ecm.esignature.provider=logalty",
+        "firefly.ecm.adapter.logalty.signature.cancel-reason=Withdrawn by the sender",
+        "firefly.ecm.adapter.logalty.hedge.enabled=true",
+        "firefly.ecm.adapter.logalty.hedge.delay=250ms",
+        "firefly.ecm.adapter.logalty.rate-limit.operations.get-status.capacity=7",
+        "firefly.ecm.adapter.logalty.transport.endpoint=http://localhost:8089/soap"
+})
+class NativeContextTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    // Read from the classpath: a native image has no source tree to resolve the default path against
+    @DynamicPropertySource
+    static void certificate(DynamicPropertyRegistry registry) throws IOException {
+        Path certificate = Files.createTempFile("signature", ".pfx");
+        certificate.toFile().deleteOnExit();
+        try (InputStream in = NativeContextTest.class.getResourceAsStream("/7694_SIGNATURE.pfx")) {
+            assertNotNull(in, "bundled certificate not found");
+            Files.copy(in, certificate, StandardCopyOption.REPLACE_EXISTING);
+        }
+        registry.add("firefly.ecm.adapter.logalty.signature.cert-path", certificate::toString);
+    }
+
+    @Test
+    void configurationProperties_areBound() {
+        assertEquals("Withdrawn by the sender", context.getBean(SignatureProperties.class).getCancelReason());
+
+        HedgeProperties hedge = context.getBean(HedgeProperties.class);
+        assertTrue(hedge.isEnabled());
+        assertEquals(Duration.ofMillis(250), hedge.getDelay());
+
+        RateLimitProperties rateLimit = context.getBean(RateLimitProperties.class);
+        assertEquals(7, rateLimit.getOperations().get(LogaltyOperation.GET_STATUS).getCapacity());
+    }
+
+    @Test
+    void componentScannedServices_areWired() {
+        for (Class<?> type : List.of(LogaltySignatureEnvelopeAdapter.class, LogaltyCommonService.class,
+                SignatureService.class, ReactiveSignatureService.class, TenantSignerRegistry.class,
+                LogaltyRateLimiter.class, RequestHedger.class, EnvelopeStatusEvents.class)) {
+            assertNotNull(context.getBean(type), type.getName());
+        }
+        assertInstanceOf(SoapHttpTransport.class, context.getBean(LogaltyTransport.class));
+    }
+
+    /**
+     * Document ports the application provides; the adapter only needs them to exist at startup.
+     * Not a {@code @Configuration}, so the adapter's component scan does not register it twice.
+     */
+    @ImportRuntimeHints(Ports.Hints.class)
+    static class Ports {
+
+        @Bean
+        DocumentPort documentPort() {
+            return unsupported(DocumentPort.class);
+        }
+
+        @Bean
+        DocumentContentPort documentContentPort() {
+            return unsupported(DocumentContentPort.class);
+        }
+
+        private static <T> T unsupported(Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "toString" -> type.getSimpleName() + " stub";
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }));
+        }
+
+        static class Hints implements RuntimeHintsRegistrar {
+
+            @Override
+            public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+                hints.proxies().registerJdkProxy(DocumentPort.class);
+                hints.proxies().registerJdkProxy(DocumentContentPort.class);
+            }
+        }
+    }
+}
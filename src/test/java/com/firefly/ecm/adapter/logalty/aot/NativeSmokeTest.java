@@ -0,0 +1,101 @@
+package com.firefly.ecm.adapter.logalty.aot;
+
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.standin.LogaltyStandInServer;
+import com.firefly.ecm.adapter.logalty.standin.StandInBehavior;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.transport.SoapHttpTransport;
+import com.logalty.sdk.sign.XmlSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds, signs, posts and parses every SOAP operation against the stand-in server. On the
+ * JVM it is a regular test; under {@code mvn -P native test} it runs inside the native image
+ * and fails when a hint from {@link LogaltyRuntimeHints} is missing.
+ */
+@Tag("native")
+class NativeSmokeTest {
+
+    @TempDir
+    Path dir;
+
+    private LogaltyStandInServer server;
+    private SignatureService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = LogaltyStandInServer.start(new StandInBehavior());
+
+        // Read from the classpath: a native image has no source tree to resolve the default path against
+        SignatureProperties signatureProperties = new SignatureProperties();
+        Path certificate = dir.resolve("signature.pfx");
+        try (InputStream in = getClass().getResourceAsStream("/7694_SIGNATURE.pfx")) {
+            assertNotNull(in, "bundled certificate not found");
+            Files.copy(in, certificate);
+        }
+        XmlSigner signer = new XmlSigner(certificate.toString(), signatureProperties.getCertPin().toCharArray());
+
+        LogaltyCommonService common = LogaltyFixtures.commonService(signatureProperties, signer,
+                new SoapHttpTransport(server.transportProperties()));
+        service = LogaltyFixtures.signatureService(common, new TenantSignerRegistry(new TenantProperties(), signer));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void signatureLifecycle_roundTripsThroughXmlBeansAndTheSigner() {
+        assertNotNull(service.initSignature(List.of(receiver()), List.of(document())));
+        assertNotNull(service.getStatus("SMOKE-1"));
+        assertNotNull(service.getCertificate("SMOKE-1"));
+        assertNotNull(service.getSignedBinary("SMOKE-1"));
+        assertNotNull(service.initCancel("SMOKE-1"));
+    }
+
+    private static ReceiverDTO receiver() {
+        ReceiverDTO receiver = new ReceiverDTO();
+        receiver.setReceiverId(1);
+        receiver.setGroupId(1);
+        receiver.setName("Smoke");
+        receiver.setLast1("Test");
+        receiver.setEmail("smoke@example.com");
+        return receiver;
+    }
+
+    private BinaryContentsDTO document() {
+        BinaryContentsDTO binary = new BinaryContentsDTO();
+        try (InputStream in = getClass().getResourceAsStream("/pdf/original.pdf")) {
+            assertNotNull(in, "bundled PDF not found");
+            binary.setContents(in.readAllBytes());
+        } catch (IOException e) {
+            fail(e);
+        }
+        binary.setBinaryContentId(1);
+        binary.setGroupId(1);
+        binary.setEncoding("BASE64");
+        binary.setFilename("smoke");
+        binary.setExtension("pdf");
+        binary.setType("application/pdf");
+        return binary;
+    }
+}
@@ -0,0 +1,175 @@
+package com.firefly.ecm.adapter.logalty.artifactcache;
+
+import com.firefly.ecm.adapter.logalty.ArtifactCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private ArtifactCacheProperties properties;
+
+    @BeforeEach
+    void init() {
+        properties = new ArtifactCacheProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+    }
+
+    @Test
+    void get_servesRepeatsFromMemoryThenFromDiskAfterRestart() {
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        assertEquals("<cert id='A'/>", fetch(cache, "A"));
+        assertEquals("<cert id='A'/>", fetch(cache, "A"));
+        assertEquals(1, fetches.get());
+        assertEquals(1, requests("memory"));
+
+        ArtifactCache restarted = new ArtifactCache(properties, registry);
+        assertEquals("<cert id='A'/>", fetch(restarted, "A"));
+        assertEquals(1, fetches.get());
+        assertEquals(1, requests("disk"));
+    }
+
+    @Test
+    void get_keysByTenant() {
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        cache.get(ArtifactCache.CERTIFICATE, "acme", "A", Function.identity(), Function.identity(), text -> true, () -> "acme");
+        String other = cache.get(ArtifactCache.CERTIFICATE, "globex", "A", Function.identity(), Function.identity(), text -> true, () -> "globex");
+        assertEquals("globex", other);
+    }
+
+    @Test
+    void get_failedFetchIsNotCached() {
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        assertThrows(IllegalStateException.class, () -> cache.get(ArtifactCache.SIGNED_BINARY, "t", "X",
+                Function.identity(), Function.identity(), text -> true, () -> {
+                    throw new IllegalStateException("process not finished");
+                }));
+        assertEquals("signed", cache.get(ArtifactCache.SIGNED_BINARY, "t", "X",
+                Function.identity(), Function.identity(), text -> true, () -> "signed"));
+    }
+
+    @Test
+    void get_onlyResponsesOfFinishedProcessesAreCached() {
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        fetchInState(cache, "P", "IN_PROGRESS");
+        fetchInState(cache, "P", "IN_PROGRESS");
+        assertEquals(2, fetches.get());
+
+        fetchInState(cache, "S", "signed");
+        fetchInState(cache, "S", "signed");
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    void isFinal_readsTheConfiguredStateElement() throws XmlException {
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        assertTrue(cache.isFinal(XmlObject.Factory.parse("<response><main>0</main><result><state> EXPIRED </state></result></response>")));
+        assertFalse(cache.isFinal(XmlObject.Factory.parse("<response><state>PENDING</state></response>")));
+        assertFalse(cache.isFinal(XmlObject.Factory.parse("<response><main>0</main></response>")));
+    }
+
+    @Test
+    void get_corruptEntryIsDroppedAndRefetched() throws IOException {
+        properties.setMemoryMaxBytes(0);
+        fetch(new ArtifactCache(properties, registry), "A");
+
+        Path entry = dir.resolve(DiskArtifactStore.fileName(ArtifactCache.CERTIFICATE + "/t/A"));
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length - 1] ^= 0x20;
+        Files.write(entry, bytes);
+
+        assertEquals("<cert id='A'/>", fetch(new ArtifactCache(properties, registry), "A"));
+        assertEquals(2, fetches.get());
+        assertEquals(1, registry.get("logalty.cache.corrupt").counter().count());
+    }
+
+    @Test
+    void disabled_alwaysFetches() {
+        properties.setEnabled(false);
+        ArtifactCache cache = new ArtifactCache(properties, registry);
+        fetch(cache, "A");
+        fetch(cache, "A");
+        assertEquals(2, fetches.get());
+        assertFalse(Files.exists(dir.resolve(DiskArtifactStore.fileName(ArtifactCache.CERTIFICATE + "/t/A"))));
+    }
+
+    @Test
+    void store_evictsLeastRecentlyUsedAndKeepsOrderAcrossRestarts() throws IOException {
+        long entry = DiskArtifactStore.HEADER_BYTES + 100;
+        DiskArtifactStore store = new DiskArtifactStore(dir, 3 * entry);
+        store.open();
+        store.put("a", payload('a'));
+        store.put("b", payload('b'));
+        store.put("c", payload('c'));
+        assertNotNull(store.get("a"));
+        store.put("d", payload('d'));
+
+        assertNull(store.get("b"));
+        assertNotNull(store.get("a"));
+        assertEquals(3 * entry, store.totalBytes());
+        assertEquals(1, store.evictions());
+
+        // Access order is persisted through modification times
+        Files.setLastModifiedTime(dir.resolve(DiskArtifactStore.fileName("c")), FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(dir.resolve(DiskArtifactStore.fileName("d")), FileTime.fromMillis(2_000));
+        Files.setLastModifiedTime(dir.resolve(DiskArtifactStore.fileName("a")), FileTime.fromMillis(3_000));
+        Files.writeString(dir.resolve("leftover.entry.1.tmp"), "partial");
+        DiskArtifactStore reopened = new DiskArtifactStore(dir, 2 * entry);
+        reopened.open();
+
+        assertNull(reopened.get("c"));
+        assertArrayEquals(payload('d'), reopened.get("d"));
+        assertArrayEquals(payload('a'), reopened.get("a"));
+        assertFalse(Files.exists(dir.resolve("leftover.entry.1.tmp")));
+    }
+
+    private String fetch(ArtifactCache cache, String id) {
+        return cache.get(ArtifactCache.CERTIFICATE, "t", id, Function.identity(), Function.identity(), text -> true, () -> {
+            fetches.incrementAndGet();
+            return "<cert id='" + id + "'/>";
+        });
+    }
+
+    private String fetchInState(ArtifactCache cache, String id, String state) {
+        return cache.get(ArtifactCache.SIGNED_BINARY, "t", id, Function.identity(), Function.identity(),
+                text -> cache.isFinal(xml(text)), () -> {
+                    fetches.incrementAndGet();
+                    return "<response><main>0</main><state>" + state + "</state></response>";
+                });
+    }
+
+    private static XmlObject xml(String text) {
+        try {
+            return XmlObject.Factory.parse(text);
+        } catch (XmlException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double requests(String result) {
+        return registry.get("logalty.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static byte[] payload(char fill) {
+        return String.valueOf(fill).repeat(100).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,150 @@
+package com.firefly.ecm.adapter.logalty.campaign;
+
+import com.firefly.core.ecm.domain.model.esignature.SignatureRequest;
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.CampaignProperties;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
+import com.logalty.schema.ptrequest.ResultDocument;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SignatureCampaignServiceTest {
+
+    private LogaltyCommonService common;
+    private SignatureService signatureService;
+    private Binarycontents payload;
+    private ResultDocument.Result accepted;
+    private CampaignProperties properties;
+    private SignatureCampaignService campaigns;
+
+    @BeforeEach
+    void init() {
+        common = mock(LogaltyCommonService.class);
+        signatureService = mock(SignatureService.class);
+        payload = mock(Binarycontents.class);
+        accepted = mock(ResultDocument.Result.class);
+        when(common.createBinaryContents(anyList())).thenReturn(payload);
+
+        properties = new CampaignProperties();
+        properties.setConcurrency(3);
+        properties.setProgressInterval(Duration.ZERO);
+        campaigns = new SignatureCampaignService(properties, signatureService, common,
+                CircuitBreaker.ofDefaults("campaign-test"),
+                new LogaltyRateLimiter(new RateLimitProperties(), new SimpleMeterRegistry()),
+                new MemoryAdmission(new AdmissionProperties(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void run_encodesOnceAndSharesPayloadWithinConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(signatureService.initSignature(eq("acme"), anyList(), same(payload))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return accepted;
+        });
+
+        List<CampaignResult> results = campaigns.run("acme", documents(), receivers(40), progress -> { })
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(40, results.size());
+        assertTrue(results.stream().allMatch(CampaignResult::accepted));
+        verify(common, times(1)).createBinaryContents(anyList());
+        verify(signatureService, times(40)).initSignature(eq("acme"), argThat(r -> r.size() == 1), same(payload));
+        assertTrue(maxInFlight.get() <= 3, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void run_failedReceiverDoesNotStopCampaign_andFinalProgressCountsEverything() {
+        when(signatureService.initSignature(anyString(), anyList(), any(Binarycontents.class))).thenAnswer(invocation -> {
+            List<ReceiverDTO> receivers = invocation.getArgument(1);
+            if (receivers.get(0).getReceiverId() == 7) {
+                throw new LogaltyCallException("Operation error (INIT_SIGNATURE): invalid email");
+            }
+            return accepted;
+        });
+        List<CampaignProgress> reports = new CopyOnWriteArrayList<>();
+
+        List<CampaignResult> results = campaigns.run(null, documents(), receivers(10), reports::add)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(10, results.size());
+        CampaignResult failed = results.stream().filter(r -> !r.accepted()).findFirst().orElseThrow();
+        assertEquals(7, failed.receiver().getReceiverId());
+        assertInstanceOf(LogaltyCallException.class, failed.error());
+        verify(signatureService, times(10)).initSignature(eq(TenantContext.DEFAULT_TENANT), anyList(), same(payload));
+
+        CampaignProgress last = reports.get(reports.size() - 1);
+        assertTrue(last.completed());
+        assertEquals(10, last.submitted());
+        assertEquals(9, last.accepted());
+        assertEquals(1, last.failed());
+        assertEquals(0, last.inFlight());
+    }
+
+    @Test
+    void runForRequests_mapsEachRequestToASingleReceiver() {
+        when(signatureService.initSignature(anyString(), anyList(), any(Binarycontents.class))).thenReturn(accepted);
+        Flux<SignatureRequest> requests = Flux.range(0, 3).map(i -> SignatureRequest.builder()
+                .signerId(UUID.randomUUID())
+                .signerName("Signer " + i)
+                .signerEmail("signer" + i + "@example.com")
+                .build());
+
+        List<CampaignResult> results = campaigns.runForRequests("acme", documents(), requests, progress -> { })
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(r -> r.receiver().getReceiverId() == 1
+                && r.receiver().getEmail().startsWith("signer")));
+    }
+
+    @Test
+    void run_withoutDocuments_failsBeforeSendingAnything() {
+        assertThrows(IllegalArgumentException.class,
+                () -> campaigns.run("acme", List.of(), receivers(2), progress -> { }).blockLast());
+        verifyNoInteractions(signatureService);
+    }
+
+    private static List<BinaryContentsDTO> documents() {
+        BinaryContentsDTO document = new BinaryContentsDTO();
+        document.setBinaryContentId(1);
+        document.setContents(new byte[]{1, 2, 3});
+        return List.of(document);
+    }
+
+    private static Flux<ReceiverDTO> receivers(int count) {
+        return Flux.range(1, count).map(i -> {
+            ReceiverDTO receiver = new ReceiverDTO();
+            receiver.setReceiverId(i);
+            receiver.setEmail("receiver" + i + "@example.com");
+            return receiver;
+        });
+    }
+}
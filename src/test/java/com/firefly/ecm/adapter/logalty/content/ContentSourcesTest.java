@@ -0,0 +1,102 @@
+package com.firefly.ecm.adapter.logalty.content;
+
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentSourcesTest {
+
+    @TempDir
+    Path dir;
+
+    private final byte[] payload = randomBytes(200_001);
+    private final String expected = Base64.getEncoder().encodeToString(payload);
+
+    @Test
+    void base64_matchesJdkEncoderForEverySourceKind() throws IOException {
+        Path file = Files.write(dir.resolve("doc.pdf"), payload);
+        DataBuffer dataBuffer = DefaultDataBufferFactory.sharedInstance.wrap(payload.clone());
+
+        assertEquals(expected, ContentSources.base64(ContentSources.bytes(payload)));
+        assertEquals(expected, ContentSources.base64(ContentSources.mapped(file)));
+        assertEquals(expected, ContentSources.base64(ContentSources.byteBuffer(ByteBuffer.wrap(payload), null)));
+        assertEquals(expected, ContentSources.base64(ContentSources.dataBuffer(dataBuffer)));
+    }
+
+    @Test
+    void base64_handlesEmptyAndUnpaddedLengths() {
+        for (int length : new int[]{0, 1, 2, 3, 48 * 1024, 48 * 1024 + 1}) {
+            byte[] bytes = randomBytes(length);
+            assertEquals(Base64.getEncoder().encodeToString(bytes), ContentSources.base64(ContentSources.bytes(bytes)));
+        }
+    }
+
+    @Test
+    void release_runsHookOnceWhenLastReferenceIsDropped() {
+        AtomicInteger returned = new AtomicInteger();
+        ContentSource source = ContentSources.byteBuffer(ByteBuffer.wrap(payload), returned::incrementAndGet);
+
+        source.retain();
+        assertFalse(source.release());
+        assertEquals(0, returned.get());
+        assertTrue(source.release());
+        assertEquals(1, returned.get());
+
+        assertThrows(IllegalStateException.class, source::openStream);
+        assertThrows(IllegalStateException.class, source::retain);
+        assertThrows(IllegalStateException.class, source::release);
+        assertEquals(0, source.refCnt());
+    }
+
+    @Test
+    void join_composesBuffersAndReleasesThemWithTheSource() {
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> chunks = Flux.range(0, 5)
+                .map(i -> factory.wrap(Arrays.copyOfRange(payload, i * 50_000, Math.min(payload.length, (i + 1) * 50_000))));
+
+        ContentSource source = ContentSources.join(chunks, payload.length).block();
+
+        assertNotNull(source);
+        assertEquals(payload.length, source.size());
+        assertArrayEquals(payload, ContentSources.toByteArray(source));
+        assertTrue(source.release());
+    }
+
+    @Test
+    void of_prefersSourceOverContents_andReleaseSkipsPlainArrays() {
+        BinaryContentsDTO withSource = new BinaryContentsDTO();
+        withSource.setContents(new byte[]{1});
+        withSource.setSource(ContentSources.bytes(payload));
+        BinaryContentsDTO plain = new BinaryContentsDTO();
+        plain.setContents(payload);
+
+        assertSame(withSource.getSource(), ContentSources.of(withSource));
+        assertEquals(expected, ContentSources.base64(ContentSources.of(plain)));
+        assertNull(ContentSources.of(new BinaryContentsDTO()));
+
+        ContentSources.release(List.of(withSource, plain));
+        ContentSources.release(List.of(withSource, plain));
+        assertEquals(0, withSource.getSource().refCnt());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
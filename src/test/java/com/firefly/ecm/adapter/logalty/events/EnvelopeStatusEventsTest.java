@@ -0,0 +1,167 @@
+package com.firefly.ecm.adapter.logalty.events;
+
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged.Source.CALLBACK;
+import static com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged.Source.RECONCILIATION;
+import static com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged.Source.SYNC;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvelopeStatusEventsTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private StatusEventsProperties properties;
+    private EnvelopeStatusEvents events;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StatusEventsProperties();
+        properties.setEnabled(true);
+        events = new EnvelopeStatusEvents(properties, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void observed_publishesOnlyChangedStatuses() {
+        UUID envelope = UUID.randomUUID();
+
+        StepVerifier.create(events.stream())
+                .then(() -> {
+                    events.observed(envelope, "acme", "EXT-1", EnvelopeStatus.SENT, SYNC);
+                    assertNull(events.observed(envelope, "acme", "EXT-1", EnvelopeStatus.SENT, SYNC));
+                    events.observed(envelope, "acme", "EXT-1", EnvelopeStatus.COMPLETED, CALLBACK);
+                })
+                .expectNext(new EnvelopeStatusChanged(envelope, "acme", "EXT-1", null, EnvelopeStatus.SENT, SYNC, NOW))
+                .expectNext(new EnvelopeStatusChanged(envelope, "acme", "EXT-1", EnvelopeStatus.SENT, EnvelopeStatus.COMPLETED, CALLBACK, NOW))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1.0, registry.get("logalty.status.events.published").tag("source", "callback").counter().count());
+        assertEquals(0, events.subscribers());
+    }
+
+    @Test
+    void stream_deliversOffTheDetectorThreadSoABlockedSubscriberDoesNotBlockDetectors() throws InterruptedException {
+        Thread detector = Thread.currentThread();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        List<Thread> deliveredOn = new CopyOnWriteArrayList<>();
+        Disposable subscription = events.stream().subscribe(event -> {
+            deliveredOn.add(Thread.currentThread());
+            assertDoesNotThrow(() -> release.await(5, TimeUnit.SECONDS));
+            delivered.countDown();
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            events.observed(UUID.randomUUID(), "acme", "EXT-1", EnvelopeStatus.SENT, SYNC);
+            events.observed(UUID.randomUUID(), "acme", "EXT-2", EnvelopeStatus.SENT, SYNC);
+        });
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        subscription.dispose();
+        assertFalse(deliveredOn.contains(detector));
+    }
+
+    @Test
+    void observed_usesKnownPreviousStatusOnlyForUntrackedEnvelopes() {
+        UUID envelope = UUID.randomUUID();
+
+        EnvelopeStatusChanged first = events.observed(envelope, null, "EXT-1",
+                EnvelopeStatus.SENT, EnvelopeStatus.COMPLETED, RECONCILIATION);
+        assertEquals(EnvelopeStatus.SENT, first.previousStatus());
+        assertEquals("default", first.tenantId());
+
+        assertNull(events.observed(envelope, null, "EXT-1",
+                EnvelopeStatus.SENT, EnvelopeStatus.COMPLETED, RECONCILIATION));
+        assertNull(events.observed(UUID.randomUUID(), null, "EXT-2",
+                EnvelopeStatus.SENT, EnvelopeStatus.SENT, RECONCILIATION));
+    }
+
+    @Test
+    void stream_filtersByEnvelopeTenantAndStatus() {
+        UUID mine = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        StepVerifier.create(events.stream(EnvelopeStatusFilter.any()
+                        .envelopes(mine, other)
+                        .tenants("acme")
+                        .statuses(EnvelopeStatus.COMPLETED)))
+                .then(() -> {
+                    events.observed(mine, "acme", "EXT-1", EnvelopeStatus.SENT, SYNC);
+                    events.observed(other, "globex", "EXT-2", EnvelopeStatus.COMPLETED, SYNC);
+                    events.observed(UUID.randomUUID(), "acme", "EXT-3", EnvelopeStatus.COMPLETED, SYNC);
+                    events.observed(mine, "acme", "EXT-1", EnvelopeStatus.COMPLETED, CALLBACK);
+                })
+                .assertNext(event -> {
+                    assertEquals(mine, event.envelopeId());
+                    assertEquals(EnvelopeStatus.COMPLETED, event.status());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void stream_slowSubscriberLosesItsOldestEventsWithoutHoldingBackOthers() throws InterruptedException {
+        CountDownLatch fast = new CountDownLatch(5);
+        Disposable fastSubscription = events.stream().subscribe(event -> fast.countDown());
+        properties.setBufferSize(2);
+
+        List<UUID> envelopes = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        // The first event is already being handed over, the next ones wait in the buffer of two
+        StepVerifier.create(events.stream(), 0)
+                .then(() -> envelopes.forEach(id -> events.observed(id, "acme", null, EnvelopeStatus.SENT, SYNC)))
+                .thenRequest(3)
+                .assertNext(event -> assertEquals(envelopes.get(0), event.envelopeId()))
+                .assertNext(event -> assertEquals(envelopes.get(3), event.envelopeId()))
+                .assertNext(event -> assertEquals(envelopes.get(4), event.envelopeId()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertTrue(fast.await(5, TimeUnit.SECONDS));
+        fastSubscription.dispose();
+        assertEquals(2.0, registry.get("logalty.status.events.dropped").counter().count());
+    }
+
+    @Test
+    void observed_disabled_publishesNothing() {
+        properties.setEnabled(false);
+        List<EnvelopeStatusChanged> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = events.stream().subscribe(received::add);
+
+        assertNull(events.observed(UUID.randomUUID(), "acme", "EXT-1", EnvelopeStatus.SENT, SYNC));
+        subscription.dispose();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void observed_forgetsLeastRecentlySeenEnvelopesBeyondTheLimit() {
+        properties.setMaxTrackedEnvelopes(1);
+        UUID first = UUID.randomUUID();
+
+        events.observed(first, "acme", "EXT-1", EnvelopeStatus.SENT, SYNC);
+        events.observed(UUID.randomUUID(), "acme", "EXT-2", EnvelopeStatus.SENT, SYNC);
+
+        EnvelopeStatusChanged again = events.observed(first, "acme", "EXT-1", EnvelopeStatus.SENT, SYNC);
+        assertNotNull(again);
+        assertNull(again.previousStatus());
+    }
+}
@@ -0,0 +1,179 @@
+package com.firefly.ecm.adapter.logalty.expiry;
+
+import com.firefly.ecm.adapter.logalty.ExpiryProperties;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorCheckpoint;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExpirySweeperTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemorySource source = new InMemorySource();
+    private final Map<String, RuntimeException> failures = new HashMap<>();
+    private ExpiryProperties properties;
+    private ReactiveSignatureService signatureService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExpiryProperties();
+        properties.setCheckpointDirectory(dir.toString());
+        properties.setPageSize(2);
+        properties.setCheckpointEvery(2);
+        properties.setAlreadyCancelledCodes(List.of("4"));
+
+        signatureService = mock(ReactiveSignatureService.class);
+        when(signatureService.initCancel(anyString(), anyString(), eq("Expired"))).thenAnswer(invocation -> {
+            RuntimeException failure = failures.get(invocation.<String>getArgument(1));
+            return failure != null
+                    ? Mono.error(failure)
+                    : Mono.just(mock(CancelResponseDocument.CancelResponse.class));
+        });
+
+        for (int i = 1; i <= 5; i++) {
+            source.add("c" + i, "EXT-" + i);
+        }
+    }
+
+    @Test
+    void sweep_cancelsEveryPageAndClearsCheckpoint() throws IOException {
+        StepVerifier.create(sweeper().sweep())
+                .assertNext(report -> {
+                    assertEquals(5, report.cancelled());
+                    assertEquals(5, report.processed());
+                    assertFalse(report.resumed());
+                })
+                .verifyComplete();
+
+        assertEquals(List.of("c1", "c2", "c3", "c4", "c5"), source.voided);
+        assertEquals(3, source.pagesRead);
+        assertTrue(new CursorCheckpoint(dir, "sweep").load().isEmpty());
+        assertEquals(5.0, registry.get("logalty.expiry.envelopes").tag("outcome", "cancelled").counter().count());
+        verify(signatureService).initCancel("acme", "EXT-3", "Expired");
+    }
+
+    @Test
+    void sweep_countsAlreadyCancelledAsDone_andFailuresDoNotStopIt() {
+        failures.put("EXT-2", new LogaltyCallException("rejected", "EXT-2", "code=4", null));
+        failures.put("EXT-4", new LogaltyCallException("rejected", "EXT-4", "code=9", null));
+
+        StepVerifier.create(sweeper().sweep())
+                .assertNext(report -> {
+                    assertEquals(3, report.cancelled());
+                    assertEquals(1, report.alreadyCancelled());
+                    assertEquals(1, report.failed());
+                })
+                .verifyComplete();
+
+        assertEquals(List.of("c1", "c2", "c3", "c5"), source.voided);
+        assertEquals(1.0, registry.get("logalty.expiry.envelopes").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void sweep_interruptedByRateLimit_keepsCheckpointAndNextSweepResumesFromIt() throws IOException {
+        properties.setConcurrency(1);
+        failures.put("EXT-4", new LogaltyRateLimitException("CANCEL", "acme"));
+        ExpirySweeper sweeper = sweeper();
+
+        StepVerifier.create(sweeper.sweep()).verifyError(LogaltyRateLimitException.class);
+
+        CursorCheckpoint.State saved = new CursorCheckpoint(dir, "sweep").load().orElseThrow();
+        assertEquals("c2", saved.cursor());
+
+        failures.clear();
+        StepVerifier.create(sweeper.sweep())
+                .assertNext(report -> {
+                    assertTrue(report.resumed());
+                    assertEquals(3, report.cancelled());
+                })
+                .verifyComplete();
+
+        assertEquals(saved.startedAt(), source.lastDeadline);
+        assertEquals(List.of("c1", "c2", "c3", "c3", "c4", "c5"), source.voided);
+    }
+
+    @Test
+    void sweep_stopsAtMaxCancellations() {
+        properties.setMaxCancellationsPerSweep(3);
+
+        StepVerifier.create(sweeper().sweep())
+                .assertNext(report -> assertEquals(3, report.processed()))
+                .verifyComplete();
+
+        assertEquals(List.of("c1", "c2", "c3"), source.voided);
+    }
+
+    @Test
+    void sweep_unreadableCheckpoint_startsOver() throws IOException {
+        Files.writeString(dir.resolve("sweep.checkpoint"), "startedAt=yesterday\ncursor=c3\n");
+
+        StepVerifier.create(sweeper().sweep())
+                .assertNext(report -> {
+                    assertFalse(report.resumed());
+                    assertEquals(5, report.cancelled());
+                })
+                .verifyComplete();
+
+        assertTrue(new CursorCheckpoint(dir, "sweep").load().isEmpty());
+    }
+
+    private ExpirySweeper sweeper() {
+        return new ExpirySweeper(properties, source, signatureService, registry,
+                new EnvelopeStatusEvents(new StatusEventsProperties(), registry));
+    }
+
+    private static final class InMemorySource implements StaleEnvelopeSource {
+
+        private final List<StaleEnvelope> envelopes = new ArrayList<>();
+        private final List<String> voided = new CopyOnWriteArrayList<>();
+        private int pagesRead;
+        private Instant lastDeadline;
+
+        void add(String cursor, String externalId) {
+            envelopes.add(new StaleEnvelope(UUID.randomUUID(), "acme", externalId, cursor));
+        }
+
+        @Override
+        public Flux<StaleEnvelope> findStale(Instant deadline, String afterCursor, int limit) {
+            pagesRead++;
+            lastDeadline = deadline;
+            return Flux.fromIterable(envelopes)
+                    .filter(e -> afterCursor == null || e.cursor().compareTo(afterCursor) > 0)
+                    .take(limit);
+        }
+
+        @Override
+        public Mono<Void> markVoided(StaleEnvelope envelope) {
+            return Mono.fromRunnable(() -> voided.add(envelope.cursor()));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.firefly.ecm.adapter.logalty.flightrecorder;
+
+import com.firefly.ecm.adapter.logalty.FlightRecorderProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogaltyFlightRecorderTest {
+
+    private FlightRecorderProperties props;
+    private LogaltyFlightRecorder recorder;
+
+    @BeforeEach
+    void init() {
+        props = new FlightRecorderProperties();
+        props.setExchangesPerOperation(3);
+        props.setSnapshotChars(256);
+        props.setSlowThreshold(Duration.ofHours(1));
+        recorder = new LogaltyFlightRecorder(props);
+    }
+
+    @Test
+    void ringBuffer_keepsLastExchangesPerOperation_newestFirst() {
+        for (int i = 0; i < 5; i++) {
+            record("id-" + i, "INCOMING_OPERATION");
+        }
+        record("cancel", "CANCEL_REQUEST_OPERATION");
+
+        List<ExchangeRecord> incoming = recorder.recent("INCOMING_OPERATION");
+        assertEquals(List.of("id-4", "id-3", "id-2"), incoming.stream().map(ExchangeRecord::id).toList());
+        assertEquals(1, recorder.recent("CANCEL_REQUEST_OPERATION").size());
+        assertEquals(ExchangeRecord.SUCCESS, incoming.get(0).outcome());
+        assertTrue(incoming.get(0).postMillis() >= 0);
+    }
+
+    @Test
+    void snapshots_areTruncatedAndRedacted() {
+        props.setSnapshotChars(1024);
+        String base64 = "QUJD".repeat(10_000);
+        LogaltyFlightRecorder.Exchange exchange = recorder.begin("big");
+        recorder.tagOperation("INCOMING_OPERATION");
+        exchange.built("<pt:request><pt:email>jane@example.com</pt:email><pt:content>" + base64 + "</pt:content></pt:request>");
+        exchange.posted("<response>" + "x ".repeat(2_000) + "</response>");
+        exchange.parsed();
+        exchange.rejected("code=99");
+
+        ExchangeRecord record = recorder.recent("INCOMING_OPERATION").get(0);
+        assertEquals(ExchangeRecord.REJECTED, record.outcome());
+        assertEquals("code=99", record.error());
+        assertFalse(record.request().contains("jane@example.com"));
+        assertTrue(record.request().contains("[base64 40000 chars]"));
+        assertTrue(record.response().length() < 1100);
+        assertTrue(record.requestChars() > 40_000);
+    }
+
+    @Test
+    void utf8Payloads_areSnapshotFromTheirStartAndReleasedOnCompletion() {
+        props.setSnapshotChars(64);
+        String request = "<pt:request><pt:name>Jos\u00e9</pt:name><pt:subject>Contrato</pt:subject>" + "<pt:x/>".repeat(2_000) + "</pt:request>";
+        ContentSource requestBytes = ContentSources.utf8(request);
+        ContentSource responseBytes = ContentSources.utf8("<response>ok</response>");
+        LogaltyFlightRecorder.Exchange exchange = recorder.begin("bytes");
+        recorder.tagOperation("INCOMING_OPERATION");
+        exchange.built(requestBytes);
+        exchange.posted(responseBytes);
+        requestBytes.release();
+        responseBytes.release();
+        exchange.parsed();
+        exchange.succeeded();
+
+        ExchangeRecord record = recorder.recent("INCOMING_OPERATION").get(0);
+        assertFalse(record.request().contains("Jos\u00e9"));
+        assertTrue(record.request().startsWith("<pt:request><pt:name>***</pt:name>"));
+        assertTrue(record.request().endsWith(" bytes]"));
+        assertEquals(request.getBytes(StandardCharsets.UTF_8).length, record.requestChars());
+        assertEquals("<response>ok</response>", record.response());
+        assertEquals(0, requestBytes.refCnt());
+        assertEquals(0, responseBytes.refCnt());
+    }
+
+    @Test
+    void slowExchanges_areKeptSeparately() {
+        props.setSlowThreshold(Duration.ZERO);
+        record("slow-1", "SIGNED_BINARY_OPERATION");
+
+        assertEquals("slow-1", recorder.slow().get(0).id());
+    }
+
+    @Test
+    void failedBeforePost_hasNoPostTiming_andUnknownOperation() {
+        LogaltyFlightRecorder.Exchange exchange = recorder.begin("broken");
+        exchange.failed(new IllegalStateException("cannot sign"));
+        exchange.succeeded();
+
+        ExchangeRecord record = recorder.recent(LogaltyFlightRecorder.UNKNOWN_OPERATION).get(0);
+        assertEquals(ExchangeRecord.ERROR, record.outcome());
+        assertEquals(-1, record.postMillis());
+        assertTrue(record.error().contains("cannot sign"));
+    }
+
+    @Test
+    void disabled_recordsNothing() {
+        props.setEnabled(false);
+        record("ignored", "INCOMING_OPERATION");
+
+        assertTrue(recorder.recent().isEmpty());
+    }
+
+    private void record(String id, String operation) {
+        LogaltyFlightRecorder.Exchange exchange = recorder.begin(id);
+        recorder.tagOperation(operation);
+        exchange.built("<request/>");
+        exchange.posted("<response/>");
+        exchange.parsed();
+        exchange.succeeded();
+    }
+}
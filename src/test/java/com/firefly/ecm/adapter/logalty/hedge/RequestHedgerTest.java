@@ -0,0 +1,229 @@
+package com.firefly.ecm.adapter.logalty.hedge;
+
+import com.firefly.ecm.adapter.logalty.HedgeProperties;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private HedgeProperties properties;
+    private RateLimitProperties rateLimitProperties;
+    private LogaltyRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HedgeProperties();
+        properties.setEnabled(true);
+        properties.setPercentile(0);
+        properties.setDelay(Duration.ofSeconds(1));
+        rateLimitProperties = new RateLimitProperties();
+        rateLimiter = new LogaltyRateLimiter(rateLimitProperties, registry);
+    }
+
+    @Test
+    void hedge_slowFirstAttempt_isOvertakenByTheHedgeAndCancelled() {
+        AtomicBoolean firstCancelled = new AtomicBoolean();
+        Mono<String> request = attempts(
+                () -> Mono.delay(Duration.ofSeconds(15)).thenReturn("slow").doOnCancel(() -> firstCancelled.set(true)),
+                () -> Mono.delay(Duration.ofMillis(300)).thenReturn("fast"));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_STATUS, request))
+                .thenAwait(Duration.ofMillis(1300))
+                .expectNext("fast")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertTrue(firstCancelled.get());
+        assertEquals(1.0, count("logalty.hedge.sent"));
+        assertEquals(1.0, count("logalty.hedge.wins"));
+        assertEquals(1.0, registry.get("logalty.hedge.win.rate").tag("operation", "GET_STATUS").gauge().value());
+    }
+
+    @Test
+    void hedge_answerBeforeTheDelay_sendsNoHedge() {
+        Mono<String> request = attempts(() -> Mono.delay(Duration.ofMillis(200)).thenReturn("first"));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_ENVELOPE, request))
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, registry.get("logalty.hedge.requests").tag("operation", "GET_ENVELOPE").counter().count());
+        assertEquals(0.0, registry.get("logalty.hedge.rate").tag("operation", "GET_ENVELOPE").gauge().value());
+    }
+
+    @Test
+    void hedge_failureBeforeTheDelay_failsAtOnce() {
+        Mono<String> request = attempts(() -> Mono.error(new LogaltyCallException("rejected")));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_STATUS, request))
+                .expectSubscription()
+                .expectError(LogaltyCallException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void hedge_failureWhileTheHedgeIsInFlight_waitsForTheHedge() {
+        Mono<String> request = attempts(
+                () -> Mono.delay(Duration.ofSeconds(2)).then(Mono.error(new LogaltyCallException("timeout"))),
+                () -> Mono.delay(Duration.ofMillis(1500)).thenReturn("hedged"));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_CERTIFICATE, request))
+                .thenAwait(Duration.ofMillis(2500))
+                .expectNext("hedged")
+                .verifyComplete();
+    }
+
+    @Test
+    void hedge_bothAttemptsFail_reportsTheFirstFailure() {
+        Mono<String> request = attempts(
+                () -> Mono.delay(Duration.ofSeconds(2)).then(Mono.error(new LogaltyCallException("first"))),
+                () -> Mono.delay(Duration.ofSeconds(2)).then(Mono.error(new IllegalStateException("second"))));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_STATUS, request))
+                .thenAwait(Duration.ofSeconds(3))
+                .expectErrorMessage("first")
+                .verify();
+    }
+
+    @Test
+    void hedge_exhaustedBudget_waitsForTheFirstAttempt() {
+        properties.setBudgetBurst(1);
+        properties.setBudgetRatio(0);
+        RequestHedger hedger = new RequestHedger(properties, rateLimiter, registry);
+
+        for (String expected : List.of("first", "second")) {
+            attempts.set(0);
+            Mono<String> request = attempts(() -> Mono.delay(Duration.ofSeconds(3)).thenReturn(expected),
+                    () -> Mono.delay(Duration.ofSeconds(3)).thenReturn("hedged"));
+            StepVerifier.withVirtualTime(() -> hedger.hedge(LogaltyOperation.GET_STATUS, request))
+                    .thenAwait(Duration.ofSeconds(3))
+                    .expectNext(expected)
+                    .verifyComplete();
+        }
+
+        assertEquals(1.0, count("logalty.hedge.sent"));
+        assertEquals(1.0, count("logalty.hedge.skipped"));
+    }
+
+    @Test
+    void hedge_disabledOrUnlistedOperation_sendsTheRequestOnce() {
+        Mono<String> request = attempts(() -> Mono.delay(Duration.ofSeconds(3)).thenReturn("read"));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.CANCEL, request))
+                .thenAwait(Duration.ofSeconds(3))
+                .expectNext("read")
+                .verifyComplete();
+        properties.setEnabled(false);
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, new SimpleMeterRegistry())
+                        .hedge(LogaltyOperation.GET_STATUS, request))
+                .thenAwait(Duration.ofSeconds(3))
+                .expectNext("read")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void hedge_noPermitAvailableAtOnce_waitsForTheFirstAttempt() {
+        rateLimitProperties.getOperations().put(LogaltyOperation.GET_STATUS, bucket(1, Duration.ofMinutes(1)));
+        Mono<String> request = attempts(() -> Mono.delay(Duration.ofSeconds(3)).thenReturn("first"),
+                () -> Mono.delay(Duration.ofMillis(300)).thenReturn("hedged"));
+
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_STATUS, request))
+                .thenAwait(Duration.ofSeconds(3))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, count("logalty.hedge.sent"));
+        assertEquals(1.0, count("logalty.hedge.skipped"));
+    }
+
+    @Test
+    void hedge_firstAttemptQueuedInTheLimiter_isNotHedgedWhileItWaits() {
+        rateLimitProperties.getOperations().put(LogaltyOperation.GET_STATUS, bucket(1, Duration.ofSeconds(2)));
+        rateLimiter.acquire(LogaltyOperation.GET_STATUS, TenantContext.DEFAULT_TENANT).block();
+        Mono<String> request = attempts(() -> Mono.delay(Duration.ofMillis(500)).thenReturn("first"),
+                () -> Mono.delay(Duration.ofMillis(100)).thenReturn("hedged"));
+
+        // Queued for about 2s, twice the hedge delay, then answered within it
+        StepVerifier.withVirtualTime(() -> new RequestHedger(properties, rateLimiter, registry).hedge(LogaltyOperation.GET_STATUS, request))
+                .thenAwait(Duration.ofSeconds(3))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, count("logalty.hedge.sent"));
+    }
+
+    @Test
+    void delay_followsThePercentileOfRecentLatencies() {
+        properties.setPercentile(0.9);
+        properties.setWindow(10);
+        properties.setMinSamples(10);
+        properties.setMinDelay(Duration.ofMillis(50));
+        AtomicLong clock = new AtomicLong();
+        RequestHedger hedger = new RequestHedger(properties, rateLimiter, registry, clock::get);
+
+        for (int i = 1; i <= 10; i++) {
+            long latency = TimeUnit.MILLISECONDS.toNanos(i == 10 ? 5_000 : 100 + i);
+            hedger.hedge(LogaltyOperation.GET_STATUS, Mono.fromCallable(() -> clock.addAndGet(latency))).block();
+            if (i < 10) {
+                assertEquals(Duration.ofSeconds(1), hedger.delay(LogaltyOperation.GET_STATUS));
+            }
+        }
+        assertEquals(Duration.ofMillis(109), hedger.delay(LogaltyOperation.GET_STATUS));
+
+        for (int i = 0; i < 10; i++) {
+            hedger.hedge(LogaltyOperation.GET_STATUS, Mono.fromCallable(() -> clock.addAndGet(1_000))).block();
+        }
+        assertEquals(Duration.ofMillis(50), hedger.delay(LogaltyOperation.GET_STATUS));
+        assertNull(hedger.delay(LogaltyOperation.CANCEL));
+    }
+
+    /**
+     * A request answered by the n-th supplier on its n-th subscription, the last one after
+     * that; built on subscription so delays run on the virtual clock.
+     */
+    @SafeVarargs
+    private Mono<String> attempts(Supplier<Mono<String>>... byAttempt) {
+        return Mono.defer(() -> byAttempt[Math.min(attempts.getAndIncrement(), byAttempt.length - 1)].get());
+    }
+
+    private RateLimitProperties.Bucket bucket(int capacity, Duration refillPeriod) {
+        rateLimitProperties.setEnabled(true);
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(capacity);
+        bucket.setRefillTokens(capacity);
+        bucket.setRefillPeriod(refillPeriod);
+        return bucket;
+    }
+
+    private double count(String name) {
+        return registry.get(name).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,113 @@
+package com.firefly.ecm.adapter.logalty.jfr;
+
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.webservice.Operation;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LogaltyEventsTest {
+
+    private static final List<String> EVENTS = List.of("Operation", "Build", "Sign", "Post", "Parse");
+
+    @TempDir
+    Path dir;
+
+    private XmlSignInterface signer;
+    private LogaltyCommonService service;
+
+    @BeforeEach
+    void init() {
+        signer = mock(XmlSignInterface.class);
+        service = LogaltyFixtures.commonService(new SignatureProperties(), signer,
+                (operation, xml, signer) -> "<response>accepted</response>");
+    }
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("javax.net.ssl.trustStore");
+        System.clearProperty("javax.net.ssl.trustStorePassword");
+        System.clearProperty("javax.net.ssl.trustStoreType");
+    }
+
+    @Test
+    void executeOperation_emitsPhaseEventsWithOperationEnvelopeAndOutcome() throws IOException {
+        UUID envelopeId = UUID.randomUUID();
+
+        Map<String, RecordedEvent> events = record(true, () -> LogaltyEvents.forEnvelope(envelopeId, () -> execute(r -> true)));
+
+        assertEquals(EVENTS.size(), events.size());
+        for (RecordedEvent event : events.values()) {
+            assertEquals(Operation.INCOMING_OPERATION.name(), event.getString("operation"));
+            assertEquals(envelopeId.toString(), event.getString("envelopeId"));
+            assertEquals(LogaltyEvents.SUCCESS, event.getString("outcome"));
+            assertEquals("<signed-request/>".length(), event.getLong("requestSize"));
+            assertEquals("<response>accepted</response>".length(), event.getLong("responseSize"));
+        }
+    }
+
+    @Test
+    void executeOperation_rejected_marksOutcomeAndFallsBackToOperationId() throws IOException {
+        Map<String, RecordedEvent> events = record(true, () ->
+                assertThrows(LogaltyCallException.class, () -> execute(r -> false)));
+
+        RecordedEvent operation = events.get("Operation");
+        assertEquals(LogaltyEvents.REJECTED, operation.getString("outcome"));
+        assertEquals("INIT_SIGNATURE", operation.getString("envelopeId"));
+    }
+
+    @Test
+    void disabled_recordsNothing() throws IOException {
+        Map<String, RecordedEvent> events = record(false, () -> execute(r -> true));
+
+        assertTrue(events.isEmpty());
+    }
+
+    private String execute(Function<String, Boolean> validator) {
+        return service.executeOperation(
+                signer,
+                () -> XmlPayload.text(LogaltyEvents.signed(() -> "<signed-request/>")),
+                (xml, s) -> service.post(Operation.INCOMING_OPERATION, xml, s),
+                XmlPayload::text,
+                validator,
+                r -> "rejected",
+                "INIT_SIGNATURE"
+        );
+    }
+
+    private Map<String, RecordedEvent> record(boolean enabled, Runnable body) throws IOException {
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                EVENTS.forEach(name -> recording.enable("com.firefly.ecm.logalty." + name));
+            }
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.firefly.ecm.logalty."))
+                .collect(Collectors.toMap(e -> e.getEventType().getName().substring("com.firefly.ecm.logalty.".length()), e -> e));
+    }
+}
@@ -0,0 +1,99 @@
+package com.firefly.ecm.adapter.logalty.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Machine-readable result of one scenario run, written as JSON so runs of different releases
+ * can be diffed or plotted.
+ */
+record LoadReport(
+        String scenario,
+        String version,
+        String javaVersion,
+        int availableProcessors,
+        Instant startedAt,
+        double offeredRatePerSecond,
+        double durationSeconds,
+        double throughputPerSecond,
+        long completed,
+        long errors,
+        int maxInFlight,
+        long allocatedBytes,
+        double allocationBytesPerSecond,
+        int liveThreads,
+        int peakThreads,
+        Map<String, OperationStats> operations
+) {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    record OperationStats(long count, long errors, double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    static LoadReport of(LoadScenario scenario,
+                         Instant startedAt,
+                         long elapsedNanos,
+                         Map<String, LatencyRecorder> recorders,
+                         int maxInFlight,
+                         SystemSampler.Sample system) {
+        Map<String, OperationStats> operations = new LinkedHashMap<>();
+        long completed = 0;
+        long errors = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Snapshot s = entry.getValue().snapshot();
+            operations.put(entry.getKey(), new OperationStats(
+                    s.count(), s.errors(),
+                    millis(s.percentile(50)), millis(s.percentile(99)), millis(s.percentile(99.9)), millis(s.max())));
+            completed += s.count();
+            errors += s.errors();
+        }
+        double seconds = elapsedNanos / 1e9;
+        return new LoadReport(
+                scenario.getName(),
+                System.getProperty("logalty.loadtest.version", "dev"),
+                System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors(),
+                startedAt,
+                scenario.getArrivalRatePerSecond(),
+                seconds,
+                seconds > 0 ? completed / seconds : 0,
+                completed,
+                errors,
+                maxInFlight,
+                system.allocatedBytes(),
+                system.allocationBytesPerSecond(),
+                system.liveThreads(),
+                system.peakThreads(),
+                operations
+        );
+    }
+
+    /**
+     * Writes the report as {@code <scenario>-<version>-<timestamp>.json} under {@code directory}.
+     */
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(startedAt);
+        Path file = directory.resolve(scenario + "-" + version + "-" + stamp + ".json");
+        JSON.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
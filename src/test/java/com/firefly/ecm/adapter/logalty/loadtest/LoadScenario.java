@@ -0,0 +1,46 @@
+package com.firefly.ecm.adapter.logalty.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * An open-model load test: requests arrive as a Poisson process at {@code arrivalRatePerSecond}
+ * regardless of how fast earlier ones complete, so a slow system sees a growing backlog
+ * instead of a politely reduced offered load.
+ */
+@Getter
+@Builder
+class LoadScenario {
+
+    private final String name;
+
+    private final double arrivalRatePerSecond;
+
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(10);
+
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(60);
+
+    // How long in-flight requests may take to finish after the last arrival
+    @Builder.Default
+    private final Duration drainTimeout = Duration.ofSeconds(30);
+
+    // Relative weight per operation name
+    @Singular
+    private final Map<String, Double> operations;
+
+    // Relative weight per document size in bytes, handed to operations that upload content
+    @Singular
+    private final Map<Integer, Double> documentSizes;
+
+    // Operation name -> call, given the document size drawn for this arrival
+    @Singular
+    private final Map<String, IntFunction<Mono<?>>> calls;
+}
@@ -0,0 +1,260 @@
+package com.firefly.ecm.adapter.logalty.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firefly.core.ecm.domain.model.esignature.SignatureEnvelope;
+import com.firefly.core.ecm.domain.model.esignature.SignatureRequest;
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.port.document.DocumentPort;
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.HedgeProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyAdapterProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.LogaltySignatureEnvelopeAdapter;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.expiry.StaleEnvelopeSource;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.mappers.SignatureMapper;
+import com.firefly.ecm.adapter.logalty.outbox.SignatureOutbox;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.firefly.ecm.adapter.logalty.standin.LatencyDistribution;
+import com.firefly.ecm.adapter.logalty.standin.LogaltyStandInServer;
+import com.firefly.ecm.adapter.logalty.standin.StandInBehavior;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.tenant.TenantTokenCache;
+import com.firefly.ecm.adapter.logalty.transport.SoapHttpTransport;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.sign.XmlSigner;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * End-to-end load tests of the adapter against {@link LogaltyStandInServer}.
+ *
+ * <p>Run with {@code mvn -P load-test test}. Tunables (system properties):</p>
+ * <ul>
+ *   <li>{@code logalty.loadtest.rate} - arrivals per second (default 50)</li>
+ *   <li>{@code logalty.loadtest.duration} / {@code logalty.loadtest.warmup} - ISO-8601 durations</li>
+ *   <li>{@code logalty.loadtest.cert-path} / {@code logalty.loadtest.cert-pin} - signing certificate
+ *       for the SOAP scenarios, which are skipped when the file does not exist</li>
+ *   <li>{@code logalty.loadtest.reports} - report directory (default {@code target/load-reports})</li>
+ * </ul>
+ */
+@Tag("load")
+@EnabledIfSystemProperty(named = "logalty.loadtest", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LogaltyAdapterLoadTest {
+
+    private static final int SEEDED_ENVELOPES = 200;
+
+    private LogaltyStandInServer server;
+    private LogaltySignatureEnvelopeAdapter adapter;
+    private SignatureService signatureService;
+    private boolean signingAvailable;
+    private List<UUID> envelopes;
+
+    @BeforeAll
+    void setUp() {
+        StandInBehavior behavior = new StandInBehavior();
+        behavior.setLatency(LatencyDistribution.logNormal(Duration.ofMillis(40), 0.5));
+        server = LogaltyStandInServer.start(behavior);
+
+        SignatureProperties signatureProperties = new SignatureProperties();
+        signatureProperties.setCertPath(System.getProperty("logalty.loadtest.cert-path", signatureProperties.getCertPath()));
+        signatureProperties.setCertPin(System.getProperty("logalty.loadtest.cert-pin", signatureProperties.getCertPin()));
+        signingAvailable = Files.isRegularFile(Paths.get(signatureProperties.getCertPath()));
+        XmlSignInterface signer = signingAvailable
+                ? new XmlSigner(signatureProperties.getCertPath(), signatureProperties.getCertPin().toCharArray())
+                : mock(XmlSignInterface.class);
+
+        LogaltyCommonService common = LogaltyFixtures.commonService(signatureProperties, signer,
+                new SoapHttpTransport(server.transportProperties()));
+        TenantProperties tenantProperties = new TenantProperties();
+        signatureService = LogaltyFixtures.signatureService(common, new TenantSignerRegistry(tenantProperties, signer));
+
+        LogaltyAdapterProperties properties = new LogaltyAdapterProperties();
+        properties.setBaseUrl(server.baseUrl());
+        properties.setClientId("load-test");
+        properties.setClientSecret("load-test");
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<SignatureOutbox> noOutbox = mock(ObjectProvider.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<StaleEnvelopeSource> noStaleEnvelopes = mock(ObjectProvider.class);
+        LogaltyRateLimiter rateLimiter = new LogaltyRateLimiter(new RateLimitProperties(), new SimpleMeterRegistry());
+        adapter = new LogaltySignatureEnvelopeAdapter(
+                WebClient.builder().baseUrl(server.baseUrl()).build(),
+                properties,
+                new ObjectMapper(),
+                mock(DocumentContentPort.class),
+                mock(DocumentPort.class),
+                CircuitBreaker.ofDefaults("load-test"),
+                Retry.ofDefaults("load-test"),
+                signatureService,
+                noOutbox,
+                rateLimiter,
+                new TenantTokenCache(properties, tenantProperties),
+                new MemoryAdmission(new AdmissionProperties(), new SimpleMeterRegistry()),
+                new EnvelopeStatusEvents(new StatusEventsProperties(), new SimpleMeterRegistry()),
+                new RequestHedger(new HedgeProperties(), rateLimiter, new SimpleMeterRegistry()),
+                noStaleEnvelopes
+        );
+
+        envelopes = Flux.range(0, SEEDED_ENVELOPES)
+                .flatMap(i -> adapter.createEnvelope(envelope()), 16)
+                .map(SignatureEnvelope::getId)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void envelopeMix() throws IOException {
+        assumeTrue(signingAvailable, "No signing certificate; set logalty.loadtest.cert-path");
+
+        run(scenario("envelope-mix")
+                .operation("sendToSign", 2.0)
+                .operation("getEnvelope", 5.0)
+                .operation("getSigningUrl", 3.0)
+                .call("sendToSign", size -> adapter.sendToSign(envelope()))
+                .call("getEnvelope", size -> adapter.getEnvelope(anyEnvelope()))
+                .call("getSigningUrl", size -> adapter.getSigningUrl(anyEnvelope(), "signer@example.com", "Signer", null))
+                .build());
+    }
+
+    @Test
+    void restReads() throws IOException {
+        run(scenario("rest-reads")
+                .operation("getEnvelope", 6.0)
+                .operation("getSigningUrl", 4.0)
+                .call("getEnvelope", size -> adapter.getEnvelope(anyEnvelope()))
+                .call("getSigningUrl", size -> adapter.getSigningUrl(anyEnvelope(), "signer@example.com", "Signer", null))
+                .build());
+    }
+
+    @Test
+    void signatureServiceMix() throws IOException {
+        assumeTrue(signingAvailable, "No signing certificate; set logalty.loadtest.cert-path");
+
+        run(scenario("signature-service-mix")
+                .operation("initSignature", 2.0)
+                .operation("getStatus", 5.0)
+                .operation("getCertificate", 1.5)
+                .operation("getSignedBinary", 1.5)
+                .documentSize(50 * 1024, 6.0)
+                .documentSize(500 * 1024, 3.0)
+                .documentSize(5 * 1024 * 1024, 1.0)
+                .call("initSignature", size -> blocking(() -> signatureService.initSignature(receivers(), List.of(pdf(size)))))
+                .call("getStatus", size -> blocking(() -> signatureService.getStatus(UUID.randomUUID().toString())))
+                .call("getCertificate", size -> blocking(() -> signatureService.getCertificate(UUID.randomUUID().toString())))
+                .call("getSignedBinary", size -> blocking(() -> signatureService.getSignedBinary(UUID.randomUUID().toString())))
+                .build());
+    }
+
+    private LoadScenario.LoadScenarioBuilder scenario(String name) {
+        return LoadScenario.builder()
+                .name(name)
+                .arrivalRatePerSecond(Double.parseDouble(System.getProperty("logalty.loadtest.rate", "50")))
+                .warmup(Duration.parse(System.getProperty("logalty.loadtest.warmup", "PT10S")))
+                .duration(Duration.parse(System.getProperty("logalty.loadtest.duration", "PT60S")));
+    }
+
+    private void run(LoadScenario scenario) throws IOException {
+        LoadReport report = new OpenModelLoadGenerator().run(scenario);
+        Path file = report.write(Paths.get(System.getProperty("logalty.loadtest.reports", "target/load-reports")));
+        System.out.printf("%s: %.1f/s offered, %.1f/s completed, %d errors -> %s%n",
+                report.scenario(), report.offeredRatePerSecond(), report.throughputPerSecond(), report.errors(), file);
+        report.operations().forEach((op, s) -> System.out.printf("  %-16s n=%d p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n",
+                op, s.count(), s.p50Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis()));
+    }
+
+    /**
+     * SignatureService is blocking; keep it off the pacing thread like production callers do.
+     */
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private UUID anyEnvelope() {
+        return envelopes.get(ThreadLocalRandom.current().nextInt(envelopes.size()));
+    }
+
+    private static SignatureEnvelope envelope() {
+        return SignatureEnvelope.builder()
+                .id(UUID.randomUUID())
+                .title("Load test envelope")
+                .signatureRequests(List.of(SignatureRequest.builder()
+                        .signerId(UUID.randomUUID())
+                        .signerName("Load Signer")
+                        .signerEmail("signer@example.com")
+                        .build()))
+                .build();
+    }
+
+    private static List<ReceiverDTO> receivers() {
+        return SignatureMapper.toReceiverDTOs(envelope().getSignatureRequests());
+    }
+
+    /**
+     * A syntactically minimal PDF padded to {@code size} bytes.
+     */
+    private static BinaryContentsDTO pdf(int size) {
+        byte[] header = "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] trailer = "\n%%EOF\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] contents = new byte[Math.max(size, header.length + trailer.length)];
+        Arrays.fill(contents, (byte) ' ');
+        System.arraycopy(header, 0, contents, 0, header.length);
+        System.arraycopy(trailer, 0, contents, contents.length - trailer.length, trailer.length);
+
+        BinaryContentsDTO binary = new BinaryContentsDTO();
+        binary.setBinaryContentId(1);
+        binary.setGroupId(1);
+        binary.setContents(contents);
+        binary.setEncoding("BASE64");
+        binary.setFilename("load-" + size);
+        binary.setExtension("pdf");
+        binary.setType("application/pdf");
+        return binary;
+    }
+}
@@ -0,0 +1,117 @@
+package com.firefly.ecm.adapter.logalty.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link LoadScenario} and produces a {@link LoadReport}.
+ *
+ * <p>Arrivals are scheduled on absolute times drawn from an exponential inter-arrival
+ * distribution and latency is measured from the <em>scheduled</em> arrival, not from when the
+ * call was actually issued. A generator that falls behind therefore still charges the delay
+ * to the system under test (no coordinated omission). Calls are subscribed, never blocked on,
+ * so the pacing thread keeps the offered rate even when the system saturates.</p>
+ */
+@Slf4j
+class OpenModelLoadGenerator {
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    LoadReport run(LoadScenario scenario) {
+        log.info("Load scenario '{}': warmup {} at {}/s", scenario.getName(), scenario.getWarmup(), scenario.getArrivalRatePerSecond());
+        drive(scenario, scenario.getWarmup().toNanos(), new LinkedHashMap<>(), new AtomicInteger());
+
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        scenario.getOperations().keySet().forEach(op -> recorders.put(op, new LatencyRecorder()));
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        log.info("Load scenario '{}': measuring {} at {}/s", scenario.getName(), scenario.getDuration(), scenario.getArrivalRatePerSecond());
+        SystemSampler sampler = new SystemSampler();
+        Instant startedAt = Instant.now();
+        sampler.start();
+        long elapsed = drive(scenario, scenario.getDuration().toNanos(), recorders, maxInFlight);
+        SystemSampler.Sample system = sampler.stop();
+
+        return LoadReport.of(scenario, startedAt, elapsed, recorders, maxInFlight.get(), system);
+    }
+
+    /**
+     * Offers load for {@code windowNanos} and waits for in-flight calls to drain.
+     *
+     * @return nanoseconds from the first arrival until the last call completed
+     */
+    private long drive(LoadScenario scenario,
+                       long windowNanos,
+                       Map<String, LatencyRecorder> recorders,
+                       AtomicInteger maxInFlight) {
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanGapNanos = 1e9 / scenario.getArrivalRatePerSecond();
+        List<Map.Entry<String, Double>> operations = List.copyOf(scenario.getOperations().entrySet());
+        List<Map.Entry<Integer, Double>> sizes = List.copyOf(scenario.getDocumentSizes().entrySet());
+
+        long start = System.nanoTime();
+        long end = start + windowNanos;
+        long next = start;
+        while (true) {
+            next += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (next >= end) {
+                break;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            String operation = pick(operations);
+            int size = sizes.isEmpty() ? 0 : pick(sizes);
+            LatencyRecorder recorder = recorders.get(operation);
+            long scheduled = next;
+
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            scenario.getCalls().get(operation).apply(size)
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .subscribe(
+                            value -> { },
+                            error -> {
+                                if (recorder != null) {
+                                    recorder.recordError();
+                                }
+                                log.debug("{} failed: {}", operation, error.getMessage());
+                            },
+                            () -> {
+                                if (recorder != null) {
+                                    recorder.record(System.nanoTime() - scheduled);
+                                }
+                            });
+        }
+
+        long drainDeadline = System.nanoTime() + scenario.getDrainTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (inFlight.get() > 0) {
+            log.warn("Load scenario '{}': {} call(s) still in flight after {}", scenario.getName(), inFlight.get(), scenario.getDrainTimeout());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private <T> T pick(List<Map.Entry<T, Double>> weighted) {
+        double total = weighted.stream().mapToDouble(Map.Entry::getValue).sum();
+        double point = random.nextDouble() * total;
+        for (Map.Entry<T, Double> entry : weighted) {
+            point -= entry.getValue();
+            if (point < 0) {
+                return entry.getKey();
+            }
+        }
+        return weighted.get(weighted.size() - 1).getKey();
+    }
+}
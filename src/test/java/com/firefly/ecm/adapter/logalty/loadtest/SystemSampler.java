@@ -0,0 +1,47 @@
+package com.firefly.ecm.adapter.logalty.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Allocation and thread figures for the measured window.
+ *
+ * <p>Allocation is the sum of per-thread allocated bytes, so bytes allocated by threads that
+ * died during the window are not counted; with pooled Reactor and Netty threads that is
+ * negligible.</p>
+ */
+class SystemSampler {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private long startNanos;
+    private long startAllocated;
+
+    void start() {
+        threads.resetPeakThreadCount();
+        startAllocated = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    Sample stop() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long allocated = allocatedBytes() - startAllocated;
+        return new Sample(
+                allocated,
+                seconds > 0 ? allocated / seconds : 0,
+                threads.getThreadCount(),
+                threads.getPeakThreadCount()
+        );
+    }
+
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            long[] perThread = hotspot.getThreadAllocatedBytes(threads.getAllThreadIds());
+            return Arrays.stream(perThread).filter(bytes -> bytes > 0).sum();
+        }
+        return -1;
+    }
+
+    record Sample(long allocatedBytes, double allocationBytesPerSecond, int liveThreads, int peakThreads) {
+    }
+}
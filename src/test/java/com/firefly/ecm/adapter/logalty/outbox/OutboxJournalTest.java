@@ -0,0 +1,139 @@
+package com.firefly.ecm.adapter.logalty.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void append_thenReopen_recoversPendingInOrder() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            journal.open();
+            journal.append(first, bytes("one"));
+            journal.append(second, bytes("two"));
+            journal.append(third, bytes("three"));
+            journal.ack(second);
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            List<UUID> pending = journal.open();
+            assertEquals(List.of(first, third), pending);
+            assertEquals("three", new String(journal.read(third), StandardCharsets.UTF_8));
+            assertNull(journal.read(second));
+        }
+    }
+
+    @Test
+    void open_truncatesTornTail() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            journal.open();
+            journal.append(id, bytes("payload"));
+        }
+
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2}));
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            assertEquals(List.of(id), journal.open());
+        }
+        assertEquals(intact, Files.size(segment));
+    }
+
+    @Test
+    void compact_removesFullyAckedSegmentsAndKeepsPending() throws IOException {
+        UUID kept = UUID.randomUUID();
+        try (OutboxJournal journal = new OutboxJournal(dir, 64, true)) {
+            journal.open();
+            journal.append(kept, bytes("kept-entry-payload"));
+            for (int i = 0; i < 5; i++) {
+                UUID id = UUID.randomUUID();
+                journal.append(id, bytes("acked-entry-payload-" + i));
+                journal.ack(id);
+            }
+            int before = journal.segmentCount();
+            assertTrue(before > 2);
+
+            assertTrue(journal.compact(0.75) > 0);
+            assertTrue(journal.segmentCount() < before);
+            assertTrue(journal.isPending(kept));
+            assertEquals("kept-entry-payload", new String(journal.read(kept), StandardCharsets.UTF_8));
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(dir, 64, true)) {
+            assertEquals(List.of(kept), journal.open());
+        }
+    }
+
+    @Test
+    void dead_retiresEntry() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            journal.open();
+            journal.append(id, bytes("x"));
+            journal.dead(id);
+            assertEquals(0, journal.pendingCount());
+        }
+        try (OutboxJournal journal = new OutboxJournal(dir, 1024 * 1024, true)) {
+            assertTrue(journal.open().isEmpty());
+        }
+    }
+
+    @Test
+    void attempt_countsSurviveReopenAndCompaction() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (OutboxJournal journal = new OutboxJournal(dir, 64, true)) {
+            journal.open();
+            journal.append(id, bytes("retried-entry-payload"));
+            for (int i = 0; i < 5; i++) {
+                UUID acked = UUID.randomUUID();
+                journal.append(acked, bytes("acked-entry-payload-" + i));
+                journal.ack(acked);
+            }
+            assertEquals(1, journal.attempt(id));
+            assertEquals(2, journal.attempt(id));
+            assertTrue(journal.compact(0.75) > 0);
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(dir, 64, true)) {
+            assertEquals(List.of(id), journal.open());
+            assertEquals(2, journal.attempts(id));
+            assertEquals(3, journal.attempt(id));
+            journal.dead(id);
+            assertEquals(0, journal.attempts(id));
+            assertEquals(0, journal.attempt(id));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
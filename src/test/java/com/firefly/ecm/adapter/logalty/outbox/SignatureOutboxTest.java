@@ -0,0 +1,168 @@
+package com.firefly.ecm.adapter.logalty.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firefly.core.ecm.domain.enums.esignature.EnvelopeStatus;
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.OutboxProperties;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusChanged;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRejectedException;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.services.SignatureService;
+import com.logalty.schema.ptrequest.ResultDocument;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SignatureOutboxTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<EnvelopeStatusChanged> events = new CopyOnWriteArrayList<>();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("outbox-test");
+    private OutboxProperties properties;
+    private SignatureService signatureService;
+    private EnvelopeStatusEvents statusEvents;
+    private Disposable subscription;
+    private SignatureOutbox outbox;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new OutboxProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setSyncOnAppend(false);
+        properties.setDispatchRatePerSecond(200);
+        properties.setMaxAttempts(3);
+        properties.setRetryBackoff(Duration.ofMillis(20));
+
+        StatusEventsProperties eventsProperties = new StatusEventsProperties();
+        eventsProperties.setEnabled(true);
+        statusEvents = new EnvelopeStatusEvents(eventsProperties, registry);
+        subscription = statusEvents.stream().subscribe(events::add);
+
+        signatureService = mock(SignatureService.class);
+        outbox = new SignatureOutbox(properties, signatureService, mock(LogaltyCommonService.class),
+                new ObjectMapper().findAndRegisterModules(), circuitBreaker,
+                new LogaltyRateLimiter(new RateLimitProperties(), registry),
+                new MemoryAdmission(new AdmissionProperties(), registry),
+                statusEvents);
+        outbox.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        outbox.stop();
+        subscription.dispose();
+    }
+
+    @Test
+    void dispatch_deliveredSubmission_isAckedAndPublishedAsSent() {
+        when(signatureService.initSignature(anyString(), anyList(), anyList()))
+                .thenReturn(mock(ResultDocument.Result.class));
+        UUID envelope = UUID.randomUUID();
+
+        outbox.enqueue("acme", envelope, receivers(), documents()).block();
+        await(() -> outbox.pendingCount() == 0);
+
+        verify(signatureService).initSignature(eq("acme"), anyList(), anyList());
+        await(() -> events.size() == 1);
+        assertEquals(envelope, events.get(0).envelopeId());
+        assertEquals("acme", events.get(0).tenantId());
+        assertEquals(EnvelopeStatus.SENT, events.get(0).status());
+    }
+
+    @Test
+    void dispatch_rejectedSubmission_isDeadLetteredWithoutRetry() {
+        when(signatureService.initSignature(anyString(), anyList(), anyList()))
+                .thenThrow(new LogaltyRejectedException("INIT_SIGNATURE", "invalid email"));
+
+        outbox.enqueue("acme", UUID.randomUUID(), receivers(), documents()).block();
+        await(() -> outbox.pendingCount() == 0);
+
+        verify(signatureService, times(1)).initSignature(anyString(), anyList(), anyList());
+        await(() -> events.size() == 1);
+        assertEquals(EnvelopeStatus.VOIDED, events.get(0).status());
+    }
+
+    @Test
+    void dispatch_transientFailure_isRetriedUntilMaxAttempts() {
+        when(signatureService.initSignature(anyString(), anyList(), anyList()))
+                .thenThrow(new LogaltyCallException("Error calling post"));
+
+        outbox.enqueue("acme", UUID.randomUUID(), receivers(), documents()).block();
+        await(() -> outbox.pendingCount() == 0);
+
+        verify(signatureService, times(3)).initSignature(anyString(), anyList(), anyList());
+    }
+
+    @Test
+    void dispatch_openCircuit_defersWithoutSpendingAttempts() throws InterruptedException {
+        when(signatureService.initSignature(anyString(), anyList(), anyList()))
+                .thenReturn(mock(ResultDocument.Result.class));
+        circuitBreaker.transitionToForcedOpenState();
+
+        outbox.enqueue("acme", UUID.randomUUID(), receivers(), documents()).block();
+        Thread.sleep(200);
+        assertEquals(1, outbox.pendingCount());
+        verifyNoInteractions(signatureService);
+
+        circuitBreaker.transitionToClosedState();
+        await(() -> outbox.pendingCount() == 0);
+        verify(signatureService, times(1)).initSignature(anyString(), anyList(), anyList());
+    }
+
+    private static List<ReceiverDTO> receivers() {
+        ReceiverDTO receiver = new ReceiverDTO();
+        receiver.setName("Ana");
+        receiver.setEmail("ana@example.com");
+        return List.of(receiver);
+    }
+
+    private static List<BinaryContentsDTO> documents() {
+        BinaryContentsDTO document = new BinaryContentsDTO();
+        document.setBinaryContentId(1);
+        document.setContents("%PDF-1.4".getBytes(StandardCharsets.US_ASCII));
+        return List.of(document);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.firefly.ecm.adapter.logalty.PreparationProperties;
+import com.firefly.ecm.adapter.logalty.PreflightProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentPreparerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private DocumentPreparer preparer;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        if (preparer != null) {
+            preparer.shutdown();
+        }
+    }
+
+    @Test
+    void prepare_inParallel_keepsInputOrderAndDigests() throws Exception {
+        preparer = new DocumentPreparer(properties(4), registry, preflight());
+        List<BinaryContentsDTO> documents = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        // Descending sizes, so later documents tend to finish first
+        for (int i = 0; i < 20; i++) {
+            byte[] bytes = randomBytes(200_000 - i * 9_000);
+            contents.add(bytes);
+            documents.add(document(100 + i, bytes));
+        }
+
+        List<PreparedDocument> prepared = preparer.prepare(documents);
+
+        assertEquals(IntStream.range(100, 120).boxed().toList(),
+                prepared.stream().map(PreparedDocument::binaryContentId).toList());
+        for (int i = 0; i < prepared.size(); i++) {
+            assertEquals(contents.get(i).length, prepared.get(i).sizeBytes());
+            assertEquals(sha256(contents.get(i)), prepared.get(i).digest());
+            assertNotNull(prepared.get(i).content());
+        }
+        assertEquals(20, registry.get("logalty.preparation.document").tag("phase", "encode").timer().count());
+        assertEquals(1, registry.get("logalty.preparation.envelope").timer().count());
+    }
+
+    @Test
+    void prepare_sequentialAndParallel_produceSameDigests() {
+        List<BinaryContentsDTO> documents = List.of(
+                document(1, randomBytes(10)), document(2, randomBytes(70_000)), document(3, randomBytes(1)));
+
+        preparer = new DocumentPreparer(properties(1), registry, preflight());
+        List<String> sequential = preparer.prepare(documents).stream().map(PreparedDocument::digest).toList();
+        preparer = new DocumentPreparer(properties(3), registry, preflight());
+        List<String> parallel = preparer.prepare(documents).stream().map(PreparedDocument::digest).toList();
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void prepare_emptyDocument_failsWithItsId() {
+        preparer = new DocumentPreparer(properties(4), registry, preflight());
+        List<BinaryContentsDTO> documents = List.of(
+                document(1, randomBytes(100)), document(2, new byte[0]), document(3, randomBytes(100)));
+
+        LogaltyCallException ex = assertThrows(LogaltyCallException.class, () -> preparer.prepare(documents));
+        assertTrue(ex.getMessage().contains("id=2"));
+    }
+
+    @Test
+    void prepare_withoutHashAlgorithm_skipsDigest() {
+        PreparationProperties properties = properties(1);
+        properties.setHashAlgorithm("");
+        preparer = new DocumentPreparer(properties, registry, preflight());
+
+        assertNull(preparer.prepare(List.of(document(1, randomBytes(10)))).get(0).digest());
+    }
+
+    private PdfPreflight preflight() {
+        return new PdfPreflight(new PreflightProperties(), registry, (PdfOptimizer) null);
+    }
+
+    private static PreparationProperties properties(int parallelism) {
+        PreparationProperties properties = new PreparationProperties();
+        properties.setParallelism(parallelism);
+        return properties;
+    }
+
+    private static BinaryContentsDTO document(int id, byte[] bytes) {
+        BinaryContentsDTO dto = new BinaryContentsDTO();
+        dto.setBinaryContentId(id);
+        dto.setSource(ContentSources.bytes(bytes));
+        dto.setEncoding("BASE64");
+        dto.setFilename("doc-" + id);
+        dto.setExtension("pdf");
+        dto.setType("application/pdf");
+        return dto;
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
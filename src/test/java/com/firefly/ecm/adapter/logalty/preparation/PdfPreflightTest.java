@@ -0,0 +1,141 @@
+package com.firefly.ecm.adapter.logalty.preparation;
+
+import com.firefly.ecm.adapter.logalty.PreflightProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.PdfPreflightException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfPreflightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PreflightProperties properties;
+    private PdfPreflight preflight;
+
+    @BeforeEach
+    void init() {
+        properties = new PreflightProperties();
+        properties.setEnabled(true);
+        preflight = new PdfPreflight(properties, registry, (PdfOptimizer) null);
+    }
+
+    @Test
+    void check_wellFormedPdf_returnsSameSource() throws Exception {
+        byte[] original;
+        try (InputStream in = getClass().getResourceAsStream("/pdf/original.pdf")) {
+            original = in.readAllBytes();
+        }
+        ContentSource source = ContentSources.bytes(original);
+        ContentSource minimal = ContentSources.bytes(pdf(""));
+
+        assertSame(source, preflight.check(document(), source));
+        assertSame(minimal, preflight.check(document(), minimal));
+        assertEquals(2, registry.get("logalty.preflight.bytes").tag("stage", "after").summary().count());
+    }
+
+    @Test
+    void check_trailingData_isTrimmedWithoutTouchingTheOriginal() {
+        byte[] clean = pdf("");
+        byte[] dirty = concat(clean, "garbage appended by a scanner".getBytes(StandardCharsets.US_ASCII));
+        ContentSource source = ContentSources.bytes(dirty);
+
+        ContentSource checked = preflight.check(document(), source);
+
+        assertNotSame(source, checked);
+        assertArrayEquals(clean, ContentSources.toByteArray(checked));
+        assertEquals(2, source.refCnt());
+        checked.release();
+        assertEquals(1, source.refCnt());
+        assertEquals(dirty.length, registry.get("logalty.preflight.bytes").tag("stage", "before").summary().totalAmount());
+        assertEquals(clean.length, registry.get("logalty.preflight.bytes").tag("stage", "after").summary().totalAmount());
+    }
+
+    @Test
+    void check_rejectsWhatLogaltyWouldReject() {
+        assertRejected("NOT_PDF", "just some text\n%%EOF\n".getBytes(StandardCharsets.US_ASCII));
+        assertRejected("TRUNCATED", Arrays.copyOf(pdf(""), pdf("").length - 8));
+        assertRejected("MALFORMED", withStartxref(999_999));
+        assertRejected("ENCRYPTED", pdf("/Encrypt 5 0 R"));
+
+        properties.setMaxDocumentBytes(10);
+        assertRejected("TOO_LARGE", pdf(""));
+        assertEquals(1, registry.get("logalty.preflight.rejected").tag("reason", "ENCRYPTED").counter().count());
+    }
+
+    @Test
+    void check_optimizerRunsOnlyForUnsignedPdfs() {
+        AtomicInteger calls = new AtomicInteger();
+        byte[] smaller = pdf("");
+        preflight = new PdfPreflight(properties, registry, pdf -> {
+            calls.incrementAndGet();
+            return ContentSources.bytes(smaller);
+        });
+
+        ContentSource unsigned = ContentSources.bytes(concat(pdf(""), "junk".getBytes(StandardCharsets.US_ASCII)));
+        ContentSource optimized = preflight.check(document(), unsigned);
+        assertArrayEquals(smaller, ContentSources.toByteArray(optimized));
+        assertEquals(1, unsigned.refCnt(), "intermediate slice must be released");
+
+        ContentSource signed = ContentSources.bytes(pdf("/ByteRange [0 10 20 30]"));
+        assertSame(signed, preflight.check(document(), signed));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void appliesTo_onlyPdfsWhenEnabled() {
+        BinaryContentsDTO xml = document();
+        xml.setExtension("xml");
+        xml.setType("text/xml");
+
+        assertTrue(preflight.appliesTo(document()));
+        assertFalse(preflight.appliesTo(xml));
+        properties.setEnabled(false);
+        assertFalse(preflight.appliesTo(document()));
+    }
+
+    private void assertRejected(String reason, byte[] content) {
+        PdfPreflightException ex = assertThrows(PdfPreflightException.class,
+                () -> preflight.check(document(), ContentSources.bytes(content)));
+        assertEquals(reason, ex.getReason());
+        assertEquals("7", ex.getReference());
+    }
+
+    private static BinaryContentsDTO document() {
+        BinaryContentsDTO dto = new BinaryContentsDTO();
+        dto.setBinaryContentId(7);
+        dto.setExtension("pdf");
+        dto.setType("application/pdf");
+        return dto;
+    }
+
+    /**
+     * Minimal single-object PDF with a classic cross-reference table and a correct startxref.
+     */
+    private static byte[] pdf(String trailerEntries) {
+        String body = "%PDF-1.4\n1 0 obj\n<< /Type /Catalog >>\nendobj\n";
+        return (body + "xref\n0 2\n0000000000 65535 f \n0000000009 00000 n \n"
+                + "trailer\n<< /Size 2 /Root 1 0 R " + trailerEntries + " >>\n"
+                + "startxref\n" + body.length() + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] withStartxref(long offset) {
+        String content = new String(pdf(""), StandardCharsets.US_ASCII);
+        return content.replaceFirst("startxref\n\\d+", "startxref\n" + offset).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
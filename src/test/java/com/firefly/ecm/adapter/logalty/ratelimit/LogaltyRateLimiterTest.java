@@ -0,0 +1,164 @@
+package com.firefly.ecm.adapter.logalty.ratelimit;
+
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.LogaltyOperation;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogaltyRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimitProperties props;
+    private SimpleMeterRegistry registry;
+    private AtomicLong clock;
+    private LogaltyRateLimiter limiter;
+
+    @BeforeEach
+    void init() {
+        props = new RateLimitProperties();
+        props.setEnabled(true);
+        props.setMaxWait(Duration.ofMillis(500));
+        registry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        limiter = new LogaltyRateLimiter(props, registry, clock::get);
+    }
+
+    @Test
+    void tokenBucket_reservesAgainstFutureRefills() {
+        TokenBucket bucket = new TokenBucket(2, 1, SECOND, 0);
+        assertEquals(0, bucket.reserve(0, SECOND));
+        assertEquals(0, bucket.reserve(0, SECOND));
+        assertEquals(SECOND, bucket.reserve(0, SECOND));
+        assertEquals(-1, bucket.reserve(0, SECOND));
+        assertEquals(0, bucket.reserve(3 * SECOND, 0));
+    }
+
+    @Test
+    void tokenBucket_cancelledReservationIsReturnedUntilItsSlot() {
+        TokenBucket bucket = new TokenBucket(1, 1, SECOND, 0);
+        assertEquals(0, bucket.reserve(0, 5 * SECOND));
+        assertEquals(SECOND, bucket.reserve(0, 5 * SECOND));
+        bucket.cancel(SECOND, 0);
+        assertEquals(SECOND, bucket.reserve(0, 5 * SECOND));
+
+        // At its slot the permit was used: nothing comes back
+        bucket.cancel(SECOND, SECOND);
+        assertEquals(SECOND, bucket.reserve(SECOND, 5 * SECOND));
+    }
+
+    @Test
+    void acquire_cancelledWhileWaiting_givesThePermitBack() {
+        props.setMaxWait(Duration.ofMinutes(5));
+        props.setDefaultOperation(bucket(1));
+        props.setDefaultTenant(bucket(1));
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "acme")).verifyComplete();
+        StepVerifier.withVirtualTime(() -> limiter.acquire(LogaltyOperation.GET_STATUS, "acme"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(30))
+                .thenCancel()
+                .verify();
+
+        // Queued behind the first permit only, not behind the cancelled one too
+        StepVerifier.withVirtualTime(() -> limiter.acquire(LogaltyOperation.GET_STATUS, "acme"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(59))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void acquire_disabled_isNoOp() {
+        props.setEnabled(false);
+        props.setDefaultOperation(bucket(1));
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS)).verifyComplete();
+        }
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    void acquire_rejectsWhenWaitExceedsDeadline() {
+        props.getOperations().put(LogaltyOperation.INIT_SIGNATURE, bucket(1));
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.INIT_SIGNATURE, "acme")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.INIT_SIGNATURE, "acme"))
+                .expectError(LogaltyRateLimitException.class)
+                .verify();
+
+        assertEquals(1.0, registry.get("logalty.ratelimit.rejected")
+                .tag("operation", "INIT_SIGNATURE").tag("tenant", "all").counter().count());
+    }
+
+    @Test
+    void acquire_tagsOnlyConfiguredTenantsByName() {
+        props.setTagTenants(true);
+        props.getTenants().put("acme", bucket(10));
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "acme")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "globex")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "initech")).verifyComplete();
+
+        assertEquals(1, registry.get("logalty.ratelimit.wait").tag("tenant", "acme").timer().count());
+        assertEquals(2, registry.get("logalty.ratelimit.wait").tag("tenant", "other").timer().count());
+    }
+
+    @Test
+    void acquire_bucketsAreIsolatedPerTenant() {
+        props.setDefaultOperation(bucket(1));
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "acme")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "globex")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS)
+                        .contextWrite(TenantContext.withTenant("acme")))
+                .expectError(LogaltyRateLimitException.class)
+                .verify();
+    }
+
+    @Test
+    void acquire_tenantBucketLimitsAcrossOperations() {
+        props.setDefaultTenant(bucket(1));
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "acme")).verifyComplete();
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_CERTIFICATE, "acme"))
+                .expectError(LogaltyRateLimitException.class)
+                .verify();
+    }
+
+    @Test
+    void acquire_waitsWithinDeadline() {
+        RateLimitProperties.Bucket fast = new RateLimitProperties.Bucket();
+        fast.setCapacity(1);
+        fast.setRefillTokens(10);
+        fast.setRefillPeriod(Duration.ofSeconds(1));
+        props.setDefaultOperation(fast);
+
+        StepVerifier.create(limiter.acquire(LogaltyOperation.GET_STATUS, "acme")).verifyComplete();
+        StepVerifier.withVirtualTime(() -> limiter.acquire(LogaltyOperation.GET_STATUS, "acme"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+
+        assertEquals(2, registry.get("logalty.ratelimit.wait").timer().count());
+    }
+
+    private static RateLimitProperties.Bucket bucket(int perMinute) {
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(perMinute);
+        bucket.setRefillTokens(perMinute);
+        bucket.setRefillPeriod(Duration.ofMinutes(1));
+        return bucket;
+    }
+}
@@ -0,0 +1,214 @@
+package com.firefly.ecm.adapter.logalty.reconcile;
+
+import com.firefly.ecm.adapter.logalty.ReconciliationProperties;
+import com.firefly.ecm.adapter.logalty.StatusEventsProperties;
+import com.firefly.ecm.adapter.logalty.checkpoint.CursorCheckpoint;
+import com.firefly.ecm.adapter.logalty.events.EnvelopeStatusEvents;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.services.ReactiveSignatureService;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument.DataStateExternalIdResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReconcilerTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemorySource source = new InMemorySource();
+    private final Map<String, String> logaltyStates = new HashMap<>();
+    private final Map<String, RuntimeException> failures = new HashMap<>();
+    private final List<String> checked = new CopyOnWriteArrayList<>();
+    private ReconciliationProperties properties;
+    private ReactiveSignatureService signatureService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReconciliationProperties();
+        properties.setCheckpointDirectory(dir.toString());
+        properties.setPageSize(2);
+        properties.setCheckpointEvery(2);
+        properties.setMaxRequestsPerSecond(0);
+        properties.setStateMapping(Map.of("SIGNED", "COMPLETED", "PENDING", "SENT"));
+
+        signatureService = mock(ReactiveSignatureService.class);
+        when(signatureService.getStatus(anyString(), anyString())).thenAnswer(invocation -> {
+            String externalId = invocation.getArgument(1);
+            checked.add(externalId);
+            RuntimeException failure = failures.get(externalId);
+            return failure != null ? Mono.error(failure) : Mono.just(status(logaltyStates.get(externalId)));
+        });
+    }
+
+    @Test
+    void reconcile_reportsMismatchesAndClearsCheckpoint() throws IOException {
+        source.add("c1", "EXT-1", "COMPLETED", "SIGNED");
+        source.add("c2", "EXT-2", "SENT", "SIGNED");
+        source.add("c3", "EXT-3", "SENT", "EXPIRED");
+        source.add("c4", "EXT-4", "SENT", "PENDING");
+        source.add("c5", "EXT-5", "SENT", "PENDING");
+        failures.put("EXT-4", new LogaltyCallException("rejected", "EXT-4", "code=9", null));
+
+        StepVerifier.create(reconciler("pod-a").reconcile())
+                .assertNext(report -> {
+                    assertEquals(2, report.matched());
+                    assertEquals(1, report.mismatched());
+                    assertEquals(1, report.unmapped());
+                    assertEquals(1, report.failed());
+                    assertEquals(5, report.checked());
+                    assertTrue(report.complete());
+                    Mismatch mismatch = report.mismatches().get(0);
+                    assertEquals("EXT-2", mismatch.externalId());
+                    assertEquals("SENT", mismatch.localState());
+                    assertEquals("COMPLETED", mismatch.expectedState());
+                })
+                .verifyComplete();
+
+        assertEquals(List.of("EXT-2"), source.mismatched);
+        assertTrue(new CursorCheckpoint(dir, "reconciliation").load().isEmpty());
+        assertEquals(1.0, registry.get("logalty.reconciliation.envelopes").tag("outcome", "mismatched").counter().count());
+    }
+
+    @Test
+    void reconcile_splitsEnvelopesAcrossMembersWithoutOverlap() {
+        for (int i = 0; i < 60; i++) {
+            source.add(String.format("c%03d", i), "EXT-" + i, "SENT", "PENDING");
+        }
+        properties.setMembers(List.of("pod-a", "pod-b", "pod-c"));
+
+        long skipped = 0;
+        for (String member : properties.getMembers()) {
+            properties.setCheckpointDirectory(dir.resolve(member).toString());
+            ReconciliationReport report = reconciler(member).reconcile().block();
+            assertNotNull(report);
+            assertTrue(report.matched() > 0, member + " checked nothing");
+            skipped += report.skipped();
+        }
+
+        assertEquals(60, checked.size());
+        assertEquals(60, new HashSet<>(checked).size());
+        assertEquals(120, skipped);
+    }
+
+    @Test
+    void shardRing_movesFewIdsWhenAMemberJoins() {
+        ShardRing three = new ShardRing(List.of("pod-a", "pod-b", "pod-c"), 128);
+        ShardRing four = new ShardRing(List.of("pod-a", "pod-b", "pod-c", "pod-d"), 128);
+
+        int moved = 0;
+        Set<String> owners = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String before = three.ownerOf("EXT-" + i);
+            String after = four.ownerOf("EXT-" + i);
+            owners.add(before);
+            if (!before.equals(after)) {
+                assertEquals("pod-d", after);
+                moved++;
+            }
+        }
+        assertEquals(3, owners.size());
+        assertTrue(moved > 1_500 && moved < 3_500, "moved " + moved);
+        assertNull(new ShardRing(List.of(), 8).ownerOf("EXT-1"));
+    }
+
+    @Test
+    void reconcile_interruptedByRateLimit_resumesFromCheckpoint() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            source.add("c" + i, "EXT-" + i, "SENT", "PENDING");
+        }
+        properties.setConcurrency(1);
+        failures.put("EXT-4", new LogaltyRateLimitException("GET_STATUS", "default"));
+        Reconciler reconciler = reconciler("pod-a");
+
+        StepVerifier.create(reconciler.reconcile()).verifyError(LogaltyRateLimitException.class);
+        assertEquals("c2", new CursorCheckpoint(dir, "reconciliation").load().orElseThrow().cursor());
+
+        failures.clear();
+        checked.clear();
+        StepVerifier.create(reconciler.reconcile())
+                .assertNext(report -> {
+                    assertTrue(report.resumed());
+                    assertEquals(3, report.matched());
+                })
+                .verifyComplete();
+        assertEquals(List.of("EXT-3", "EXT-4", "EXT-5"), checked);
+    }
+
+    @Test
+    void reconcile_pausesAtMaxDurationAndKeepsItsPosition() throws IOException {
+        for (int i = 1; i <= 9; i++) {
+            source.add("c" + i, "EXT-" + i, "SENT", "PENDING");
+        }
+        properties.setConcurrency(1);
+        properties.setMaxRequestsPerSecond(5);
+        properties.setMaxDuration(Duration.ofMillis(500));
+
+        ReconciliationReport report = reconciler("pod-a").reconcile().block();
+
+        assertNotNull(report);
+        assertFalse(report.complete());
+        assertTrue(report.checked() < 9);
+        CursorCheckpoint.State saved = new CursorCheckpoint(dir, "reconciliation").load().orElseThrow();
+        assertEquals("c" + report.checked(), saved.cursor());
+    }
+
+    private Reconciler reconciler(String memberId) {
+        properties.setMemberId(memberId);
+        return new Reconciler(properties, source, signatureService, registry,
+                new EnvelopeStatusEvents(new StatusEventsProperties(), registry));
+    }
+
+    private static DataStateExternalIdResponse status(String state) throws Exception {
+        DataStateExternalIdResponse response = mock(DataStateExternalIdResponse.class);
+        XmlObject xml = XmlObject.Factory.parse("<response><main>0</main><state>" + state + "</state></response>");
+        when(response.newCursor()).thenAnswer(invocation -> xml.newCursor());
+        return response;
+    }
+
+    private final class InMemorySource implements KnownEnvelopeSource {
+
+        private final List<KnownEnvelope> envelopes = new ArrayList<>();
+        private final List<String> mismatched = new CopyOnWriteArrayList<>();
+
+        void add(String cursor, String externalId, String localState, String logaltyState) {
+            envelopes.add(new KnownEnvelope(UUID.randomUUID(), null, externalId, localState, cursor));
+            logaltyStates.put(externalId, logaltyState);
+        }
+
+        @Override
+        public Flux<KnownEnvelope> findKnown(String afterCursor, int limit) {
+            return Flux.fromIterable(envelopes)
+                    .filter(e -> afterCursor == null || e.cursor().compareTo(afterCursor) > 0)
+                    .take(limit);
+        }
+
+        @Override
+        public Mono<Void> onMismatch(Mismatch mismatch) {
+            return Mono.fromRunnable(() -> mismatched.add(mismatch.externalId()));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.firefly.ecm.adapter.logalty.reload;
+
+import com.firefly.ecm.adapter.logalty.ReloadProperties;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.logalty.interfaces.XmlSignInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CertificateReloaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path certPath;
+    private XmlSignInterface initialSigner;
+    private Deque<XmlSignInterface> nextSigners;
+    private TenantSignerRegistry registry;
+    private SignatureProperties props;
+    private ReloadableTrustManager trustManager;
+    private CertificateReloader reloader;
+
+    @BeforeEach
+    void init() throws Exception {
+        certPath = dir.resolve("signature.pfx");
+        Files.write(certPath, new byte[]{1, 2, 3});
+
+        props = new SignatureProperties();
+        props.setCertPath(certPath.toString());
+
+        initialSigner = mock(XmlSignInterface.class);
+        nextSigners = new ArrayDeque<>();
+        registry = new TenantSignerRegistry(new TenantProperties(), initialSigner, t -> nextSigners.pop());
+
+        ReloadProperties reloadProps = new ReloadProperties();
+        reloadProps.setEnabled(true);
+        trustManager = new ReloadableTrustManager();
+        reloader = new CertificateReloader(reloadProps, props, new TenantProperties(), registry, trustManager);
+        reloader.start();
+    }
+
+    @AfterEach
+    void cleanup() {
+        reloader.stop();
+    }
+
+    @Test
+    void unchangedCertificate_keepsSigner() {
+        reloader.checkForChanges();
+        assertSame(initialSigner, registry.defaultSigner());
+    }
+
+    @Test
+    void rotatedCertificate_swapsInValidatedSigner() throws Exception {
+        XmlSignInterface rotated = mock(XmlSignInterface.class);
+        when(rotated.retrieveCertificateId()).thenAnswer(inv -> "cert-2");
+        nextSigners.push(rotated);
+
+        Files.write(certPath, new byte[]{4, 5, 6});
+        reloader.checkForChanges();
+
+        assertSame(rotated, registry.defaultSigner());
+    }
+
+    @Test
+    void invalidCertificate_keepsCurrentSignerAndRetries() throws Exception {
+        XmlSignInterface broken = mock(XmlSignInterface.class);
+        when(broken.retrieveCertificateId()).thenThrow(new IllegalStateException("bad pin"));
+        XmlSignInterface fixed = mock(XmlSignInterface.class);
+        when(fixed.retrieveCertificateId()).thenAnswer(inv -> "cert-3");
+        nextSigners.add(broken);
+        nextSigners.add(fixed);
+
+        Files.write(certPath, new byte[]{7, 8, 9});
+        reloader.checkForChanges();
+        assertSame(initialSigner, registry.defaultSigner());
+
+        reloader.checkForChanges();
+        assertSame(fixed, registry.defaultSigner());
+    }
+
+    @Test
+    void changedTrustStore_replacesTheHttpClientsTrustManager() throws Exception {
+        Path trustStorePath = dir.resolve("truststore.jks");
+        char[] password = "MiPassSeguro123".toCharArray();
+        KeyStore trustStore = KeyStore.getInstance("JKS");
+        try (InputStream in = getClass().getResourceAsStream("/mi-truststore.jks")) {
+            trustStore.load(in, password);
+        }
+        store(trustStore, trustStorePath, password);
+
+        props.setTrustStoreResource(trustStorePath.toString());
+        props.setTrustStorePassword("MiPassSeguro123");
+        props.setTrustStoreType("JKS");
+        reloader.stop();
+        reloader.start();
+
+        String alias = trustStore.aliases().nextElement();
+        trustStore.setCertificateEntry(alias + "-copy", trustStore.getCertificate(alias));
+        store(trustStore, trustStorePath, password);
+        reloader.checkForChanges();
+
+        Set<X509Certificate> expected = new HashSet<>();
+        for (String entry : Collections.list(trustStore.aliases())) {
+            expected.add((X509Certificate) trustStore.getCertificate(entry));
+        }
+        assertEquals(expected, Set.of(trustManager.getAcceptedIssuers()));
+    }
+
+    private static void store(KeyStore trustStore, Path path, char[] password) throws Exception {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            trustStore.store(out, password);
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.firefly.ecm.adapter.logalty.services;
 
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
 import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
 import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
 import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
 import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
 import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.webservice.Operation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.security.Security;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -28,7 +41,7 @@ class LogaltyCommonServiceTest {
     void init() {
         props = new SignatureProperties();
         signer = mock(XmlSignInterface.class);
-        service = new LogaltyCommonService(props, signer);
+        service = LogaltyFixtures.commonService(props, signer);
     }
 
     @AfterEach
@@ -44,31 +57,171 @@ class LogaltyCommonServiceTest {
         // Ensure truststore path is clear to exercise initialization
         System.clearProperty("javax.net.ssl.trustStore");
 
-        Supplier<String> xmlBuilder = () -> "<xml/>";
-        BiFunction<String, XmlSignInterface, String> post = (xml, s) -> "response-body";
-        Function<String, String> parser = resp -> "parsed";
+        Supplier<XmlPayload> xmlBuilder = () -> XmlPayload.text("<xml/>");
+        BiFunction<XmlPayload, XmlSignInterface, XmlPayload> post = (xml, s) -> XmlPayload.text("response-body");
+        Function<XmlPayload, String> parser = resp -> "parsed";
         Function<String, Boolean> validator = resp -> true;
         Function<String, String> errorExtractor = resp -> "";
 
-        String result = service.executeOperation(xmlBuilder, post, parser, validator, errorExtractor, "TEST");
+        String result = service.executeOperation(signer, xmlBuilder, post, parser, validator, errorExtractor, "TEST");
         assertEquals("parsed", result);
         assertNotNull(System.getProperty("javax.net.ssl.trustStore"));
     }
 
     @Test
     void executeOperation_failure_throwsLogaltyCallException() {
-        Supplier<String> xmlBuilder = () -> "<xml/>";
-        BiFunction<String, XmlSignInterface, String> post = (xml, s) -> "response-body";
-        Function<String, String> parser = resp -> "parsed";
+        Supplier<XmlPayload> xmlBuilder = () -> XmlPayload.text("<xml/>");
+        BiFunction<XmlPayload, XmlSignInterface, XmlPayload> post = (xml, s) -> XmlPayload.text("response-body");
+        Function<XmlPayload, String> parser = resp -> "parsed";
         Function<String, Boolean> validator = resp -> false;
         Function<String, String> errorExtractor = resp -> "bad";
 
         LogaltyCallException ex = assertThrows(LogaltyCallException.class, () ->
-            service.executeOperation(xmlBuilder, post, parser, validator, errorExtractor, "FAIL")
+            service.executeOperation(signer, xmlBuilder, post, parser, validator, errorExtractor, "FAIL")
         );
         assertTrue(ex.getMessage().contains("bad"));
     }
 
+    @Test
+    void executeOperationReactive_buildsPostsAndParsesOffTheCallerThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> stages = new CopyOnWriteArrayList<>();
+        Supplier<XmlPayload> xmlBuilder = () -> {
+            stages.add(Thread.currentThread());
+            return XmlPayload.text("<xml/>");
+        };
+        BiFunction<XmlPayload, XmlSignInterface, Mono<XmlPayload>> post = (xml, s) -> Mono.just(XmlPayload.text("response-body"));
+        Function<XmlPayload, String> parser = resp -> {
+            stages.add(Thread.currentThread());
+            return "parsed:" + resp.text();
+        };
+
+        StepVerifier.create(service.executeOperationReactive(signer, xmlBuilder, post, parser, r -> true, r -> "", "TEST"))
+                .expectNext("parsed:response-body")
+                .verifyComplete();
+        assertEquals(2, stages.size());
+        assertFalse(stages.contains(caller));
+    }
+
+    @Test
+    void executeOperationReactive_rejection_signalsLogaltyCallException() {
+        Mono<String> result = service.executeOperationReactive(signer, () -> XmlPayload.text("<xml/>"),
+                (xml, s) -> Mono.just(XmlPayload.text("response-body")), resp -> "parsed", r -> false, r -> "bad", "FAIL");
+
+        StepVerifier.create(result)
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(LogaltyCallException.class, e);
+                    assertTrue(e.getMessage().contains("bad"));
+                })
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void executeOperationReactive_cancellationReachesThePostInFlight() {
+        AtomicBoolean postCancelled = new AtomicBoolean();
+        CountDownLatch posted = new CountDownLatch(1);
+        BiFunction<XmlPayload, XmlSignInterface, Mono<XmlPayload>> post = (xml, s) -> Mono.<XmlPayload>never()
+                .doOnSubscribe(sub -> posted.countDown())
+                .doOnCancel(() -> postCancelled.set(true));
+
+        StepVerifier.create(service.executeOperationReactive(signer, () -> XmlPayload.text("<xml/>"), post, XmlPayload::text,
+                        r -> true, r -> "", "SLOW"))
+                .then(() -> assertTrue(assertDoesNotThrow(() -> posted.await(5, TimeUnit.SECONDS))))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        assertTrue(postCancelled.get());
+    }
+
+    @Test
+    void executeOperation_bytePayloads_passThroughAndAreReleased() {
+        ContentSource request = ContentSources.utf8("<request>\u00f1</request>");
+        ContentSource response = ContentSources.utf8("<response>ok</response>");
+        List<ContentSource> received = new CopyOnWriteArrayList<>();
+
+        String result = service.executeOperation(signer, () -> XmlPayload.utf8(request),
+                (xml, s) -> {
+                    received.add(xml.utf8());
+                    return XmlPayload.utf8(response);
+                },
+                XmlPayload::text, r -> true, r -> "", "TEST");
+
+        assertEquals("<response>ok</response>", result);
+        assertEquals(List.of(request), received);
+        assertEquals(0, request.refCnt());
+        assertEquals(0, response.refCnt());
+    }
+
+    @Test
+    void executeOperation_rejection_stillReleasesBothDocuments() {
+        ContentSource request = ContentSources.utf8("<request/>");
+        ContentSource response = ContentSources.utf8("<response/>");
+
+        assertThrows(LogaltyCallException.class, () -> service.executeOperation(signer, () -> XmlPayload.utf8(request),
+                (xml, s) -> XmlPayload.utf8(response), XmlPayload::text, r -> false, r -> "bad", "FAIL"));
+        assertEquals(0, request.refCnt());
+        assertEquals(0, response.refCnt());
+    }
+
+    @Test
+    void executeOperationReactive_releasesBothDocuments() {
+        ContentSource request = ContentSources.utf8("<request/>");
+        ContentSource response = ContentSources.utf8("<response>ok</response>");
+
+        StepVerifier.create(service.executeOperationReactive(signer, () -> XmlPayload.utf8(request),
+                        (xml, s) -> Mono.just(XmlPayload.utf8(response)), XmlPayload::text, r -> true, r -> "", "TEST"))
+                .expectNext("<response>ok</response>")
+                .verifyComplete();
+        assertEquals(0, request.refCnt());
+        assertEquals(0, response.refCnt());
+    }
+
+    @Test
+    void post_stringTransport_keepsTheSdkStringsAsTheyAre() {
+        String request = "<request>\u00f1</request>";
+        String response = "<response>ok</response>";
+        List<String> received = new CopyOnWriteArrayList<>();
+        LogaltyCommonService common = LogaltyFixtures.commonService(props, signer, (operation, xml, s) -> {
+            received.add(xml);
+            return response;
+        });
+
+        XmlPayload result = common.post(Operation.CANCEL_REQUEST_OPERATION, XmlPayload.text(request), signer);
+
+        assertSame(request, received.get(0));
+        assertTrue(result.isText());
+        assertSame(response, result.text());
+    }
+
+    @Test
+    void post_utf8Transport_passesTheBytesThrough() {
+        ContentSource request = ContentSources.utf8("<request>\u00f1</request>");
+        ContentSource response = ContentSources.utf8("<response>ok</response>");
+        List<ContentSource> received = new CopyOnWriteArrayList<>();
+        LogaltyCommonService common = LogaltyFixtures.commonService(props, signer, new LogaltyTransport() {
+            @Override
+            public String post(Operation operation, String xmlRequest, XmlSignInterface s) {
+                throw new AssertionError("String post on a UTF-8 transport");
+            }
+
+            @Override
+            public boolean prefersUtf8() {
+                return true;
+            }
+
+            @Override
+            public ContentSource postUtf8(Operation operation, ContentSource xmlRequest, XmlSignInterface s) {
+                received.add(xmlRequest);
+                return response;
+            }
+        });
+
+        XmlPayload result = common.post(Operation.CANCEL_REQUEST_OPERATION, XmlPayload.utf8(request), signer);
+
+        assertEquals(List.of(request), received);
+        assertFalse(result.isText());
+        assertSame(response, result.utf8());
+    }
+
     @Test
     void validateInput_throwsOnNullOrEmpty() {
         assertThrows(IllegalArgumentException.class, () -> service.validateInput(null, List.of(new BinaryContentsDTO())));
@@ -96,11 +249,12 @@ class LogaltyCommonServiceTest {
 
     @Test
     void parseMethods_throwOnInvalidXml() {
-        String invalid = "not-xml";
-        assertThrows(LogaltyCallException.class, () -> service.parseIncomingResponse(invalid));
-        assertThrows(LogaltyCallException.class, () -> service.parseCancelResponse(invalid));
-        assertThrows(LogaltyCallException.class, () -> service.parseCertificateResponse(invalid));
-        assertThrows(LogaltyCallException.class, () -> service.parseSignedBinaryResponse(invalid));
-        assertThrows(LogaltyCallException.class, () -> service.parseDataStateExternalIdResponse(invalid));
+        for (XmlPayload invalid : List.of(XmlPayload.text("not-xml"), XmlPayload.utf8(ContentSources.utf8("not-xml")))) {
+            assertThrows(LogaltyCallException.class, () -> service.parseIncomingResponse(invalid));
+            assertThrows(LogaltyCallException.class, () -> service.parseCancelResponse(invalid));
+            assertThrows(LogaltyCallException.class, () -> service.parseCertificateResponse(invalid));
+            assertThrows(LogaltyCallException.class, () -> service.parseSignedBinaryResponse(invalid));
+            assertThrows(LogaltyCallException.class, () -> service.parseDataStateExternalIdResponse(invalid));
+        }
     }
 }
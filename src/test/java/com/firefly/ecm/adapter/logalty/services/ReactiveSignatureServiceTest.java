@@ -0,0 +1,277 @@
+package com.firefly.ecm.adapter.logalty.services;
+
+import com.firefly.ecm.adapter.logalty.AdmissionProperties;
+import com.firefly.ecm.adapter.logalty.ArtifactCacheProperties;
+import com.firefly.ecm.adapter.logalty.HedgeProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.RateLimitProperties;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.StatusCacheProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.admission.MemoryAdmission;
+import com.firefly.ecm.adapter.logalty.artifactcache.ArtifactCache;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyRateLimitException;
+import com.firefly.ecm.adapter.logalty.hedge.RequestHedger;
+import com.firefly.ecm.adapter.logalty.ratelimit.LogaltyRateLimiter;
+import com.firefly.ecm.adapter.logalty.statuscache.StatusCache;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.ptrequest.ResultDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveSignatureServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private LogaltyCommonService common;
+    private XmlSignInterface xmlSigner;
+    private XmlSignInterface tenantSigner;
+    private ReactiveSignatureService service;
+
+    @BeforeEach
+    void setUp() {
+        common = mock(LogaltyCommonService.class);
+        xmlSigner = mock(XmlSignInterface.class);
+        TenantProperties tenants = new TenantProperties();
+        TenantProperties.Tenant acme = new TenantProperties.Tenant();
+        acme.setCertPath("acme.pfx");
+        acme.setCertPin("pin");
+        tenants.getTenants().put("acme", acme);
+        tenantSigner = mock(XmlSignInterface.class);
+        service = LogaltyFixtures.reactiveSignatureService(common, new TenantSignerRegistry(tenants, xmlSigner, t -> tenantSigner));
+    }
+
+    @Test
+    void initSignature_delegatesToReactiveOperationAndReturnsResult() {
+        List<ReceiverDTO> receivers = List.of(new ReceiverDTO());
+        List<BinaryContentsDTO> binaries = List.of(new BinaryContentsDTO());
+
+        ResponseDocument responseDocument = mock(ResponseDocument.class);
+        ResponseDocument.Response response = mock(ResponseDocument.Response.class);
+        ResultDocument.Result result = mock(ResultDocument.Result.class);
+        when(responseDocument.getResponse()).thenReturn(response);
+        when(response.getResult()).thenReturn(result);
+
+        doReturn(Mono.just(responseDocument)).when(common).executeOperationReactive(
+                eq(xmlSigner), any(), any(), any(), any(), any(), eq("INIT_SIGNATURE"));
+
+        StepVerifier.create(service.initSignature(receivers, binaries))
+                .expectNext(result)
+                .verifyComplete();
+        verify(common).validateInput(receivers, binaries);
+        verify(common, never()).executeOperation(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void initSignature_invalidInput_isSignalledNotThrown() {
+        doThrow(new IllegalArgumentException("Receiver list cannot be null or empty"))
+                .when(common).validateInput(null, List.of());
+
+        Mono<ResultDocument.Result> result = service.initSignature(null, List.of());
+
+        StepVerifier.create(result).verifyError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nothingHappensUntilSubscribed() {
+        service.initCancel("ABC-123");
+        service.getStatus("EXT-1");
+
+        verifyNoInteractions(common);
+    }
+
+    @Test
+    void initCancel_forTenant_usesTenantSigner() {
+        CancelResponseDocument doc = mock(CancelResponseDocument.class);
+        CancelResponseDocument.CancelResponse inner = mock(CancelResponseDocument.CancelResponse.class);
+        when(doc.getCancelResponse()).thenReturn(inner);
+
+        doReturn(Mono.just(doc)).when(common)
+                .executeOperationReactive(eq(tenantSigner), any(), any(), any(), any(), any(), eq("ABC-123"));
+
+        StepVerifier.create(service.initCancel("acme", "ABC-123"))
+                .expectNext(inner)
+                .verifyComplete();
+    }
+
+    @Test
+    void initCancel_dropsTheCachedStatus() {
+        StatusCacheProperties cacheProperties = new StatusCacheProperties();
+        cacheProperties.setEnabled(true);
+        cacheProperties.setTerminalStates(List.of());
+        ReactiveSignatureService cached = service(cacheProperties, new HedgeProperties(), new RateLimitProperties(),
+                CircuitBreaker.ofDefaults("cache-test"));
+
+        DataStateExternalIdResponseDocument status = mock(DataStateExternalIdResponseDocument.class);
+        when(status.getDataStateExternalIdResponse())
+                .thenReturn(mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class));
+        CancelResponseDocument cancel = mock(CancelResponseDocument.class);
+        when(cancel.getCancelResponse()).thenReturn(mock(CancelResponseDocument.CancelResponse.class));
+        doReturn(Mono.just(status), Mono.just(cancel), Mono.just(status)).when(common)
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("ABC-123"));
+
+        cached.getStatus("ABC-123").block();
+        cached.getStatus("ABC-123").block();
+        cached.initCancel("ABC-123").block();
+        cached.getStatus("ABC-123").block();
+
+        verify(common, times(3))
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("ABC-123"));
+    }
+
+    @Test
+    void getStatus_returnsInnerResponse() {
+        DataStateExternalIdResponseDocument doc = mock(DataStateExternalIdResponseDocument.class);
+        DataStateExternalIdResponseDocument.DataStateExternalIdResponse inner =
+                mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class);
+        when(doc.getDataStateExternalIdResponse()).thenReturn(inner);
+
+        doReturn(Mono.just(doc)).when(common)
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("EXT-9"));
+
+        StepVerifier.create(service.getStatus("EXT-9"))
+                .expectNext(inner)
+                .verifyComplete();
+    }
+
+    @Test
+    void getStatus_hedged_takesAPermitForEachAttempt() {
+        HedgeProperties hedgeProperties = new HedgeProperties();
+        hedgeProperties.setEnabled(true);
+        hedgeProperties.setPercentile(0);
+        hedgeProperties.setDelay(Duration.ofMillis(100));
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setEnabled(true);
+        rateLimitProperties.setMaxWait(Duration.ZERO);
+        RateLimitProperties.Bucket twoPerMinute = new RateLimitProperties.Bucket();
+        twoPerMinute.setCapacity(2);
+        twoPerMinute.setRefillTokens(2);
+        rateLimitProperties.getOperations().put(LogaltyOperation.GET_STATUS, twoPerMinute);
+        ReactiveSignatureService hedged = service(new StatusCacheProperties(), hedgeProperties, rateLimitProperties,
+                CircuitBreaker.ofDefaults("hedge-test"));
+
+        DataStateExternalIdResponseDocument slow = mock(DataStateExternalIdResponseDocument.class);
+        DataStateExternalIdResponseDocument fast = mock(DataStateExternalIdResponseDocument.class);
+        DataStateExternalIdResponseDocument.DataStateExternalIdResponse inner =
+                mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class);
+        when(fast.getDataStateExternalIdResponse()).thenReturn(inner);
+        doReturn(Mono.delay(Duration.ofSeconds(10)).thenReturn(slow), Mono.just(fast)).when(common)
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("EXT-12"));
+
+        StepVerifier.create(hedged.getStatus("EXT-12"))
+                .expectNext(inner)
+                .verifyComplete();
+
+        verify(common, times(2))
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("EXT-12"));
+        assertEquals(1.0, registry.get("logalty.hedge.sent").tag("operation", "GET_STATUS").counter().count());
+        // Both permits of the minute were taken
+        StepVerifier.create(hedged.getStatus("EXT-12")).verifyError(LogaltyRateLimitException.class);
+    }
+
+    @Test
+    void getStatus_noPermitAvailableAtOnce_sendsNoHedge() {
+        HedgeProperties hedgeProperties = new HedgeProperties();
+        hedgeProperties.setEnabled(true);
+        hedgeProperties.setPercentile(0);
+        hedgeProperties.setDelay(Duration.ofMillis(100));
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setEnabled(true);
+        RateLimitProperties.Bucket onePerMinute = new RateLimitProperties.Bucket();
+        onePerMinute.setCapacity(1);
+        onePerMinute.setRefillTokens(1);
+        rateLimitProperties.getOperations().put(LogaltyOperation.GET_STATUS, onePerMinute);
+        ReactiveSignatureService hedged = service(new StatusCacheProperties(), hedgeProperties, rateLimitProperties,
+                CircuitBreaker.ofDefaults("hedge-test"));
+
+        DataStateExternalIdResponseDocument slow = mock(DataStateExternalIdResponseDocument.class);
+        DataStateExternalIdResponseDocument.DataStateExternalIdResponse inner =
+                mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class);
+        when(slow.getDataStateExternalIdResponse()).thenReturn(inner);
+        doReturn(Mono.delay(Duration.ofMillis(500)).thenReturn(slow)).when(common)
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("EXT-13"));
+
+        StepVerifier.create(hedged.getStatus("EXT-13"))
+                .expectNext(inner)
+                .verifyComplete();
+
+        verify(common, times(1))
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("EXT-13"));
+        assertEquals(0.0, registry.get("logalty.hedge.sent").tag("operation", "GET_STATUS").counter().count());
+        assertEquals(1.0, registry.get("logalty.hedge.skipped").tag("operation", "GET_STATUS").counter().count());
+    }
+
+    @Test
+    void initCancel_rateLimited_isRejectedOutsideTheBreaker() {
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setEnabled(true);
+        rateLimitProperties.setMaxWait(Duration.ZERO);
+        RateLimitProperties.Bucket onePerMinute = new RateLimitProperties.Bucket();
+        onePerMinute.setCapacity(1);
+        onePerMinute.setRefillTokens(1);
+        rateLimitProperties.getOperations().put(LogaltyOperation.CANCEL, onePerMinute);
+        CircuitBreaker breaker = CircuitBreaker.ofDefaults("cancel-test");
+        ReactiveSignatureService limited = service(new StatusCacheProperties(), new HedgeProperties(), rateLimitProperties,
+                breaker);
+        CancelResponseDocument cancel = mock(CancelResponseDocument.class);
+        when(cancel.getCancelResponse()).thenReturn(mock(CancelResponseDocument.CancelResponse.class));
+        doReturn(Mono.just(cancel)).when(common)
+                .executeOperationReactive(eq(xmlSigner), any(), any(), any(), any(), any(), eq("ABC-7"));
+
+        StepVerifier.create(limited.initCancel("ABC-7")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(limited.initCancel("ABC-7")).verifyError(LogaltyRateLimitException.class);
+
+        assertEquals(1, breaker.getMetrics().getNumberOfSuccessfulCalls());
+        assertEquals(0, breaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void getStatus_openCircuit_isNotSent() {
+        CircuitBreaker breaker = CircuitBreaker.ofDefaults("open-test");
+        breaker.transitionToOpenState();
+        ReactiveSignatureService open = service(new StatusCacheProperties(), new HedgeProperties(), new RateLimitProperties(),
+                breaker);
+
+        StepVerifier.create(open.getStatus("EXT-14")).verifyError(CallNotPermittedException.class);
+
+        verifyNoInteractions(common);
+    }
+
+    @Test
+    void getStatus_forUnknownTenant_signalsError() {
+        StepVerifier.create(service.getStatus("unknown", "EXT-11"))
+                .verifyError(LogaltyCallException.class);
+    }
+
+    private ReactiveSignatureService service(StatusCacheProperties statusCacheProperties, HedgeProperties hedgeProperties,
+                                             RateLimitProperties rateLimitProperties, CircuitBreaker breaker) {
+        LogaltyRateLimiter rateLimiter = new LogaltyRateLimiter(rateLimitProperties, registry);
+        return new ReactiveSignatureService(new SignatureProperties(), common,
+                new TenantSignerRegistry(new TenantProperties(), xmlSigner),
+                new ArtifactCache(new ArtifactCacheProperties(), registry),
+                new StatusCache(statusCacheProperties, registry),
+                LogaltyFixtures.requestWriter(new SignatureProperties(), common),
+                new MemoryAdmission(new AdmissionProperties(), registry),
+                new RequestHedger(hedgeProperties, rateLimiter, registry),
+                rateLimiter,
+                breaker);
+    }
+}
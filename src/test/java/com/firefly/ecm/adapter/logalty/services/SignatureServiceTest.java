@@ -1,7 +1,21 @@
 package com.firefly.ecm.adapter.logalty.services;
 
+import com.firefly.ecm.adapter.logalty.ArtifactCacheProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.StatusCacheProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
 import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
 import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.artifactcache.ArtifactCache;
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.content.XmlPayload;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.statuscache.StatusCache;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.xml.IncomingRequestWriter;
 import com.logalty.interfaces.XmlSignInterface;
 import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
 import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
@@ -9,13 +23,16 @@ import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
 import com.logalty.schema.ptrequest.ResponseDocument;
 import com.logalty.schema.ptrequest.ResultDocument;
 import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -23,13 +40,20 @@ class SignatureServiceTest {
 
     private LogaltyCommonService common;
     private XmlSignInterface xmlSigner;
+    private XmlSignInterface tenantSigner;
     private SignatureService service;
 
     @BeforeEach
     void setUp() {
         common = mock(LogaltyCommonService.class);
         xmlSigner = mock(XmlSignInterface.class);
-        service = new SignatureService(common, xmlSigner);
+        TenantProperties tenants = new TenantProperties();
+        TenantProperties.Tenant acme = new TenantProperties.Tenant();
+        acme.setCertPath("acme.pfx");
+        acme.setCertPin("pin");
+        tenants.getTenants().put("acme", acme);
+        tenantSigner = mock(XmlSignInterface.class);
+        service = LogaltyFixtures.signatureService(common, new TenantSignerRegistry(tenants, xmlSigner, t -> tenantSigner));
     }
 
     @Test
@@ -46,7 +70,7 @@ class SignatureServiceTest {
         when(response.getResult()).thenReturn(result);
 
         when(common.executeOperation(
-                any(), any(), any(), any(), any(), eq("INIT_SIGNATURE"))
+                eq(xmlSigner), any(), any(), any(), any(), any(), eq("INIT_SIGNATURE"))
         ).thenReturn(responseDocument);
 
         // When
@@ -57,6 +81,38 @@ class SignatureServiceTest {
         assertSame(result, out);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void initSignature_withStreamRequests_sendsTheRequestWrittenAndSignedByTheWriter() {
+        SignatureProperties properties = new SignatureProperties();
+        properties.setStreamRequests(true);
+        IncomingRequestWriter writer = mock(IncomingRequestWriter.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SignatureService streaming = new SignatureService(properties, common,
+                new TenantSignerRegistry(new TenantProperties(), xmlSigner),
+                new ArtifactCache(new ArtifactCacheProperties(), registry),
+                new StatusCache(new StatusCacheProperties(), registry), writer);
+        List<ReceiverDTO> receivers = List.of(new ReceiverDTO());
+        List<BinaryContentsDTO> binaries = List.of(new BinaryContentsDTO());
+        ContentSource request = ContentSources.utf8("<pt:request/>");
+        when(writer.writeSigned(TenantContext.DEFAULT_TENANT, receivers, binaries)).thenReturn(request);
+
+        ResponseDocument responseDocument = mock(ResponseDocument.class);
+        ResponseDocument.Response response = mock(ResponseDocument.Response.class);
+        when(responseDocument.getResponse()).thenReturn(response);
+        when(response.getResult()).thenReturn(mock(ResultDocument.Result.class));
+        when(common.executeOperation(any(), any(), any(), any(), any(), any(), eq("INIT_SIGNATURE")))
+                .thenAnswer(invocation -> {
+                    assertSame(request, ((Supplier<XmlPayload>) invocation.getArgument(1)).get().utf8());
+                    return responseDocument;
+                });
+
+        streaming.initSignature(receivers, binaries);
+
+        verify(writer).writeSigned(TenantContext.DEFAULT_TENANT, receivers, binaries);
+        verify(common, never()).buildIncomingRequest(anyList(), anyList(), any());
+    }
+
     @Test
     void initCancel_delegatesAndReturnsInner() {
         String id = "ABC-123";
@@ -65,13 +121,40 @@ class SignatureServiceTest {
         CancelResponseDocument.CancelResponse cancelResponse = mock(CancelResponseDocument.CancelResponse.class);
         when(cancelResponseDocument.getCancelResponse()).thenReturn(cancelResponse);
 
-        when(common.executeOperation(any(), any(), any(), any(), any(), eq(id)))
+        when(common.executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq(id)))
                 .thenReturn(cancelResponseDocument);
 
         var out = service.initCancel(id);
         assertSame(cancelResponse, out);
     }
 
+    @Test
+    void initCancel_dropsTheCachedStatus() {
+        StatusCacheProperties cacheProperties = new StatusCacheProperties();
+        cacheProperties.setEnabled(true);
+        cacheProperties.setTerminalStates(List.of());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SignatureService cached = new SignatureService(new SignatureProperties(), common,
+                new TenantSignerRegistry(new TenantProperties(), xmlSigner),
+                new ArtifactCache(new ArtifactCacheProperties(), registry), new StatusCache(cacheProperties, registry),
+                LogaltyFixtures.requestWriter(new SignatureProperties(), common));
+
+        DataStateExternalIdResponseDocument status = mock(DataStateExternalIdResponseDocument.class);
+        when(status.getDataStateExternalIdResponse())
+                .thenReturn(mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class));
+        CancelResponseDocument cancel = mock(CancelResponseDocument.class);
+        when(cancel.getCancelResponse()).thenReturn(mock(CancelResponseDocument.CancelResponse.class));
+        when(common.executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq("ABC-123")))
+                .thenReturn(status, cancel, status);
+
+        cached.getStatus("ABC-123");
+        cached.getStatus("ABC-123");
+        cached.initCancel("ABC-123");
+        cached.getStatus("ABC-123");
+
+        verify(common, times(3)).executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq("ABC-123"));
+    }
+
     @Test
     void getCertificate_delegatesAndReturnsInner() {
         String id = "CERT-1";
@@ -81,7 +164,7 @@ class SignatureServiceTest {
                 mock(DataCertificateResponseDocument.DataCertificateResponse.class);
         when(doc.getDataCertificateResponse()).thenReturn(inner);
 
-        when(common.executeOperation(any(), any(), any(), any(), any(), eq(id)))
+        when(common.executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq(id)))
                 .thenReturn(doc);
 
         var out = service.getCertificate(id);
@@ -97,7 +180,7 @@ class SignatureServiceTest {
                 mock(SignedBinaryResponseDocument.SignedBinaryResponse.class);
         when(doc.getSignedBinaryResponse()).thenReturn(inner);
 
-        when(common.executeOperation(any(), any(), any(), any(), any(), eq(id)))
+        when(common.executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq(id)))
                 .thenReturn(doc);
 
         var out = service.getSignedBinary(id);
@@ -113,10 +196,31 @@ class SignatureServiceTest {
                 mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class);
         when(doc.getDataStateExternalIdResponse()).thenReturn(inner);
 
-        when(common.executeOperation(any(), any(), any(), any(), any(), eq(externalId)))
+        when(common.executeOperation(eq(xmlSigner), any(), any(), any(), any(), any(), eq(externalId)))
                 .thenReturn(doc);
 
         var out = service.getStatus(externalId);
         assertSame(inner, out);
     }
+
+    @Test
+    void getStatus_forTenant_usesTenantSigner() {
+        String externalId = "EXT-10";
+
+        DataStateExternalIdResponseDocument doc = mock(DataStateExternalIdResponseDocument.class);
+        DataStateExternalIdResponseDocument.DataStateExternalIdResponse inner =
+                mock(DataStateExternalIdResponseDocument.DataStateExternalIdResponse.class);
+        when(doc.getDataStateExternalIdResponse()).thenReturn(inner);
+
+        when(common.executeOperation(eq(tenantSigner), any(), any(), any(), any(), any(), eq(externalId)))
+                .thenReturn(doc);
+
+        var out = service.getStatus("acme", externalId);
+        assertSame(inner, out);
+    }
+
+    @Test
+    void getStatus_forUnknownTenant_throws() {
+        assertThrows(LogaltyCallException.class, () -> service.getStatus("unknown", "EXT-11"));
+    }
 }
@@ -0,0 +1,46 @@
+package com.firefly.ecm.adapter.logalty.standin;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Service-time distribution of the stand-in server.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration sample(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long span = max.toNanos() - min.toNanos();
+        return random -> min.plusNanos(span <= 0 ? 0 : random.nextLong(span));
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        return random -> Duration.ofNanos((long) (-Math.log(1 - random.nextDouble()) * mean.toNanos()));
+    }
+
+    /**
+     * Log-normal latency, the usual shape of remote service times: most calls near the median
+     * with a long right tail controlled by {@code sigma}.
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    /**
+     * Mostly {@code base}, but with probability {@code probability} a call takes {@code outlier}
+     * instead, like a backend that occasionally stalls.
+     */
+    static LatencyDistribution withOutliers(LatencyDistribution base, double probability, Duration outlier) {
+        return random -> random.nextDouble() < probability ? outlier : base.sample(random);
+    }
+}
@@ -0,0 +1,257 @@
+package com.firefly.ecm.adapter.logalty.standin;
+
+import com.firefly.ecm.adapter.logalty.TransportProperties;
+import com.firefly.ecm.adapter.logalty.ratelimit.TokenBucket;
+import com.logalty.sdk.webservice.Operation;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for Logalty, used to load test the adapter without touching the demo
+ * environment.
+ *
+ * <p>Implements the {@code processDocument} SOAP contract of {@code logalty.wsdl} on the
+ * Incoming, Update and Data service paths, answering with schema-shaped responses built from
+ * the SDK's XmlBeans types, plus the REST endpoints used by
+ * {@code LogaltySignatureEnvelopeAdapter}. Latency, error rate, business rejections and an
+ * HTTP 429 quota are configurable through {@link StandInBehavior}.</p>
+ *
+ * <pre>{@code
+ * try (LogaltyStandInServer server = LogaltyStandInServer.start(new StandInBehavior())) {
+ *     TransportProperties transport = server.transportProperties();
+ *     ...
+ * }
+ * }</pre>
+ */
+@Slf4j
+public class LogaltyStandInServer implements AutoCloseable {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private final StandInBehavior behavior;
+    private final DisposableServer server;
+    private final SplittableRandom random = new SplittableRandom();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private volatile TokenBucket quota;
+    private volatile double quotaRate;
+
+    private LogaltyStandInServer(StandInBehavior behavior) {
+        this.behavior = behavior;
+        TransportProperties paths = new TransportProperties();
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> {
+                    paths.getServicePaths().values().stream().distinct()
+                            .forEach(path -> routes.post(path, this::soap));
+                    rest(routes);
+                })
+                .bindNow();
+        log.info("Logalty stand-in listening on {}", baseUrl());
+    }
+
+    public static LogaltyStandInServer start(StandInBehavior behavior) {
+        return new LogaltyStandInServer(behavior);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    /**
+     * Transport settings pointing {@code SoapHttpTransport} at this server.
+     */
+    public TransportProperties transportProperties() {
+        TransportProperties properties = new TransportProperties();
+        properties.setEndpoint(baseUrl());
+        return properties;
+    }
+
+    public StandInBehavior behavior() {
+        return behavior;
+    }
+
+    /**
+     * Requests received so far for an operation key: a SOAP {@link Operation} name or one of
+     * the REST keys ({@code OAUTH_TOKEN}, {@code CREATE_ENVELOPE}, ...).
+     */
+    public long requestCount(String operation) {
+        LongAdder count = requestCounts.get(operation);
+        return count != null ? count.sum() : 0;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> soap(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asString()
+                .defaultIfEmpty("")
+                .flatMap(body -> {
+                    Operation operation = operationOf(body);
+                    return serve(operation.name(), response, () -> {
+                        if (random.nextDouble() < behavior.getErrorRate()) {
+                            return soapFault(response, "Stand-in injected failure");
+                        }
+                        boolean accepted = random.nextDouble() >= behavior.getRejectionRate();
+                        String document = StandInResponses.responseFor(operation, accepted, behavior.getBinaryPayloadBytes());
+                        return response.header("Content-Type", "text/xml; charset=utf-8")
+                                .sendString(Mono.just(envelope(document)))
+                                .then();
+                    });
+                });
+    }
+
+    private void rest(HttpServerRoutes routes) {
+        routes.post("/oauth/token", (req, res) -> json(req, res, "OAUTH_TOKEN",
+                (params, body) -> "{\"access_token\":\"" + UUID.randomUUID() + "\",\"expires_in\":3600}"));
+        routes.post("/api/{version}/signature-requests", (req, res) -> json(req, res, "CREATE_ENVELOPE",
+                (params, body) -> "{\"id\":\"" + UUID.randomUUID() + "\"}"));
+        routes.get("/api/{version}/signature-requests/{id}/signing-url", (req, res) -> json(req, res, "GET_SIGNING_URL",
+                (params, body) -> "{\"signingUrl\":\"" + baseUrl() + "/sign/" + params.get("id") + "\"}"));
+        routes.get("/api/{version}/signature-requests/{id}", (req, res) -> json(req, res, "GET_ENVELOPE",
+                (params, body) -> "{\"id\":\"" + params.get("id") + "\",\"title\":\"Stand-in envelope\","
+                        + "\"message\":\"Generated by the Logalty stand-in\",\"status\":\"SENT\","
+                        + "\"createdAt\":\"" + Instant.now() + "\"}"));
+        routes.post("/api/{version}/signature-requests/{id}/send", (req, res) -> json(req, res, "SEND_ENVELOPE",
+                (params, body) -> "{}"));
+        routes.post("/api/{version}/signature-requests/{id}/resend", (req, res) -> json(req, res, "RESEND_ENVELOPE",
+                (params, body) -> ""));
+        routes.post("/api/{version}/signature-requests/{id}/archive", (req, res) -> json(req, res, "ARCHIVE_ENVELOPE",
+                (params, body) -> "{}"));
+    }
+
+    private Publisher<Void> json(HttpServerRequest request,
+                                 HttpServerResponse response,
+                                 String operation,
+                                 BiFunction<Map<String, String>, String, String> handler) {
+        return request.receive().aggregate().asString()
+                .defaultIfEmpty("")
+                .flatMap(body -> serve(operation, response, () -> {
+                    if (random.nextDouble() < behavior.getErrorRate()) {
+                        return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then();
+                    }
+                    Map<String, String> params = request.params() != null ? request.params() : Map.of();
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just(handler.apply(params, body)))
+                            .then();
+                }));
+    }
+
+    /**
+     * Common path of every endpoint: count, enforce the quota, then answer after the sampled
+     * service time.
+     */
+    private Mono<Void> serve(String operation, HttpServerResponse response, Supplier<Mono<Void>> answer) {
+        requestCounts.computeIfAbsent(operation, k -> new LongAdder()).increment();
+        if (!withinQuota()) {
+            return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .send()
+                    .then();
+        }
+        Duration latency = behavior.getLatency().sample(random);
+        Mono<Void> reply = Mono.defer(answer);
+        return latency.isZero() || latency.isNegative() ? reply : Mono.delay(latency).then(reply);
+    }
+
+    private boolean withinQuota() {
+        double rate = behavior.getQuotaPerSecond();
+        if (rate <= 0) {
+            return true;
+        }
+        TokenBucket bucket = quota;
+        if (bucket == null || rate != quotaRate) {
+            synchronized (this) {
+                if (quota == null || rate != quotaRate) {
+                    long capacity = Math.max(1, (long) Math.ceil(rate));
+                    quota = new TokenBucket(capacity, capacity, Duration.ofSeconds(1).toNanos(), System.nanoTime());
+                    quotaRate = rate;
+                }
+                bucket = quota;
+            }
+        }
+        return bucket.reserve(System.nanoTime(), 0) == 0;
+    }
+
+    private static Mono<Void> soapFault(HttpServerResponse response, String reason) {
+        String fault = "<soapenv:Envelope xmlns:soapenv=\"" + SOAP_NS + "\"><soapenv:Body><soapenv:Fault>"
+                + "<faultcode>soapenv:Server</faultcode><faultstring>" + reason + "</faultstring>"
+                + "</soapenv:Fault></soapenv:Body></soapenv:Envelope>";
+        return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .sendString(Mono.just(fault))
+                .then();
+    }
+
+    private static String envelope(String document) {
+        return "<soapenv:Envelope xmlns:soapenv=\"" + SOAP_NS + "\"><soapenv:Body>"
+                + document
+                + "</soapenv:Body></soapenv:Envelope>";
+    }
+
+    /**
+     * All services share one {@code processDocument} action, so the operation is told apart by
+     * the root element of the request document inside the SOAP body.
+     */
+    static Operation operationOf(String soapRequest) {
+        String root = requestRoot(soapRequest).toLowerCase(Locale.ROOT);
+        if (root.contains("cancel")) {
+            return Operation.CANCEL_REQUEST_OPERATION;
+        } else if (root.contains("certificate")) {
+            return Operation.CERTIFICATE_REQUEST_OPERATION;
+        } else if (root.contains("binary")) {
+            return Operation.SIGNED_BINARY_OPERATION;
+        } else if (root.contains("state")) {
+            return Operation.STATES_EXTERNAL_ID_OPERATION;
+        }
+        return Operation.INCOMING_OPERATION;
+    }
+
+    private static String requestRoot(String soapRequest) {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            XMLStreamReader reader = factory.createXMLStreamReader(new StringReader(soapRequest));
+            try {
+                boolean inBody = false;
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        if (inBody) {
+                            return reader.getLocalName();
+                        }
+                        inBody = SOAP_NS.equals(reader.getNamespaceURI()) && "Body".equals(reader.getLocalName());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            log.debug("Unparseable stand-in request: {}", e.getMessage());
+        }
+        return "";
+    }
+}
@@ -0,0 +1,119 @@
+package com.firefly.ecm.adapter.logalty.standin;
+
+import com.firefly.ecm.adapter.logalty.content.ContentSource;
+import com.firefly.ecm.adapter.logalty.content.ContentSources;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.transport.SoapHttpTransport;
+import com.logalty.constant.IncomingServiceResponseCode;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.sdk.webservice.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogaltyStandInServerTest {
+
+    private static final String INCOMING_REQUEST =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?><pt:request xmlns:pt=\"urn:logalty:schemas:core:1.0\"/>";
+
+    private LogaltyStandInServer server;
+    private SoapHttpTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        server = LogaltyStandInServer.start(new StandInBehavior());
+        transport = new SoapHttpTransport(server.transportProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void incoming_returnsAcceptedResponseDocument() throws Exception {
+        String response = transport.post(Operation.INCOMING_OPERATION, INCOMING_REQUEST, null);
+
+        ResponseDocument document = ResponseDocument.Factory.parse(response);
+        assertEquals(IncomingServiceResponseCode.DOCUMENT_ACCEPTED,
+                IncomingServiceResponseCode.getByCode(document.getResponse().getResult().getMain()));
+        assertEquals(1, server.requestCount(Operation.INCOMING_OPERATION.name()));
+    }
+
+    @Test
+    void incomingUtf8_returnsAcceptedResponseDocumentInAPooledBuffer() throws Exception {
+        ContentSource request = ContentSources.utf8(INCOMING_REQUEST);
+
+        ContentSource response = transport.postUtf8(Operation.INCOMING_OPERATION, request, null);
+        try (InputStream in = response.openStream()) {
+            ResponseDocument document = ResponseDocument.Factory.parse(in);
+            assertEquals(IncomingServiceResponseCode.DOCUMENT_ACCEPTED,
+                    IncomingServiceResponseCode.getByCode(document.getResponse().getResult().getMain()));
+            assertEquals("OK", document.getResponse().getResult().getReason());
+        } finally {
+            assertTrue(response.release());
+        }
+        // The caller still owns the request
+        assertEquals(1, request.refCnt());
+        assertEquals(1, server.requestCount(Operation.INCOMING_OPERATION.name()));
+    }
+
+    @Test
+    void quotaExceeded_surfacesAs429() {
+        server.behavior().setQuotaPerSecond(1);
+
+        transport.post(Operation.INCOMING_OPERATION, INCOMING_REQUEST, null);
+        LogaltyCallException ex = assertThrows(LogaltyCallException.class,
+                () -> transport.post(Operation.INCOMING_OPERATION, INCOMING_REQUEST, null));
+
+        assertEquals("429", ex.getCode());
+        assertEquals("QUOTA_EXCEEDED", ex.getReason());
+    }
+
+    @Test
+    void injectedError_surfacesAsSoapFault() {
+        server.behavior().setErrorRate(1.0);
+
+        LogaltyCallException ex = assertThrows(LogaltyCallException.class,
+                () -> transport.post(Operation.INCOMING_OPERATION, INCOMING_REQUEST, null));
+
+        assertEquals("500", ex.getCode());
+        assertEquals("Stand-in injected failure", ex.getReason());
+    }
+
+    @Test
+    void operationOf_dispatchesOnRequestRoot() {
+        assertEquals(Operation.CANCEL_REQUEST_OPERATION,
+                LogaltyStandInServer.operationOf(soap("<up:cancelRequest xmlns:up=\"urn:example\"/>")));
+        assertEquals(Operation.STATES_EXTERNAL_ID_OPERATION,
+                LogaltyStandInServer.operationOf(soap("<pd:dataStateExternalIdRequest xmlns:pd=\"urn:example\"/>")));
+        assertEquals(Operation.INCOMING_OPERATION,
+                LogaltyStandInServer.operationOf(soap("<pt:request xmlns:pt=\"urn:logalty:schemas:core:1.0\"/>")));
+    }
+
+    @Test
+    void oauthToken_returnsAccessToken() {
+        String body = HttpClient.create()
+                .post()
+                .uri(server.baseUrl() + "/oauth/token")
+                .responseContent()
+                .aggregate()
+                .asString(StandardCharsets.UTF_8)
+                .block();
+
+        assertNotNull(body);
+        assertTrue(body.contains("access_token"));
+        assertEquals(1, server.requestCount("OAUTH_TOKEN"));
+    }
+
+    private static String soap(String document) {
+        return "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>"
+                + document + "</soapenv:Body></soapenv:Envelope>";
+    }
+}
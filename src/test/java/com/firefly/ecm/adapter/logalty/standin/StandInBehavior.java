@@ -0,0 +1,26 @@
+package com.firefly.ecm.adapter.logalty.standin;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Tunable behaviour of {@link LogaltyStandInServer}. Can be changed while the server runs.
+ */
+@Getter
+@Setter
+public class StandInBehavior {
+
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+
+    // Fraction of calls answered with a SOAP fault / HTTP 500
+    private volatile double errorRate = 0.0;
+
+    // Fraction of SOAP calls answered with a well-formed response carrying a non-accepted code
+    private volatile double rejectionRate = 0.0;
+
+    // Requests per second accepted before answering HTTP 429; 0 disables the quota
+    private volatile double quotaPerSecond = 0.0;
+
+    // Size of the binary payload embedded in certificate and signed binary responses
+    private volatile int binaryPayloadBytes = 64 * 1024;
+}
@@ -0,0 +1,130 @@
+package com.firefly.ecm.adapter.logalty.standin;
+
+import com.logalty.constant.DataServiceResponseCode;
+import com.logalty.constant.IncomingServiceResponseCode;
+import com.logalty.constant.UpdateServiceResponse;
+import com.logalty.schema.ptdatarequest.DataCertificateResponseDocument;
+import com.logalty.schema.ptdatarequest.DataStateExternalIdResponseDocument;
+import com.logalty.schema.ptdatarequest.SignedBinaryResponseDocument;
+import com.logalty.schema.ptrequest.ResponseDocument;
+import com.logalty.schema.updaterequest.xmlbeans.CancelResponseDocument;
+import com.logalty.sdk.webservice.Operation;
+import org.apache.xmlbeans.SchemaProperty;
+import org.apache.xmlbeans.SchemaType;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+
+import javax.xml.namespace.QName;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Builds schema-shaped Logalty response documents from the SDK's own XmlBeans types, so the
+ * stand-in answers exactly what the adapter's parsers expect.
+ */
+final class StandInResponses {
+
+    private static final Pattern PAYLOAD_FIELD = Pattern.compile("(?i).*(binary|content|certificate|pdf|document).*");
+    private static final int MAX_DEPTH = 3;
+
+    private StandInResponses() {
+    }
+
+    static String responseFor(Operation operation, boolean accepted, int payloadBytes) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("guid", UUID.randomUUID().toString());
+        values.put("reason", accepted ? "OK" : "REJECTED_BY_STAND_IN");
+
+        return switch (operation) {
+            case CANCEL_REQUEST_OPERATION -> {
+                values.put("main", code(accepted, UpdateServiceResponse.DOCUMENT_ACCEPTED, UpdateServiceResponse.values()));
+                yield build(CancelResponseDocument.type, values, 0);
+            }
+            case CERTIFICATE_REQUEST_OPERATION -> {
+                values.put("main", code(accepted, DataServiceResponseCode.DOCUMENT_ACCEPTED, DataServiceResponseCode.values()));
+                yield build(DataCertificateResponseDocument.type, values, payloadBytes);
+            }
+            case SIGNED_BINARY_OPERATION -> {
+                values.put("main", code(accepted, DataServiceResponseCode.DOCUMENT_ACCEPTED, DataServiceResponseCode.values()));
+                yield build(SignedBinaryResponseDocument.type, values, payloadBytes);
+            }
+            case STATES_EXTERNAL_ID_OPERATION -> {
+                values.put("main", code(accepted, DataServiceResponseCode.DOCUMENT_ACCEPTED, DataServiceResponseCode.values()));
+                yield build(DataStateExternalIdResponseDocument.type, values, 0);
+            }
+            default -> {
+                values.put("main", code(accepted, IncomingServiceResponseCode.DOCUMENT_ACCEPTED, IncomingServiceResponseCode.values()));
+                yield build(ResponseDocument.type, values, 0);
+            }
+        };
+    }
+
+    /**
+     * The accepted code, or the first other code the SDK knows for a rejection. The code
+     * enums of the SDK do not share an interface, hence the reflective {@code getCode()}.
+     */
+    private static String code(boolean accepted, Enum<?> acceptedCode, Enum<?>[] all) {
+        String acceptedValue = codeOf(acceptedCode);
+        if (accepted) {
+            return acceptedValue;
+        }
+        for (Enum<?> candidate : all) {
+            String value = codeOf(candidate);
+            if (value != null && !value.equals(acceptedValue)) {
+                return value;
+            }
+        }
+        return "-1";
+    }
+
+    private static String codeOf(Enum<?> constant) {
+        try {
+            return String.valueOf(constant.getClass().getMethod("getCode").invoke(constant));
+        } catch (ReflectiveOperationException e) {
+            return constant.name();
+        }
+    }
+
+    private static String build(SchemaType documentType, Map<String, String> values, int payloadBytes) {
+        XmlObject document = XmlBeans.getContextTypeLoader().newInstance(documentType, null);
+        QName rootName = documentType.getDocumentElementName();
+        SchemaType rootType = documentType.getElementProperty(rootName).getType();
+
+        XmlCursor cursor = document.newCursor();
+        try {
+            cursor.toNextToken();
+            cursor.beginElement(rootName);
+            fill(cursor, rootType, values, payloadBytes, 0);
+        } finally {
+            cursor.dispose();
+        }
+        return document.xmlText();
+    }
+
+    /**
+     * Writes the known values and a payload of the requested size into the matching element
+     * properties of {@code type}, descending into nested complex elements such as
+     * {@code result}. Properties are visited in schema order, so the output stays valid.
+     */
+    private static void fill(XmlCursor cursor, SchemaType type, Map<String, String> values, int payloadBytes, int depth) {
+        for (SchemaProperty property : type.getElementProperties()) {
+            QName name = property.getName();
+            String localName = name.getLocalPart();
+            SchemaType childType = property.getType();
+
+            if (values.containsKey(localName)) {
+                cursor.insertElementWithText(name, values.get(localName));
+            } else if (childType.getContentType() == SchemaType.ELEMENT_CONTENT && depth < MAX_DEPTH) {
+                cursor.beginElement(name);
+                fill(cursor, childType, values, payloadBytes, depth + 1);
+                cursor.toNextToken();
+            } else if (payloadBytes > 0 && childType.isSimpleType() && PAYLOAD_FIELD.matcher(localName).matches()) {
+                cursor.insertElementWithText(name, Base64.getEncoder().encodeToString(new byte[payloadBytes]));
+            }
+        }
+    }
+}
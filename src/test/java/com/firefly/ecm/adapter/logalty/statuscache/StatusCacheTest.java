@@ -0,0 +1,154 @@
+package com.firefly.ecm.adapter.logalty.statuscache;
+
+import com.firefly.ecm.adapter.logalty.StatusCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusCacheTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private StatusCacheProperties properties;
+    private StatusCache cache;
+
+    @BeforeEach
+    void init() {
+        properties = new StatusCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Duration.ofSeconds(30));
+        properties.setTerminalTtl(Duration.ofHours(24));
+        cache = new StatusCache(properties, registry, clock::get);
+    }
+
+    @Test
+    void get_nonTerminalStatusExpiresAfterTtl() {
+        assertEquals("PENDING#1", lookup("EXT-1", "PENDING"));
+        clock.addAndGet(29 * SECOND);
+        assertEquals("PENDING#1", lookup("EXT-1", "PENDING"));
+        clock.addAndGet(2 * SECOND);
+        assertEquals("PENDING#2", lookup("EXT-1", "PENDING"));
+        assertEquals(1, registry.get("logalty.status.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void get_terminalStatusIsPinned() {
+        assertEquals("SIGNED#1", lookup("EXT-1", "SIGNED"));
+        clock.addAndGet(23 * 3600 * SECOND);
+        assertEquals("SIGNED#1", lookup("EXT-1", "SIGNED"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_concurrentLookupsShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("t", "EXT-1", () -> {
+                started.countDown();
+                await(release);
+                return "PENDING#" + calls.incrementAndGet();
+            }, s -> false));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<String>> others = List.of(
+                    executor.submit(() -> lookup("EXT-1", "PENDING")),
+                    executor.submit(() -> lookup("EXT-1", "PENDING")));
+            // Let the followers reach the in-flight call before it completes
+            while (registry.find("logalty.status.cache.requests").tag("result", "shared").counter() == null
+                    || registry.get("logalty.status.cache.requests").tag("result", "shared").counter().count() < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("PENDING#1", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> other : others) {
+                assertEquals("PENDING#1", other.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_failuresAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.get("t", "EXT-1", () -> {
+            throw new IllegalStateException("Logalty unavailable");
+        }, s -> false));
+        assertEquals("PENDING#1", lookup("EXT-1", "PENDING"));
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedBeyondMaxEntries() {
+        properties.setMaxEntries(2);
+        lookup("A", "PENDING");
+        lookup("B", "PENDING");
+        lookup("A", "PENDING");
+        lookup("C", "PENDING");
+
+        assertEquals(2, cache.size());
+        assertEquals(3, calls.get());
+        lookup("B", "PENDING");
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        lookup("EXT-1", "SIGNED");
+        cache.invalidate("t", "EXT-1");
+        lookup("EXT-1", "SIGNED");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void disabled_alwaysCalls() {
+        properties.setEnabled(false);
+        lookup("EXT-1", "SIGNED");
+        lookup("EXT-1", "SIGNED");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void classifier_readsStateElementOfResponse() throws Exception {
+        properties.setTerminalStates(List.of("SIGNED", "CANCELLED"));
+        TerminalStateClassifier classifier = new TerminalStateClassifier(properties);
+
+        assertTrue(classifier.isTerminal(XmlObject.Factory.parse(
+                "<response xmlns='urn:test'><main>0</main><result><state> signed </state></result></response>")));
+        assertFalse(classifier.isTerminal(XmlObject.Factory.parse(
+                "<response><result><state>PENDING</state></result></response>")));
+        assertFalse(classifier.isTerminal(XmlObject.Factory.parse("<response><main>0</main></response>")));
+
+        properties.setTerminalStates(List.of());
+        assertFalse(classifier.isTerminal(XmlObject.Factory.parse("<response><state>SIGNED</state></response>")));
+    }
+
+    private String lookup(String externalId, String state) {
+        return cache.get("t", externalId, () -> state + "#" + calls.incrementAndGet(), s -> s.startsWith("SIGNED"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.firefly.ecm.adapter.logalty.tenant;
+
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.logalty.interfaces.XmlSignInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TenantSignerRegistryTest {
+
+    private final XmlSignInterface defaultSigner = mock(XmlSignInterface.class);
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private TenantProperties properties;
+    private TenantSignerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TenantProperties();
+        properties.setMaxCachedTenants(2);
+        for (String tenant : List.of("acme", "globex", "initech")) {
+            properties.getTenants().put(tenant, tenant(tenant + ".pfx"));
+        }
+        registry = new TenantSignerRegistry(properties, defaultSigner, tenant -> {
+            loads.computeIfAbsent(tenant.getCertPath(), path -> new AtomicInteger()).incrementAndGet();
+            return mock(XmlSignInterface.class);
+        });
+    }
+
+    @Test
+    void signerFor_defaultTenant_usesTheDefaultSigner() {
+        assertSame(defaultSigner, registry.signerFor(TenantContext.DEFAULT_TENANT));
+        assertSame(defaultSigner, registry.signerFor(null));
+        assertTrue(loads.isEmpty());
+        assertEquals(0, registry.cachedSigners());
+    }
+
+    @Test
+    void signerFor_loadsEachTenantOnFirstUseOnly() {
+        assertEquals(0, registry.cachedSigners());
+
+        XmlSignInterface acme = registry.signerFor("acme");
+        assertSame(acme, registry.signerFor("acme"));
+
+        assertEquals(1, loads.get("acme.pfx").get());
+        assertNull(loads.get("globex.pfx"));
+        assertEquals(1, registry.cachedSigners());
+    }
+
+    @Test
+    void signerFor_keepsTenantsApart() {
+        XmlSignInterface acme = registry.signerFor("acme");
+        XmlSignInterface globex = registry.signerFor("globex");
+
+        assertNotSame(acme, globex);
+        assertNotSame(defaultSigner, acme);
+        assertSame(acme, registry.signerFor("acme"));
+        assertSame(globex, registry.signerFor("globex"));
+    }
+
+    @Test
+    void signerFor_evictsTheLeastRecentlyUsedTenant() {
+        registry.signerFor("acme");
+        registry.signerFor("globex");
+        registry.signerFor("acme");
+        registry.signerFor("initech");
+
+        assertEquals(2, registry.cachedSigners());
+        registry.signerFor("acme");
+        assertEquals(1, loads.get("acme.pfx").get());
+        registry.signerFor("globex");
+        assertEquals(2, loads.get("globex.pfx").get());
+    }
+
+    @Test
+    void signerFor_concurrentFirstUse_loadsOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Callable<XmlSignInterface> call = () -> {
+                start.await();
+                return registry.signerFor("acme");
+            };
+            List<Future<XmlSignInterface>> results = IntStream.range(0, 16)
+                    .mapToObj(i -> executor.submit(call))
+                    .toList();
+            start.countDown();
+
+            XmlSignInterface first = results.get(0).get();
+            for (Future<XmlSignInterface> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get("acme.pfx").get());
+    }
+
+    @Test
+    void signerFor_unknownTenant_fails() {
+        LogaltyCallException e = assertThrows(LogaltyCallException.class, () -> registry.signerFor("umbrella"));
+        assertTrue(e.getMessage().contains("umbrella"));
+    }
+
+    @Test
+    void signerFor_failedLoad_isNotCached() {
+        AtomicInteger attempts = new AtomicInteger();
+        TenantSignerRegistry failing = new TenantSignerRegistry(properties, defaultSigner, tenant -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("bad pin");
+            }
+            return mock(XmlSignInterface.class);
+        });
+
+        LogaltyCallException e = assertThrows(LogaltyCallException.class, () -> failing.signerFor("acme"));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(0, failing.cachedSigners());
+
+        assertNotNull(failing.signerFor("acme"));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void replaceSignerAndInvalidate_affectOnlyThatTenant() {
+        XmlSignInterface globex = registry.signerFor("globex");
+        XmlSignInterface rotated = mock(XmlSignInterface.class);
+
+        registry.replaceSigner("acme", rotated);
+        assertSame(rotated, registry.signerFor("acme"));
+        assertNull(loads.get("acme.pfx"));
+
+        registry.invalidate("acme");
+        assertNotSame(rotated, registry.signerFor("acme"));
+        assertEquals(1, loads.get("acme.pfx").get());
+        assertSame(globex, registry.signerFor("globex"));
+
+        XmlSignInterface newDefault = mock(XmlSignInterface.class);
+        registry.replaceSigner(TenantContext.DEFAULT_TENANT, newDefault);
+        assertSame(newDefault, registry.signerFor(null));
+    }
+
+    private static TenantProperties.Tenant tenant(String certPath) {
+        TenantProperties.Tenant tenant = new TenantProperties.Tenant();
+        tenant.setCertPath(certPath);
+        tenant.setCertPin("secret");
+        tenant.setClientId(certPath.replace(".pfx", "-client"));
+        tenant.setClientSecret("client-secret");
+        return tenant;
+    }
+}
@@ -0,0 +1,95 @@
+package com.firefly.ecm.adapter.logalty.tenant;
+
+import com.firefly.ecm.adapter.logalty.LogaltyAdapterProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantTokenCacheTest {
+
+    private TenantProperties tenantProperties;
+    private TenantTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        LogaltyAdapterProperties adapterProperties = new LogaltyAdapterProperties();
+        adapterProperties.setClientId("default-client");
+        adapterProperties.setClientSecret("default-secret");
+
+        tenantProperties = new TenantProperties();
+        tenantProperties.setMaxCachedTenants(2);
+        TenantProperties.Tenant acme = new TenantProperties.Tenant();
+        acme.setClientId("acme-client");
+        acme.setClientSecret("acme-secret");
+        tenantProperties.getTenants().put("acme", acme);
+        tenantProperties.getTenants().put("globex", new TenantProperties.Tenant());
+
+        cache = new TenantTokenCache(adapterProperties, tenantProperties);
+    }
+
+    @Test
+    void validToken_isReturnedUntilAMinuteBeforeExpiry() {
+        assertNull(cache.validToken("acme"));
+
+        cache.store("acme", "fresh", Instant.now().plus(Duration.ofHours(1)));
+        assertEquals("fresh", cache.validToken("acme"));
+
+        cache.store("acme", "expiring", Instant.now().plusSeconds(30));
+        assertNull(cache.validToken("acme"));
+
+        cache.store("acme", "expired", Instant.now().minusSeconds(1));
+        assertNull(cache.validToken("acme"));
+    }
+
+    @Test
+    void store_refreshedToken_replacesThePreviousOne() {
+        cache.store("acme", "first", Instant.now().plusSeconds(30));
+        assertNull(cache.validToken("acme"));
+
+        cache.store("acme", "second", Instant.now().plus(Duration.ofHours(1)));
+        assertEquals("second", cache.validToken("acme"));
+    }
+
+    @Test
+    void validToken_isKeptPerTenant() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        cache.store("acme", "acme-token", expiresAt);
+        cache.store(TenantContext.DEFAULT_TENANT, "default-token", expiresAt);
+
+        assertEquals("acme-token", cache.validToken("acme"));
+        assertEquals("default-token", cache.validToken(TenantContext.DEFAULT_TENANT));
+        assertNull(cache.validToken("globex"));
+    }
+
+    @Test
+    void store_evictsTheLeastRecentlyUsedTenant() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        cache.store("acme", "acme-token", expiresAt);
+        cache.store("globex", "globex-token", expiresAt);
+        cache.validToken("acme");
+        cache.store("initech", "initech-token", expiresAt);
+
+        assertEquals("acme-token", cache.validToken("acme"));
+        assertEquals("initech-token", cache.validToken("initech"));
+        assertNull(cache.validToken("globex"));
+    }
+
+    @Test
+    void credentialsFor_resolvesDefaultAndTenantCredentials() {
+        assertEquals(new TenantTokenCache.Credentials("default-client", "default-secret"),
+                cache.credentialsFor(TenantContext.DEFAULT_TENANT));
+        assertEquals(new TenantTokenCache.Credentials("default-client", "default-secret"),
+                cache.credentialsFor(null));
+        assertEquals(new TenantTokenCache.Credentials("acme-client", "acme-secret"),
+                cache.credentialsFor("acme"));
+
+        assertThrows(LogaltyCallException.class, () -> cache.credentialsFor("globex"));
+        assertThrows(LogaltyCallException.class, () -> cache.credentialsFor("umbrella"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.firefly.ecm.adapter.logalty.validation;
+
+import com.firefly.core.ecm.domain.model.esignature.SignatureRequest;
+import com.firefly.ecm.adapter.logalty.FlightRecorderProperties;
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.ValidationProperties;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.RequestValidationException;
+import com.firefly.ecm.adapter.logalty.flightrecorder.LogaltyFlightRecorder;
+import com.firefly.ecm.adapter.logalty.mappers.SignatureMapper;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.firefly.ecm.adapter.logalty.transport.LogaltyTransport;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptrequest.BinarycontentsDocument.Binarycontents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.xmlbeans.XmlInt;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class RequestValidatorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ValidationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ValidationProperties();
+        properties.setEnabled(true);
+        properties.setWsdlResource("");
+        properties.setRejectEmptyValues(true);
+    }
+
+    @Test
+    void validate_disabled_acceptsAnything() throws Exception {
+        properties.setEnabled(false);
+
+        new RequestValidator(properties, registry).validate("request_meta", XmlInt.Factory.parse("<xml-fragment>abc</xml-fragment>"));
+    }
+
+    @Test
+    void validate_reportsSchemaErrors() throws Exception {
+        RequestValidator validator = new RequestValidator(properties, registry);
+
+        RequestValidationException e = assertThrows(RequestValidationException.class,
+                () -> validator.validate("request_meta", XmlInt.Factory.parse("<xml-fragment>abc</xml-fragment>")));
+
+        assertEquals("INVALID_REQUEST", e.getCode());
+        assertEquals("request_meta", e.getReference());
+        assertFalse(e.getErrors().isEmpty());
+        assertEquals(1.0, registry.get("logalty.validation.rejected").tag("part", "request_meta").counter().count());
+    }
+
+    @Test
+    void validate_reportsEveryEmptyValueWithItsPath() throws Exception {
+        XmlObject receiver = XmlObject.Factory.parse(
+                "<receiver id=''><name>Ana</name><contact><email/><phone> </phone></contact></receiver>");
+
+        RequestValidationException e = assertThrows(RequestValidationException.class,
+                () -> new RequestValidator(properties, registry).validate("process_meta", receiver));
+
+        assertEquals(List.of(
+                "receiver/@id: empty value",
+                "receiver/contact/email: empty value",
+                "receiver/contact/phone: empty value"), e.getErrors());
+    }
+
+    @Test
+    void validate_capsListedErrors() throws Exception {
+        properties.setMaxErrors(1);
+        XmlObject receiver = XmlObject.Factory.parse("<receiver><name/><email/><phone/></receiver>");
+
+        RequestValidationException e = assertThrows(RequestValidationException.class,
+                () -> new RequestValidator(properties, registry).validate("process_meta", receiver));
+
+        assertEquals(List.of("receiver/name: empty value", "... and 2 more"), e.getErrors());
+    }
+
+    @Test
+    void validate_acceptsCompleteRequest() throws Exception {
+        XmlObject receiver = XmlObject.Factory.parse("<receiver id='1'><name>Ana</name><email>ana@example.com</email></receiver>");
+
+        assertDoesNotThrow(() -> new RequestValidator(properties, registry).validate("process_meta", receiver));
+    }
+
+    @Test
+    void validate_generatedParts_ofAMappedSigner_areAccepted() throws IOException {
+        LogaltyCommonService service = LogaltyFixtures.commonService(new SignatureProperties(), mock(XmlSignInterface.class));
+        RequestValidator validator = new RequestValidator(properties, registry);
+        // Second name, telephone and identity document are written as "" by the mapper
+        List<ReceiverDTO> receivers = SignatureMapper.toReceiverDTOs(List.of(SignatureRequest.builder()
+                .signerId(UUID.randomUUID())
+                .signerName("Ana")
+                .signerEmail("ana@example.com")
+                .build()));
+
+        assertDoesNotThrow(() -> validator.validate("request_meta", service.generateRequestMeta(3, false)));
+        assertDoesNotThrow(() -> validator.validate("process_meta", service.generateProcessMeta(receivers)));
+        assertDoesNotThrow(() -> validator.validate("binarycontents", service.createBinaryContents(List.of(document()))));
+        assertTrue(registry.find("logalty.validation.rejected").counters().isEmpty());
+    }
+
+    @Test
+    void validate_generatedProcessMeta_ofASignerWithoutName_isRejected() {
+        LogaltyCommonService service = LogaltyFixtures.commonService(new SignatureProperties(), mock(XmlSignInterface.class));
+        List<ReceiverDTO> receivers = SignatureMapper.toReceiverDTOs(List.of(SignatureRequest.builder()
+                .signerName("")
+                .signerEmail("ana@example.com")
+                .build()));
+
+        RequestValidationException e = assertThrows(RequestValidationException.class,
+                () -> new RequestValidator(properties, registry).validate("process_meta", service.generateProcessMeta(receivers)));
+
+        assertEquals("process_meta", e.getReference());
+        assertTrue(e.getErrors().stream().anyMatch(error -> error.endsWith(": empty value")), e.getErrors().toString());
+    }
+
+    @Test
+    void buildIncomingRequest_invalidRequest_neverReachesTheSigner() {
+        XmlSignInterface signer = mock(XmlSignInterface.class);
+        LogaltyTransport transport = mock(LogaltyTransport.class);
+        LogaltyCommonService service = new LogaltyCommonService(new SignatureProperties(),
+                new TenantSignerRegistry(new TenantProperties(), signer), transport,
+                new LogaltyFlightRecorder(new FlightRecorderProperties()),
+                LogaltyFixtures.documentPreparer(registry),
+                new RequestValidator(properties, registry));
+
+        ReceiverDTO receiver = new ReceiverDTO();
+        receiver.setReceiverId(1);
+        receiver.setGroupId(1);
+        receiver.setName("");
+
+        assertThrows(RequestValidationException.class,
+                () -> service.buildIncomingRequest(List.of(receiver), (Binarycontents) null, signer));
+        verifyNoInteractions(signer, transport);
+    }
+
+    private static BinaryContentsDTO document() throws IOException {
+        BinaryContentsDTO document = new BinaryContentsDTO();
+        try (InputStream in = RequestValidatorTest.class.getResourceAsStream("/pdf/original.pdf")) {
+            assertNotNull(in, "bundled PDF not found");
+            document.setContents(in.readAllBytes());
+        }
+        document.setBinaryContentId(1);
+        document.setGroupId(1);
+        document.setEncoding("BASE64");
+        document.setFilename("contract");
+        document.setExtension("pdf");
+        document.setType("application/pdf");
+        return document;
+    }
+}
@@ -0,0 +1,76 @@
+package com.firefly.ecm.adapter.logalty.warmup;
+
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.WarmupProperties;
+import com.firefly.ecm.adapter.logalty.tenant.TenantSignerRegistry;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.sdk.sign.XmlSigner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LogaltyWarmupTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SignatureProperties signatureProperties = new SignatureProperties();
+    private final TenantProperties tenantProperties = new TenantProperties();
+    private final WarmupProperties properties = new WarmupProperties();
+
+    @Test
+    void warmUp_runsEveryPhaseAndTheRequestedCycles() {
+        properties.setIterations(3);
+        properties.setDocumentBytes(4 * 1024);
+        XmlSignInterface signer = new XmlSigner(signatureProperties.getCertPath(), signatureProperties.getCertPin().toCharArray());
+
+        WarmupReport report = warmup(signer).warmUp();
+
+        assertEquals(List.of("providers", "schemas", "signers", "cycles"), List.copyOf(report.phases().keySet()));
+        assertEquals(3, report.cycles());
+        assertEquals(0, report.failures());
+        assertTrue(report.firstCycle().toNanos() > 0 && report.lastCycle().toNanos() > 0);
+        assertEquals(1, registry.get("logalty.warmup").tag("phase", "cycles").timer().count());
+    }
+
+    @Test
+    void warmUp_neverFailsStartup_andStopsCyclesThatCannotSucceed() {
+        TenantProperties.Tenant broken = new TenantProperties.Tenant();
+        broken.setCertPath("missing.pfx");
+        broken.setCertPin("pin");
+        tenantProperties.getTenants().put("broken", broken);
+        XmlSignInterface signer = mock(XmlSignInterface.class, invocation -> {
+            throw new IllegalStateException("Signing unavailable");
+        });
+        LogaltyWarmup warmup = new LogaltyWarmup(properties, LogaltyFixtures.commonService(signatureProperties, signer),
+                new TenantSignerRegistry(tenantProperties, signer, tenant -> {
+                    throw new IllegalStateException("Certificate not found: " + tenant.getCertPath());
+                }), tenantProperties, registry);
+
+        WarmupReport report = assertDoesNotThrow(warmup::warmUp);
+
+        assertEquals(0, report.cycles());
+        assertEquals(1, report.failures());
+        assertSame(report, warmup.lastReport());
+    }
+
+    @Test
+    void warmUp_skipsTenantSignersWhenDisabled() {
+        properties.setTenantSigners(false);
+        properties.setIterations(0);
+
+        WarmupReport report = warmup(mock(XmlSignInterface.class)).warmUp();
+
+        assertFalse(report.phases().containsKey("signers"));
+        assertEquals(0, report.failures());
+    }
+
+    private LogaltyWarmup warmup(XmlSignInterface signer) {
+        return new LogaltyWarmup(properties, LogaltyFixtures.commonService(signatureProperties, signer),
+                new TenantSignerRegistry(tenantProperties, signer), tenantProperties, registry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.OctetStreamData;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.TransformService;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Exclusive XML Canonicalization 1.0 of a request by the JDK's XML signature provider, with
+ * its {@code ds:Signature} removed first, as the enveloped-signature transform removes it.
+ */
+final class Canonical {
+
+    private Canonical() {
+    }
+
+    static String of(byte[] xml) {
+        try {
+            Document document = parse(xml);
+            NodeList signatures = document.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+            while (signatures.getLength() > 0) {
+                Node signature = signatures.item(0);
+                signature.getParentNode().removeChild(signature);
+            }
+            ByteArrayOutputStream unsigned = new ByteArrayOutputStream();
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(unsigned));
+
+            TransformService c14n = TransformService.getInstance(CanonicalizationMethod.EXCLUSIVE, "DOM");
+            c14n.init(null);
+            OctetStreamData canonical = (OctetStreamData) c14n.transform(
+                    new OctetStreamData(new ByteArrayInputStream(unsigned.toByteArray())), null);
+            return new String(canonical.getOctetStream().readAllBytes(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unable to canonicalize the request", e);
+        }
+    }
+
+    /**
+     * Prefix-independent view of a canonical request, for comparing serializers that pick
+     * different prefixes or indent: names are written as {@code {namespace}local} and
+     * whitespace-only text is dropped. Everything else is left as canonicalization wrote it.
+     */
+    static String expandedNames(String canonical) {
+        try {
+            StringBuilder out = new StringBuilder();
+            write(parse(canonical.getBytes(StandardCharsets.UTF_8)).getDocumentElement(), out);
+            return out.toString();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unparseable XML", e);
+        }
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    private static void write(Element element, StringBuilder out) {
+        String name = name(element);
+        out.append('<').append(name);
+
+        NamedNodeMap attributes = element.getAttributes();
+        List<Attr> sorted = new ArrayList<>();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+                sorted.add(attribute);
+            }
+        }
+        sorted.sort(Comparator.comparing(Canonical::name));
+        for (Attr attribute : sorted) {
+            out.append(' ').append(name(attribute)).append("=\"").append(attribute.getValue()).append('"');
+        }
+        out.append('>');
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element nested) {
+                write(nested, out);
+            } else if (child.getNodeType() == Node.TEXT_NODE && !child.getNodeValue().isBlank()) {
+                out.append(child.getNodeValue());
+            }
+        }
+        out.append("</").append(name).append('>');
+    }
+
+    private static String name(Node node) {
+        String local = node.getLocalName() != null ? node.getLocalName() : node.getNodeName();
+        return node.getNamespaceURI() == null ? local : "{" + node.getNamespaceURI() + "}" + local;
+    }
+}
@@ -0,0 +1,215 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import com.firefly.ecm.adapter.logalty.LogaltyFixtures;
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.dtos.BinaryContentsDTO;
+import com.firefly.ecm.adapter.logalty.dtos.ReceiverDTO;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.exceptions.RequestValidationException;
+import com.firefly.ecm.adapter.logalty.services.LogaltyCommonService;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import com.logalty.interfaces.XmlSignInterface;
+import com.logalty.schema.ptrequest.ProcessMetaDocument;
+import com.logalty.schema.ptrequest.RequestMetaDocument;
+import com.logalty.sdk.sign.XmlSigner;
+import com.logalty.sdk.xml.incoming.RequestDocumentBuilder;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlOptions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import javax.xml.crypto.AlgorithmMethod;
+import javax.xml.crypto.KeySelector;
+import javax.xml.crypto.KeySelectorException;
+import javax.xml.crypto.KeySelectorResult;
+import javax.xml.crypto.XMLCryptoContext;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncomingRequestWriterTest {
+
+    private final SignatureProperties signatureProperties = new SignatureProperties();
+    private final XmlSignInterface signer =
+            new XmlSigner(signatureProperties.getCertPath(), signatureProperties.getCertPin().toCharArray());
+    private final LogaltyCommonService common = LogaltyFixtures.commonService(signatureProperties, signer);
+    private final IncomingRequestWriter writer = LogaltyFixtures.requestWriter(signatureProperties, common);
+
+    @Test
+    void write_matchesTheSdkRequestWithoutItsSignature() throws Exception {
+        List<BinaryContentsDTO> documents = documents();
+        RequestMetaDocument.RequestMeta requestMeta = common.generateRequestMeta(
+                signatureProperties.getRetryProtocol(), signatureProperties.isSynchronous());
+        ProcessMetaDocument.ProcessMeta processMeta = common.generateProcessMeta(List.of(receiver()));
+
+        String signed = new RequestDocumentBuilder(requestMeta, processMeta, common.createBinaryContents(documents))
+                .buildSigned(signer);
+
+        // The SDK picks its own prefixes and may indent, so the two are compared by expanded names
+        assertEquals(Canonical.expandedNames(Canonical.of(signed.getBytes(StandardCharsets.UTF_8))),
+                Canonical.expandedNames(Canonical.of(write(requestMeta, processMeta, documents))));
+    }
+
+    @Test
+    void write_matchesGoldenFile() throws Exception {
+        byte[] xml = write(golden("request_meta.xml", RequestMetaDocument.Factory::parse).getRequestMeta(),
+                golden("process_meta.xml", ProcessMetaDocument.Factory::parse).getProcessMeta(),
+                documents());
+
+        String golden;
+        try (InputStream in = getClass().getResourceAsStream("/golden/incoming-request.c14n")) {
+            golden = new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+        }
+        assertEquals(golden, new String(xml, StandardCharsets.UTF_8));
+        // Written in canonical form: canonicalizing it again changes nothing
+        assertEquals(golden, Canonical.of(xml));
+    }
+
+    @Test
+    void writeSigned_carriesAnEnvelopedSignatureThatVerifies() throws Exception {
+        RequestMetaDocument.RequestMeta requestMeta =
+                golden("request_meta.xml", RequestMetaDocument.Factory::parse).getRequestMeta();
+        ProcessMetaDocument.ProcessMeta processMeta =
+                golden("process_meta.xml", ProcessMetaDocument.Factory::parse).getProcessMeta();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeSigned(TenantContext.DEFAULT_TENANT, requestMeta, processMeta, documents(), out);
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+        Node signature = document.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature").item(0);
+        assertSame(document.getDocumentElement(), signature.getParentNode());
+
+        DOMValidateContext context = new DOMValidateContext(new X509KeySelector(), signature);
+        XMLSignature xmlSignature = XMLSignatureFactory.getInstance("DOM").unmarshalXMLSignature(context);
+        assertTrue(xmlSignature.validate(context));
+        assertEquals(new String(write(requestMeta, processMeta, documents()), StandardCharsets.UTF_8),
+                Canonical.of(out.toByteArray()));
+    }
+
+    @Test
+    void write_streamsLargeDocumentsAcrossChunks() {
+        byte[] contents = new byte[1024 * 1024 + 7];
+        new Random(42).nextBytes(contents);
+        BinaryContentsDTO document = document(1, "large", contents);
+
+        String canonical = new String(write(List.of(receiver()), List.of(document)), StandardCharsets.UTF_8);
+
+        String encoded = Base64.getEncoder().encodeToString(contents);
+        assertTrue(canonical.contains(">" + encoded + "</pt:binarycontentitem>"));
+    }
+
+    @Test
+    void write_rejectsEmptyDocuments() {
+        BinaryContentsDTO empty = document(1, "empty", new byte[0]);
+
+        LogaltyCallException ex = assertThrows(LogaltyCallException.class,
+                () -> write(List.of(receiver()), List.of(empty)));
+        assertTrue(ex.getMessage().contains("id=1"));
+    }
+
+    @Test
+    void write_rejectsAnInvalidPartBeforeWritingAnything() throws Exception {
+        RequestMetaDocument.RequestMeta requestMeta =
+                golden("request_meta.xml", RequestMetaDocument.Factory::parse).getRequestMeta();
+        XmlCursor service = requestMeta.newCursor();
+        service.toFirstChild();
+        service.removeXml();
+        service.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        RequestValidationException ex = assertThrows(RequestValidationException.class, () -> writer.write(requestMeta,
+                golden("process_meta.xml", ProcessMetaDocument.Factory::parse).getProcessMeta(), documents(), out));
+        assertEquals("request_meta", ex.getReference());
+        assertEquals(0, out.size());
+    }
+
+    private byte[] write(List<ReceiverDTO> receivers, List<BinaryContentsDTO> documents) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(receivers, documents, out);
+        return out.toByteArray();
+    }
+
+    private byte[] write(RequestMetaDocument.RequestMeta requestMeta,
+                         ProcessMetaDocument.ProcessMeta processMeta,
+                         List<BinaryContentsDTO> documents) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(requestMeta, processMeta, documents, out);
+        return out.toByteArray();
+    }
+
+    private <T> T golden(String name, Parser<T> parser) throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/golden/" + name)) {
+            return parser.parse(in, new XmlOptions().setLoadStripWhitespace());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(InputStream in, XmlOptions options) throws Exception;
+    }
+
+    /**
+     * Takes the key of the certificate in {@code KeyInfo}; the test only checks the signature
+     * matches it, not who issued it.
+     */
+    private static final class X509KeySelector extends KeySelector {
+
+        @Override
+        public KeySelectorResult select(KeyInfo keyInfo, Purpose purpose, AlgorithmMethod method, XMLCryptoContext context)
+                throws KeySelectorException {
+            for (Object info : keyInfo.getContent()) {
+                if (info instanceof X509Data data) {
+                    for (Object item : data.getContent()) {
+                        if (item instanceof X509Certificate certificate) {
+                            return certificate::getPublicKey;
+                        }
+                    }
+                }
+            }
+            throw new KeySelectorException("No certificate in KeyInfo");
+        }
+    }
+
+    private static List<BinaryContentsDTO> documents() {
+        return List.of(
+                document(1, "contract", "Hello, Logalty!".getBytes(StandardCharsets.UTF_8)),
+                document(2, "annex", "Second document".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static BinaryContentsDTO document(int id, String filename, byte[] contents) {
+        BinaryContentsDTO document = new BinaryContentsDTO();
+        document.setBinaryContentId(id);
+        document.setGroupId(1);
+        document.setContents(contents);
+        document.setEncoding("BASE64");
+        document.setFilename(filename);
+        document.setExtension("txt");
+        document.setType("text/plain");
+        return document;
+    }
+
+    private static ReceiverDTO receiver() {
+        ReceiverDTO receiver = new ReceiverDTO();
+        receiver.setReceiverId(1);
+        receiver.setGroupId(1);
+        receiver.setName("Jane");
+        receiver.setLast1("Doe");
+        receiver.setEmail("jane.doe@example.com");
+        return receiver;
+    }
+}
@@ -0,0 +1,54 @@
+package com.firefly.ecm.adapter.logalty.xml;
+
+import com.firefly.ecm.adapter.logalty.SignatureProperties;
+import com.firefly.ecm.adapter.logalty.TenantProperties;
+import com.firefly.ecm.adapter.logalty.exceptions.LogaltyCallException;
+import com.firefly.ecm.adapter.logalty.tenant.TenantContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSignerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void signature_keepsThePreviousKeyWhenTheChangedFileDoesNotLoad() throws Exception {
+        SignatureProperties properties = new SignatureProperties();
+        Path cert = dir.resolve("signature.pfx");
+        Files.copy(Paths.get(properties.getCertPath()), cert);
+        Files.setLastModifiedTime(cert, FileTime.fromMillis(1_000));
+        properties.setCertPath(cert.toString());
+        RequestSigner signer = new RequestSigner(properties, new TenantProperties());
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest("request".getBytes(StandardCharsets.UTF_8));
+
+        byte[] before = signer.signature(TenantContext.DEFAULT_TENANT, digest);
+
+        // A half-written rotation: the file changed but is not a keystore
+        Files.write(cert, "not a keystore".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(cert, FileTime.fromMillis(2_000));
+
+        assertArrayEquals(before, signer.signature(TenantContext.DEFAULT_TENANT, digest));
+        assertArrayEquals(before, signer.signature(TenantContext.DEFAULT_TENANT, digest));
+    }
+
+    @Test
+    void signature_failsWhenNoKeyHasLoadedYet() throws Exception {
+        SignatureProperties properties = new SignatureProperties();
+        Path cert = dir.resolve("signature.pfx");
+        Files.write(cert, "not a keystore".getBytes(StandardCharsets.UTF_8));
+        properties.setCertPath(cert.toString());
+        RequestSigner signer = new RequestSigner(properties, new TenantProperties());
+
+        assertThrows(LogaltyCallException.class, () -> signer.signature(TenantContext.DEFAULT_TENANT, new byte[32]));
+    }
+}